@@ -0,0 +1,134 @@
+package com.spectrasonic.MythicEconomy.benchmarks;
+
+import com.spectrasonic.MythicEconomy.database.EconomyDataProvider;
+import com.spectrasonic.MythicEconomy.manager.EconomyManager;
+import com.spectrasonic.MythicEconomy.testing.TestEnvironment;
+
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.spectrasonic.MythicEconomy.testing.TestEnvironment.CURRENCY;
+
+/**
+ * Prueba de estrés de los bloqueos por cuenta de EconomyManager con 8 hilos.
+ *
+ * "transfer" mueve cantidades enteras entre cuentas aleatorias y "depositNearMax" suma y vuelve a quitar 1
+ * en cuentas que están a 2 del saldo máximo, de modo que los hilos compiten justo en el límite. Al terminar
+ * cada trial se comprueba que el dinero total de las cuentas de transferencia no ha cambiado y que ninguna
+ * cuenta llegó a superar el saldo máximo; si no se cumple se lanza una excepción, así que la pasada corta
+ * de mvn verify falla. Con 4 cuentas casi todas las operaciones compiten por las mismas
+ * franjas; con 1024 se mide el caso habitual de jugadores distintos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(8)
+public class AccountLockingBenchmark {
+
+    private static final double STARTING_BALANCE = 1_000_000.0;
+    private static final double HEADROOM = 2.0;
+
+    @Param({"false", "true"})
+    public boolean cache;
+
+    @Param({"4", "1024"})
+    public int accountCount;
+
+    private EconomyManager economyManager;
+    private Player[] players;
+    private Player[] cappedPlayers;
+    private double expectedTotal;
+    private double maxBalance;
+    // Veces que una cuenta se vio por encima del saldo máximo
+    private final LongAdder overflows = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        economyManager = TestEnvironment.economyManager(TestEnvironment.internalConfig(cache));
+        EconomyDataProvider provider = economyManager.getDataProvider();
+        maxBalance = economyManager.getCurrencyManager().getCurrency(CURRENCY).getMaxBalance();
+
+        UUID[] accounts = BenchmarkEnvironment.seedAccounts(provider, accountCount, STARTING_BALANCE);
+        players = new Player[accountCount];
+        cappedPlayers = new Player[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            players[i] = TestEnvironment.player(accounts[i], "Player" + i);
+
+            UUID capped = new UUID(0x4D41_5842L, i);
+            // Saldo entero para que sumar y restar 1 sea exacto en double
+            provider.setBalance(capped, Math.floor(maxBalance) - HEADROOM, CURRENCY);
+            cappedPlayers[i] = TestEnvironment.player(capped, "Capped" + i);
+
+            if (economyManager.getBalanceCache() != null) {
+                economyManager.getBalanceCache().trackPlayer(accounts[i]);
+                economyManager.getBalanceCache().trackPlayer(capped);
+            }
+        }
+        expectedTotal = totalOf(players);
+    }
+
+    @TearDown(Level.Trial)
+    public void verify() {
+        double total = totalOf(players);
+        if (total != expectedTotal) {
+            throw new IllegalStateException("El dinero total cambió: " + expectedTotal + " -> " + total);
+        }
+
+        if (overflows.sum() > 0) {
+            throw new IllegalStateException("Se superó el saldo máximo " + overflows.sum() + " veces");
+        }
+    }
+
+    private double totalOf(Player[] accounts) {
+        double total = 0.0;
+        for (Player player : accounts) {
+            total += economyManager.getBalance(player, CURRENCY);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public boolean transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(players.length);
+        int to = random.nextInt(players.length - 1);
+        if (to >= from) {
+            to++;
+        }
+        // Cantidades enteras: las sumas en double son exactas y el total se puede comparar sin tolerancia
+        return economyManager.transfer(players[from], players[to], random.nextInt(1, 11), CURRENCY);
+    }
+
+    @Benchmark
+    public boolean depositNearMax() {
+        Player player = cappedPlayers[ThreadLocalRandom.current().nextInt(cappedPlayers.length)];
+        if (!economyManager.addMoney(player, 1.0, CURRENCY)) {
+            return false;
+        }
+        if (economyManager.getBalance(player, CURRENCY) > maxBalance) {
+            overflows.increment();
+        }
+        return economyManager.removeMoney(player, 1.0, CURRENCY);
+    }
+}
@@ -0,0 +1,97 @@
+package com.spectrasonic.MythicEconomy.benchmarks;
+
+import com.spectrasonic.MythicEconomy.database.EconomyDataProvider;
+import com.spectrasonic.MythicEconomy.manager.BankManager;
+import com.spectrasonic.MythicEconomy.manager.EconomyManager;
+import com.spectrasonic.MythicEconomy.testing.TestEnvironment;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.spectrasonic.MythicEconomy.testing.TestEnvironment.CURRENCY;
+
+/**
+ * Depósitos concurrentes de 8 hilos en una sola cuenta receptora, como la de impuestos o la de una tienda.
+ *
+ * "bankDeposit" ingresa en una cuenta de sistema de BankManager y "playerDeposit" en un jugador ficticio
+ * con la caché de saldos, que es lo que se hacía antes de tener bancos: cada depósito toma el bloqueo
+ * de esa cuenta. Al terminar cada trial se comprueba que el saldo de ambas cuentas coincide con los
+ * depósitos aceptados; si no, se lanza una excepción y la pasada corta de mvn verify falla.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(8)
+public class BankDepositBenchmark {
+
+    private static final String BANK = "tax";
+    // Cuenta de jugador que hacía de banco
+    private static final UUID SINK_PLAYER = new UUID(0x5349_4E4BL, 0L);
+
+    private EconomyManager economyManager;
+    private BankManager bankManager;
+    private final LongAdder bankDeposits = new LongAdder();
+    private final LongAdder playerDeposits = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        economyManager = TestEnvironment.economyManager(TestEnvironment.internalConfig(true));
+        bankManager = economyManager.getBankManager();
+        bankManager.createBank(BANK, null);
+
+        EconomyDataProvider provider = economyManager.getDataProvider();
+        provider.setBalance(SINK_PLAYER, 0.0, CURRENCY);
+        economyManager.getBalanceCache().trackPlayer(SINK_PLAYER);
+        economyManager.getBalanceCache().loadOffline(SINK_PLAYER, CURRENCY);
+    }
+
+    @TearDown(Level.Trial)
+    public void verify() {
+        bankManager.saveBalances();
+        double bank = bankManager.getBalance(BANK, CURRENCY);
+        if (bank != bankDeposits.sum()) {
+            throw new IllegalStateException("Saldo del banco " + bank + ", depósitos " + bankDeposits.sum());
+        }
+
+        double sink = economyManager.getDataProvider().getBalance(SINK_PLAYER, CURRENCY);
+        if (sink != playerDeposits.sum()) {
+            throw new IllegalStateException("Saldo de la cuenta receptora " + sink + ", depósitos " + playerDeposits.sum());
+        }
+    }
+
+    @Benchmark
+    public boolean bankDeposit() {
+        if (!bankManager.deposit(BANK, 1.0, CURRENCY)) {
+            return false;
+        }
+        bankDeposits.increment();
+        return true;
+    }
+
+    @Benchmark
+    public boolean playerDeposit() {
+        if (!economyManager.depositNonBlocking(SINK_PLAYER, 1.0, CURRENCY)) {
+            return false;
+        }
+        playerDeposits.increment();
+        return true;
+    }
+}
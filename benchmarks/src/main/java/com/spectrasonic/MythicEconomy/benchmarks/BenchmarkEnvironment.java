@@ -0,0 +1,161 @@
+package com.spectrasonic.MythicEconomy.benchmarks;
+
+import com.spectrasonic.MythicEconomy.Main;
+import com.spectrasonic.MythicEconomy.database.EconomyDataProvider;
+import com.spectrasonic.MythicEconomy.database.MongoDBConnection;
+import com.spectrasonic.MythicEconomy.database.MongoDBEconomyProvider;
+import com.spectrasonic.MythicEconomy.database.MySQLConnection;
+import com.spectrasonic.MythicEconomy.database.MySQLEconomyProvider;
+import com.spectrasonic.MythicEconomy.testing.TestEnvironment;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.h2.jdbcx.JdbcConnectionPool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static com.spectrasonic.MythicEconomy.testing.TestEnvironment.CURRENCY;
+import static com.spectrasonic.MythicEconomy.testing.TestEnvironment.economyManager;
+import static com.spectrasonic.MythicEconomy.testing.TestEnvironment.internalConfig;
+import static com.spectrasonic.MythicEconomy.testing.TestEnvironment.mockPlugin;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Almacenamientos simulados de los benchmarks.
+ *
+ * El servidor de Bukkit, el plugin y los jugadores son los de {@link TestEnvironment}, el mismo entorno que
+ * usan los tests del plugin. MySQL se sustituye por H2 en modo MySQL y MongoDB por mongo-java-server en
+ * memoria, así que ningún benchmark necesita servicios externos salvo MongoLeaderboardBenchmark.
+ */
+final class BenchmarkEnvironment {
+
+    private BenchmarkEnvironment() {
+    }
+
+    // ========== ALMACENAMIENTO ==========
+
+    /**
+     * Proveedor sobre el almacenamiento indicado: internal, h2 o mongo
+     */
+    static StorageStandIn storage(String type) {
+        switch (type) {
+            case "internal":
+                // El proveedor interno consulta al EconomyManager el saldo inicial de las cuentas nuevas
+                return new StorageStandIn(economyManager(internalConfig(false)).getBackingProvider(), () -> { });
+            case "h2": {
+                JdbcConnectionPool pool = startH2();
+                Main plugin = mockPlugin(internalConfig(false));
+                return new StorageStandIn(new MySQLEconomyProvider(plugin, mysqlConnection(pool)), pool::dispose);
+            }
+            case "mongo": {
+                MongoServer server = new MongoServer(new MemoryBackend());
+                String connectionString = server.bindAndGetConnectionString();
+
+                YamlConfiguration config = internalConfig(false);
+                config.set("database.mongodb.connection-string", connectionString);
+                config.set("database.mongodb.database", "MythicEconomyBenchmark");
+                MongoDBConnection connection = new MongoDBConnection(mockPlugin(config));
+                if (!connection.connect()) {
+                    server.shutdownNow();
+                    throw new IllegalStateException("No se pudo conectar al MongoDB embebido en " + connectionString);
+                }
+                Main plugin = mockPlugin(config);
+                return new StorageStandIn(new MongoDBEconomyProvider(plugin, connection), () -> {
+                    connection.disconnect();
+                    server.shutdownNow();
+                });
+            }
+            default:
+                throw new IllegalArgumentException("Almacenamiento desconocido: " + type);
+        }
+    }
+
+    /**
+     * Base de datos H2 en memoria en modo MySQL con el mismo esquema que crea MySQLAsyncConnection
+     */
+    static JdbcConnectionPool startH2() {
+        JdbcConnectionPool pool = JdbcConnectionPool.create(
+                "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        pool.setMaxConnections(32);
+
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE IF NOT EXISTS player_balances (
+                        player_uuid VARCHAR(36) NOT NULL,
+                        currency_id VARCHAR(50) NOT NULL,
+                        balance DECIMAL(19,2) NOT NULL DEFAULT 0.00,
+                        last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                        PRIMARY KEY (player_uuid, currency_id),
+                        INDEX idx_currency_id (currency_id),
+                        INDEX idx_player_uuid (player_uuid)
+                    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+                    """);
+            statement.execute("""
+                    CREATE TABLE IF NOT EXISTS player_names (
+                        player_uuid VARCHAR(36) NOT NULL,
+                        player_name VARCHAR(64) NOT NULL,
+                        last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                        PRIMARY KEY (player_uuid),
+                        INDEX idx_player_name (player_name)
+                    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+                    """);
+        } catch (SQLException e) {
+            pool.dispose();
+            throw new IllegalStateException("No se pudo crear el esquema en H2", e);
+        }
+        return pool;
+    }
+
+    /**
+     * MySQLConnection falsa que entrega conexiones del pool de H2.
+     * MySQLEconomyProvider cierra la conexión tras cada operación; con el pool eso la devuelve al pool
+     */
+    static MySQLConnection mysqlConnection(JdbcConnectionPool pool) {
+        MySQLConnection connection = mock(MySQLConnection.class);
+        when(connection.isConnected()).thenReturn(true);
+        when(connection.connect()).thenReturn(true);
+        when(connection.getConnection()).thenAnswer(invocation -> pool.getConnection());
+        return connection;
+    }
+
+    /**
+     * Cuentas de prueba con UUID deterministas, nombre y saldo inicial
+     */
+    static UUID[] seedAccounts(EconomyDataProvider provider, int count, double balance) {
+        UUID[] accounts = new UUID[count];
+        for (int i = 0; i < count; i++) {
+            accounts[i] = new UUID(0x4D45L, i);
+            provider.setBalance(accounts[i], balance + i, CURRENCY);
+            provider.updatePlayerName(accounts[i], "Player" + i);
+        }
+        return accounts;
+    }
+
+    /**
+     * Proveedor de datos junto con la forma de liberar su almacenamiento
+     */
+    static final class StorageStandIn implements AutoCloseable {
+        private final EconomyDataProvider provider;
+        private final Runnable shutdown;
+
+        StorageStandIn(EconomyDataProvider provider, Runnable shutdown) {
+            this.provider = provider;
+            this.shutdown = shutdown;
+        }
+
+        EconomyDataProvider provider() {
+            return provider;
+        }
+
+        @Override
+        public void close() {
+            shutdown.run();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.spectrasonic.MythicEconomy.benchmarks;
+
+import com.spectrasonic.MythicEconomy.manager.EconomyManager;
+import com.spectrasonic.MythicEconomy.testing.TestEnvironment;
+
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.spectrasonic.MythicEconomy.testing.TestEnvironment.CURRENCY;
+
+/**
+ * Operaciones de EconomyManager tal como las llaman los comandos y Vault: evento de Bukkit,
+ * validaciones, proveedor de datos y notificación a los listeners de saldo.
+ *
+ * El EconomyManager es el real sobre el sistema interno; "cache" indica si se envuelve con la caché
+ * de saldos. Los eventos se disparan sin listeners registrados.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class EconomyManagerBenchmark {
+
+    private static final int ACCOUNTS = 256;
+
+    @Param({"false", "true"})
+    public boolean cache;
+
+    private EconomyManager economyManager;
+    private Player[] players;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        economyManager = TestEnvironment.economyManager(TestEnvironment.internalConfig(cache));
+        UUID[] accounts = BenchmarkEnvironment.seedAccounts(economyManager.getDataProvider(), ACCOUNTS, 1_000_000.0);
+
+        players = new Player[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            players[i] = TestEnvironment.player(accounts[i], "Player" + i);
+            if (economyManager.getBalanceCache() != null) {
+                economyManager.getBalanceCache().trackPlayer(accounts[i]);
+            }
+        }
+    }
+
+    private Player nextPlayer() {
+        return players[cursor++ & (ACCOUNTS - 1)];
+    }
+
+    @Benchmark
+    public double getBalance() {
+        return economyManager.getBalance(nextPlayer(), CURRENCY);
+    }
+
+    @Benchmark
+    public boolean hasEnoughMoney() {
+        return economyManager.hasEnoughMoney(nextPlayer(), 10.0, CURRENCY);
+    }
+
+    @Benchmark
+    public boolean addRemoveMoney() {
+        Player player = nextPlayer();
+        return economyManager.addMoney(player, 1.0, CURRENCY)
+                & economyManager.removeMoney(player, 1.0, CURRENCY);
+    }
+
+    @Benchmark
+    public boolean transfer() {
+        Player from = nextPlayer();
+        return economyManager.transfer(from, players[(cursor + ACCOUNTS / 2) & (ACCOUNTS - 1)], 1.0, CURRENCY);
+    }
+
+    @Benchmark
+    public String formatMoney() {
+        return economyManager.formatMoney(economyManager.getBalance(nextPlayer(), CURRENCY), CURRENCY);
+    }
+}
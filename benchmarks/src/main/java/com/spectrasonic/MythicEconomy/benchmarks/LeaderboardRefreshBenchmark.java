@@ -0,0 +1,68 @@
+package com.spectrasonic.MythicEconomy.benchmarks;
+
+import com.spectrasonic.MythicEconomy.Main;
+import com.spectrasonic.MythicEconomy.leaderboard.LeaderboardCache;
+import com.spectrasonic.MythicEconomy.manager.EconomyManager;
+import com.spectrasonic.MythicEconomy.testing.TestEnvironment;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.spectrasonic.MythicEconomy.testing.TestEnvironment.CURRENCY;
+
+/**
+ * Mantenimiento del LeaderboardCache sobre el sistema interno.
+ *
+ * "refresh" es la reconciliación completa de una moneda (consulta del top y recarga de la ventana);
+ * "balanceChange" es la actualización incremental que recibe por cada cambio de saldo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LeaderboardRefreshBenchmark {
+
+    @Param({"1000", "100000"})
+    public int accountCount;
+
+    private LeaderboardCache leaderboardCache;
+    private UUID[] accounts;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        EconomyManager economyManager = TestEnvironment.economyManager(TestEnvironment.internalConfig(false));
+        accounts = BenchmarkEnvironment.seedAccounts(economyManager.getDataProvider(), accountCount, 0.0);
+
+        // Mismos parámetros que usa MythicEconomyPlaceholders
+        leaderboardCache = new LeaderboardCache((Main) economyManager.plugin, 100, 20L);
+        leaderboardCache.start();
+    }
+
+    @Benchmark
+    public void refresh() {
+        leaderboardCache.refreshLeaderboard(CURRENCY);
+    }
+
+    @Benchmark
+    public void balanceChange() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        UUID account = accounts[random.nextInt(accounts.length)];
+        leaderboardCache.onBalanceChange(account, CURRENCY, random.nextDouble(0, accountCount * 2.0));
+    }
+}
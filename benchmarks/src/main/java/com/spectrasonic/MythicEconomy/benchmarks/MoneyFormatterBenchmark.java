@@ -0,0 +1,136 @@
+package com.spectrasonic.MythicEconomy.benchmarks;
+
+import com.spectrasonic.MythicEconomy.models.Currency;
+import com.spectrasonic.MythicEconomy.utils.MoneyFormatter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formateo de saldos: String.format frente a MoneyFormatter.
+ *
+ * "legacy*" reproduce el código anterior con String.format; "formatter*" es el camino actual.
+ * Antes de medir se comprueba que ambos producen exactamente el mismo texto para todos los valores
+ * de la muestra; si alguno difiere el benchmark falla. Con "-prof gc" se ve la diferencia de asignaciones.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MoneyFormatterBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    // true: moneda con decimales ("%.2f"); false: moneda entera ("%.0f")
+    @Param({"true", "false"})
+    public boolean decimal;
+
+    private Currency currency;
+    private double[] amounts;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        currency = new Currency("default", "monedas", "moneda", "$", decimal);
+
+        // Saldos típicos de scoreboard: de céntimos a miles de millones, con algunos negativos
+        Random random = new Random(0x4D45L);
+        amounts = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            double magnitude = Math.pow(10, random.nextDouble() * 12);
+            amounts[i] = Math.round(magnitude * 100) / 100.0 * (i % 16 == 0 ? -1 : 1);
+        }
+
+        verifyIdenticalOutput();
+    }
+
+    private void verifyIdenticalOutput() {
+        for (double amount : amounts) {
+            check(legacyFormatMoney(currency, amount), currency.formatMoney(amount), amount);
+            check(legacyFormatMoneyShort(currency, amount), currency.formatMoneyShort(amount), amount);
+            check(String.format("%,.2f", amount), MoneyFormatter.formatGrouped(amount, 2), amount);
+        }
+    }
+
+    private static void check(String expected, String actual, double amount) {
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException("Salida distinta para " + amount + ": '" + expected + "' != '" + actual + "'");
+        }
+    }
+
+    private double nextAmount() {
+        return amounts[cursor++ & (SAMPLES - 1)];
+    }
+
+    // ========== CÓDIGO ANTERIOR (String.format) ==========
+
+    private static String legacyFormatMoney(Currency currency, double amount) {
+        if (currency.isDecimal()) {
+            return currency.getSymbol() + String.format("%.2f", amount);
+        } else {
+            return currency.getSymbol() + String.format("%.0f", amount);
+        }
+    }
+
+    private static String legacyFormatMoneyShort(Currency currency, double amount) {
+        String symbol = currency.getSymbol();
+        if (amount >= 1_000_000_000_000L) {
+            return symbol + String.format("%.1fT", amount / 1_000_000_000_000.0);
+        } else if (amount >= 1_000_000_000) {
+            return symbol + String.format("%.1fB", amount / 1_000_000_000.0);
+        } else if (amount >= 1_000_000) {
+            return symbol + String.format("%.1fM", amount / 1_000_000.0);
+        } else if (amount >= 1_000) {
+            return symbol + String.format("%.1fK", amount / 1_000.0);
+        } else {
+            return legacyFormatMoney(currency, amount);
+        }
+    }
+
+    @Benchmark
+    public String legacyFormatMoney() {
+        return legacyFormatMoney(currency, nextAmount());
+    }
+
+    @Benchmark
+    public String legacyFormatMoneyShort() {
+        return legacyFormatMoneyShort(currency, nextAmount());
+    }
+
+    @Benchmark
+    public String legacyFormatGrouped() {
+        return String.format("%,.2f", nextAmount());
+    }
+
+    // ========== MONEYFORMATTER ==========
+
+    @Benchmark
+    public String formatterFormatMoney() {
+        return currency.formatMoney(nextAmount());
+    }
+
+    @Benchmark
+    public String formatterFormatMoneyShort() {
+        return currency.formatMoneyShort(nextAmount());
+    }
+
+    @Benchmark
+    public String formatterFormatGrouped() {
+        return MoneyFormatter.formatGrouped(nextAmount(), 2);
+    }
+}
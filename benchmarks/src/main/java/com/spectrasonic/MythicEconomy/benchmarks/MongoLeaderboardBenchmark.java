@@ -0,0 +1,160 @@
+package com.spectrasonic.MythicEconomy.benchmarks;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.spectrasonic.MythicEconomy.database.MongoDBConnection;
+import com.spectrasonic.MythicEconomy.database.MongoDBEconomyProvider;
+
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Top N con nombres sobre MongoDB: consultas y latencia por refresco del leaderboard.
+ *
+ * "perRowLookup" reproduce la implementación anterior de MongoDBEconomyProvider (top N y luego un find por fila);
+ * "aggregateLookup" ejecuta el pipeline con $lookup que usa ahora el proveedor.
+ * Necesita un MongoDB accesible en -Dmongodb.uri (por defecto mongodb://localhost:27017);
+ * se usa una base de datos propia que se borra al terminar.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MongoLeaderboardBenchmark {
+
+    private static final String CURRENCY = "default";
+    private static final String DATABASE = "MythicEconomyBenchmark";
+    private static final int ACCOUNTS = 10_000;
+
+    @Param({"10", "100"})
+    public int limit;
+
+    private MongoClient mongoClient;
+    private MongoDatabase database;
+    private MongoCollection<Document> collection;
+    private MongoCollection<Document> namesCollection;
+
+    // Comandos enviados al servidor, contados por el CommandListener del cliente
+    private final AtomicLong commands = new AtomicLong();
+    private long commandsAtIterationStart;
+    private long callsInIteration;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        CommandListener counter = new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                commands.incrementAndGet();
+            }
+        };
+
+        mongoClient = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(System.getProperty("mongodb.uri", "mongodb://localhost:27017")))
+                .addCommandListener(counter)
+                .build());
+        database = mongoClient.getDatabase(DATABASE);
+        database.drop();
+
+        collection = database.getCollection("player_economy");
+        namesCollection = database.getCollection("player_names");
+        collection.createIndexes(MongoDBConnection.economyIndexes());
+        namesCollection.createIndexes(MongoDBConnection.playerNameIndexes());
+
+        List<Document> accounts = new ArrayList<>(ACCOUNTS);
+        List<Document> names = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String uuid = new UUID(0x4D45L, i).toString();
+            accounts.add(new Document("uuid", uuid)
+                    .append("currencyId", CURRENCY)
+                    .append("balance", (double) ((i * 7919L) % 1_000_000))
+                    .append("lastUpdated", 0L));
+            names.add(new Document("uuid", uuid)
+                    .append("name", "Player" + i)
+                    .append("lastUpdated", 0L));
+        }
+        collection.insertMany(accounts);
+        namesCollection.insertMany(names);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.drop();
+        mongoClient.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        commandsAtIterationStart = commands.get();
+        callsInIteration = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportCommands() {
+        if (callsInIteration > 0) {
+            System.out.printf("  consultas por refresco: %.1f%n",
+                    (double) (commands.get() - commandsAtIterationStart) / callsInIteration);
+        }
+    }
+
+    // ========== IMPLEMENTACIÓN ACTUAL ==========
+
+    @Benchmark
+    public Object[][] aggregateLookup() {
+        callsInIteration++;
+        return MongoDBEconomyProvider.toTopBalancesWithNames(collection
+                .aggregate(MongoDBEconomyProvider.topBalancesWithNamesPipeline(CURRENCY, limit))
+                .into(new ArrayList<>()));
+    }
+
+    // ========== CONSULTA POR FILA ANTERIOR ==========
+
+    @Benchmark
+    public Object[][] perRowLookup() {
+        callsInIteration++;
+        List<Document> results = collection.find(Filters.eq("currencyId", CURRENCY))
+                .sort(new Document("balance", -1))
+                .limit(limit)
+                .into(new ArrayList<>());
+
+        Object[][] topBalances = new Object[results.size()][3];
+        for (int i = 0; i < results.size(); i++) {
+            Document doc = results.get(i);
+            String uuid = doc.getString("uuid");
+
+            Document nameDoc = namesCollection.find(Filters.eq("uuid", uuid)).first();
+            String playerName = nameDoc != null ? nameDoc.getString("name") : "Unknown";
+
+            topBalances[i][0] = uuid;
+            topBalances[i][1] = playerName;
+            topBalances[i][2] = doc.getDouble("balance");
+        }
+        return topBalances;
+    }
+}
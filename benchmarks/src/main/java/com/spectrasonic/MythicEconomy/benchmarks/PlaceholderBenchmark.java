@@ -0,0 +1,98 @@
+package com.spectrasonic.MythicEconomy.benchmarks;
+
+import com.spectrasonic.MythicEconomy.Main;
+import com.spectrasonic.MythicEconomy.manager.EconomyManager;
+import com.spectrasonic.MythicEconomy.placeholders.MythicEconomyPlaceholders;
+import com.spectrasonic.MythicEconomy.testing.TestEnvironment;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolución de placeholders de PlaceholderAPI tal como la piden los scoreboards y el tab.
+ *
+ * "cacheTtl" es placeholders.cache-ttl: con 0 cada petición se resuelve y formatea; con 1000 las
+ * peticiones repetidas dentro del TTL salen de la caché de resultados.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PlaceholderBenchmark {
+
+    private static final int ACCOUNTS = 256;
+
+    @Param({"0", "1000"})
+    public long cacheTtl;
+
+    private MythicEconomyPlaceholders placeholders;
+    private Player[] players;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        YamlConfiguration config = TestEnvironment.internalConfig(false);
+        config.set("placeholders.cache-ttl", cacheTtl);
+        EconomyManager economyManager = TestEnvironment.economyManager(config);
+        UUID[] accounts = BenchmarkEnvironment.seedAccounts(economyManager.getDataProvider(), ACCOUNTS, 1_000.0);
+
+        players = new Player[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            players[i] = TestEnvironment.player(accounts[i], "Player" + i);
+        }
+
+        placeholders = new MythicEconomyPlaceholders((Main) economyManager.plugin);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        placeholders.cleanup();
+    }
+
+    private Player nextPlayer() {
+        return players[cursor++ & (ACCOUNTS - 1)];
+    }
+
+    @Benchmark
+    public String money() {
+        return placeholders.onRequest(nextPlayer(), "money");
+    }
+
+    @Benchmark
+    public String moneyFormatted() {
+        return placeholders.onRequest(nextPlayer(), "money_formatted");
+    }
+
+    @Benchmark
+    public String rank() {
+        return placeholders.onRequest(nextPlayer(), "rank");
+    }
+
+    @Benchmark
+    public String topPlayer() {
+        return placeholders.onRequest(nextPlayer(), "default_top_1_player");
+    }
+
+    @Benchmark
+    public String topMoney() {
+        return placeholders.onRequest(nextPlayer(), "top_1_money");
+    }
+}
@@ -0,0 +1,156 @@
+package com.spectrasonic.MythicEconomy.benchmarks;
+
+import com.spectrasonic.MythicEconomy.database.CachingEconomyDataProvider;
+import com.spectrasonic.MythicEconomy.database.EconomyDataProvider;
+import com.spectrasonic.MythicEconomy.database.InternalEconomyProvider;
+import com.spectrasonic.MythicEconomy.database.MongoDBEconomyProvider;
+import com.spectrasonic.MythicEconomy.database.MySQLEconomyProvider;
+import com.spectrasonic.MythicEconomy.database.MySQLEconomyProviderAsync;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste del despacho de operaciones multi-moneda en EconomyManager.
+ *
+ * "cascade*" reproduce la cadena de instanceof + cast que EconomyManager hacía antes de cada llamada;
+ * "direct*" es la llamada única por la interfaz EconomyDataProvider que se usa ahora.
+ * El proveedor es el interno en memoria, así que la diferencia medida es solo la del despacho.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ProviderDispatchBenchmark {
+
+    private static final String CURRENCY = "default";
+    private static final int ACCOUNTS = 1024;
+
+    // internal: proveedor interno directo; cached: envuelto en la caché write-behind
+    @Param({"internal", "cached"})
+    public String providerType;
+
+    private EconomyDataProvider dataProvider;
+    private UUID[] accounts;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        InternalEconomyProvider internal = new InternalEconomyProvider(null, null);
+        accounts = new UUID[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts[i] = new UUID(0x4D45L, i);
+            internal.setBalance(accounts[i], 1_000_000.0, CURRENCY);
+        }
+
+        dataProvider = "cached".equals(providerType)
+                ? new CachingEconomyDataProvider(null, internal, 100L)
+                : internal;
+    }
+
+    private UUID nextAccount() {
+        return accounts[cursor++ & (ACCOUNTS - 1)];
+    }
+
+    // ========== DESPACHO DIRECTO ==========
+
+    @Benchmark
+    public double directGetBalance() {
+        return dataProvider.getBalance(nextAccount(), CURRENCY);
+    }
+
+    @Benchmark
+    public boolean directAddRemove() {
+        UUID account = nextAccount();
+        return dataProvider.addBalance(account, 1.0, CURRENCY)
+                & dataProvider.removeBalance(account, 1.0, CURRENCY);
+    }
+
+    @Benchmark
+    public boolean directHasEnough() {
+        return dataProvider.hasEnoughBalance(nextAccount(), 10.0, CURRENCY);
+    }
+
+    // ========== CADENA DE INSTANCEOF ANTERIOR ==========
+
+    @Benchmark
+    public double cascadeGetBalance() {
+        UUID account = nextAccount();
+        if (dataProvider instanceof CachingEconomyDataProvider) {
+            return dataProvider.getBalance(account, CURRENCY);
+        } else if (dataProvider instanceof InternalEconomyProvider) {
+            return ((InternalEconomyProvider) dataProvider).getBalance(account, CURRENCY);
+        } else if (dataProvider instanceof MongoDBEconomyProvider) {
+            return ((MongoDBEconomyProvider) dataProvider).getBalance(account, CURRENCY);
+        } else if (dataProvider instanceof MySQLEconomyProvider) {
+            return ((MySQLEconomyProvider) dataProvider).getBalance(account, CURRENCY);
+        } else if (dataProvider instanceof MySQLEconomyProviderAsync) {
+            return ((MySQLEconomyProviderAsync) dataProvider).getBalance(account, CURRENCY);
+        }
+        return dataProvider.getBalance(account);
+    }
+
+    @Benchmark
+    public boolean cascadeAddRemove() {
+        UUID account = nextAccount();
+        return cascadeAdd(account, 1.0) & cascadeRemove(account, 1.0);
+    }
+
+    @Benchmark
+    public boolean cascadeHasEnough() {
+        UUID account = nextAccount();
+        if (dataProvider instanceof CachingEconomyDataProvider) {
+            return dataProvider.hasEnoughBalance(account, 10.0, CURRENCY);
+        } else if (dataProvider instanceof InternalEconomyProvider) {
+            return ((InternalEconomyProvider) dataProvider).hasEnoughBalance(account, 10.0, CURRENCY);
+        } else if (dataProvider instanceof MongoDBEconomyProvider) {
+            return ((MongoDBEconomyProvider) dataProvider).hasEnoughBalance(account, 10.0, CURRENCY);
+        } else if (dataProvider instanceof MySQLEconomyProvider) {
+            return ((MySQLEconomyProvider) dataProvider).hasEnoughBalance(account, 10.0, CURRENCY);
+        }
+        return dataProvider.hasEnoughBalance(account, 10.0);
+    }
+
+    private boolean cascadeAdd(UUID account, double amount) {
+        if (dataProvider instanceof CachingEconomyDataProvider) {
+            return dataProvider.addBalance(account, amount, CURRENCY);
+        } else if (dataProvider instanceof InternalEconomyProvider) {
+            return ((InternalEconomyProvider) dataProvider).addBalance(account, amount, CURRENCY);
+        } else if (dataProvider instanceof MongoDBEconomyProvider) {
+            return ((MongoDBEconomyProvider) dataProvider).addBalance(account, amount, CURRENCY);
+        } else if (dataProvider instanceof MySQLEconomyProvider) {
+            return ((MySQLEconomyProvider) dataProvider).addBalance(account, amount, CURRENCY);
+        } else if (dataProvider instanceof MySQLEconomyProviderAsync) {
+            return ((MySQLEconomyProviderAsync) dataProvider).addBalance(account, amount, CURRENCY);
+        }
+        return dataProvider.addBalance(account, amount);
+    }
+
+    private boolean cascadeRemove(UUID account, double amount) {
+        if (dataProvider instanceof CachingEconomyDataProvider) {
+            return dataProvider.removeBalance(account, amount, CURRENCY);
+        } else if (dataProvider instanceof InternalEconomyProvider) {
+            return ((InternalEconomyProvider) dataProvider).removeBalance(account, amount, CURRENCY);
+        } else if (dataProvider instanceof MongoDBEconomyProvider) {
+            return ((MongoDBEconomyProvider) dataProvider).removeBalance(account, amount, CURRENCY);
+        } else if (dataProvider instanceof MySQLEconomyProvider) {
+            return ((MySQLEconomyProvider) dataProvider).removeBalance(account, amount, CURRENCY);
+        }
+        return dataProvider.removeBalance(account, amount);
+    }
+}
@@ -0,0 +1,173 @@
+package com.spectrasonic.MythicEconomy.benchmarks;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Compara el resultado de la pasada corta (jmh-smoke.json) y termina con código 1 si algún benchmark
+ * empeora más de lo permitido. Solo se ejecuta si se pide con -Dbenchmarks.thresholds.skip=false.
+ *
+ * Con una línea base (el JSON de una ejecución anterior en la misma máquina) la comparación es relativa:
+ * falla el benchmark que, con los mismos parámetros, sea más lento que en la línea base por encima del factor
+ * relative.max-slowdown de smoke-thresholds.properties (3 si no está). Sin línea base se usan los límites absolutos de smoke-thresholds.properties:
+ * cada límite es Clase.método y se aplica a todas las combinaciones de parámetros, en la unidad del propio
+ * benchmark (un mínimo en los de Throughput y un máximo en los de tiempo). Dependen de la máquina en que
+ * se midieron y con una sola iteración de un segundo el ruido es grande, así que solo detectan regresiones
+ * de un orden de magnitud.
+ */
+public final class SmokeThresholdCheck {
+
+    private static final String MAX_SLOWDOWN_KEY = "relative.max-slowdown";
+    private static final double DEFAULT_MAX_SLOWDOWN = 3.0;
+
+    private SmokeThresholdCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Uso: SmokeThresholdCheck <jmh-smoke.json> <smoke-thresholds.properties> [línea base.json]");
+            System.exit(2);
+        }
+
+        Properties thresholds = new Properties();
+        try (Reader reader = Files.newBufferedReader(Path.of(args[1]), StandardCharsets.UTF_8)) {
+            thresholds.load(reader);
+        }
+        BsonArray results = readResults(Path.of(args[0]));
+
+        List<String> failures;
+        if (args.length == 3 && !args[2].isBlank()) {
+            double maxSlowdown = Double.parseDouble(
+                    thresholds.getProperty(MAX_SLOWDOWN_KEY, String.valueOf(DEFAULT_MAX_SLOWDOWN)).trim());
+            failures = checkRelative(results, readResults(Path.of(args[2])), maxSlowdown);
+        } else {
+            failures = checkAbsolute(results, thresholds);
+        }
+
+        if (!failures.isEmpty()) {
+            failures.forEach(failure -> System.err.println("[FALLO] " + failure));
+            System.err.println(failures.size() + " benchmarks fuera de los límites");
+            System.exit(1);
+        }
+    }
+
+    private static BsonArray readResults(Path file) throws IOException {
+        return BsonArray.parse(Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    private static List<String> checkRelative(BsonArray results, BsonArray baseline, double maxSlowdown) {
+        Map<String, Double> baselineScores = new HashMap<>();
+        for (BsonValue value : baseline) {
+            BsonDocument result = value.asDocument();
+            baselineScores.put(id(result), score(result));
+        }
+
+        List<String> failures = new ArrayList<>();
+        for (BsonValue value : results) {
+            BsonDocument result = value.asDocument();
+            String id = id(result);
+            Double base = baselineScores.get(id);
+            if (base == null) {
+                System.out.println("[AVISO] Sin línea base para " + id);
+                continue;
+            }
+
+            double score = score(result);
+            // Cuántas veces más lento que la línea base, sea cual sea el modo
+            double slowdown = isThroughput(result) ? base / score : score / base;
+            String label = id + ": " + format(score) + " " + unit(result) + " (línea base " + format(base)
+                    + ", x" + format(slowdown) + ", máximo x" + format(maxSlowdown) + ")";
+            if (slowdown > maxSlowdown) {
+                failures.add(label);
+            } else {
+                System.out.println("[OK] " + label);
+            }
+        }
+        return failures;
+    }
+
+    private static List<String> checkAbsolute(BsonArray results, Properties thresholds) {
+        List<String> failures = new ArrayList<>();
+        Set<String> checked = new HashSet<>();
+        for (BsonValue value : results) {
+            BsonDocument result = value.asDocument();
+            String key = shortName(result.getString("benchmark").getValue());
+            String limitValue = thresholds.getProperty(key);
+            if (limitValue == null) {
+                continue;
+            }
+            checked.add(key);
+
+            double limit = Double.parseDouble(limitValue.trim());
+            double score = score(result);
+            boolean throughput = isThroughput(result);
+
+            String label = key + params(result) + ": " + format(score) + " " + unit(result)
+                    + (throughput ? " (mínimo " : " (máximo ") + format(limit) + ")";
+            if (throughput ? score < limit : score > limit) {
+                failures.add(label);
+            } else {
+                System.out.println("[OK] " + label);
+            }
+        }
+
+        for (String key : thresholds.stringPropertyNames()) {
+            if (!checked.contains(key) && !key.equals(MAX_SLOWDOWN_KEY)) {
+                System.out.println("[AVISO] Sin resultado para el límite " + key);
+            }
+        }
+        return failures;
+    }
+
+    private static String id(BsonDocument result) {
+        return shortName(result.getString("benchmark").getValue()) + params(result);
+    }
+
+    private static double score(BsonDocument result) {
+        return result.getDocument("primaryMetric").getNumber("score").doubleValue();
+    }
+
+    private static String unit(BsonDocument result) {
+        return result.getDocument("primaryMetric").getString("scoreUnit").getValue();
+    }
+
+    private static boolean isThroughput(BsonDocument result) {
+        return "thrpt".equals(result.getString("mode").getValue());
+    }
+
+    // com.spectrasonic...AccountLockingBenchmark.transfer -> AccountLockingBenchmark.transfer
+    private static String shortName(String benchmark) {
+        int method = benchmark.lastIndexOf('.');
+        int type = benchmark.lastIndexOf('.', method - 1);
+        return benchmark.substring(type + 1);
+    }
+
+    private static String params(BsonDocument result) {
+        BsonDocument params = result.getDocument("params", null);
+        if (params == null || params.isEmpty()) {
+            return "";
+        }
+        List<String> values = new ArrayList<>();
+        params.forEach((name, value) -> values.add(name + "=" + value.asString().getValue()));
+        return " " + values;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
@@ -0,0 +1,85 @@
+package com.spectrasonic.MythicEconomy.benchmarks;
+
+import com.spectrasonic.MythicEconomy.database.EconomyDataProvider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.spectrasonic.MythicEconomy.testing.TestEnvironment.CURRENCY;
+
+/**
+ * Operaciones básicas de cada proveedor de almacenamiento.
+ *
+ * "internal" es el sistema interno en memoria; "h2" es MySQLEconomyProvider sobre H2 en modo MySQL
+ * y "mongo" es MongoDBEconomyProvider sobre mongo-java-server. Los dos últimos no miden la red ni el
+ * motor real, pero sí el SQL/las consultas y el trabajo del proveedor, que es lo que cambia entre versiones.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class StorageProviderBenchmark {
+
+    private static final int ACCOUNTS = 1024;
+
+    @Param({"internal", "h2", "mongo"})
+    public String storage;
+
+    private BenchmarkEnvironment.StorageStandIn standIn;
+    private EconomyDataProvider provider;
+    private UUID[] accounts;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        standIn = BenchmarkEnvironment.storage(storage);
+        provider = standIn.provider();
+        accounts = BenchmarkEnvironment.seedAccounts(provider, ACCOUNTS, 1_000_000.0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        standIn.close();
+    }
+
+    private UUID nextAccount() {
+        return accounts[cursor++ & (ACCOUNTS - 1)];
+    }
+
+    @Benchmark
+    public double getBalance() {
+        return provider.getBalance(nextAccount(), CURRENCY);
+    }
+
+    @Benchmark
+    public boolean addBalance() {
+        return provider.addBalance(nextAccount(), 1.0, CURRENCY);
+    }
+
+    @Benchmark
+    public Map<String, Double> getAllBalances() {
+        return provider.getAllBalances(nextAccount());
+    }
+
+    @Benchmark
+    public Object[][] topBalancesWithNames() {
+        return provider.getTopBalancesWithNames(CURRENCY, 10);
+    }
+}
@@ -0,0 +1,97 @@
+package com.spectrasonic.MythicEconomy.benchmarks;
+
+import com.spectrasonic.MythicEconomy.database.CachingEconomyDataProvider;
+import com.spectrasonic.MythicEconomy.database.EconomyDataProvider;
+import com.spectrasonic.MythicEconomy.testing.TestEnvironment;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.spectrasonic.MythicEconomy.testing.TestEnvironment.CURRENCY;
+
+/**
+ * Transferencias entre cuentas con EconomyDataProvider.transfer.
+ *
+ * "cached" es el sistema interno envuelto en la caché write-behind, con las cuentas en memoria. Con un solo hilo se mide el
+ * coste de la transferencia; con cuatro hilos sobre pocas cuentas se mide también la contención.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TransferBenchmark {
+
+    @Param({"internal", "cached", "h2", "mongo"})
+    public String storage;
+
+    // Pocas cuentas provocan más colisiones entre hilos
+    @Param({"16", "1024"})
+    public int accountCount;
+
+    private BenchmarkEnvironment.StorageStandIn standIn;
+    private EconomyDataProvider provider;
+    private UUID[] accounts;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        boolean cached = "cached".equals(storage);
+        standIn = BenchmarkEnvironment.storage(cached ? "internal" : storage);
+        accounts = BenchmarkEnvironment.seedAccounts(standIn.provider(), accountCount, 1_000_000.0);
+
+        if (cached) {
+            // Cuentas como si sus jugadores estuvieran conectados: la transferencia se resuelve en memoria
+            CachingEconomyDataProvider caching = new CachingEconomyDataProvider(
+                    TestEnvironment.mockPlugin(TestEnvironment.internalConfig(true)), standIn.provider(), 100L);
+            for (UUID account : accounts) {
+                caching.trackPlayer(account);
+            }
+            provider = caching;
+        } else {
+            provider = standIn.provider();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        standIn.close();
+    }
+
+    private boolean randomTransfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(accounts.length);
+        int to = random.nextInt(accounts.length - 1);
+        if (to >= from) {
+            to++;
+        }
+        return provider.transfer(accounts[from], accounts[to], 1.0, CURRENCY);
+    }
+
+    @Benchmark
+    public boolean transfer() {
+        return randomTransfer();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean transferContended() {
+        return randomTransfer();
+    }
+}
@@ -1,12 +1,16 @@
 package com.spectrasonic.MythicEconomy;
 
+import com.spectrasonic.MythicEconomy.manager.BalanceChangeBatcher;
 import com.spectrasonic.MythicEconomy.manager.EconomyManager;
 import com.spectrasonic.MythicEconomy.managers.CommandManager;
 import com.spectrasonic.MythicEconomy.managers.EventManager;
 import com.spectrasonic.MythicEconomy.managers.ConfigManager;
+import com.spectrasonic.MythicEconomy.metrics.EconomyMetrics;
+import com.spectrasonic.MythicEconomy.metrics.PrometheusExporter;
 import com.spectrasonic.MythicEconomy.providers.VaultEconomyProvider;
 import com.spectrasonic.MythicEconomy.placeholders.MythicEconomyPlaceholders;
 import com.spectrasonic.MythicEconomy.listeners.PlayerJoinListener;
+import com.spectrasonic.MythicEconomy.listeners.PlayerQuitListener;
 import com.spectrasonic.MythicEconomy.utils.CommandUtils;
 import com.spectrasonic.MythicEconomy.utils.MessageUtils;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -26,6 +30,8 @@ public final class Main extends JavaPlugin {
     private ConfigManager configManager;
     private VaultEconomyProvider vaultEconomyProvider;
     private MythicEconomyPlaceholders placeholders;
+    private PrometheusExporter prometheusExporter;
+    private BalanceChangeBatcher balanceChangeBatcher;
     private boolean vaultEnabled = false;
     private boolean placeholderAPIEnabled = false;
 
@@ -39,7 +45,17 @@ public final class Main extends JavaPlugin {
         saveDefaultConfig();
         CommandAPI.onEnable();
 
-        this.economyManager = new EconomyManager(this);
+        // Antes del EconomyManager: decide si el proveedor de datos se envuelve con la medición
+        EconomyMetrics.get().configure(getConfig());
+
+        try {
+            this.economyManager = new EconomyManager(this);
+        } catch (IllegalStateException e) {
+            // Sin saldos cargados no se puede operar: se desactiva el plugin antes de registrar nada
+            getLogger().severe(e.getMessage());
+            getServer().getPluginManager().disablePlugin(this);
+            return;
+        }
         this.commandManager = new CommandManager(this);
         this.eventManager = new EventManager(this);
         this.configManager = new ConfigManager(this);
@@ -52,10 +68,15 @@ public final class Main extends JavaPlugin {
         
         // Registrar listeners
         PlayerJoinListener playerJoinListener = new PlayerJoinListener(economyManager);
-        eventManager.registerEvents(playerJoinListener);
+        PlayerQuitListener playerQuitListener = new PlayerQuitListener(economyManager);
+        eventManager.registerEvents(playerJoinListener, playerQuitListener);
 
         CommandUtils.setPlugin(this);
 
+        this.setupPrometheusExporter();
+
+        this.setupBalanceChangeBatcher();
+
         MessageUtils.sendStartupMessage(this);
         MessageUtils.sendConsoleMessage("<green>Sistema de economía inicializado correctamente.</green>");
 
@@ -81,17 +102,48 @@ public final class Main extends JavaPlugin {
             MessageUtils.sendConsoleMessage("<yellow>Placeholders de PlaceholderAPI desregistrados.</yellow>");
         }
 
+        // Entregar los últimos cambios antes de que se vuelque y cierre el proveedor
+        if (balanceChangeBatcher != null) {
+            balanceChangeBatcher.stop();
+        }
+
         // Guardar datos antes de cerrar
         if (economyManager != null) {
-            // Guardar directamente sin llamar a savePlayerData para evitar recursión
-            economyManager.getDataProvider().save();
+            // Vuelca la caché de saldos y cierra la persistencia del proveedor
+            economyManager.shutdown();
             MessageUtils.sendConsoleMessage("<yellow>Datos de economía guardados correctamente.</yellow>");
         }
 
+        if (prometheusExporter != null) {
+            prometheusExporter.stop();
+        }
+
         CommandAPI.onDisable();
         MessageUtils.sendShutdownMessage(this);
     }
 
+    // Inicia la escritura periódica de métricas en formato Prometheus si está habilitada
+    private void setupPrometheusExporter() {
+        if (!EconomyMetrics.get().isEnabled() || !getConfig().getBoolean("metrics.prometheus.enabled", true)) {
+            return;
+        }
+
+        this.prometheusExporter = new PrometheusExporter(this, EconomyMetrics.get());
+        prometheusExporter.start();
+        getLogger().info("Exportación de métricas Prometheus habilitada ("
+                + getConfig().getString("metrics.prometheus.file", "metrics.prom") + ")");
+    }
+
+    // Inicia la entrega por lotes de BalanceChangeBatchEvent si está habilitada
+    private void setupBalanceChangeBatcher() {
+        if (!getConfig().getBoolean("events.batch.enabled", true)) {
+            return;
+        }
+
+        this.balanceChangeBatcher = new BalanceChangeBatcher(this, economyManager);
+        balanceChangeBatcher.start();
+    }
+
     // Configura la integración con Vault si está disponible
     private void setupVault() {
         if (getServer().getPluginManager().getPlugin("Vault") == null) {
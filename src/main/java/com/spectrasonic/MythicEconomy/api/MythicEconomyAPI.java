@@ -1,9 +1,16 @@
 package com.spectrasonic.MythicEconomy.api;
 
+import com.spectrasonic.MythicEconomy.manager.BankManager;
 import com.spectrasonic.MythicEconomy.manager.EconomyManager;
 import com.spectrasonic.MythicEconomy.models.Currency;
 import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
 public class MythicEconomyAPI {
 
     private static MythicEconomyAPI instance;
@@ -98,19 +105,29 @@ public class MythicEconomyAPI {
     // ========== MÉTODOS DE TRANSFERENCIA ==========
 
     public boolean transferMoney(Player from, Player to, double amount) {
-        if (amount <= 0) {
-            return false;
-        }
+        return economyManager.transfer(from, to, amount);
+    }
 
-        if (!hasEnoughMoney(from, amount)) {
-            return false;
-        }
+    // ========== MÉTODOS MASIVOS ==========
 
-        if (removeMoney(from, amount)) {
-            return addMoney(to, amount);
-        }
+    /**
+     * Agrega dinero a varios jugadores con una sola operación y un único BulkMoneyAddEvent
+     * @return número de cuentas a las que se agregó dinero
+     */
+    public int addMoney(Map<UUID, Double> amounts) {
+        return economyManager.addMoney(amounts, "default");
+    }
+
+    /**
+     * Agrega la misma cantidad a todos los jugadores indicados (p. ej. Bukkit.getOnlinePlayers())
+     * @return número de cuentas a las que se agregó dinero
+     */
+    public int addMoneyToAll(Collection<? extends Player> players, double amount) {
+        return addMoneyToAll(players, amount, "default");
+    }
 
-        return false;
+    public void setBalances(Map<UUID, Double> balances) {
+        economyManager.setBalances(balances, "default");
     }
 
     // ========== MÉTODOS DE FORMATO ==========
@@ -153,6 +170,13 @@ public class MythicEconomyAPI {
         return economyManager.getBalance(player, currencyId);
     }
 
+    /**
+     * Saldos del jugador en todas las monedas habilitadas (moneda -> saldo), con una sola consulta
+     */
+    public Map<String, Double> getAllBalances(Player player) {
+        return economyManager.getAllBalances(player);
+    }
+
     public boolean setBalance(Player player, double amount, String currencyId) {
         if (amount < 0) {
             return false;
@@ -174,19 +198,23 @@ public class MythicEconomyAPI {
     }
 
     public boolean transferMoney(Player from, Player to, double amount, String currencyId) {
-        if (amount <= 0) {
-            return false;
-        }
+        return economyManager.transfer(from, to, amount, currencyId);
+    }
 
-        if (!hasEnoughMoney(from, amount, currencyId)) {
-            return false;
-        }
+    public int addMoney(Map<UUID, Double> amounts, String currencyId) {
+        return economyManager.addMoney(amounts, currencyId);
+    }
 
-        if (removeMoney(from, amount, currencyId)) {
-            return addMoney(to, amount, currencyId);
+    public int addMoneyToAll(Collection<? extends Player> players, double amount, String currencyId) {
+        List<UUID> playerUUIDs = new ArrayList<>(players.size());
+        for (Player player : players) {
+            playerUUIDs.add(player.getUniqueId());
         }
+        return economyManager.addMoneyToAll(playerUUIDs, amount, currencyId);
+    }
 
-        return false;
+    public void setBalances(Map<UUID, Double> balances, String currencyId) {
+        economyManager.setBalances(balances, currencyId);
     }
 
     public String formatMoney(double amount, String currencyId) {
@@ -208,4 +236,50 @@ public class MythicEconomyAPI {
     public boolean currencyExists(String currencyId) {
         return economyManager.getCurrencyManager().currencyExists(currencyId);
     }
-}
\ No newline at end of file
+
+    // ========== MÉTODOS DE BANCOS ==========
+    // Cuentas con nombre para impuestos, tiendas y subastas; los depósitos no bloquean aunque lleguen a miles por segundo
+
+    public boolean isBankSupportEnabled() {
+        return economyManager.getBankManager() != null;
+    }
+
+    public boolean bankExists(String bankName) {
+        BankManager bankManager = economyManager.getBankManager();
+        return bankManager != null && bankManager.hasBank(bankName);
+    }
+
+    public List<String> getBankNames() {
+        BankManager bankManager = economyManager.getBankManager();
+        return bankManager != null ? bankManager.getBankNames() : new ArrayList<>();
+    }
+
+    public double getBankBalance(String bankName, String currencyId) {
+        BankManager bankManager = economyManager.getBankManager();
+        return bankManager != null ? bankManager.getBalance(bankName, currencyId) : 0.0;
+    }
+
+    public boolean depositToBank(String bankName, double amount, String currencyId) {
+        BankManager bankManager = economyManager.getBankManager();
+        return bankManager != null && bankManager.deposit(bankName, amount, currencyId);
+    }
+
+    public boolean withdrawFromBank(String bankName, double amount, String currencyId) {
+        BankManager bankManager = economyManager.getBankManager();
+        return bankManager != null && bankManager.withdraw(bankName, amount, currencyId);
+    }
+
+    /**
+     * Cobra al jugador y abona la cantidad en el banco; si el abono falla se devuelve el dinero al jugador
+     */
+    public boolean payToBank(Player player, String bankName, double amount, String currencyId) {
+        if (!bankExists(bankName) || !economyManager.removeMoney(player, amount, currencyId)) {
+            return false;
+        }
+        if (!depositToBank(bankName, amount, currencyId)) {
+            economyManager.addMoney(player, amount, currencyId);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,59 @@
+package com.spectrasonic.MythicEconomy.api.events;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Evento asíncrono con los cambios de saldo acumulados desde el lote anterior, en el orden en que ocurrieron.
+ * Se dispara cada events.batch.interval ticks desde un hilo del scheduler, nunca desde el hilo principal,
+ * y solo mientras haya algún oyente registrado. Los cambios ya están aplicados, así que no se puede cancelar;
+ * para auditoría, estadísticas o sincronización es mucho más barato que escuchar MoneyAddEvent/MoneyRemoveEvent.
+ */
+@Getter
+public class BalanceChangeBatchEvent extends Event {
+
+    private static final HandlerList handlers = new HandlerList();
+
+    private final List<BalanceChange> changes;
+    // Cambios descartados desde el lote anterior porque la cola pendiente estaba llena
+    private final long dropped;
+
+    public BalanceChangeBatchEvent(List<BalanceChange> changes, long dropped) {
+        super(true);
+        this.changes = Collections.unmodifiableList(changes);
+        this.dropped = dropped;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return handlers;
+    }
+
+    public static HandlerList getHandlerList() {
+        return handlers;
+    }
+
+    /**
+     * Saldo resultante de una modificación
+     */
+    @Getter
+    public static class BalanceChange {
+
+        private final UUID playerUUID;
+        private final String currencyId;
+        private final double newBalance;
+        private final long timestamp;
+
+        public BalanceChange(UUID playerUUID, String currencyId, double newBalance, long timestamp) {
+            this.playerUUID = playerUUID;
+            this.currencyId = currencyId;
+            this.newBalance = newBalance;
+            this.timestamp = timestamp;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.spectrasonic.MythicEconomy.api.events;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Evento único para un pago masivo (votos, eventos, intereses...) en lugar de un MoneyAddEvent por jugador.
+ * Los oyentes pueden quitar o modificar entradas del mapa de cantidades antes de que se apliquen,
+ * o cancelar el pago completo.
+ */
+@Getter
+public class BulkMoneyAddEvent extends Event implements Cancellable {
+
+    private static final HandlerList handlers = new HandlerList();
+
+    private final String currencyId;
+    // UUID -> cantidad a agregar; mutable
+    private final Map<UUID, Double> amounts;
+    private boolean cancelled = false;
+
+    public BulkMoneyAddEvent(Map<UUID, Double> amounts, String currencyId) {
+        super(!Bukkit.isPrimaryThread());
+        this.amounts = amounts;
+        this.currencyId = currencyId;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return handlers;
+    }
+
+    public static HandlerList getHandlerList() {
+        return handlers;
+    }
+}
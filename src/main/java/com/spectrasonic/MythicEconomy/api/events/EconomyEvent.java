@@ -1,5 +1,6 @@
 package com.spectrasonic.MythicEconomy.api.events;
 
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
 import org.bukkit.event.HandlerList;
@@ -14,6 +15,8 @@ public abstract class EconomyEvent extends Event {
     protected final double newBalance;
 
     public EconomyEvent(Player player, double amount, double oldBalance, double newBalance) {
+        // Asíncrono cuando lo dispara EconomyManagerAsync desde un hilo del proveedor
+        super(!Bukkit.isPrimaryThread());
         this.player = player;
         this.amount = amount;
         this.oldBalance = oldBalance;
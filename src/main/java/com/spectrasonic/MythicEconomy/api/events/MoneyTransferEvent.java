@@ -1,5 +1,6 @@
 package com.spectrasonic.MythicEconomy.api.events;
 
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Cancellable;
 import org.bukkit.event.Event;
@@ -15,6 +16,7 @@ public class MoneyTransferEvent extends Event implements Cancellable {
     private final double amount;
 
     public MoneyTransferEvent(Player from, Player to, double amount) {
+        super(!Bukkit.isPrimaryThread());
         this.from = from;
         this.to = to;
         this.amount = amount;
@@ -9,6 +9,8 @@ import dev.jorel.commandapi.arguments.PlayerArgument;
 import dev.jorel.commandapi.arguments.StringArgument;
 import org.bukkit.entity.Player;
 
+import java.util.Map;
+
 public class BalanceCurrencyCommand {
 
     public void register() {
@@ -20,6 +22,10 @@ public class BalanceCurrencyCommand {
                     String currencyId = (String) args.get("currency");
                     showPlayerBalance(sender, sender, currencyId);
                 })
+                .withSubcommand(
+                        // /balcur all [player] - Ver el saldo en todas las monedas
+                        walletSubcommand()
+                )
                 .withSubcommand(
                         // /balcur <currency> <player> - Ver balance de otro jugador
                         new CommandAPICommand("player")
@@ -44,6 +50,7 @@ public class BalanceCurrencyCommand {
                     String currencyId = (String) args.get("currency");
                     showPlayerBalance(sender, sender, currencyId);
                 })
+                .withSubcommand(walletSubcommand())
                 .withSubcommand(
                         new CommandAPICommand("player")
                                 .withPermission("MythicEconomy.balance.currency.others")
@@ -60,6 +67,37 @@ public class BalanceCurrencyCommand {
                 .register();
     }
 
+    private CommandAPICommand walletSubcommand() {
+        return new CommandAPICommand("all")
+                .withPermission("MythicEconomy.balance.currency")
+                .withOptionalArguments(new PlayerArgument("target"))
+                .executesPlayer((sender, args) -> {
+                    Player target = (Player) args.getOptional("target").orElse(sender);
+                    if (target != sender && !sender.hasPermission("MythicEconomy.balance.currency.others")) {
+                        MessageUtils.sendMessage(sender, "<red>No tienes permiso para ver el saldo de otros jugadores.");
+                        return;
+                    }
+                    showWallet(sender, target);
+                });
+    }
+
+    // Todas las monedas habilitadas con una sola consulta al proveedor
+    private void showWallet(Player sender, Player target) {
+        CurrencyManager currencyManager = CurrencyManager.getInstance();
+        EconomyManager economyManager = EconomyManager.getInstance();
+
+        Map<String, Double> balances = economyManager.getAllBalances(target);
+
+        MessageUtils.sendMessage(sender, target == sender
+                ? "<gold>💰 Tus saldos:</gold>"
+                : "<gold>💰 Saldos de <aqua>" + target.getName() + "</aqua>:</gold>");
+        for (Map.Entry<String, Double> entry : balances.entrySet()) {
+            Currency currency = currencyManager.getCurrency(entry.getKey());
+            MessageUtils.sendMessage(sender,
+                    "<gray>• <yellow>" + currency.getName() + "</yellow>: <aqua>" + currency.formatMoney(entry.getValue()) + "</aqua>");
+        }
+    }
+
     private void showPlayerBalance(Player sender, Player target, String currencyId) {
         CurrencyManager currencyManager = CurrencyManager.getInstance();
         EconomyManager economyManager = EconomyManager.getInstance();
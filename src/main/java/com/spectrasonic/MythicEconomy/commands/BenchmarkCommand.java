@@ -1,80 +1,107 @@
 package com.spectrasonic.MythicEconomy.commands;
 
 import dev.jorel.commandapi.CommandAPICommand;
+import dev.jorel.commandapi.arguments.ArgumentSuggestions;
 import dev.jorel.commandapi.arguments.IntegerArgument;
+import dev.jorel.commandapi.arguments.StringArgument;
 
+import com.spectrasonic.MythicEconomy.database.BenchmarkSettings;
+import com.spectrasonic.MythicEconomy.database.BenchmarkTarget;
 import com.spectrasonic.MythicEconomy.database.BenchmarkTool;
 import com.spectrasonic.MythicEconomy.utils.MessageUtils;
-import com.spectrasonic.MythicEconomy.manager.EconomyManagerAsync;
 import dev.jorel.commandapi.CommandPermission;
-// Comando para ejecutar benchmarks de rendimiento del sistema económico asíncrono.
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.Arrays;
+
+// Comando para ejecutar benchmarks de carga en bucle abierto contra el sistema económico.
 
 public class BenchmarkCommand {
 
+    private static final int MAX_RATE = 100_000;
+    private static final int MAX_DURATION = 600;
+    // Acepta que las cuentas sintéticas queden guardadas en el almacenamiento
+    private static final String CONFIRM = "confirm";
+
+    private final JavaPlugin plugin;
     private final BenchmarkTool benchmarkTool;
 
-    public BenchmarkCommand() {
-        this.benchmarkTool = new BenchmarkTool(EconomyManagerAsync.getInstance().getPlugin());
+    public BenchmarkCommand(JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.benchmarkTool = new BenchmarkTool(plugin);
     }
 
     public void register() {
+        String[] targets = Arrays.stream(BenchmarkTarget.values()).map(BenchmarkTarget::getLabel)
+                .toArray(String[]::new);
+
         new CommandAPICommand("benchmark")
                 .withPermission(CommandPermission.OP)
                 .withSubcommand(
                         new CommandAPICommand("start")
                                 .withArguments(
-                                        new IntegerArgument("users", 1),
-                                        new IntegerArgument("operations", 1),
-                                        new IntegerArgument("duration", 10))
+                                        new IntegerArgument("rate", 1, MAX_RATE),
+                                        new IntegerArgument("duration", 1, MAX_DURATION))
+                                .withOptionalArguments(
+                                        new StringArgument("target")
+                                                .replaceSuggestions(ArgumentSuggestions.strings(targets)),
+                                        confirmArgument())
                                 .executes((sender, args) -> {
-                                    Integer usersObj = (Integer) args.get("users");
-                                    Integer operationsObj = (Integer) args.get("operations");
+                                    Integer rateObj = (Integer) args.get("rate");
                                     Integer durationObj = (Integer) args.get("duration");
 
-                                    if (usersObj == null || operationsObj == null || durationObj == null) {
+                                    if (rateObj == null || durationObj == null) {
                                         MessageUtils.sendMessage(sender,
                                                 "<red>Error: Argumentos inválidos en el comando.</red>");
                                         return;
                                     }
 
-                                    int users = usersObj;
-                                    int operations = operationsObj;
-                                    int duration = durationObj;
+                                    BenchmarkSettings.BenchmarkSettingsBuilder settings = BenchmarkSettings
+                                            .fromConfig(plugin.getConfig())
+                                            .rate(rateObj)
+                                            .durationSeconds(durationObj);
 
-                                    if (users > 1000) {
-                                        MessageUtils.sendMessage(sender,
-                                                "<red>Demasiados usuarios concurrentes. Máximo 1000.</red>");
-                                        return;
+                                    // "confirm" también se acepta en lugar del destino: /benchmark start 200 30 confirm
+                                    String targetLabel = (String) args.getOptional("target").orElse(null);
+                                    boolean confirmed = isConfirm(args.getOptional("confirm").orElse(null));
+                                    if (isConfirm(targetLabel)) {
+                                        confirmed = true;
+                                        targetLabel = null;
                                     }
+                                    settings.confirmed(confirmed);
 
-                                    if (operations > 10000) {
-                                        MessageUtils.sendMessage(sender,
-                                                "<red>Demasiadas operaciones por usuario. Máximo 10000.</red>");
-                                        return;
+                                    if (targetLabel != null) {
+                                        BenchmarkTarget target = BenchmarkTarget.fromLabel(targetLabel);
+                                        if (target == null) {
+                                            MessageUtils.sendMessage(sender, "<red>Destino desconocido: "
+                                                    + targetLabel + ". Usa " + String.join(", ", targets) + ".</red>");
+                                            return;
+                                        }
+                                        settings.target(target);
                                     }
 
-                                    if (duration > 300) {
-                                        MessageUtils.sendMessage(sender,
-                                                "<red>Duración demasiado larga. Máximo 300 segundos.</red>");
-                                        return;
-                                    }
-
-                                    benchmarkTool.startBenchmark(users, operations, duration);
-                                    MessageUtils.sendMessage(sender,
-                                            "<green>🚀 Benchmark iniciado: " + users + " usuarios, " +
-                                                    operations + " operaciones, " + duration + "s de duración</green>");
+                                    start(sender, settings.build());
                                 }))
                 .withSubcommand(
                         new CommandAPICommand("quick")
+                                .withOptionalArguments(confirmArgument())
                                 .executes((sender, args) -> {
-                                    benchmarkTool.quickBenchmark();
-                                    MessageUtils.sendMessage(sender, "<green>🚀 Benchmark rápido iniciado</green>");
+                                    start(sender, BenchmarkSettings.fromConfig(plugin.getConfig())
+                                            .rate(200)
+                                            .durationSeconds(30)
+                                            .confirmed(isConfirm(args.getOptional("confirm").orElse(null)))
+                                            .build());
                                 }))
                 .withSubcommand(
                         new CommandAPICommand("stress")
+                                .withOptionalArguments(confirmArgument())
                                 .executes((sender, args) -> {
-                                    benchmarkTool.stressBenchmark();
-                                    MessageUtils.sendMessage(sender, "<red>🔥 Benchmark de estrés iniciado</red>");
+                                    start(sender, BenchmarkSettings.fromConfig(plugin.getConfig())
+                                            .rate(5_000)
+                                            .durationSeconds(60)
+                                            .confirmed(isConfirm(args.getOptional("confirm").orElse(null)))
+                                            .build());
                                 }))
                 .withSubcommand(
                         new CommandAPICommand("status")
@@ -86,9 +113,31 @@ public class BenchmarkCommand {
                 .withSubcommand(
                         new CommandAPICommand("cancel")
                                 .executes((sender, args) -> {
-                                    benchmarkTool.cancelBenchmark();
-                                    MessageUtils.sendMessage(sender, "<yellow>Benchmark cancelado</yellow>");
+                                    if (benchmarkTool.cancelBenchmark()) {
+                                        MessageUtils.sendMessage(sender,
+                                                "<yellow>Benchmark cancelado; se generará el informe parcial</yellow>");
+                                    } else {
+                                        MessageUtils.sendMessage(sender, "<red>No hay benchmark en ejecución.</red>");
+                                    }
                                 }))
                 .register();
     }
-}
\ No newline at end of file
+
+    private static StringArgument confirmArgument() {
+        StringArgument argument = new StringArgument("confirm");
+        argument.replaceSuggestions(ArgumentSuggestions.strings(CONFIRM));
+        return argument;
+    }
+
+    private static boolean isConfirm(Object value) {
+        return value instanceof String text && CONFIRM.equalsIgnoreCase(text);
+    }
+
+    private void start(CommandSender sender, BenchmarkSettings settings) {
+        if (benchmarkTool.startBenchmark(settings, sender)) {
+            MessageUtils.sendMessage(sender, "<green>🚀 Benchmark iniciado: " + settings.getRate() + " ops/s durante "
+                    + settings.getDurationSeconds() + "s contra " + settings.getTarget().getLabel()
+                    + " (calentamiento de " + settings.getWarmupSeconds() + "s)</green>");
+        }
+    }
+}
@@ -316,7 +316,7 @@ public class CurrencyCommand {
             
             try {
                 com.spectrasonic.MythicEconomy.database.MySQLEconomyProvider mysqlProvider =
-                    (com.spectrasonic.MythicEconomy.database.MySQLEconomyProvider) economyManager.getDataProvider();
+                    (com.spectrasonic.MythicEconomy.database.MySQLEconomyProvider) economyManager.getBackingProvider();
                 
                 boolean exists = mysqlProvider.playerExists(target.getUniqueId(), currencyId);
                 MessageUtils.sendMessage(sender, "<gray>Existe en BD: " + (exists ? "<green>Sí</green>" : "<red>No</red>") + "</gray>");
@@ -9,16 +9,29 @@ import dev.jorel.commandapi.arguments.StringArgument;
 import dev.jorel.commandapi.arguments.IntegerArgument;
 import dev.jorel.commandapi.CommandPermission;
 import org.bukkit.entity.Player;
+import com.spectrasonic.MythicEconomy.manager.BankManager;
 import com.spectrasonic.MythicEconomy.manager.CurrencyManager;
 import com.spectrasonic.MythicEconomy.manager.EconomyManager;
+import com.spectrasonic.MythicEconomy.metrics.CacheStats;
+import com.spectrasonic.MythicEconomy.metrics.EconomyMetrics;
+import com.spectrasonic.MythicEconomy.metrics.LatencyStats;
+import com.spectrasonic.MythicEconomy.metrics.OperationTimers;
+import com.spectrasonic.MythicEconomy.models.Bank;
 import com.spectrasonic.MythicEconomy.models.Currency;
 import com.spectrasonic.MythicEconomy.utils.MessageUtils;
+import com.spectrasonic.MythicEconomy.utils.MoneyFormatter;
 import org.bukkit.command.CommandSender;
 import org.bukkit.Bukkit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 
 public class EconomyCommand {
 
+    // Series de latencia que muestra /eco metrics, ordenadas por tiempo acumulado
+    private static final int METRICS_ROWS = 10;
+
     public void register() {
         // Comando principal /economy
         new CommandAPICommand("mythiceconomy")
@@ -312,10 +325,198 @@ public class EconomyCommand {
                                 .executes((sender, args) -> {
                                     String currencyId = (String) args.get("currency");
                                     showCurrencyInfo(sender, currencyId);
-                                }))
+                                }),
+
+                        // /economy metrics [reset] - Latencias, esperas del pool y aciertos de caché
+                        new CommandAPICommand("metrics")
+                                .executes((sender, args) -> {
+                                    showMetrics(sender);
+                                })
+                                .withSubcommand(
+                                        new CommandAPICommand("reset")
+                                                .executes((sender, args) -> {
+                                                    EconomyMetrics.get().reset();
+                                                    MessageUtils.sendMessage(sender,
+                                                            "<green>Métricas reiniciadas.");
+                                                })),
+
+                        // /economy bank <list|info|create|delete|give|take> - Bancos y cuentas de sistema
+                        new CommandAPICommand("bank")
+                                .withSubcommands(
+                                        new CommandAPICommand("list")
+                                                .executes((sender, args) -> {
+                                                    listBanks(sender);
+                                                }),
+                                        new CommandAPICommand("info")
+                                                .withArguments(bankArgument())
+                                                .executes((sender, args) -> {
+                                                    showBankInfo(sender, (String) args.get("bank"));
+                                                }),
+                                        new CommandAPICommand("create")
+                                                .withArguments(new StringArgument("bank"))
+                                                .executes((sender, args) -> {
+                                                    createSystemBank(sender, (String) args.get("bank"));
+                                                }),
+                                        new CommandAPICommand("delete")
+                                                .withArguments(bankArgument())
+                                                .executes((sender, args) -> {
+                                                    deleteBank(sender, (String) args.get("bank"));
+                                                }),
+                                        new CommandAPICommand("give")
+                                                .withArguments(
+                                                        bankArgument(),
+                                                        new DoubleArgument("amount", 0.01),
+                                                        new StringArgument("currency").setOptional(true).replaceSuggestions(
+                                                                ArgumentSuggestions.strings(getCurrencySuggestions())))
+                                                .executes((sender, args) -> {
+                                                    changeBankBalance(sender, (String) args.get("bank"),
+                                                            (double) args.get("amount"), (String) args.get("currency"), true);
+                                                }),
+                                        new CommandAPICommand("take")
+                                                .withArguments(
+                                                        bankArgument(),
+                                                        new DoubleArgument("amount", 0.01),
+                                                        new StringArgument("currency").setOptional(true).replaceSuggestions(
+                                                                ArgumentSuggestions.strings(getCurrencySuggestions())))
+                                                .executes((sender, args) -> {
+                                                    changeBankBalance(sender, (String) args.get("bank"),
+                                                            (double) args.get("amount"), (String) args.get("currency"), false);
+                                                })))
                 .register();
     }
 
+    // ========== BANCOS ==========
+
+    // Los bancos se crean y eliminan en ejecución, así que las sugerencias se calculan en cada consulta
+    private StringArgument bankArgument() {
+        return (StringArgument) new StringArgument("bank").replaceSuggestions(ArgumentSuggestions.strings(info -> {
+            BankManager bankManager = EconomyManager.getInstance().getBankManager();
+            return bankManager != null ? bankManager.getBankNames().toArray(String[]::new) : new String[0];
+        }));
+    }
+
+    private BankManager requireBankManager(CommandSender sender) {
+        BankManager bankManager = EconomyManager.getInstance().getBankManager();
+        if (bankManager == null) {
+            MessageUtils.sendMessage(sender, "<red>Los bancos están deshabilitados (banks.enabled en config.yml).");
+        }
+        return bankManager;
+    }
+
+    private void listBanks(CommandSender sender) {
+        BankManager bankManager = requireBankManager(sender);
+        if (bankManager == null) {
+            return;
+        }
+
+        Currency currency = CurrencyManager.getInstance().getDefaultCurrency();
+        MessageUtils.sendMessage(sender, "<green><bold>=== BANCOS ===</bold></green>");
+        for (Bank bank : bankManager.getBanks()) {
+            String type = bank.isSystem() ? "<gold>sistema</gold>" : "<aqua>jugador</aqua>";
+            MessageUtils.sendMessage(sender,
+                    "<yellow>" + bank.getName() + "</yellow> <gray>(</gray>" + type + "<gray>)</gray> <gray>-</gray> " +
+                            "<white>" + currency.formatMoney(bankManager.getBalance(bank.getName(), currency.getId())));
+        }
+        MessageUtils.sendMessage(sender, "<gray>Total: " + bankManager.getBanks().size() + " bancos</gray>");
+    }
+
+    private void showBankInfo(CommandSender sender, String bankName) {
+        BankManager bankManager = requireBankManager(sender);
+        if (bankManager == null) {
+            return;
+        }
+
+        Bank bank = bankManager.getBank(bankName);
+        if (bank == null) {
+            MessageUtils.sendMessage(sender, "<red>No existe el banco: " + bankName);
+            return;
+        }
+
+        EconomyManager economyManager = EconomyManager.getInstance();
+        MessageUtils.sendMessage(sender, "<green><bold>=== BANCO " + bank.getName() + " ===</bold></green>");
+        MessageUtils.sendMessage(sender,
+                "<yellow>Tipo:</yellow> " + (bank.isSystem() ? "Cuenta de sistema" : "Banco de jugador"));
+        if (bank.getOwner() != null) {
+            // Del índice local, sin consultar la base de datos desde el hilo principal
+            String ownerName = economyManager.getPlayerNameIndex().getName(bank.getOwner());
+            MessageUtils.sendMessage(sender, "<yellow>Propietario:</yellow> "
+                    + (ownerName != null ? ownerName : bank.getOwner().toString()));
+        }
+        MessageUtils.sendMessage(sender, "<yellow>Miembros:</yellow> " + bank.getMembers().size());
+        for (Currency currency : CurrencyManager.getInstance().getEnabledCurrencies()) {
+            MessageUtils.sendMessage(sender, "<yellow>" + currency.getName() + ":</yellow> " +
+                    currency.formatMoney(bankManager.getBalance(bank.getName(), currency.getId())));
+        }
+    }
+
+    private void createSystemBank(CommandSender sender, String bankName) {
+        BankManager bankManager = requireBankManager(sender);
+        if (bankManager == null) {
+            return;
+        }
+
+        if (!BankManager.isValidName(bankName)) {
+            MessageUtils.sendMessage(sender,
+                    "<red>Nombre no válido: solo letras, números, _ y -, hasta 32 caracteres.");
+        } else if (bankManager.createBank(bankName, null) == null) {
+            MessageUtils.sendMessage(sender, "<red>Ya existe un banco con el nombre: " + bankName);
+        } else {
+            MessageUtils.sendMessage(sender, "<green>Cuenta de sistema <yellow>" + bankName + "</yellow> creada.");
+        }
+    }
+
+    private void deleteBank(CommandSender sender, String bankName) {
+        BankManager bankManager = requireBankManager(sender);
+        if (bankManager == null) {
+            return;
+        }
+
+        Bank bank = bankManager.getBank(bankName);
+        if (bank == null) {
+            MessageUtils.sendMessage(sender, "<red>No existe el banco: " + bankName);
+        } else if (bank.isSystem()) {
+            MessageUtils.sendMessage(sender,
+                    "<red>Las cuentas de sistema no se pueden eliminar; quítala de banks.system-accounts y de banks.yml.");
+        } else if (bankManager.deleteBank(bankName)) {
+            MessageUtils.sendMessage(sender, "<green>Banco <yellow>" + bank.getName() + "</yellow> eliminado.");
+        }
+    }
+
+    private void changeBankBalance(CommandSender sender, String bankName, double amount, String currencyId,
+            boolean deposit) {
+        BankManager bankManager = requireBankManager(sender);
+        if (bankManager == null) {
+            return;
+        }
+
+        if (currencyId == null) {
+            currencyId = "default";
+        }
+        Currency currency = CurrencyManager.getInstance().getCurrency(currencyId);
+        if (currency == null || !currency.isEnabled()) {
+            MessageUtils.sendMessage(sender, "<red>Moneda no encontrada o deshabilitada: " + currencyId);
+            return;
+        }
+
+        if (!bankManager.hasBank(bankName)) {
+            MessageUtils.sendMessage(sender, "<red>No existe el banco: " + bankName);
+            return;
+        }
+
+        boolean changed = deposit
+                ? bankManager.deposit(bankName, amount, currencyId)
+                : bankManager.withdraw(bankName, amount, currencyId);
+        if (changed) {
+            MessageUtils.sendMessage(sender, "<green>" + (deposit ? "Depositados" : "Retirados") + " <yellow>" +
+                    currency.formatMoney(amount) + "</yellow>. Nuevo saldo de <aqua>" + bankName + "</aqua>: <yellow>" +
+                    currency.formatMoney(bankManager.getBalance(bankName, currencyId)) + "</yellow>");
+        } else {
+            MessageUtils.sendMessage(sender, deposit
+                    ? "<red>Error: Cantidad no válida."
+                    : "<red>Error: El banco no tiene saldo suficiente.");
+        }
+    }
+
     private String[] getCurrencySuggestions() {
         CurrencyManager currencyManager = CurrencyManager.getInstance();
         return currencyManager.getCurrencyIds().stream()
@@ -370,6 +571,78 @@ public class EconomyCommand {
                 "<yellow>Habilitada:</yellow> " + (currency.isEnabled() ? "<green>Sí</green>" : "<red>No</red>"));
     }
 
+    /**
+     * Muestra las operaciones con más tiempo acumulado, las esperas del pool y los aciertos de las cachés
+     */
+    private void showMetrics(CommandSender sender) {
+        EconomyMetrics metrics = EconomyMetrics.get();
+        if (!metrics.isEnabled()) {
+            MessageUtils.sendMessage(sender,
+                    "<red>Las métricas están deshabilitadas (metrics.enabled en config.yml).");
+            return;
+        }
+
+        List<MetricRow> rows = new ArrayList<>();
+        for (OperationTimers timers : metrics.getAllTimers()) {
+            timers.forEach((operation, currency, stats) -> {
+                LatencyStats.Snapshot snapshot = stats.snapshot();
+                if (snapshot.getCount() > 0) {
+                    rows.add(new MetricRow("<aqua>" + timers.getLayer().getLabel() + "/" + timers.getProvider()
+                            + "</aqua> <white>" + operation.getLabel() + "</white> <gray>[" + currency + "]</gray>",
+                            snapshot));
+                }
+            });
+        }
+        rows.sort(Comparator.comparingLong((MetricRow row) -> row.snapshot.getTotalNanos()).reversed());
+
+        MessageUtils.sendMessage(sender, "<gold>═══ Métricas de Economía ═══</gold>");
+        if (rows.isEmpty()) {
+            MessageUtils.sendMessage(sender, "<gray>Todavía no hay operaciones registradas.</gray>");
+        }
+        for (MetricRow row : rows.subList(0, Math.min(METRICS_ROWS, rows.size()))) {
+            MessageUtils.sendMessage(sender, row.label + " " + formatLatency(row.snapshot));
+        }
+        if (rows.size() > METRICS_ROWS) {
+            MessageUtils.sendMessage(sender, "<gray>... y " + (rows.size() - METRICS_ROWS)
+                    + " series más (ver el archivo de Prometheus)</gray>");
+        }
+
+        for (Map.Entry<String, LatencyStats> entry : metrics.getPoolWaits().entrySet()) {
+            MessageUtils.sendMessage(sender, "<green>Espera del pool <aqua>" + entry.getKey() + "</aqua>: "
+                    + formatLatency(entry.getValue().snapshot()));
+        }
+
+        for (Map.Entry<String, CacheStats> entry : metrics.getCaches().entrySet()) {
+            CacheStats cache = entry.getValue();
+            double hitRatio = cache.getHitRatio();
+            MessageUtils.sendMessage(sender, "<green>Caché <aqua>" + entry.getKey() + "</aqua>: <yellow>"
+                    + (Double.isNaN(hitRatio) ? "-" : MoneyFormatter.formatFixed(hitRatio * 100, 1) + "%")
+                    + "</yellow> <gray>(" + cache.getHits() + " aciertos, " + cache.getMisses() + " fallos)</gray>");
+        }
+    }
+
+    private static String formatLatency(LatencyStats.Snapshot snapshot) {
+        String line = "<yellow>" + snapshot.getCount() + "</yellow> <gray>llamadas · p50</gray> <yellow>"
+                + formatMillis(snapshot.getP50()) + "</yellow> <gray>· p99</gray> <yellow>"
+                + formatMillis(snapshot.getP99()) + "</yellow> <gray>· máx</gray> <yellow>"
+                + formatMillis(snapshot.getMax()) + "</yellow>";
+        return snapshot.getErrors() > 0 ? line + " <red>" + snapshot.getErrors() + " errores</red>" : line;
+    }
+
+    private static String formatMillis(long nanos) {
+        return MoneyFormatter.formatFixed(nanos / 1_000_000.0, 2) + "ms";
+    }
+
+    private static final class MetricRow {
+        private final String label;
+        private final LatencyStats.Snapshot snapshot;
+
+        private MetricRow(String label, LatencyStats.Snapshot snapshot) {
+            this.label = label;
+            this.snapshot = snapshot;
+        }
+    }
+
     /**
      * Muestra el top de jugadores más ricos
      */
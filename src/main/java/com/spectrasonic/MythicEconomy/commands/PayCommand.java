@@ -50,8 +50,8 @@ public class PayCommand {
                         return;
                     }
 
-                    // Realizar la transferencia
-                    if (economyManager.removeMoney(sender, amount) && economyManager.addMoney(target, amount)) {
+                    // Realizar la transferencia en una sola operación atómica
+                    if (economyManager.transfer(sender, target, amount)) {
                         // Mensaje al remitente
                         MessageUtils.sendMessage(sender,
                                 "<green>Has enviado <yellow>" + economyManager.formatMoney(amount) +
@@ -10,8 +10,6 @@ import org.bukkit.Bukkit;
 import com.spectrasonic.MythicEconomy.manager.EconomyManagerAsync;
 import com.spectrasonic.MythicEconomy.utils.MessageUtils;
 
-import java.util.concurrent.CompletableFuture;
-
 /**
  * Versión asíncrona del comando Pay para transferencias no bloqueantes.
  * Implementa lógica atómica y manejo de errores robusto.
@@ -67,20 +65,8 @@ public class PayCommandAsync {
                         economyManager.getCurrencyManager().getCurrency("default").formatMoney(amount) +
                         " a " + target.getName() + "...</yellow>");
 
-        // Verificar saldo del remitente de forma asíncrona
-        CompletableFuture<Double> senderBalanceFuture = economyManager.getBalanceAsync(sender);
-
-        senderBalanceFuture
-                .thenCompose(senderBalance -> {
-                    // Verificar fondos suficientes
-                    if (senderBalance < amount) {
-                        return CompletableFuture.failedFuture(
-                                new IllegalStateException("Fondos insuficientes: " + senderBalance + " < " + amount));
-                    }
-
-                    // Intentar realizar la transferencia atómica
-                    return performAtomicTransfer(sender, target, amount);
-                })
+        // Cargo y abono en una sola transacción; false si no hay fondos suficientes
+        economyManager.transferAsync(sender, target, amount)
                 .thenAccept(success -> {
                     // Volver al hilo principal para enviar mensajes
                     Runnable task = () -> {
@@ -101,46 +87,17 @@ public class PayCommandAsync {
                                             "</yellow> monedas de <aqua>" + sender.getName() + "</aqua>.");
                         } else {
                             MessageUtils.sendMessage(sender,
-                                    "<red>❌ Error al procesar la transferencia. Inténtalo de nuevo.");
+                                    "<red>No se pudo realizar la transferencia. Comprueba que tienes suficiente dinero.");
                         }
                     };
                     Bukkit.getScheduler().runTask(economyManager.getPlugin(), task);
                 })
                 .exceptionally(throwable -> {
                     // Manejar errores en el hilo principal
-                    Runnable task = () -> {
-                        if (throwable.getCause() instanceof IllegalStateException &&
-                                throwable.getMessage().contains("Fondos insuficientes")) {
-                            // Error de fondos insuficientes
-                            MessageUtils.sendMessage(sender,
-                                    "<red>No tienes suficiente dinero para realizar esta transferencia.");
-                        } else {
-                            // Otro error
-                            MessageUtils.sendMessage(sender,
-                                    "<red>❌ Error al procesar la transferencia. Inténtalo de nuevo.");
-                        }
-                    };
+                    Runnable task = () -> MessageUtils.sendMessage(sender,
+                            "<red>❌ Error al procesar la transferencia. Inténtalo de nuevo.");
                     Bukkit.getScheduler().runTask(economyManager.getPlugin(), task);
                     return null;
                 });
     }
-
-    /**
-     * Realiza una transferencia atómica de forma asíncrona
-     */
-    private CompletableFuture<Boolean> performAtomicTransfer(Player sender, Player target, double amount) {
-        EconomyManagerAsync economyManager = EconomyManagerAsync.getInstance();
-
-        return CompletableFuture.allOf(
-                economyManager.removeMoneyAsync(sender, amount),
-                economyManager.addMoneyAsync(target, amount)).thenApply(ignored -> true)
-                .exceptionally(throwable -> {
-                    // Si falla, intentar revertir (mejor esquema sería usar transacciones)
-                    if (throwable.getCause() != null) {
-                        // Intentar devolver dinero al remitente si se quitó pero no se entregó
-                        economyManager.addMoneyAsync(sender, amount);
-                    }
-                    return false;
-                });
-    }
-}
\ No newline at end of file
+}
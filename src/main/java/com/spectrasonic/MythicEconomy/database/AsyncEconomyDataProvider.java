@@ -1,5 +1,6 @@
 package com.spectrasonic.MythicEconomy.database;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -72,6 +73,36 @@ public interface AsyncEconomyDataProvider {
      */
     CompletableFuture<Void> createPlayer(UUID playerUUID, String currencyId);
 
+    /**
+     * Obtiene todos los saldos registrados de un jugador con una sola consulta, de forma asíncrona
+     * @return CompletableFuture con el mapa moneda -> saldo
+     */
+    CompletableFuture<Map<String, Double>> getAllBalances(UUID playerUUID);
+
+    /**
+     * Transfiere dinero entre dos jugadores de forma atómica y asíncrona
+     * @return CompletableFuture con true si se aplicó completa, false si no se aplicó nada
+     */
+    CompletableFuture<Boolean> transfer(UUID fromUUID, UUID toUUID, double amount, String currencyId);
+
+    // ========== OPERACIONES MASIVAS ASÍNCRONAS ==========
+
+    /**
+     * Obtiene los saldos de varios jugadores en una moneda con una sola consulta
+     * @return CompletableFuture con mapa UUID -> saldo; las cuentas inexistentes no aparecen
+     */
+    CompletableFuture<Map<UUID, Double>> getBalances(Collection<UUID> playerUUIDs, String currencyId);
+
+    /**
+     * Agrega dinero a varios jugadores en una sola operación; las cantidades <= 0 se ignoran
+     */
+    CompletableFuture<Boolean> addBalances(Map<UUID, Double> amounts, String currencyId);
+
+    /**
+     * Establece el saldo de varios jugadores en una sola operación; los saldos negativos se guardan como 0
+     */
+    CompletableFuture<Boolean> setBalances(Map<UUID, Double> balances, String currencyId);
+
     // ========== MÉTODOS DE ESTADÍSTICAS ASÍNCRONOS ==========
 
     /**
@@ -0,0 +1,17 @@
+package com.spectrasonic.MythicEconomy.database;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Cambio pendiente de una cuenta en el volcado de la caché de saldos
+ */
+@Getter
+@RequiredArgsConstructor
+public final class BalanceDelta {
+
+    // Variación desde el último volcado, positiva o negativa
+    private final double delta;
+    // Saldo en memoria; solo se usa si la cuenta todavía no existe en el proveedor
+    private final double balance;
+}
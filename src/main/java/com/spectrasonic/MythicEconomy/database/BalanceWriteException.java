@@ -0,0 +1,26 @@
+package com.spectrasonic.MythicEconomy.database;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Una escritura en bloque de saldos no llegó al almacenamiento. Indica las cuentas que no se escribieron
+ * para que quien llama pueda reintentarlas; si el proveedor no sabe cuáles fallaron, son todas las del lote.
+ */
+@Getter
+public class BalanceWriteException extends RuntimeException {
+
+    private final Set<UUID> failedAccounts;
+
+    public BalanceWriteException(String message, Collection<UUID> failedAccounts, Throwable cause) {
+        super(message, cause);
+        this.failedAccounts = Set.copyOf(failedAccounts);
+    }
+
+    public BalanceWriteException(String message, Collection<UUID> failedAccounts) {
+        this(message, failedAccounts, null);
+    }
+}
@@ -0,0 +1,20 @@
+package com.spectrasonic.MythicEconomy.database;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Operaciones que puede mezclar el benchmark; el label es la clave en config.yml y en los informes
+ */
+@Getter
+@RequiredArgsConstructor
+public enum BenchmarkOperation {
+    GET("get"),
+    ADD("add"),
+    REMOVE("remove"),
+    TRANSFER("transfer"),
+    TOP("top"),
+    PLACEHOLDER("placeholder");
+
+    private final String label;
+}
@@ -0,0 +1,232 @@
+package com.spectrasonic.MythicEconomy.database;
+
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de una ejecución de {@link BenchmarkTool}.
+ *
+ * Las latencias se miden desde el instante en que la operación debía empezar según el ritmo fijado,
+ * no desde que un hilo la recoge: si el sistema se atasca, la espera en cola también cuenta
+ * (sin omisión coordinada). El tiempo de servicio, medido desde que empieza a ejecutarse, se da aparte.
+ */
+@Getter
+public class BenchmarkReport {
+
+    private final BenchmarkSettings settings;
+    private final String provider;
+    private final long startedAtMillis;
+    private final double measuredSeconds;
+    private final boolean cancelled;
+
+    private final long issued;
+    private final long completed;
+    private final long errors;
+    // Operaciones que el proveedor rechazó sin error (saldo insuficiente, etc.)
+    private final long rejected;
+    // Llegadas descartadas por superar max-outstanding
+    private final long dropped;
+
+    private final LatencySummary latency;
+    private final LatencySummary serviceTime;
+    private final Map<BenchmarkOperation, LatencySummary> operations;
+    private final List<TimelinePoint> timeline;
+
+    BenchmarkReport(BenchmarkSettings settings, String provider, long startedAtMillis, double measuredSeconds,
+            boolean cancelled, long issued, long completed, long errors, long rejected, long dropped,
+            LatencySummary latency, LatencySummary serviceTime, Map<BenchmarkOperation, LatencySummary> operations,
+            List<TimelinePoint> timeline) {
+        this.settings = settings;
+        this.provider = provider;
+        this.startedAtMillis = startedAtMillis;
+        this.measuredSeconds = measuredSeconds;
+        this.cancelled = cancelled;
+        this.issued = issued;
+        this.completed = completed;
+        this.errors = errors;
+        this.rejected = rejected;
+        this.dropped = dropped;
+        this.latency = latency;
+        this.serviceTime = serviceTime;
+        this.operations = Collections.unmodifiableMap(new EnumMap<>(operations));
+        this.timeline = Collections.unmodifiableList(new ArrayList<>(timeline));
+    }
+
+    /**
+     * Operaciones completadas por segundo durante la fase medida
+     */
+    public double getThroughput() {
+        return measuredSeconds > 0 ? latency.getCount() / measuredSeconds : 0.0;
+    }
+
+    // ========== INFORMES ==========
+
+    /**
+     * Escribe el informe en JSON
+     */
+    public void writeJson(Path file) throws IOException {
+        StringBuilder json = new StringBuilder(4096);
+        json.append("{\n");
+        field(json, "provider", provider).append(",\n");
+        field(json, "target", settings.getTarget().getLabel()).append(",\n");
+        field(json, "currency", settings.getCurrencyId()).append(",\n");
+        json.append("  \"startedAt\": ").append(startedAtMillis).append(",\n");
+        json.append("  \"cancelled\": ").append(cancelled).append(",\n");
+        json.append("  \"targetRate\": ").append(settings.getRate()).append(",\n");
+        json.append("  \"durationSeconds\": ").append(settings.getDurationSeconds()).append(",\n");
+        json.append("  \"warmupSeconds\": ").append(settings.getWarmupSeconds()).append(",\n");
+        json.append("  \"accounts\": ").append(settings.getAccounts()).append(",\n");
+        json.append("  \"threads\": ").append(settings.getThreads()).append(",\n");
+        json.append("  \"measuredSeconds\": ").append(measuredSeconds).append(",\n");
+        json.append("  \"throughput\": ").append(getThroughput()).append(",\n");
+        json.append("  \"issued\": ").append(issued).append(",\n");
+        json.append("  \"completed\": ").append(completed).append(",\n");
+        json.append("  \"errors\": ").append(errors).append(",\n");
+        json.append("  \"rejected\": ").append(rejected).append(",\n");
+        json.append("  \"dropped\": ").append(dropped).append(",\n");
+
+        json.append("  \"mix\": {");
+        boolean first = true;
+        for (Map.Entry<BenchmarkOperation, Integer> entry : settings.getMix().entrySet()) {
+            json.append(first ? "" : ", ").append('"').append(entry.getKey().getLabel()).append("\": ")
+                    .append(entry.getValue());
+            first = false;
+        }
+        json.append("},\n");
+
+        json.append("  \"latencyMs\": ");
+        latency.appendJson(json);
+        json.append(",\n  \"serviceTimeMs\": ");
+        serviceTime.appendJson(json);
+
+        json.append(",\n  \"operations\": {");
+        first = true;
+        for (Map.Entry<BenchmarkOperation, LatencySummary> entry : operations.entrySet()) {
+            json.append(first ? "\n" : ",\n").append("    \"").append(entry.getKey().getLabel()).append("\": ");
+            entry.getValue().appendJson(json);
+            first = false;
+        }
+        json.append(first ? "}" : "\n  }");
+
+        json.append(",\n  \"timeline\": [");
+        first = true;
+        for (TimelinePoint point : timeline) {
+            json.append(first ? "\n" : ",\n").append("    {\"second\": ").append(point.getSecond())
+                    .append(", \"completed\": ").append(point.getCompleted())
+                    .append(", \"errors\": ").append(point.getErrors())
+                    .append(", \"p50Ms\": ").append(millis(point.getP50()))
+                    .append(", \"p99Ms\": ").append(millis(point.getP99()))
+                    .append(", \"maxMs\": ").append(millis(point.getMax())).append('}');
+            first = false;
+        }
+        json.append(first ? "]" : "\n  ]").append("\n}\n");
+
+        Files.writeString(file, json, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Escribe dos CSV: uno con las latencias por operación y otro con el rendimiento segundo a segundo
+     */
+    public void writeCsv(Path summaryFile, Path timelineFile) throws IOException {
+        StringBuilder summary = new StringBuilder();
+        summary.append("operation,count,mean_ms,p50_ms,p90_ms,p99_ms,p999_ms,max_ms\n");
+        latency.appendCsv(summary.append("all,"));
+        for (Map.Entry<BenchmarkOperation, LatencySummary> entry : operations.entrySet()) {
+            entry.getValue().appendCsv(summary.append(entry.getKey().getLabel()).append(','));
+        }
+        serviceTime.appendCsv(summary.append("service_time,"));
+        Files.writeString(summaryFile, summary, StandardCharsets.UTF_8);
+
+        StringBuilder csv = new StringBuilder();
+        csv.append("second,completed,errors,p50_ms,p99_ms,max_ms\n");
+        for (TimelinePoint point : timeline) {
+            csv.append(point.getSecond()).append(',').append(point.getCompleted()).append(',')
+                    .append(point.getErrors()).append(',').append(millis(point.getP50())).append(',')
+                    .append(millis(point.getP99())).append(',').append(millis(point.getMax())).append('\n');
+        }
+        Files.writeString(timelineFile, csv, StandardCharsets.UTF_8);
+    }
+
+    private static StringBuilder field(StringBuilder json, String name, String value) {
+        return json.append("  \"").append(name).append("\": \"")
+                .append(value.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+    }
+
+    static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    // ========== DATOS ==========
+
+    /**
+     * Percentiles de un histograma de latencias, en nanosegundos
+     */
+    @Getter
+    public static class LatencySummary {
+        private final long count;
+        private final double mean;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long p999;
+        private final long max;
+
+        LatencySummary(Histogram histogram) {
+            this.count = histogram.getTotalCount();
+            this.mean = count > 0 ? histogram.getMean() : 0.0;
+            this.p50 = histogram.getValueAtPercentile(50.0);
+            this.p90 = histogram.getValueAtPercentile(90.0);
+            this.p99 = histogram.getValueAtPercentile(99.0);
+            this.p999 = histogram.getValueAtPercentile(99.9);
+            this.max = histogram.getMaxValue();
+        }
+
+        private void appendJson(StringBuilder json) {
+            json.append("{\"count\": ").append(count)
+                    .append(", \"mean\": ").append(mean / 1_000_000.0)
+                    .append(", \"p50\": ").append(millis(p50))
+                    .append(", \"p90\": ").append(millis(p90))
+                    .append(", \"p99\": ").append(millis(p99))
+                    .append(", \"p999\": ").append(millis(p999))
+                    .append(", \"max\": ").append(millis(max)).append('}');
+        }
+
+        private void appendCsv(StringBuilder csv) {
+            csv.append(count).append(',').append(mean / 1_000_000.0).append(',').append(millis(p50)).append(',')
+                    .append(millis(p90)).append(',').append(millis(p99)).append(',').append(millis(p999))
+                    .append(',').append(millis(max)).append('\n');
+        }
+    }
+
+    /**
+     * Operaciones completadas y latencias de un segundo de la fase medida
+     */
+    @Getter
+    public static class TimelinePoint {
+        private final int second;
+        private final long completed;
+        private final long errors;
+        private final long p50;
+        private final long p99;
+        private final long max;
+
+        TimelinePoint(int second, Histogram interval, long errors) {
+            this.second = second;
+            this.completed = interval.getTotalCount();
+            this.errors = errors;
+            this.p50 = interval.getValueAtPercentile(50.0);
+            this.p99 = interval.getValueAtPercentile(99.0);
+            this.max = interval.getMaxValue();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.spectrasonic.MythicEconomy.database;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Parámetros de una ejecución de {@link BenchmarkTool}
+ */
+@Getter
+public class BenchmarkSettings {
+
+    // Llegadas por segundo, independientes de lo que tarde cada operación (carga en bucle abierto)
+    private final int rate;
+    private final int durationSeconds;
+    // Segundos iniciales que se ejecutan pero no se miden
+    private final int warmupSeconds;
+    private final BenchmarkTarget target;
+    // Moneda de las cuentas sintéticas; no tiene que existir como moneda configurada
+    private final String currencyId;
+    private final int accounts;
+    private final double startingBalance;
+    private final int threads;
+    // Operaciones pendientes a partir de las cuales las nuevas llegadas se descartan y se cuentan como tales
+    private final int maxOutstanding;
+    // Peso relativo de cada operación
+    private final Map<BenchmarkOperation, Integer> mix;
+    private final boolean jsonReport;
+    private final boolean csvReport;
+    // El operador aceptó que las cuentas sintéticas queden guardadas en el almacenamiento configurado
+    private final boolean confirmed;
+
+    @Builder(toBuilder = true)
+    public BenchmarkSettings(int rate, int durationSeconds, int warmupSeconds, BenchmarkTarget target,
+            String currencyId, int accounts, double startingBalance, int threads, int maxOutstanding,
+            Map<BenchmarkOperation, Integer> mix, boolean jsonReport, boolean csvReport, boolean confirmed) {
+        this.rate = Math.max(1, rate);
+        this.durationSeconds = Math.max(1, durationSeconds);
+        this.warmupSeconds = Math.max(0, warmupSeconds);
+        this.target = target != null ? target : BenchmarkTarget.CACHED;
+        this.currencyId = currencyId != null ? currencyId : "benchmark";
+        this.accounts = Math.max(2, accounts);
+        this.startingBalance = Math.max(0, startingBalance);
+        this.threads = Math.max(1, threads);
+        this.maxOutstanding = Math.max(1, maxOutstanding);
+        this.mix = mix != null ? Collections.unmodifiableMap(new EnumMap<>(mix))
+                : Collections.emptyMap();
+        this.jsonReport = jsonReport;
+        this.csvReport = csvReport;
+        this.confirmed = confirmed;
+    }
+
+    /**
+     * Parámetros de la sección benchmark de config.yml; ritmo, duración y confirmación los pone el comando
+     */
+    public static BenchmarkSettingsBuilder fromConfig(FileConfiguration config) {
+        Map<BenchmarkOperation, Integer> mix = new EnumMap<>(BenchmarkOperation.class);
+        mix.put(BenchmarkOperation.GET, config.getInt("benchmark.mix.get", 50));
+        mix.put(BenchmarkOperation.ADD, config.getInt("benchmark.mix.add", 15));
+        mix.put(BenchmarkOperation.REMOVE, config.getInt("benchmark.mix.remove", 15));
+        mix.put(BenchmarkOperation.TRANSFER, config.getInt("benchmark.mix.transfer", 10));
+        mix.put(BenchmarkOperation.TOP, config.getInt("benchmark.mix.top", 5));
+        mix.put(BenchmarkOperation.PLACEHOLDER, config.getInt("benchmark.mix.placeholder", 5));
+
+        BenchmarkTarget target = BenchmarkTarget.fromLabel(config.getString("benchmark.target", "cached"));
+        return builder()
+                .warmupSeconds(config.getInt("benchmark.warmup", 10))
+                .target(target != null ? target : BenchmarkTarget.CACHED)
+                .currencyId(config.getString("benchmark.currency", "benchmark"))
+                .accounts(config.getInt("benchmark.accounts", 1000))
+                .startingBalance(config.getDouble("benchmark.starting-balance", 1_000_000.0))
+                .threads(config.getInt("benchmark.threads", 16))
+                .maxOutstanding(config.getInt("benchmark.max-outstanding", 10_000))
+                .mix(mix)
+                .jsonReport(config.getBoolean("benchmark.reports.json", true))
+                .csvReport(config.getBoolean("benchmark.reports.csv", true));
+    }
+
+    /**
+     * Mezcla en formato legible (get:50 add:15 ...)
+     */
+    public String describeMix() {
+        StringBuilder description = new StringBuilder();
+        for (Map.Entry<BenchmarkOperation, Integer> entry : mix.entrySet()) {
+            if (entry.getValue() > 0) {
+                if (description.length() > 0) {
+                    description.append(' ');
+                }
+                description.append(entry.getKey().getLabel()).append(':').append(entry.getValue());
+            }
+        }
+        return description.toString();
+    }
+}
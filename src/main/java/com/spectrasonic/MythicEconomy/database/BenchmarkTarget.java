@@ -0,0 +1,37 @@
+package com.spectrasonic.MythicEconomy.database;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Locale;
+
+/**
+ * Capa contra la que el benchmark lanza las operaciones
+ */
+@Getter
+@RequiredArgsConstructor
+public enum BenchmarkTarget {
+    // Proveedor con la caché de saldos; las cuentas sintéticas se tratan como jugadores conectados
+    CACHED("cached"),
+    // Proveedor de almacenamiento configurado (interno, MySQL o MongoDB), sin caché
+    STORAGE("storage"),
+    // Proveedor del EconomyManagerAsync (MySQL asíncrono o MongoDB reactivo)
+    ASYNC("async");
+
+    private final String label;
+
+    /**
+     * Destino a partir de su label, o null si no existe
+     */
+    public static BenchmarkTarget fromLabel(String label) {
+        if (label == null) {
+            return null;
+        }
+        for (BenchmarkTarget target : values()) {
+            if (target.label.equals(label.toLowerCase(Locale.ROOT))) {
+                return target;
+            }
+        }
+        return null;
+    }
+}
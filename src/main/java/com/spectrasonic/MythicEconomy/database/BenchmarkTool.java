@@ -1,275 +1,642 @@
 package com.spectrasonic.MythicEconomy.database;
 
-import org.bukkit.plugin.java.JavaPlugin;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
 import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.java.JavaPlugin;
 
+import com.spectrasonic.MythicEconomy.Main;
+import com.spectrasonic.MythicEconomy.manager.EconomyManager;
 import com.spectrasonic.MythicEconomy.manager.EconomyManagerAsync;
+import com.spectrasonic.MythicEconomy.metrics.EconomyMetrics;
+import com.spectrasonic.MythicEconomy.placeholders.MythicEconomyPlaceholders;
 import com.spectrasonic.MythicEconomy.utils.MessageUtils;
-
+import com.spectrasonic.MythicEconomy.utils.MoneyFormatter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
-
-// Herramienta de benchmark para probar el rendimiento bajo carga concurrente.
-// Simula múltiples operaciones simultáneas para validar que el sistema asíncrono maneja bien la concurrencia.
-
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generador de carga en bucle abierto para medir el rendimiento de la economía.
+ *
+ * Las operaciones llegan a un ritmo fijo (rate por segundo) tanto si las anteriores han terminado como si no,
+ * igual que las peticiones de jugadores reales; un pool de hilos las ejecuta contra el destino elegido
+ * (caché, almacenamiento o proveedor asíncrono) sobre cuentas sintéticas en una moneda propia.
+ * Tras el calentamiento se registran las latencias en histogramas HdrHistogram, se muestra un resumen
+ * con percentiles y se guardan informes JSON/CSV en la carpeta benchmarks/ del plugin.
+ */
 public class BenchmarkTool {
 
-    private final JavaPlugin plugin;
-    private final EconomyManagerAsync economyManager;
-    private volatile boolean isRunning = false;
-    private volatile boolean benchmarkCompleted = false;
+    // Bits altos de los UUID de las cuentas sintéticas ("MEBENCH\0")
+    private static final long BENCHMARK_ACCOUNT_MSB = 0x4D45_4245_4E43_4800L;
+    // Cada cuánto se comprueba si toca lanzar nuevas operaciones
+    private static final long DISPATCH_INTERVAL_MICROS = 500L;
+    // Tiempo máximo de espera a las operaciones pendientes al terminar
+    private static final long DRAIN_TIMEOUT_MS = 30_000L;
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final String[] PLACEHOLDER_KEYS = {"money_formatted", "money_short", "rank", "top_1_player"};
 
-    // Métricas
-    private final AtomicLong successfulOperations = new AtomicLong(0);
-    private final AtomicLong failedOperations = new AtomicLong(0);
-    private final AtomicLong totalLatency = new AtomicLong(0);
-    private long startTime;
-    private long endTime;
+    private final JavaPlugin plugin;
+    private volatile Run currentRun;
+    private volatile BenchmarkReport lastReport;
 
     public BenchmarkTool(JavaPlugin plugin) {
         this.plugin = plugin;
-        this.economyManager = EconomyManagerAsync.getInstance();
     }
 
-    // Inicia una prueba de benchmark con configuración personalizada
-    public void startBenchmark(int concurrentUsers, int operationsPerUser, int testDurationSeconds) {
-        if (isRunning) {
-            MessageUtils.sendConsoleMessage("<red>Ya hay un benchmark en ejecución.</red>");
-            return;
+    /**
+     * Inicia un benchmark en segundo plano
+     * @param requester quien recibe el resumen al terminar (además de la consola)
+     * @return false si ya hay uno en ejecución o el destino no está disponible
+     */
+    public boolean startBenchmark(BenchmarkSettings settings, CommandSender requester) {
+        if (currentRun != null) {
+            MessageUtils.sendMessage(requester, "<red>Ya hay un benchmark en ejecución.</red>");
+            return false;
         }
 
-        isRunning = true;
-        successfulOperations.set(0);
-        failedOperations.set(0);
-        totalLatency.set(0);
-        benchmarkCompleted = false;
+        Run run;
+        try {
+            run = new Run(settings, requester);
+        } catch (IllegalStateException e) {
+            MessageUtils.sendMessage(requester, "<red>" + e.getMessage() + "</red>");
+            return false;
+        }
 
-        MessageUtils.sendConsoleMessage("<green>🚀 Iniciando benchmark de rendimiento</green>");
-        MessageUtils.sendConsoleMessage("<yellow>Configuración: " + concurrentUsers + " usuarios concurrentes, " +
-                operationsPerUser + " operaciones por usuario, " + testDurationSeconds + " segundos</yellow>");
-        // Pool stats will be shown at the end
+        synchronized (this) {
+            if (currentRun != null) {
+                MessageUtils.sendMessage(requester, "<red>Ya hay un benchmark en ejecución.</red>");
+                return false;
+            }
+            currentRun = run;
+        }
 
-        startTime = System.currentTimeMillis();
+        MessageUtils.sendConsoleMessage("<green>🚀 Iniciando benchmark: " + settings.getRate() + " ops/s durante "
+                + settings.getDurationSeconds() + "s (+" + settings.getWarmupSeconds() + "s de calentamiento) contra "
+                + settings.getTarget().getLabel() + "/" + run.provider + "</green>");
+        MessageUtils.sendConsoleMessage("<yellow>Mezcla: " + settings.describeMix() + " · " + settings.getAccounts()
+                + " cuentas en la moneda '" + settings.getCurrencyId() + "' · " + settings.getThreads()
+                + " hilos</yellow>");
+        run.start();
+        return true;
+    }
 
-        // Crear tareas asíncronas concurrentes
-        for (int i = 0; i < concurrentUsers; i++) {
-            final int userId = i;
-            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-                simulateUserOperations(userId, operationsPerUser);
-            });
+    // Obtiene el estado actual del benchmark
+    public String getBenchmarkStatus() {
+        Run run = currentRun;
+        if (run != null) {
+            return run.describeProgress();
+        }
+        BenchmarkReport report = lastReport;
+        if (report != null) {
+            return "Último benchmark: " + MoneyFormatter.formatFixed(report.getThroughput(), 1) + " ops/s, p99 "
+                    + formatDuration(report.getLatency().getP99());
         }
+        return "No hay benchmark en ejecución";
+    }
 
-        // Programar finalización del test
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            endBenchmark();
-        }, testDurationSeconds * 20L); // 20 ticks por segundo
+    // Verifica si el benchmark está actualmente en ejecución
+    public boolean isRunning() {
+        return currentRun != null;
     }
 
-    // Simula operaciones de un usuario
-    private void simulateUserOperations(int userId, int operationsCount) {
-        UUID playerUUID = new UUID(1234567890L + userId, 9876543210L);
-        // String playerName = "BenchmarkPlayer" + userId;
-
-        // Crear jugador en la base de datos usando el provider directamente
-        if (economyManager.getAsyncDataProvider() != null) {
-            economyManager.getAsyncDataProvider().createPlayerAsync(playerUUID, "default")
-                    .thenCompose(ignored -> runOperations(userId, playerUUID, operationsCount))
-                    .exceptionally(throwable -> {
-                        failedOperations.incrementAndGet();
-                        if (plugin != null) {
-                            plugin.getLogger().warning(
-                                    "Error en operaciones del usuario " + userId + ": " + throwable.getMessage());
-                        }
-                        return null;
-                    });
-        } else {
-            // Fallback: ejecutar operaciones sin crear jugador
-            runOperations(userId, playerUUID, operationsCount);
+    /**
+     * Resultado del último benchmark terminado, o null si no hay
+     */
+    public BenchmarkReport getLastReport() {
+        return lastReport;
+    }
+
+    // Cancela el benchmark actual; se genera el informe con lo medido hasta el momento
+    public boolean cancelBenchmark() {
+        Run run = currentRun;
+        if (run == null) {
+            return false;
         }
+        run.cancelled = true;
+        MessageUtils.sendConsoleMessage("<yellow>Benchmark cancelado manualmente</yellow>");
+        return true;
     }
 
-    // Ejecuta operaciones simulando uso real
-    private CompletableFuture<Void> runOperations(int userId, UUID playerUUID, int operationsCount) {
-        @SuppressWarnings("unchecked")
-        CompletableFuture<Void>[] futures = new CompletableFuture[operationsCount];
+    // ========== DESTINOS ==========
 
-        for (int i = 0; i < operationsCount; i++) {
-            final int operationId = i;
-            futures[i] = CompletableFuture.runAsync(() -> {
-                long operationStart = System.nanoTime();
+    /**
+     * Ejecuta una operación contra el proveedor elegido. Las operaciones síncronas se ejecutan en el hilo
+     * del pool y devuelven un futuro ya completado; las asíncronas devuelven el futuro del proveedor
+     */
+    private interface LoadTarget {
+        CompletableFuture<Boolean> execute(BenchmarkOperation operation, UUID account, UUID other, double amount,
+                String currencyId);
 
-                try {
-                    // Simular diferentes tipos de operaciones
-                    int operationType = ThreadLocalRandom.current().nextInt(4);
-
-                    switch (operationType) {
-                        case 0:
-                            // Obtener balance
-                            if (economyManager.getAsyncDataProvider() != null) {
-                                economyManager.getAsyncDataProvider().getBalanceAsync(playerUUID, "default")
-                                        .thenAccept(balance -> {
-                                            long latency = System.nanoTime() - operationStart;
-                                            successfulOperations.incrementAndGet();
-                                            totalLatency.addAndGet(latency / 1_000_000); // Convertir a milisegundos
-                                        })
-                                        .join();
-                            } else {
-                                failedOperations.incrementAndGet();
-                            }
-                            break;
-
-                        case 1:
-                            // Añadir dinero
-                            double amountToAdd = ThreadLocalRandom.current().nextDouble(10, 100);
-                            if (economyManager.getAsyncDataProvider() != null) {
-                                economyManager.getAsyncDataProvider().addBalanceAsync(playerUUID, amountToAdd, "default")
-                                        .thenAccept(success -> {
-                                            long latency = System.nanoTime() - operationStart;
-                                            if (success) {
-                                                successfulOperations.incrementAndGet();
-                                                totalLatency.addAndGet(latency / 1_000_000);
-                                            } else {
-                                                failedOperations.incrementAndGet();
-                                            }
-                                        })
-                                        .join();
-                            } else {
-                                failedOperations.incrementAndGet();
-                            }
-                            break;
-
-                        case 2:
-                            // Quitar dinero
-                            double amountToRemove = ThreadLocalRandom.current().nextDouble(5, 50);
-                            if (economyManager.getAsyncDataProvider() != null) {
-                                economyManager.getAsyncDataProvider()
-                                        .removeBalanceAsync(playerUUID, amountToRemove, "default")
-                                        .thenAccept(success -> {
-                                            long latency = System.nanoTime() - operationStart;
-                                            if (success) {
-                                                successfulOperations.incrementAndGet();
-                                                totalLatency.addAndGet(latency / 1_000_000);
-                                            } else {
-                                                failedOperations.incrementAndGet();
-                                            }
-                                        })
-                                        .join();
-                            } else {
-                                failedOperations.incrementAndGet();
-                            }
-                            break;
-
-                        case 3:
-                            // Verificar fondos suficientes
-                            double checkAmount = ThreadLocalRandom.current().nextDouble(1, 200);
-                            if (economyManager.getAsyncDataProvider() != null) {
-                                economyManager.getAsyncDataProvider()
-                                        .hasEnoughBalanceAsync(playerUUID, checkAmount, "default")
-                                        .thenAccept(hasEnough -> {
-                                            long latency = System.nanoTime() - operationStart;
-                                            successfulOperations.incrementAndGet();
-                                            totalLatency.addAndGet(latency / 1_000_000);
-                                        })
-                                        .join();
-                            } else {
-                                failedOperations.incrementAndGet();
-                            }
-                            break;
+        void seed(Map<UUID, Double> balances, String currencyId);
+    }
+
+    private static LoadTarget syncTarget(EconomyDataProvider provider) {
+        return new LoadTarget() {
+            @Override
+            public CompletableFuture<Boolean> execute(BenchmarkOperation operation, UUID account, UUID other,
+                    double amount, String currencyId) {
+                boolean result;
+                switch (operation) {
+                    case GET -> result = provider.getBalance(account, currencyId) >= 0;
+                    case ADD -> result = provider.addBalance(account, amount, currencyId);
+                    case REMOVE -> result = provider.removeBalance(account, amount, currencyId);
+                    case TRANSFER -> result = provider.transfer(account, other, amount, currencyId);
+                    case TOP -> result = provider.getTopBalances(currencyId, 10) != null;
+                    default -> throw new IllegalArgumentException("Operación no soportada: " + operation);
+                }
+                return CompletableFuture.completedFuture(result);
+            }
+
+            @Override
+            public void seed(Map<UUID, Double> balances, String currencyId) {
+                provider.setBalances(balances, currencyId);
+            }
+        };
+    }
+
+    private static LoadTarget asyncTarget(AsyncEconomyDataProvider provider) {
+        return new LoadTarget() {
+            @Override
+            public CompletableFuture<Boolean> execute(BenchmarkOperation operation, UUID account, UUID other,
+                    double amount, String currencyId) {
+                return switch (operation) {
+                    case GET -> provider.getBalance(account, currencyId).thenApply(balance -> balance >= 0);
+                    case ADD -> provider.addBalance(account, amount, currencyId);
+                    case REMOVE -> provider.removeBalance(account, amount, currencyId);
+                    case TRANSFER -> provider.transfer(account, other, amount, currencyId);
+                    case TOP -> provider.getTopBalances(currencyId, 10).thenApply(top -> top != null);
+                    default -> throw new IllegalArgumentException("Operación no soportada: " + operation);
+                };
+            }
+
+            @Override
+            public void seed(Map<UUID, Double> balances, String currencyId) {
+                provider.setBalances(balances, currencyId).join();
+            }
+        };
+    }
+
+    // ========== EJECUCIÓN ==========
+
+    /**
+     * Estado de una ejecución
+     */
+    private final class Run {
+        private final BenchmarkSettings settings;
+        private final CommandSender requester;
+        private final LoadTarget target;
+        private final String provider;
+        private final CachingEconomyDataProvider balanceCache;
+        private final MythicEconomyPlaceholders placeholders;
+
+        private final UUID[] accounts;
+        private final OfflinePlayer[] offlineAccounts;
+        // Operación por cada unidad de peso de la mezcla
+        private final BenchmarkOperation[] mixTable;
+        private final long intervalNanos;
+
+        private final ScheduledExecutorService pacer;
+        private final ExecutorService workers;
+
+        private final Recorder latencyRecorder = new Recorder(SIGNIFICANT_DIGITS);
+        private final Recorder serviceRecorder = new Recorder(SIGNIFICANT_DIGITS);
+        private final Map<BenchmarkOperation, Recorder> operationRecorders = new EnumMap<>(BenchmarkOperation.class);
+        private final Histogram totalLatency = new Histogram(SIGNIFICANT_DIGITS);
+        private Histogram intervalLatency;
+        private final List<BenchmarkReport.TimelinePoint> timeline = new ArrayList<>();
+
+        private final LongAdder issued = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder intervalErrors = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private volatile boolean cancelled;
+        private volatile long startNanos;
+        private volatile long measureStartNanos;
+        private long endNanos;
+        private long startedAtMillis;
+        private long nextArrival;
+        private int nextTimelineSecond;
+
+        Run(BenchmarkSettings settings, CommandSender requester) {
+            this.settings = settings;
+            this.requester = requester;
+
+            EconomyManager economyManager = EconomyManager.getInstance();
+            switch (settings.getTarget()) {
+                case CACHED -> {
+                    if (economyManager == null || economyManager.getBalanceCache() == null) {
+                        throw new IllegalStateException("La caché de saldos está deshabilitada (database.cache)");
                     }
-                } catch (Exception e) {
-                    failedOperations.incrementAndGet();
-                    if (plugin != null) {
-                        plugin.getLogger().warning(
-                                "Error en operación " + operationId + " del usuario " + userId + ": " + e.getMessage());
+                    this.balanceCache = economyManager.getBalanceCache();
+                    this.target = syncTarget(economyManager.getDataProvider());
+                    this.provider = EconomyMetrics.providerName(economyManager.getBackingProvider());
+                }
+                case STORAGE -> {
+                    if (economyManager == null) {
+                        throw new IllegalStateException("El sistema de economía no está inicializado");
+                    }
+                    this.balanceCache = null;
+                    this.target = syncTarget(economyManager.getBackingProvider());
+                    this.provider = EconomyMetrics.providerName(economyManager.getBackingProvider());
+                }
+                default -> {
+                    EconomyManagerAsync asyncManager = EconomyManagerAsync.getInstance();
+                    AsyncEconomyDataProvider asyncProvider = asyncManager != null && asyncManager.isAsyncMode()
+                            ? asyncManager.getAsyncDataProvider() : null;
+                    if (asyncProvider == null) {
+                        throw new IllegalStateException("No hay un proveedor asíncrono disponible: requiere"
+                                + " database.async-mode con MySQL o con MongoDB (esquema PER_CURRENCY)");
                     }
+                    this.balanceCache = null;
+                    this.target = asyncTarget(asyncProvider);
+                    this.provider = EconomyMetrics.providerName(asyncProvider);
                 }
+            }
+
+            // Las cuentas sintéticas no se borran al terminar (con la caché también se vuelcan al almacenamiento)
+            // y cuentan en las estadísticas de jugadores y dinero total, así que se pide confirmación
+            if (!settings.isConfirmed()) {
+                throw new IllegalStateException("Las " + settings.getAccounts() + " cuentas sintéticas de la moneda '"
+                        + settings.getCurrencyId() + "' se guardan en " + provider + " y no se borran al terminar;"
+                        + " cuentan en las estadísticas de jugadores y dinero total. Úsalo en un servidor de pruebas"
+                        + " y repite el comando con 'confirm'.");
+            }
+
+            this.placeholders = plugin instanceof Main main ? main.getPlaceholders() : null;
+            this.mixTable = buildMixTable();
+            if (mixTable.length == 0) {
+                throw new IllegalStateException("La mezcla de operaciones está vacía (benchmark.mix)");
+            }
+
+            this.accounts = new UUID[settings.getAccounts()];
+            this.offlineAccounts = new OfflinePlayer[accounts.length];
+            for (int i = 0; i < accounts.length; i++) {
+                accounts[i] = new UUID(BENCHMARK_ACCOUNT_MSB, i);
+            }
+            for (BenchmarkOperation operation : BenchmarkOperation.values()) {
+                operationRecorders.put(operation, new Recorder(SIGNIFICANT_DIGITS));
+            }
+            this.intervalNanos = Math.max(1L, TimeUnit.SECONDS.toNanos(1) / settings.getRate());
+
+            this.pacer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "MythicEconomy-Benchmark-Pacer");
+                t.setDaemon(true);
+                return t;
+            });
+            AtomicInteger counter = new AtomicInteger();
+            this.workers = Executors.newFixedThreadPool(settings.getThreads(), r -> {
+                Thread t = new Thread(r, "MythicEconomy-Benchmark-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
             });
         }
 
-        return CompletableFuture.allOf(futures);
-    }
+        // Sin PlaceholderAPI las operaciones de placeholder se quitan de la mezcla
+        private BenchmarkOperation[] buildMixTable() {
+            List<BenchmarkOperation> table = new ArrayList<>();
+            for (Map.Entry<BenchmarkOperation, Integer> entry : settings.getMix().entrySet()) {
+                if (entry.getKey() == BenchmarkOperation.PLACEHOLDER && placeholders == null) {
+                    if (entry.getValue() > 0) {
+                        plugin.getLogger().warning("PlaceholderAPI no está activo; se omiten las operaciones de placeholder");
+                    }
+                    continue;
+                }
+                for (int i = 0; i < entry.getValue(); i++) {
+                    table.add(entry.getKey());
+                }
+            }
+            return table.toArray(new BenchmarkOperation[0]);
+        }
+
+        void start() {
+            pacer.execute(() -> {
+                try {
+                    prepareAccounts();
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Error al preparar las cuentas del benchmark: " + e.getMessage());
+                    pacer.shutdown();
+                    finish();
+                    return;
+                }
+
+                startedAtMillis = System.currentTimeMillis();
+                startNanos = System.nanoTime();
+                measureStartNanos = startNanos + TimeUnit.SECONDS.toNanos(settings.getWarmupSeconds());
+                endNanos = measureStartNanos + TimeUnit.SECONDS.toNanos(settings.getDurationSeconds());
+                pacer.scheduleAtFixedRate(this::dispatch, 0L, DISPATCH_INTERVAL_MICROS, TimeUnit.MICROSECONDS);
+            });
+        }
 
-    // Finaliza el benchmark y muestra resultados
-    private void endBenchmark() {
-        endTime = System.currentTimeMillis();
-        isRunning = false;
-        benchmarkCompleted = true;
-
-        long totalOperations = successfulOperations.get() + failedOperations.get();
-        double successRate = totalOperations > 0 ? (double) successfulOperations.get() / totalOperations * 100 : 0;
-        double operationsPerSecond = totalOperations > 0 ? totalOperations / ((endTime - startTime) / 1000.0) : 0;
-        long averageLatency = totalOperations > 0 ? totalLatency.get() / totalOperations : 0;
-
-        MessageUtils.sendConsoleMessage("<green>🏁 Benchmark finalizado</green>");
-        MessageUtils.sendConsoleMessage("<aqua>Duración: " + ((endTime - startTime) / 1000) + " segundos</aqua>");
-        MessageUtils.sendConsoleMessage("<aqua>Operaciones totales: " + totalOperations + "</aqua>");
-        MessageUtils.sendConsoleMessage("<aqua>Operaciones exitosas: " + successfulOperations.get() + "</aqua>");
-        MessageUtils.sendConsoleMessage("<aqua>Operaciones fallidas: " + failedOperations.get() + "</aqua>");
-        MessageUtils.sendConsoleMessage("<aqua>Tasa de éxito: " + String.format("%.2f", successRate) + "%</aqua>");
-        MessageUtils.sendConsoleMessage(
-                "<aqua>Operaciones por segundo: " + String.format("%.2f", operationsPerSecond) + "</aqua>");
-        MessageUtils.sendConsoleMessage("<aqua>Latencia promedio: " + averageLatency + "ms</aqua>");
-
-        // Mostrar estadísticas del pool
-        // Pool stats will be shown via MySQLAsyncConnection if available
-        MessageUtils.sendConsoleMessage("<yellow>Benchmark completado exitosamente</yellow>");
-
-        // Recomendaciones basadas en resultados
-        if (successRate < 95) {
-            MessageUtils.sendConsoleMessage(
-                    "<red>⚠️  Advertencia: Baja tasa de éxito. Considera reducir la carga o aumentar el pool.</red>");
+        // Crea las cuentas sintéticas con su saldo inicial; con la caché se tratan como jugadores conectados
+        private void prepareAccounts() {
+            Map<UUID, Double> balances = new HashMap<>();
+            for (int i = 0; i < accounts.length; i++) {
+                balances.put(accounts[i], settings.getStartingBalance());
+                if (balanceCache != null) {
+                    balanceCache.trackPlayer(accounts[i]);
+                }
+                if (placeholders != null) {
+                    offlineAccounts[i] = Bukkit.getOfflinePlayer(accounts[i]);
+                }
+            }
+            target.seed(balances, settings.getCurrencyId());
         }
 
-        if (averageLatency > 100) {
-            MessageUtils.sendConsoleMessage(
-                    "<yellow>⚠️  Latencia alta detectada. Verifica la configuración de la base de datos.</yellow>");
+        // Lanza todas las operaciones cuyo instante de llegada ya ha pasado
+        private void dispatch() {
+            long now = System.nanoTime();
+            while (!cancelled) {
+                long intendedStart = startNanos + nextArrival * intervalNanos;
+                if (intendedStart > now || intendedStart >= endNanos) {
+                    break;
+                }
+                nextArrival++;
+                issue(intendedStart);
+            }
+
+            sampleTimeline(now);
+
+            if (cancelled || now >= endNanos) {
+                // Se relanza como tarea aparte para no bloquear la tarea periódica que se está cancelando
+                pacer.shutdown();
+                Thread finisher = new Thread(this::finish, "MythicEconomy-Benchmark-Report");
+                finisher.setDaemon(true);
+                finisher.start();
+                throw new CancellationSignal();
+            }
         }
 
-        if (operationsPerSecond > 1000) {
-            MessageUtils
-                    .sendConsoleMessage("<green>✅ Excelente rendimiento: Más de 1000 operaciones por segundo!</green>");
+        private void issue(long intendedStart) {
+            issued.increment();
+            if (outstanding.incrementAndGet() > settings.getMaxOutstanding()) {
+                outstanding.decrementAndGet();
+                if (intendedStart >= measureStartNanos) {
+                    dropped.increment();
+                }
+                return;
+            }
+
+            try {
+                workers.execute(() -> runOperation(intendedStart));
+            } catch (RuntimeException e) {
+                outstanding.decrementAndGet();
+                dropped.increment();
+            }
         }
-    }
 
-    // Obtiene el estado actual del benchmark
-    public String getBenchmarkStatus() {
-        if (!isRunning && !benchmarkCompleted) {
-            return "No hay benchmark en ejecución";
+        private void runOperation(long intendedStart) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            BenchmarkOperation operation = mixTable[random.nextInt(mixTable.length)];
+            int index = random.nextInt(accounts.length);
+            int otherIndex = (index + 1 + random.nextInt(accounts.length - 1)) % accounts.length;
+            double amount = random.nextInt(1, 10_001) / 100.0;
+
+            long serviceStart = System.nanoTime();
+            CompletableFuture<Boolean> future;
+            try {
+                if (operation == BenchmarkOperation.PLACEHOLDER) {
+                    String key = PLACEHOLDER_KEYS[random.nextInt(PLACEHOLDER_KEYS.length)];
+                    future = CompletableFuture.completedFuture(
+                            placeholders.onRequest(offlineAccounts[index], key) != null);
+                } else {
+                    future = target.execute(operation, accounts[index], accounts[otherIndex], amount,
+                            settings.getCurrencyId());
+                }
+            } catch (Throwable e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+
+            future.whenComplete((success, throwable) -> complete(operation, intendedStart, serviceStart,
+                    throwable == null && Boolean.TRUE.equals(success), throwable != null));
+        }
+
+        private void complete(BenchmarkOperation operation, long intendedStart, long serviceStart, boolean success,
+                boolean failed) {
+            long end = System.nanoTime();
+            outstanding.decrementAndGet();
+            completed.increment();
+            if (intendedStart < measureStartNanos) {
+                return;
+            }
+
+            latencyRecorder.recordValue(end - intendedStart);
+            serviceRecorder.recordValue(end - serviceStart);
+            operationRecorders.get(operation).recordValue(end - intendedStart);
+            if (failed) {
+                errors.increment();
+                intervalErrors.increment();
+            } else if (!success) {
+                rejected.increment();
+            }
+        }
+
+        // Cierra los segundos completos de la fase medida
+        private void sampleTimeline(long now) {
+            while (now >= measureStartNanos + TimeUnit.SECONDS.toNanos(nextTimelineSecond + 1L)
+                    && nextTimelineSecond < settings.getDurationSeconds()) {
+                closeTimelineSecond();
+            }
+        }
+
+        private void closeTimelineSecond() {
+            intervalLatency = latencyRecorder.getIntervalHistogram(intervalLatency);
+            totalLatency.add(intervalLatency);
+            timeline.add(new BenchmarkReport.TimelinePoint(nextTimelineSecond, intervalLatency,
+                    intervalErrors.sumThenReset()));
+            nextTimelineSecond++;
+        }
+
+        // Espera a las operaciones pendientes, genera el informe y libera los recursos
+        private void finish() {
+            long drainDeadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MS;
+            while (outstanding.get() > 0 && System.currentTimeMillis() < drainDeadline) {
+                try {
+                    Thread.sleep(10L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            workers.shutdownNow();
+
+            BenchmarkReport report = null;
+            try {
+                if (startNanos != 0) {
+                    report = buildReport();
+                    saveReport(report);
+                }
+            } catch (Exception e) {
+                plugin.getLogger().warning("Error al generar el informe del benchmark: " + e.getMessage());
+            } finally {
+                releaseAccounts();
+                synchronized (BenchmarkTool.this) {
+                    currentRun = null;
+                    if (report != null) {
+                        lastReport = report;
+                    }
+                }
+            }
+
+            BenchmarkReport finished = report;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (finished != null) {
+                    printReport(finished, requester);
+                } else {
+                    MessageUtils.sendMessage(requester, "<red>El benchmark terminó sin resultados.</red>");
+                }
+            });
         }
 
-        if (isRunning) {
-            return "Benchmark en ejecución - Operaciones exitosas: " + successfulOperations.get() +
-                    ", Fallidas: " + failedOperations.get();
+        private BenchmarkReport buildReport() {
+            // Lo registrado en el último segundo incompleto también cuenta en el total
+            intervalLatency = latencyRecorder.getIntervalHistogram(intervalLatency);
+            totalLatency.add(intervalLatency);
+
+            long measureEnd = Math.min(System.nanoTime(), endNanos);
+            double measuredSeconds = Math.max(0L, measureEnd - measureStartNanos) / 1_000_000_000.0;
+
+            Map<BenchmarkOperation, BenchmarkReport.LatencySummary> operations = new EnumMap<>(BenchmarkOperation.class);
+            for (Map.Entry<BenchmarkOperation, Recorder> entry : operationRecorders.entrySet()) {
+                Histogram histogram = entry.getValue().getIntervalHistogram();
+                if (histogram.getTotalCount() > 0) {
+                    operations.put(entry.getKey(), new BenchmarkReport.LatencySummary(histogram));
+                }
+            }
+
+            return new BenchmarkReport(settings, provider, startedAtMillis, measuredSeconds, cancelled,
+                    issued.sum(), completed.sum(), errors.sum(), rejected.sum(), dropped.sum(),
+                    new BenchmarkReport.LatencySummary(totalLatency),
+                    new BenchmarkReport.LatencySummary(serviceRecorder.getIntervalHistogram()),
+                    operations, timeline);
+        }
+
+        private void saveReport(BenchmarkReport report) throws IOException {
+            if (!settings.isJsonReport() && !settings.isCsvReport()) {
+                return;
+            }
+
+            Path directory = plugin.getDataFolder().toPath().resolve("benchmarks");
+            Files.createDirectories(directory);
+            String name = "benchmark-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date(startedAtMillis))
+                    + "-" + settings.getTarget().getLabel();
+            if (settings.isJsonReport()) {
+                report.writeJson(directory.resolve(name + ".json"));
+            }
+            if (settings.isCsvReport()) {
+                report.writeCsv(directory.resolve(name + ".csv"), directory.resolve(name + "-timeline.csv"));
+            }
+            plugin.getLogger().info("Informe del benchmark guardado en benchmarks/" + name);
+        }
+
+        // Las cuentas sintéticas dejan de mantenerse en memoria; sus saldos se vuelcan al proveedor.
+        // Se liberan todas aunque alguna falle: las que no se pudieron volcar las reintenta el volcado periódico
+        private void releaseAccounts() {
+            if (balanceCache == null) {
+                return;
+            }
+            int failed = 0;
+            String lastError = null;
+            for (UUID account : accounts) {
+                try {
+                    balanceCache.releasePlayer(account);
+                } catch (Exception e) {
+                    failed++;
+                    lastError = e.getMessage();
+                }
+            }
+            if (failed > 0) {
+                plugin.getLogger().warning("Error al liberar " + failed + "/" + accounts.length
+                        + " cuentas del benchmark: " + lastError);
+            }
         }
 
-        return "Benchmark finalizado";
+        String describeProgress() {
+            long now = System.nanoTime();
+            if (startNanos == 0) {
+                return "Preparando " + settings.getAccounts() + " cuentas...";
+            }
+            String phase = now < measureStartNanos ? "calentamiento" : "midiendo";
+            long elapsed = TimeUnit.NANOSECONDS.toSeconds(now - startNanos);
+            long total = settings.getWarmupSeconds() + settings.getDurationSeconds();
+            return "En ejecución (" + phase + ", " + Math.min(elapsed, total) + "/" + total + "s) - lanzadas: "
+                    + issued.sum() + ", completadas: " + completed.sum() + ", pendientes: " + outstanding.get()
+                    + ", errores: " + errors.sum();
+        }
     }
 
-    // Verifica si el benchmark está actualmente en ejecución
-    public boolean isRunning() {
-        return isRunning;
+    // Detiene la tarea periódica del pacer desde dentro
+    private static final class CancellationSignal extends RuntimeException {
+        CancellationSignal() {
+            super(null, null, false, false);
+        }
     }
 
-    // Cancela el benchmark actual
-    public void cancelBenchmark() {
-        if (isRunning) {
-            isRunning = false;
-            MessageUtils.sendConsoleMessage("<yellow> Benchmark cancelado manualmente</yellow>");
+    // ========== RESUMEN ==========
+
+    private void printReport(BenchmarkReport report, CommandSender requester) {
+        List<String> lines = new ArrayList<>();
+        BenchmarkSettings settings = report.getSettings();
+        lines.add("<green>🏁 Benchmark " + (report.isCancelled() ? "cancelado" : "finalizado") + " ("
+                + settings.getTarget().getLabel() + "/" + report.getProvider() + ")</green>");
+        lines.add("<aqua>Ritmo objetivo: " + settings.getRate() + " ops/s · conseguido: "
+                + MoneyFormatter.formatFixed(report.getThroughput(), 1) + " ops/s en "
+                + MoneyFormatter.formatFixed(report.getMeasuredSeconds(), 1) + "s</aqua>");
+        lines.add("<aqua>Medidas: " + report.getLatency().getCount() + " · errores: " + report.getErrors()
+                + " · rechazadas: " + report.getRejected() + " · descartadas: " + report.getDropped() + "</aqua>");
+        lines.add("<aqua>Latencia: " + describe(report.getLatency()) + "</aqua>");
+        lines.add("<gray>Tiempo de servicio: " + describe(report.getServiceTime()) + "</gray>");
+        for (Map.Entry<BenchmarkOperation, BenchmarkReport.LatencySummary> entry : report.getOperations().entrySet()) {
+            lines.add("<gray>  " + entry.getKey().getLabel() + ": " + entry.getValue().getCount() + " · "
+                    + describe(entry.getValue()) + "</gray>");
+        }
+
+        if (report.getDropped() > 0 || report.getThroughput() < settings.getRate() * 0.95) {
+            lines.add("<yellow>⚠️  El sistema no sostiene el ritmo pedido: la latencia incluye la espera en cola."
+                    + "</yellow>");
+        }
+
+        for (String line : lines) {
+            MessageUtils.sendConsoleMessage(line);
+            if (requester != null && requester != Bukkit.getConsoleSender()) {
+                MessageUtils.sendMessage(requester, line);
+            }
         }
     }
 
-    // Métodos de conveniencia para pruebas rápidas
-    public void quickBenchmark() {
-        MessageUtils.sendConsoleMessage(
-                "<green>🚀 Iniciando benchmark rápido (10 usuarios, 100 operaciones cada uno)</green>");
-        startBenchmark(10, 100, 30);
+    private static String describe(BenchmarkReport.LatencySummary summary) {
+        return "p50 " + formatDuration(summary.getP50()) + " · p99 " + formatDuration(summary.getP99())
+                + " · p999 " + formatDuration(summary.getP999()) + " · máx " + formatDuration(summary.getMax());
     }
 
-    public void stressBenchmark() {
-        MessageUtils.sendConsoleMessage(
-                "<red>🔥 Iniciando benchmark de estrés (100 usuarios, 1000 operaciones cada uno)</red>");
-        startBenchmark(100, 1000, 60);
+    // Microsegundos por debajo de 1 ms para que las operaciones en memoria no se lean como 0
+    static String formatDuration(long nanos) {
+        if (nanos < 1_000_000L) {
+            return MoneyFormatter.formatFixed(nanos / 1_000.0, 1) + "µs";
+        }
+        return MoneyFormatter.formatFixed(nanos / 1_000_000.0, 2) + "ms";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,1012 @@
+package com.spectrasonic.MythicEconomy.database;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import com.spectrasonic.MythicEconomy.manager.CurrencyManager;
+import com.spectrasonic.MythicEconomy.models.Currency;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorador write-behind que mantiene en memoria los saldos de los jugadores conectados.
+ * Las lecturas y escrituras de jugadores en línea se resuelven localmente y los cambios
+ * pendientes se vuelcan al proveedor real por lotes, de forma periódica y al desconectarse
+ * el jugador o apagar el servidor. Los jugadores desconectados siguen yendo directo al proveedor.
+ * Los saldos y el nombre de un jugador se pueden cargar ya en la pre-conexión, antes de que entre.
+ * Los saldos de un jugador desconectado también se pueden cargar bajo demanda (puente de Vault); mientras
+ * se usen se resuelven en memoria igual que los de un jugador conectado.
+ *
+ * El volcado escribe la variación de cada saldo desde el último volcado, no el valor absoluto, así que no pisa
+ * los cambios que otro servidor o una herramienta externa hagan sobre la misma base de datos. Esos cambios sí
+ * tardan en verse aquí: un saldo en memoria no se relee hasta que el jugador sale y se vuelve a cargar.
+ */
+public class CachingEconomyDataProvider implements EconomyDataProvider {
+
+    // Tiempo máximo entre la precarga en la pre-conexión y la entrada del jugador
+    private static final long EXPECTED_LOGIN_TIMEOUT_MS = 60_000L;
+
+    // Tiempo sin accesos tras el que se liberan los saldos de un jugador desconectado
+    private static final long OFFLINE_IDLE_MS = 5 * 60_000L;
+
+    // Lecturas fuera del bloqueo de volcado antes de cargar una cuenta desconectada leyendo bajo él
+    private static final int OFFLINE_LOAD_ATTEMPTS = 3;
+
+    private final JavaPlugin plugin;
+    @Getter
+    private final EconomyDataProvider delegate;
+    private final long flushIntervalTicks;
+
+    // Saldos en memoria: playerUUID -> (currencyId -> saldo)
+    private final Map<UUID, Map<String, CachedBalance>> balances = new ConcurrentHashMap<>();
+
+    // Jugadores cuyos saldos se mantienen en memoria: playerUUID -> sesión
+    private final Map<UUID, Long> trackedPlayers = new ConcurrentHashMap<>();
+
+    // Genera los identificadores de sesión; una reconexión siempre recibe uno nuevo
+    private final AtomicLong sessions = new AtomicLong();
+
+    // Jugadores precargados en la pre-conexión que todavía no han entrado: playerUUID -> límite de espera (ms)
+    private final Map<UUID, Long> expectedPlayers = new HashMap<>();
+
+    // Nombres de los jugadores en memoria
+    private final Map<UUID, String> names = new ConcurrentHashMap<>();
+
+    // Jugadores desconectados con saldos en memoria: playerUUID -> último acceso (ms)
+    private final Map<UUID, Long> offlineAccess = new ConcurrentHashMap<>();
+
+    // Cargas en segundo plano de cuentas desconectadas en curso
+    private final Set<UUID> offlineLoads = ConcurrentHashMap.newKeySet();
+
+    // Depósitos a cuentas que no están en memoria, pendientes de volcar: playerUUID -> (currencyId -> cantidad)
+    private final Map<UUID, Map<String, Double>> pendingDeposits = new ConcurrentHashMap<>();
+
+    // Evita que dos volcados se ejecuten a la vez (tarea periódica + desconexión/apagado)
+    private final Object flushLock = new Object();
+
+    // Volcados que han escrito depósitos pendientes en el proveedor; solo cambia bajo flushLock
+    private volatile long depositWrites;
+
+    private BukkitTask flushTask;
+
+    public CachingEconomyDataProvider(JavaPlugin plugin, EconomyDataProvider delegate, long flushIntervalTicks) {
+        this.plugin = plugin;
+        this.delegate = delegate;
+        this.flushIntervalTicks = Math.max(1L, flushIntervalTicks);
+    }
+
+    /**
+     * Inicia la tarea periódica de volcado de cambios pendientes
+     */
+    public void start() {
+        if (flushTask != null) {
+            return;
+        }
+        flushTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::flush, flushIntervalTicks, flushIntervalTicks);
+    }
+
+    /**
+     * Detiene la tarea periódica y vuelca todo lo pendiente
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        flush();
+    }
+
+    // ========== CICLO DE VIDA DE JUGADORES ==========
+
+    /**
+     * Marca a un jugador como conectado; sus saldos pasan a resolverse en memoria
+     * @return true si sus datos ya se cargaron en la pre-conexión
+     */
+    public boolean trackPlayer(UUID playerUUID) {
+        synchronized (expectedPlayers) {
+            if (expectedPlayers.remove(playerUUID) != null) {
+                return true;
+            }
+            trackedPlayers.put(playerUUID, sessions.incrementAndGet());
+            return false;
+        }
+    }
+
+    /**
+     * Sesión actual de un jugador en memoria, para liberarla después con {@link #releasePlayer(UUID, long)}
+     * @return identificador de la sesión, o 0 si el jugador no se mantiene en memoria
+     */
+    public long getSession(UUID playerUUID) {
+        return trackedPlayers.getOrDefault(playerUUID, 0L);
+    }
+
+    /**
+     * Empieza a mantener en memoria a un jugador que se está conectando, para que sus datos se carguen
+     * antes de que entre. Si no llega a entrar se deja de mantener tras {@value #EXPECTED_LOGIN_TIMEOUT_MS} ms
+     * @return false si el jugador ya estaba en memoria (por ejemplo, otra sesión suya sigue conectada)
+     */
+    public boolean expectPlayer(UUID playerUUID) {
+        synchronized (expectedPlayers) {
+            if (trackedPlayers.putIfAbsent(playerUUID, sessions.incrementAndGet()) != null) {
+                return false;
+            }
+            expectedPlayers.put(playerUUID, System.currentTimeMillis() + EXPECTED_LOGIN_TIMEOUT_MS);
+            return true;
+        }
+    }
+
+    /**
+     * Descarta la precarga de un jugador al que se le denegó la entrada.
+     * Sus saldos sin cambios se liberan en el siguiente volcado
+     */
+    public void cancelExpectedPlayer(UUID playerUUID) {
+        synchronized (expectedPlayers) {
+            if (expectedPlayers.remove(playerUUID) != null) {
+                trackedPlayers.remove(playerUUID);
+                names.remove(playerUUID);
+            }
+        }
+    }
+
+    // Deja de mantener a los jugadores precargados que no llegaron a entrar a tiempo
+    private void expireExpectedPlayers() {
+        long now = System.currentTimeMillis();
+        synchronized (expectedPlayers) {
+            expectedPlayers.entrySet().removeIf(entry -> {
+                if (entry.getValue() > now) {
+                    return false;
+                }
+                trackedPlayers.remove(entry.getKey());
+                names.remove(entry.getKey());
+                return true;
+            });
+        }
+    }
+
+    /**
+     * Deja de mantener en memoria a un jugador: vuelca sus cambios pendientes y libera sus saldos.
+     * Debe llamarse fuera del hilo principal porque escribe en el proveedor real.
+     */
+    public void releasePlayer(UUID playerUUID) {
+        trackedPlayers.remove(playerUUID);
+        names.remove(playerUUID);
+        writeAndRelease(playerUUID);
+    }
+
+    /**
+     * Como {@link #releasePlayer(UUID)}, pero solo si la sesión del jugador sigue siendo la indicada. La salida
+     * se procesa en segundo plano: si el jugador ya volvió a entrar, la sesión nueva conserva sus saldos
+     */
+    public void releasePlayer(UUID playerUUID, long session) {
+        if (!trackedPlayers.remove(playerUUID, session)) {
+            return;
+        }
+        names.remove(playerUUID);
+        writeAndRelease(playerUUID);
+    }
+
+    private void writeAndRelease(UUID playerUUID) {
+        synchronized (flushLock) {
+            Map<String, CachedBalance> playerBalances = balances.get(playerUUID);
+            if (playerBalances != null) {
+                for (Map.Entry<String, CachedBalance> entry : playerBalances.entrySet()) {
+                    writeEntry(playerUUID, entry.getKey(), entry.getValue());
+                }
+            }
+            // Si el jugador volvió a entrar mientras se volcaba, conservar sus saldos
+            balances.computeIfPresent(playerUUID,
+                    (uuid, cached) -> trackedPlayers.containsKey(uuid) || hasDirtyEntries(cached) ? cached : null);
+        }
+    }
+
+    /**
+     * Verifica si un jugador tiene sus saldos en memoria
+     */
+    public boolean isCached(UUID playerUUID) {
+        return balances.containsKey(playerUUID);
+    }
+
+    // ========== CUENTAS DESCONECTADAS ==========
+
+    /**
+     * Saldo en memoria de un jugador, conectado o no, sin consultar al proveedor
+     * @return saldo, o null si no está en memoria
+     */
+    public Double peekBalance(UUID playerUUID, String currencyId) {
+        touchOffline(playerUUID);
+        Map<String, CachedBalance> playerBalances = balances.get(playerUUID);
+        CachedBalance cached = playerBalances != null ? playerBalances.get(currencyId) : null;
+        return cached != null ? cached.get() : null;
+    }
+
+    /**
+     * Carga en memoria los saldos de un jugador desconectado para que las siguientes operaciones no hagan E/S.
+     * Se mantienen mientras se usen y se liberan tras {@value #OFFLINE_IDLE_MS} ms sin accesos.
+     * Debe llamarse fuera del hilo principal porque consulta al proveedor real.
+     */
+    public void loadOffline(UUID playerUUID, String currencyId) {
+        touchOffline(playerUUID);
+        // La lectura se hace fuera del bloqueo de volcado para no frenar los volcados ni las desconexiones.
+        // Si entre la lectura y la carga un volcado escribió depósitos pendientes, lo leído puede no incluirlos
+        // y ya no están en la cola, así que se vuelve a leer
+        for (int attempt = 1; ; attempt++) {
+            long writes = depositWrites;
+            Map<String, Double> stored = peekEntry(playerUUID, currencyId) == null ? readStored(playerUUID, currencyId) : null;
+
+            synchronized (flushLock) {
+                boolean stale = stored != null ? depositWrites != writes : peekEntry(playerUUID, currencyId) == null;
+                if (stale) {
+                    if (attempt < OFFLINE_LOAD_ATTEMPTS) {
+                        continue;
+                    }
+                    stored = readStored(playerUUID, currencyId);
+                }
+
+                Map<String, CachedBalance> playerBalances = balances.computeIfAbsent(playerUUID, k -> new ConcurrentHashMap<>());
+                if (stored != null) {
+                    stored.forEach((id, balance) -> playerBalances.putIfAbsent(id, new CachedBalance(balance)));
+                }
+
+                Map<String, Double> deposits = pendingDeposits.remove(playerUUID);
+                if (deposits != null) {
+                    deposits.forEach((id, amount) -> {
+                        CachedBalance cached = playerBalances.get(id);
+                        if (cached != null) {
+                            cached.add(amount);
+                        } else {
+                            queueDeposit(playerUUID, id, amount);
+                        }
+                    });
+                }
+                return;
+            }
+        }
+    }
+
+    // Todos los saldos guardados de un jugador, incluida la moneda pedida aunque no tenga registro
+    private Map<String, Double> readStored(UUID playerUUID, String currencyId) {
+        Map<String, Double> stored = new HashMap<>(delegate.getAllBalances(playerUUID));
+        if (!stored.containsKey(currencyId)) {
+            stored.put(currencyId, delegate.getBalance(playerUUID, currencyId));
+        }
+        return stored;
+    }
+
+    /**
+     * Programa {@link #loadOffline(UUID, String)} en segundo plano; las llamadas repetidas mientras
+     * la carga está en curso no programan otra
+     */
+    public void loadOfflineAsync(UUID playerUUID, String currencyId) {
+        if (!offlineLoads.add(playerUUID)) {
+            return;
+        }
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                loadOffline(playerUUID, currencyId);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Error al cargar los saldos de " + playerUUID + ": " + e.getMessage());
+            } finally {
+                offlineLoads.remove(playerUUID);
+            }
+        });
+    }
+
+    /**
+     * Deposita sin E/S: si la cuenta está en memoria se suma allí; si no, el depósito queda pendiente
+     * y se aplica en el siguiente volcado con una suma en el proveedor
+     */
+    public void depositWriteBehind(UUID playerUUID, double amount, String currencyId) {
+        if (amount <= 0) {
+            return;
+        }
+        touchOffline(playerUUID);
+        Map<String, CachedBalance> playerBalances = balances.get(playerUUID);
+        CachedBalance cached = playerBalances != null ? playerBalances.get(currencyId) : null;
+        if (cached != null) {
+            cached.add(amount);
+        } else {
+            queueDeposit(playerUUID, currencyId, amount);
+        }
+    }
+
+    // compute es atómico por clave: un volcado nunca se lleva un mapa que todavía se está modificando
+    private void queueDeposit(UUID playerUUID, String currencyId, double amount) {
+        pendingDeposits.compute(playerUUID, (uuid, deposits) -> {
+            Map<String, Double> updated = deposits != null ? deposits : new HashMap<>();
+            updated.merge(currencyId, amount, Double::sum);
+            return updated;
+        });
+    }
+
+    // Registra el acceso a un jugador desconectado para mantener sus saldos en memoria
+    private void touchOffline(UUID playerUUID) {
+        if (!trackedPlayers.containsKey(playerUUID)) {
+            offlineAccess.put(playerUUID, System.currentTimeMillis());
+        }
+    }
+
+    // ========== VOLCADO (WRITE-BEHIND) ==========
+
+    /**
+     * Vuelca al proveedor real todos los saldos modificados desde el último volcado
+     */
+    public void flush() {
+        expireExpectedPlayers();
+        synchronized (flushLock) {
+            // Los depósitos a cuentas que ya están en memoria pasan a su entrada; el resto se suma en el proveedor
+            Map<String, Map<UUID, Double>> deposits = drainDeposits();
+
+            // Agrupar por moneda: currencyId -> (playerUUID -> variación)
+            Map<String, Map<UUID, BalanceDelta>> pending = new HashMap<>();
+            int dirtyCount = 0;
+
+            for (Map.Entry<UUID, Map<String, CachedBalance>> playerEntry : balances.entrySet()) {
+                for (Map.Entry<String, CachedBalance> entry : playerEntry.getValue().entrySet()) {
+                    CachedBalance cached = entry.getValue();
+                    BalanceDelta change = cached.takeDelta();
+                    if (change != null) {
+                        pending.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(playerEntry.getKey(), change);
+                        dirtyCount++;
+                    }
+                }
+            }
+
+            if (!pending.isEmpty()) {
+                int written = 0;
+                for (Map.Entry<String, Map<UUID, BalanceDelta>> currencyEntry : pending.entrySet()) {
+                    written += writeBatch(currencyEntry.getKey(), currencyEntry.getValue());
+                }
+
+                if (written < dirtyCount) {
+                    plugin.getLogger().warning("Volcado de caché incompleto: " + written + "/" + dirtyCount
+                            + " saldos escritos, se reintentará en el próximo ciclo");
+                }
+            }
+
+            for (Map.Entry<String, Map<UUID, Double>> currencyEntry : deposits.entrySet()) {
+                writeDeposits(currencyEntry.getKey(), currencyEntry.getValue());
+            }
+            if (!deposits.isEmpty()) {
+                depositWrites++;
+            }
+
+            // Liberar jugadores desconectados sin accesos recientes ni cambios pendientes
+            long idleSince = System.currentTimeMillis() - OFFLINE_IDLE_MS;
+            offlineAccess.entrySet().removeIf(entry -> entry.getValue() < idleSince || trackedPlayers.containsKey(entry.getKey()));
+            balances.entrySet().removeIf(entry -> !trackedPlayers.containsKey(entry.getKey())
+                    && !offlineAccess.containsKey(entry.getKey()) && !hasDirtyEntries(entry.getValue()));
+        }
+    }
+
+    // Saca los depósitos pendientes; devuelve los que hay que sumar en el proveedor agrupados por moneda
+    private Map<String, Map<UUID, Double>> drainDeposits() {
+        Map<String, Map<UUID, Double>> toWrite = new HashMap<>();
+        for (UUID playerUUID : pendingDeposits.keySet()) {
+            Map<String, Double> deposits = pendingDeposits.remove(playerUUID);
+            if (deposits == null) {
+                continue;
+            }
+            Map<String, CachedBalance> playerBalances = balances.get(playerUUID);
+            deposits.forEach((currencyId, amount) -> {
+                CachedBalance cached = playerBalances != null ? playerBalances.get(currencyId) : null;
+                if (cached != null) {
+                    cached.add(amount);
+                } else {
+                    toWrite.computeIfAbsent(currencyId, k -> new HashMap<>()).put(playerUUID, amount);
+                }
+            });
+        }
+        return toWrite;
+    }
+
+    // Suma los depósitos de una moneda con una sola operación del proveedor; los que fallen vuelven a quedar pendientes
+    private void writeDeposits(String currencyId, Map<UUID, Double> amounts) {
+        try {
+            delegate.addBalances(amounts, currencyId);
+        } catch (Exception e) {
+            Set<UUID> failed = failedAccounts(e, amounts.keySet());
+            plugin.getLogger().severe("Error al volcar " + failed.size() + "/" + amounts.size() + " depósitos ("
+                    + currencyId + "), se reintentarán en el próximo ciclo: " + e.getMessage());
+            for (UUID playerUUID : failed) {
+                queueDeposit(playerUUID, currencyId, amounts.get(playerUUID));
+            }
+        }
+    }
+
+    // Escribe las variaciones de una moneda con una sola operación del proveedor; devuelve cuántas se escribieron
+    private int writeBatch(String currencyId, Map<UUID, BalanceDelta> changes) {
+        try {
+            delegate.applyDeltas(changes, currencyId);
+            return changes.size();
+        } catch (Exception e) {
+            Set<UUID> failed = failedAccounts(e, changes.keySet());
+            plugin.getLogger().severe("Error al volcar " + failed.size() + "/" + changes.size() + " saldos ("
+                    + currencyId + "): " + e.getMessage());
+            for (UUID playerUUID : failed) {
+                restoreDelta(playerUUID, currencyId, changes.get(playerUUID));
+            }
+            return changes.size() - failed.size();
+        }
+    }
+
+    // Cuentas de un lote que no llegaron al proveedor: las que indique BalanceWriteException, o todas
+    private static Set<UUID> failedAccounts(Exception e, Set<UUID> batch) {
+        return e instanceof BalanceWriteException writeException ? writeException.getFailedAccounts() : batch;
+    }
+
+    // Vuelca una única entrada si tiene cambios pendientes; devuelve false si la escritura falló
+    private boolean writeEntry(UUID playerUUID, String currencyId, CachedBalance cached) {
+        BalanceDelta change = cached.takeDelta();
+        if (change == null) {
+            return true;
+        }
+        try {
+            delegate.applyDeltas(Map.of(playerUUID, change), currencyId);
+            return true;
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al volcar saldo de " + playerUUID + " (" + currencyId + "): " + e.getMessage());
+            cached.restore(change.getDelta());
+            return false;
+        }
+    }
+
+    // Devuelve a su entrada una variación que no se llegó a escribir. Las entradas con cambios pendientes no se
+    // liberan y todo esto ocurre bajo el bloqueo de volcado, así que la entrada sigue ahí
+    private void restoreDelta(UUID playerUUID, String currencyId, BalanceDelta change) {
+        CachedBalance cached = peekEntry(playerUUID, currencyId);
+        if (cached != null) {
+            cached.restore(change.getDelta());
+        }
+    }
+
+    private boolean hasDirtyEntries(Map<String, CachedBalance> playerBalances) {
+        for (CachedBalance cached : playerBalances.values()) {
+            if (cached.isDirty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Obtiene la entrada en memoria de un jugador; la carga del proveedor si el jugador está conectado.
+    // Devuelve null para jugadores desconectados sin saldos en memoria.
+    private CachedBalance getEntry(UUID playerUUID, String currencyId) {
+        Map<String, CachedBalance> playerBalances = balances.get(playerUUID);
+        if (playerBalances == null) {
+            if (!trackedPlayers.containsKey(playerUUID)) {
+                return null;
+            }
+            playerBalances = balances.computeIfAbsent(playerUUID, k -> new ConcurrentHashMap<>());
+        } else {
+            touchOffline(playerUUID);
+        }
+
+        CachedBalance cached = playerBalances.get(currencyId);
+        if (cached == null) {
+            // Consulta fuera del mapa: dentro de computeIfAbsent bloquearía las escrituras de ese tramo mientras dura
+            CachedBalance loaded = new CachedBalance(delegate.getBalance(playerUUID, currencyId));
+            cached = playerBalances.putIfAbsent(currencyId, loaded);
+            if (cached == null) {
+                cached = loaded;
+            }
+        }
+        return cached;
+    }
+
+    // Entrada en memoria sin cargarla ni registrar el acceso
+    private CachedBalance peekEntry(UUID playerUUID, String currencyId) {
+        Map<String, CachedBalance> playerBalances = balances.get(playerUUID);
+        return playerBalances != null ? playerBalances.get(currencyId) : null;
+    }
+
+    // Relee del proveedor una entrada que apareció mientras se operaba directamente sobre él, si no tiene cambios propios
+    private void reloadIfClean(UUID playerUUID, String currencyId) {
+        CachedBalance cached = peekEntry(playerUUID, currencyId);
+        if (cached != null) {
+            synchronized (cached) {
+                if (!cached.dirty) {
+                    cached.reload(delegate.getBalance(playerUUID, currencyId));
+                }
+            }
+        }
+    }
+
+    // Los saldos absolutos nunca se guardan negativos, vengan de memoria o vayan directos al proveedor
+    private static double nonNegative(double amount) {
+        return Math.max(0, amount);
+    }
+
+    // ========== MÉTODOS BÁSICOS (para compatibilidad hacia atrás) ==========
+
+    @Override
+    public double getBalance(UUID playerUUID) {
+        return getBalance(playerUUID, "default");
+    }
+
+    @Override
+    public void setBalance(UUID playerUUID, double amount) {
+        setBalance(playerUUID, amount, "default");
+    }
+
+    @Override
+    public boolean addBalance(UUID playerUUID, double amount) {
+        return addBalance(playerUUID, amount, "default");
+    }
+
+    @Override
+    public boolean removeBalance(UUID playerUUID, double amount) {
+        return removeBalance(playerUUID, amount, "default");
+    }
+
+    @Override
+    public boolean hasEnoughBalance(UUID playerUUID, double amount) {
+        return hasEnoughBalance(playerUUID, amount, "default");
+    }
+
+    @Override
+    public void createPlayer(UUID playerUUID) {
+        createPlayer(playerUUID, "default");
+    }
+
+    // ========== MÉTODOS PARA MÚLTIPLES MONEDAS ==========
+
+    @Override
+    public double getBalance(UUID playerUUID, String currencyId) {
+        CachedBalance cached = getEntry(playerUUID, currencyId);
+        return cached != null ? cached.get() : delegate.getBalance(playerUUID, currencyId);
+    }
+
+    @Override
+    public Map<String, Double> getAllBalances(UUID playerUUID) {
+        Map<String, CachedBalance> playerBalances = balances.get(playerUUID);
+        if (playerBalances != null && hasAllEnabledCurrencies(playerBalances)) {
+            Map<String, Double> cachedBalances = new HashMap<>();
+            playerBalances.forEach((currencyId, cached) -> cachedBalances.put(currencyId, cached.get()));
+            return cachedBalances;
+        }
+
+        return mergeStored(playerUUID, delegate.getAllBalances(playerUUID));
+    }
+
+    @Override
+    public Map<String, Double> ensureBalances(UUID playerUUID, Map<String, Double> startingBalances) {
+        return mergeStored(playerUUID, delegate.ensureBalances(playerUUID, startingBalances));
+    }
+
+    // Carga en memoria los saldos leídos del proveedor si el jugador está conectado y devuelve la vista combinada
+    private Map<String, Double> mergeStored(UUID playerUUID, Map<String, Double> storedBalances) {
+        Map<String, Double> stored = new HashMap<>(storedBalances);
+        if (trackedPlayers.containsKey(playerUUID)) {
+            Map<String, CachedBalance> tracked = balances.computeIfAbsent(playerUUID, k -> new ConcurrentHashMap<>());
+            stored.forEach((currencyId, balance) -> tracked.putIfAbsent(currencyId, new CachedBalance(balance)));
+        }
+
+        // Lo que ya estaba en memoria manda: puede tener cambios sin volcar
+        Map<String, CachedBalance> current = balances.get(playerUUID);
+        if (current != null) {
+            current.forEach((currencyId, cached) -> stored.put(currencyId, cached.get()));
+        }
+        return stored;
+    }
+
+    private boolean hasAllEnabledCurrencies(Map<String, CachedBalance> playerBalances) {
+        for (Currency currency : CurrencyManager.getInstance().getEnabledCurrencies()) {
+            if (!playerBalances.containsKey(currency.getId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void setBalance(UUID playerUUID, double amount, String currencyId) {
+        CachedBalance cached = getEntry(playerUUID, currencyId);
+        if (cached != null) {
+            cached.set(nonNegative(amount));
+        } else {
+            delegate.setBalance(playerUUID, nonNegative(amount), currencyId);
+        }
+    }
+
+    @Override
+    public boolean addBalance(UUID playerUUID, double amount, String currencyId) {
+        CachedBalance cached = getEntry(playerUUID, currencyId);
+        if (cached != null) {
+            cached.add(amount);
+            return true;
+        }
+        return delegate.addBalance(playerUUID, amount, currencyId);
+    }
+
+    @Override
+    public boolean removeBalance(UUID playerUUID, double amount, String currencyId) {
+        CachedBalance cached = getEntry(playerUUID, currencyId);
+        if (cached != null) {
+            return cached.remove(amount);
+        }
+        return delegate.removeBalance(playerUUID, amount, currencyId);
+    }
+
+    @Override
+    public boolean hasEnoughBalance(UUID playerUUID, double amount, String currencyId) {
+        CachedBalance cached = getEntry(playerUUID, currencyId);
+        if (cached != null) {
+            return cached.get() >= amount;
+        }
+        return delegate.hasEnoughBalance(playerUUID, amount, currencyId);
+    }
+
+    @Override
+    public void createPlayer(UUID playerUUID, String currencyId) {
+        synchronized (flushLock) {
+            CachedBalance cached = peekEntry(playerUUID, currencyId);
+            if (cached == null) {
+                delegate.createPlayer(playerUUID, currencyId);
+                reloadIfClean(playerUUID, currencyId);
+                return;
+            }
+
+            // Volcar lo pendiente, crear y recargar la entrada con su monitor tomado: ninguna modificación
+            // concurrente puede quedar entre el volcado y la recarga y perderse
+            synchronized (cached) {
+                boolean written = writeEntry(playerUUID, currencyId, cached);
+                delegate.createPlayer(playerUUID, currencyId);
+                if (written) {
+                    cached.reload(delegate.getBalance(playerUUID, currencyId));
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean transfer(UUID fromUUID, UUID toUUID, double amount, String currencyId) {
+        if (amount <= 0 || fromUUID.equals(toUUID)) {
+            return false;
+        }
+
+        CachedBalance from = getEntry(fromUUID, currencyId);
+        CachedBalance to = getEntry(toUUID, currencyId);
+        if (from != null && to != null) {
+            // Ambas cuentas en memoria: se bloquean siempre en el mismo orden para evitar interbloqueos
+            boolean fromFirst = fromUUID.compareTo(toUUID) < 0;
+            CachedBalance first = fromFirst ? from : to;
+            CachedBalance second = fromFirst ? to : from;
+            synchronized (first) {
+                synchronized (second) {
+                    if (from.balance < amount) {
+                        return false;
+                    }
+                    from.add(-amount);
+                    to.add(amount);
+                    return true;
+                }
+            }
+        }
+
+        synchronized (flushLock) {
+            // Alguna cuenta no está en memoria, así que como mucho una lo está: se vuelca lo pendiente, la transacción
+            // la hace el proveedor y la entrada se recarga en el sitio. Su monitor se mantiene todo ese tiempo para que
+            // ninguna modificación concurrente se aplique sobre el saldo anterior y se pierda
+            CachedBalance cached = from != null ? from : to;
+            if (cached == null) {
+                boolean transferred = delegate.transfer(fromUUID, toUUID, amount, currencyId);
+                if (transferred) {
+                    // Alguna de las cuentas pudo cargarse en memoria mientras tanto
+                    reloadIfClean(fromUUID, currencyId);
+                    reloadIfClean(toUUID, currencyId);
+                }
+                return transferred;
+            }
+
+            UUID cachedUUID = from != null ? fromUUID : toUUID;
+            boolean transferred;
+            synchronized (cached) {
+                if (!writeEntry(cachedUUID, currencyId, cached)) {
+                    return false;
+                }
+                transferred = delegate.transfer(fromUUID, toUUID, amount, currencyId);
+                if (transferred) {
+                    cached.reload(delegate.getBalance(cachedUUID, currencyId));
+                }
+            }
+            // Fuera del monitor: la vía en memoria toma los dos monitores en orden de UUID y aquí no se respeta
+            if (transferred) {
+                reloadIfClean(from != null ? toUUID : fromUUID, currencyId);
+            }
+            return transferred;
+        }
+    }
+
+    @Override
+    public void addBalances(Map<UUID, Double> amounts, String currencyId) {
+        // Los jugadores en memoria se actualizan localmente; el resto va en una sola operación al proveedor
+        Map<UUID, Double> uncached = new HashMap<>();
+        for (Map.Entry<UUID, Double> entry : amounts.entrySet()) {
+            if (entry.getValue() <= 0) {
+                continue;
+            }
+            CachedBalance cached = getEntry(entry.getKey(), currencyId);
+            if (cached != null) {
+                cached.add(entry.getValue());
+            } else {
+                uncached.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!uncached.isEmpty()) {
+            delegate.addBalances(uncached, currencyId);
+        }
+    }
+
+    @Override
+    public void setBalances(Map<UUID, Double> balances, String currencyId) {
+        Map<UUID, Double> uncached = new HashMap<>();
+        for (Map.Entry<UUID, Double> entry : balances.entrySet()) {
+            CachedBalance cached = getEntry(entry.getKey(), currencyId);
+            if (cached != null) {
+                cached.set(nonNegative(entry.getValue()));
+            } else {
+                uncached.put(entry.getKey(), nonNegative(entry.getValue()));
+            }
+        }
+        if (!uncached.isEmpty()) {
+            delegate.setBalances(uncached, currencyId);
+        }
+    }
+
+    @Override
+    public void applyDeltas(Map<UUID, BalanceDelta> deltas, String currencyId) {
+        // Las cuentas en memoria aplican la variación localmente; el resto va en una sola operación al proveedor
+        Map<UUID, BalanceDelta> uncached = new HashMap<>();
+        for (Map.Entry<UUID, BalanceDelta> entry : deltas.entrySet()) {
+            CachedBalance cached = getEntry(entry.getKey(), currencyId);
+            if (cached != null) {
+                cached.adjust(entry.getValue().getDelta());
+            } else {
+                uncached.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!uncached.isEmpty()) {
+            delegate.applyDeltas(uncached, currencyId);
+        }
+    }
+
+    @Override
+    public long getTotalPlayers(String currencyId) {
+        return delegate.getTotalPlayers(currencyId);
+    }
+
+    @Override
+    public double getTotalMoney(String currencyId) {
+        return delegate.getTotalMoney(currencyId);
+    }
+
+    // ========== MÉTODOS DE ESTADÍSTICAS GENERALES ==========
+
+    @Override
+    public long getTotalUniquePlayers() {
+        return delegate.getTotalUniquePlayers();
+    }
+
+    @Override
+    public double getTotalMoneyAllCurrencies() {
+        return delegate.getTotalMoneyAllCurrencies();
+    }
+
+    // El proveedor no conoce los cambios que siguen en memoria sin volcar: se piden tantas filas extra como cuentas
+    // con cambios (cualquiera puede haber bajado y dejar hueco), se sustituyen sus saldos por los de memoria y se
+    // añaden las que no venían en el resultado
+
+    @Override
+    public Object[][] getTopBalances(String currencyId, int limit) {
+        Map<UUID, Double> unflushed = unflushedBalances(currencyId);
+        return mergeTop(delegate.getTopBalances(currencyId, extendLimit(limit, unflushed.size())), unflushed, limit, false);
+    }
+
+    @Override
+    public Object[][] getTopBalancesWithNames(String currencyId, int limit) {
+        Map<UUID, Double> unflushed = unflushedBalances(currencyId);
+        return mergeTop(delegate.getTopBalancesWithNames(currencyId, extendLimit(limit, unflushed.size())), unflushed, limit, true);
+    }
+
+    // Saldos en memoria con cambios pendientes de volcar para una moneda
+    private Map<UUID, Double> unflushedBalances(String currencyId) {
+        Map<UUID, Double> unflushed = new HashMap<>();
+        for (Map.Entry<UUID, Map<String, CachedBalance>> entry : balances.entrySet()) {
+            CachedBalance cached = entry.getValue().get(currencyId);
+            if (cached != null && cached.isDirty()) {
+                unflushed.put(entry.getKey(), cached.get());
+            }
+        }
+        return unflushed;
+    }
+
+    private static int extendLimit(int limit, int extra) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) limit + extra);
+    }
+
+    // Las filas son [UUID, balance] o [UUID, playerName, balance]: el saldo siempre es la última columna
+    private Object[][] mergeTop(Object[][] stored, Map<UUID, Double> unflushed, int limit, boolean withNames) {
+        if (unflushed.isEmpty()) {
+            return stored.length > limit ? Arrays.copyOf(stored, limit) : stored;
+        }
+
+        List<Object[]> rows = new ArrayList<>(stored.length + unflushed.size());
+        Map<UUID, Double> missing = new HashMap<>(unflushed);
+        for (Object[] row : stored) {
+            Double balance = row[0] instanceof String uuid ? missing.remove(UUID.fromString(uuid)) : null;
+            if (balance != null) {
+                row = row.clone();
+                row[row.length - 1] = balance;
+            }
+            rows.add(row);
+        }
+
+        Map<UUID, String> missingNames = withNames && !missing.isEmpty() ? getPlayerNames(missing.keySet()) : Map.of();
+        for (Map.Entry<UUID, Double> entry : missing.entrySet()) {
+            String uuid = entry.getKey().toString();
+            rows.add(withNames
+                    ? new Object[]{uuid, missingNames.get(entry.getKey()), entry.getValue()}
+                    : new Object[]{uuid, entry.getValue()});
+        }
+
+        rows.sort(Comparator.comparingDouble((Object[] row) -> ((Number) row[row.length - 1]).doubleValue()).reversed());
+        return rows.subList(0, Math.min(limit, rows.size())).toArray(new Object[0][]);
+    }
+
+    // ========== MÉTODOS DE GESTIÓN DE NOMBRES DE JUGADORES ==========
+
+    // Los nombres de los jugadores conectados se sirven desde memoria; las escrituras siempre llegan al proveedor
+
+    @Override
+    public void updatePlayerName(UUID playerUUID, String playerName) {
+        delegate.updatePlayerName(playerUUID, playerName);
+        if (trackedPlayers.containsKey(playerUUID)) {
+            names.put(playerUUID, playerName);
+        }
+    }
+
+    @Override
+    public String getPlayerName(UUID playerUUID) {
+        String name = names.get(playerUUID);
+        return name != null ? name : delegate.getPlayerName(playerUUID);
+    }
+
+    @Override
+    public Map<UUID, String> getPlayerNames(Iterable<UUID> playerUUIDs) {
+        Map<UUID, String> result = new HashMap<>();
+        List<UUID> uncached = new ArrayList<>();
+        for (UUID playerUUID : playerUUIDs) {
+            String name = names.get(playerUUID);
+            if (name != null) {
+                result.put(playerUUID, name);
+            } else {
+                uncached.add(playerUUID);
+            }
+        }
+        if (!uncached.isEmpty()) {
+            result.putAll(delegate.getPlayerNames(uncached));
+        }
+        return result;
+    }
+
+    @Override
+    public Map<UUID, String> getAllPlayerNames() {
+        return delegate.getAllPlayerNames();
+    }
+
+    @Override
+    public void syncPlayerNames(Map<UUID, String> activePlayers) {
+        delegate.syncPlayerNames(activePlayers);
+        activePlayers.forEach((playerUUID, playerName) -> {
+            if (trackedPlayers.containsKey(playerUUID)) {
+                names.put(playerUUID, playerName);
+            }
+        });
+    }
+
+    // ========== MÉTODOS DE GESTIÓN ==========
+
+    @Override
+    public void save() {
+        flush();
+        delegate.save();
+    }
+
+    @Override
+    public void load() {
+        synchronized (flushLock) {
+            delegate.load();
+            // Los saldos recargados invalidan lo que hubiera en memoria
+            balances.clear();
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+
+    /**
+     * Saldo en memoria de un jugador para una moneda, con la variación pendiente de volcar
+     */
+    private static final class CachedBalance {
+
+        private double balance;
+        // Variación desde el último volcado; es lo que se escribe, no el saldo
+        private double pending;
+        private boolean dirty;
+
+        private CachedBalance(double balance) {
+            this.balance = balance;
+        }
+
+        synchronized double get() {
+            return balance;
+        }
+
+        synchronized void set(double amount) {
+            pending += amount - balance;
+            balance = amount;
+            dirty = true;
+        }
+
+        // Sustituye el saldo por el del proveedor, sin cambios pendientes
+        synchronized void reload(double stored) {
+            balance = stored;
+            pending = 0.0;
+            dirty = false;
+        }
+
+        synchronized void add(double amount) {
+            balance += amount;
+            pending += amount;
+            dirty = true;
+        }
+
+        synchronized boolean remove(double amount) {
+            if (balance < amount) {
+                return false;
+            }
+            add(-amount);
+            return true;
+        }
+
+        // Suma una variación sin bajar de 0, como hace el proveedor con applyDeltas
+        synchronized void adjust(double delta) {
+            set(Math.max(0, balance + delta));
+        }
+
+        synchronized boolean isDirty() {
+            return dirty;
+        }
+
+        // Vuelve a dejar pendiente una variación que no se llegó a escribir
+        synchronized void restore(double delta) {
+            pending += delta;
+            dirty = true;
+        }
+
+        // Devuelve la variación a volcar y la limpia, o null si no hay cambios pendientes
+        synchronized BalanceDelta takeDelta() {
+            if (!dirty) {
+                return null;
+            }
+            BalanceDelta change = new BalanceDelta(pending, balance);
+            pending = 0.0;
+            dirty = false;
+            return change;
+        }
+    }
+}
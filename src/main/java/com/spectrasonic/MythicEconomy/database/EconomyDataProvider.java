@@ -61,6 +61,52 @@ public interface EconomyDataProvider {
      */
     void createPlayer(UUID playerUUID, String currencyId);
 
+    /**
+     * Obtiene todos los saldos registrados de un jugador con una sola consulta al almacenamiento
+     * @return Mapa de moneda -> saldo; las monedas en las que el jugador no tiene saldo no aparecen
+     */
+    Map<String, Double> getAllBalances(UUID playerUUID);
+
+    /**
+     * Crea con su saldo inicial las monedas que el jugador todavía no tenga, con una sola escritura por lotes.
+     * Los saldos que ya existan no se modifican
+     * @param startingBalances Mapa de moneda -> saldo inicial de las monedas a asegurar
+     * @return Todos los saldos del jugador tras la creación, como en {@link #getAllBalances(UUID)}
+     */
+    Map<String, Double> ensureBalances(UUID playerUUID, Map<String, Double> startingBalances);
+
+    /**
+     * Transfiere dinero entre dos jugadores de forma atómica: se debita el origen solo si tiene
+     * saldo suficiente y el crédito al destino se aplica en la misma operación
+     * @return true si la transferencia se aplicó completa, false si no se aplicó nada
+     */
+    boolean transfer(UUID fromUUID, UUID toUUID, double amount, String currencyId);
+
+    // ========== OPERACIONES MASIVAS ==========
+
+    /**
+     * Agrega dinero a varios jugadores en una sola operación del proveedor
+     * @param amounts Mapa de UUID -> cantidad a agregar; las cantidades <= 0 se ignoran
+     * @throws BalanceWriteException si alguna cuenta no se escribió
+     */
+    void addBalances(Map<UUID, Double> amounts, String currencyId);
+
+    /**
+     * Establece el saldo de varios jugadores en una sola operación del proveedor
+     * @param balances Mapa de UUID -> nuevo saldo; los saldos negativos se guardan como 0
+     * @throws BalanceWriteException si alguna cuenta no se escribió
+     */
+    void setBalances(Map<UUID, Double> balances, String currencyId);
+
+    /**
+     * Aplica a varias cuentas la variación acumulada en la caché desde el último volcado, en una sola operación
+     * del proveedor y sin comprobar saldo; el resultado no baja de 0. Las cuentas que todavía no existan se crean
+     * con el saldo en memoria. Al sumar en vez de sustituir no se pisan los cambios que otro servidor o una
+     * herramienta externa hayan hecho mientras tanto sobre la misma base de datos
+     * @throws BalanceWriteException si alguna cuenta no se escribió
+     */
+    void applyDeltas(Map<UUID, BalanceDelta> deltas, String currencyId);
+
     /**
      * Obtiene el número total de jugadores para una moneda específica
      */
@@ -122,6 +168,12 @@ public interface EconomyDataProvider {
      */
     Map<UUID, String> getPlayerNames(Iterable<UUID> playerUUIDs);
 
+    /**
+     * Obtiene todos los nombres de jugadores registrados, para construir índices locales nombre -> UUID
+     * @return Mapa de UUID -> nombre de jugador
+     */
+    Map<UUID, String> getAllPlayerNames();
+
     /**
      * Sincroniza nombres de jugadores activos (útil para mantener nombres actualizados)
      * @param activePlayers Mapa de UUID -> nombre de jugadores actualmente activos
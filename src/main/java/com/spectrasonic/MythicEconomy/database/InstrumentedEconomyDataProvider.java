@@ -0,0 +1,209 @@
+package com.spectrasonic.MythicEconomy.database;
+
+import com.spectrasonic.MythicEconomy.metrics.EconomyMetrics;
+import com.spectrasonic.MythicEconomy.metrics.Operation;
+import com.spectrasonic.MythicEconomy.metrics.OperationLayer;
+import com.spectrasonic.MythicEconomy.metrics.OperationTimers;
+
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Decorador que mide la latencia de cada llamada al proveedor de almacenamiento.
+ * Se coloca por debajo de la caché de saldos, así que solo ve lo que llega realmente al almacenamiento
+ * (lecturas de jugadores desconectados, volcados por lotes, rankings...).
+ */
+public class InstrumentedEconomyDataProvider implements EconomyDataProvider {
+
+    @Getter
+    private final EconomyDataProvider delegate;
+    private final OperationTimers timers;
+
+    public InstrumentedEconomyDataProvider(EconomyDataProvider delegate) {
+        this.delegate = delegate;
+        this.timers = EconomyMetrics.get().timers(OperationLayer.STORAGE, EconomyMetrics.providerName(delegate));
+    }
+
+    // ========== MÉTODOS BÁSICOS (para compatibilidad hacia atrás) ==========
+
+    @Override
+    public double getBalance(UUID playerUUID) {
+        return timers.time(Operation.GET_BALANCE, null, () -> delegate.getBalance(playerUUID));
+    }
+
+    @Override
+    public void setBalance(UUID playerUUID, double amount) {
+        timers.time(Operation.SET_BALANCE, null, () -> delegate.setBalance(playerUUID, amount));
+    }
+
+    @Override
+    public boolean addBalance(UUID playerUUID, double amount) {
+        return timers.time(Operation.ADD_BALANCE, null, () -> delegate.addBalance(playerUUID, amount));
+    }
+
+    @Override
+    public boolean removeBalance(UUID playerUUID, double amount) {
+        return timers.time(Operation.REMOVE_BALANCE, null, () -> delegate.removeBalance(playerUUID, amount));
+    }
+
+    @Override
+    public boolean hasEnoughBalance(UUID playerUUID, double amount) {
+        return timers.time(Operation.HAS_BALANCE, null, () -> delegate.hasEnoughBalance(playerUUID, amount));
+    }
+
+    @Override
+    public void createPlayer(UUID playerUUID) {
+        timers.time(Operation.CREATE_PLAYER, null, () -> delegate.createPlayer(playerUUID));
+    }
+
+    // ========== MÉTODOS PARA MÚLTIPLES MONEDAS ==========
+
+    @Override
+    public double getBalance(UUID playerUUID, String currencyId) {
+        return timers.time(Operation.GET_BALANCE, currencyId, () -> delegate.getBalance(playerUUID, currencyId));
+    }
+
+    @Override
+    public void setBalance(UUID playerUUID, double amount, String currencyId) {
+        timers.time(Operation.SET_BALANCE, currencyId, () -> delegate.setBalance(playerUUID, amount, currencyId));
+    }
+
+    @Override
+    public boolean addBalance(UUID playerUUID, double amount, String currencyId) {
+        return timers.time(Operation.ADD_BALANCE, currencyId,
+                () -> delegate.addBalance(playerUUID, amount, currencyId));
+    }
+
+    @Override
+    public boolean removeBalance(UUID playerUUID, double amount, String currencyId) {
+        return timers.time(Operation.REMOVE_BALANCE, currencyId,
+                () -> delegate.removeBalance(playerUUID, amount, currencyId));
+    }
+
+    @Override
+    public boolean hasEnoughBalance(UUID playerUUID, double amount, String currencyId) {
+        return timers.time(Operation.HAS_BALANCE, currencyId,
+                () -> delegate.hasEnoughBalance(playerUUID, amount, currencyId));
+    }
+
+    @Override
+    public void createPlayer(UUID playerUUID, String currencyId) {
+        timers.time(Operation.CREATE_PLAYER, currencyId, () -> delegate.createPlayer(playerUUID, currencyId));
+    }
+
+    @Override
+    public Map<String, Double> getAllBalances(UUID playerUUID) {
+        return timers.time(Operation.GET_ALL_BALANCES, OperationTimers.ALL_CURRENCIES,
+                () -> delegate.getAllBalances(playerUUID));
+    }
+
+    @Override
+    public Map<String, Double> ensureBalances(UUID playerUUID, Map<String, Double> startingBalances) {
+        return timers.time(Operation.ENSURE_BALANCES, OperationTimers.ALL_CURRENCIES,
+                () -> delegate.ensureBalances(playerUUID, startingBalances));
+    }
+
+    @Override
+    public boolean transfer(UUID fromUUID, UUID toUUID, double amount, String currencyId) {
+        return timers.time(Operation.TRANSFER, currencyId,
+                () -> delegate.transfer(fromUUID, toUUID, amount, currencyId));
+    }
+
+    @Override
+    public void addBalances(Map<UUID, Double> amounts, String currencyId) {
+        timers.time(Operation.ADD_BALANCES, currencyId, () -> delegate.addBalances(amounts, currencyId));
+    }
+
+    @Override
+    public void setBalances(Map<UUID, Double> balances, String currencyId) {
+        timers.time(Operation.SET_BALANCES, currencyId, () -> delegate.setBalances(balances, currencyId));
+    }
+
+    @Override
+    public void applyDeltas(Map<UUID, BalanceDelta> deltas, String currencyId) {
+        timers.time(Operation.APPLY_DELTAS, currencyId, () -> delegate.applyDeltas(deltas, currencyId));
+    }
+
+    @Override
+    public long getTotalPlayers(String currencyId) {
+        return timers.time(Operation.TOTALS, currencyId, () -> delegate.getTotalPlayers(currencyId));
+    }
+
+    @Override
+    public double getTotalMoney(String currencyId) {
+        return timers.time(Operation.TOTALS, currencyId, () -> delegate.getTotalMoney(currencyId));
+    }
+
+    // ========== MÉTODOS DE ESTADÍSTICAS GENERALES ==========
+
+    @Override
+    public long getTotalUniquePlayers() {
+        return timers.time(Operation.TOTALS, OperationTimers.ALL_CURRENCIES, delegate::getTotalUniquePlayers);
+    }
+
+    @Override
+    public double getTotalMoneyAllCurrencies() {
+        return timers.time(Operation.TOTALS, OperationTimers.ALL_CURRENCIES, delegate::getTotalMoneyAllCurrencies);
+    }
+
+    @Override
+    public Object[][] getTopBalances(String currencyId, int limit) {
+        return timers.time(Operation.TOP_BALANCES, currencyId, () -> delegate.getTopBalances(currencyId, limit));
+    }
+
+    @Override
+    public Object[][] getTopBalancesWithNames(String currencyId, int limit) {
+        return timers.time(Operation.TOP_BALANCES, currencyId,
+                () -> delegate.getTopBalancesWithNames(currencyId, limit));
+    }
+
+    // ========== MÉTODOS DE GESTIÓN DE NOMBRES DE JUGADORES ==========
+
+    @Override
+    public void updatePlayerName(UUID playerUUID, String playerName) {
+        timers.time(Operation.WRITE_PLAYER_NAMES, OperationTimers.ALL_CURRENCIES,
+                () -> delegate.updatePlayerName(playerUUID, playerName));
+    }
+
+    @Override
+    public String getPlayerName(UUID playerUUID) {
+        return timers.time(Operation.READ_PLAYER_NAMES, OperationTimers.ALL_CURRENCIES,
+                () -> delegate.getPlayerName(playerUUID));
+    }
+
+    @Override
+    public Map<UUID, String> getPlayerNames(Iterable<UUID> playerUUIDs) {
+        return timers.time(Operation.READ_PLAYER_NAMES, OperationTimers.ALL_CURRENCIES,
+                () -> delegate.getPlayerNames(playerUUIDs));
+    }
+
+    @Override
+    public Map<UUID, String> getAllPlayerNames() {
+        return timers.time(Operation.READ_PLAYER_NAMES, OperationTimers.ALL_CURRENCIES, delegate::getAllPlayerNames);
+    }
+
+    @Override
+    public void syncPlayerNames(Map<UUID, String> activePlayers) {
+        timers.time(Operation.WRITE_PLAYER_NAMES, OperationTimers.ALL_CURRENCIES,
+                () -> delegate.syncPlayerNames(activePlayers));
+    }
+
+    // ========== MÉTODOS DE GESTIÓN ==========
+
+    @Override
+    public void save() {
+        timers.time(Operation.SAVE, OperationTimers.ALL_CURRENCIES, delegate::save);
+    }
+
+    @Override
+    public void load() {
+        timers.time(Operation.LOAD, OperationTimers.ALL_CURRENCIES, delegate::load);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+}
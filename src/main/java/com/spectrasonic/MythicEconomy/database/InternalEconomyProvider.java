@@ -1,8 +1,13 @@
 package com.spectrasonic.MythicEconomy.database;
 
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import com.spectrasonic.MythicEconomy.database.storage.BalanceStore;
+import com.spectrasonic.MythicEconomy.database.storage.FileBalanceStorage;
+import com.spectrasonic.MythicEconomy.database.storage.LegacyYamlImporter;
 import com.spectrasonic.MythicEconomy.manager.EconomyManager;
+import com.spectrasonic.MythicEconomy.models.Currency;
 
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +15,8 @@ import lombok.RequiredArgsConstructor;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.io.File;
 import java.io.IOException;
 
 // Adaptador para el sistema de economía interno existente
@@ -22,11 +29,14 @@ public class InternalEconomyProvider implements EconomyDataProvider {
     private final JavaPlugin plugin;
     private final EconomyManager economyManager;
 
-    // Mapa para almacenar balances por moneda: currencyId -> (playerUUID -> balance)
-    private final Map<String, Map<UUID, Double>> currencyBalances = new HashMap<>();
+    // Saldos por moneda en arreglos primitivos: currencyId -> (slot del jugador -> balance)
+    private final BalanceStore balanceStore = new BalanceStore(this::resolveStartingBalance);
     
     // Mapa para almacenar nombres de jugadores: playerUUID -> playerName
-    private final Map<UUID, String> playerNames = new HashMap<>();
+    private final Map<UUID, String> playerNames = new ConcurrentHashMap<>();
+
+    // Persistencia en snapshot binario + journal (se crea en load())
+    private FileBalanceStorage storage;
 
     @Override
     public double getBalance(UUID playerUUID) {
@@ -60,36 +70,73 @@ public class InternalEconomyProvider implements EconomyDataProvider {
 
     // Métodos para múltiples monedas
     public double getBalance(UUID playerUUID, String currencyId) {
-        Map<UUID, Double> currencyMap = currencyBalances.computeIfAbsent(currencyId, k -> new HashMap<>());
-        return currencyMap.getOrDefault(playerUUID, economyManager.getCurrencyManager().getCurrency(currencyId).getStartingBalance());
+        return balanceStore.get(playerUUID, currencyId);
     }
 
     public void setBalance(UUID playerUUID, double amount, String currencyId) {
-        Map<UUID, Double> currencyMap = currencyBalances.computeIfAbsent(currencyId, k -> new HashMap<>());
-        currencyMap.put(playerUUID, amount);
+        balanceStore.set(playerUUID, currencyId, amount);
+    }
+
+    @Override
+    public Map<String, Double> getAllBalances(UUID playerUUID) {
+        return balanceStore.getAll(playerUUID);
+    }
+
+    @Override
+    public Map<String, Double> ensureBalances(UUID playerUUID, Map<String, Double> startingBalances) {
+        startingBalances.forEach((currencyId, balance) -> balanceStore.putIfAbsent(playerUUID, currencyId, balance));
+        return balanceStore.getAll(playerUUID);
     }
 
     public boolean addBalance(UUID playerUUID, double amount, String currencyId) {
-        Map<UUID, Double> currencyMap = currencyBalances.computeIfAbsent(currencyId, k -> new HashMap<>());
-        double currentBalance = currencyMap.getOrDefault(playerUUID, economyManager.getCurrencyManager().getCurrency(currencyId).getStartingBalance());
-        currencyMap.put(playerUUID, currentBalance + amount);
+        balanceStore.add(playerUUID, currencyId, amount);
         return true;
     }
 
     public boolean removeBalance(UUID playerUUID, double amount, String currencyId) {
-        Map<UUID, Double> currencyMap = currencyBalances.computeIfAbsent(currencyId, k -> new HashMap<>());
-        double currentBalance = currencyMap.getOrDefault(playerUUID, economyManager.getCurrencyManager().getCurrency(currencyId).getStartingBalance());
-        if (currentBalance >= amount) {
-            currencyMap.put(playerUUID, currentBalance - amount);
-            return true;
-        }
-        return false;
+        return balanceStore.remove(playerUUID, currencyId, amount);
     }
 
     public boolean hasEnoughBalance(UUID playerUUID, double amount, String currencyId) {
-        Map<UUID, Double> currencyMap = currencyBalances.computeIfAbsent(currencyId, k -> new HashMap<>());
-        double currentBalance = currencyMap.getOrDefault(playerUUID, economyManager.getCurrencyManager().getCurrency(currencyId).getStartingBalance());
-        return currentBalance >= amount;
+        return balanceStore.get(playerUUID, currencyId) >= amount;
+    }
+
+    @Override
+    public boolean transfer(UUID fromUUID, UUID toUUID, double amount, String currencyId) {
+        if (amount <= 0) {
+            return false;
+        }
+        return balanceStore.transfer(fromUUID, toUUID, currencyId, amount);
+    }
+
+    @Override
+    public void addBalances(Map<UUID, Double> amounts, String currencyId) {
+        Map<UUID, Double> positive = new HashMap<>();
+        amounts.forEach((uuid, amount) -> {
+            if (amount > 0) {
+                positive.put(uuid, amount);
+            }
+        });
+        balanceStore.addAll(positive, currencyId);
+    }
+
+    @Override
+    public void setBalances(Map<UUID, Double> balances, String currencyId) {
+        Map<UUID, Double> clamped = new HashMap<>();
+        balances.forEach((uuid, balance) -> clamped.put(uuid, Math.max(0, balance)));
+        balanceStore.setAll(clamped, currencyId);
+    }
+
+    @Override
+    public void applyDeltas(Map<UUID, BalanceDelta> deltas, String currencyId) {
+        deltas.forEach((uuid, change) -> balanceStore.adjust(uuid, currencyId, change.getDelta(),
+                Math.max(0, change.getBalance())));
+    }
+
+    // Saldo inicial de una moneda para jugadores sin saldo registrado
+    private double resolveStartingBalance(String currencyId) {
+        Currency currency = economyManager.getCurrencyManager().getCurrency(currencyId);
+        return currency != null ? currency.getStartingBalance() : 0.0;
     }
 
     // Métodos heredados de la interfaz (para compatibilidad hacia atrás)
@@ -98,9 +145,7 @@ public class InternalEconomyProvider implements EconomyDataProvider {
     @Override
     @Deprecated
     public void createPlayer(UUID playerUUID) {
-        if (!economyManager.playerBalances.containsKey(playerUUID)) {
-            economyManager.playerBalances.put(playerUUID, economyManager.startingBalance);
-        }
+        economyManager.playerBalances.putIfAbsent(playerUUID, economyManager.startingBalance);
     }
 
     // Métodos heredados de la interfaz para compatibilidad hacia atrás
@@ -122,96 +167,105 @@ public class InternalEconomyProvider implements EconomyDataProvider {
     // Implementación de métodos nuevos de la interfaz
     @Override
     public void createPlayer(UUID playerUUID, String currencyId) {
-        Map<UUID, Double> currencyMap = currencyBalances.computeIfAbsent(currencyId, k -> new HashMap<>());
-        double startingBalance = economyManager.getCurrencyManager().getCurrency(currencyId).getStartingBalance();
-        currencyMap.putIfAbsent(playerUUID, startingBalance);
+        balanceStore.putIfAbsent(playerUUID, currencyId, resolveStartingBalance(currencyId));
     }
 
     @Override
     public long getTotalUniquePlayers() {
-        return currencyBalances.values().stream()
-                .flatMap(map -> map.keySet().stream())
-                .distinct()
-                .count();
+        return balanceStore.uniquePlayers();
     }
 
     @Override
     public double getTotalMoneyAllCurrencies() {
-        return currencyBalances.values().stream()
-                .flatMapToDouble(map -> map.values().stream().mapToDouble(Double::doubleValue))
-                .sum();
+        double total = 0.0;
+        for (String currencyId : balanceStore.getCurrencyIds()) {
+            total += balanceStore.total(currencyId);
+        }
+        return total;
     }
 
     @Override
     public Object[][] getTopBalances(String currencyId, int limit) {
-        Map<UUID, Double> currencyMap = currencyBalances.get(currencyId);
-        if (currencyMap == null || currencyMap.isEmpty()) {
-            return new Object[0][0];
-        }
-
-        return currencyMap.entrySet().stream()
-                .sorted((e1, e2) -> Double.compare(e2.getValue(), e1.getValue()))
-                .limit(limit)
-                .map(entry -> new Object[]{entry.getKey().toString(), entry.getValue()})
-                .toArray(Object[][]::new);
+        return balanceStore.top(currencyId, limit);
     }
 
     // Métodos para múltiples monedas
     public long getTotalPlayers(String currencyId) {
-        Map<UUID, Double> currencyMap = currencyBalances.get(currencyId);
-        return currencyMap != null ? currencyMap.size() : 0;
+        return balanceStore.count(currencyId);
     }
 
     public double getTotalMoney(String currencyId) {
-        Map<UUID, Double> currencyMap = currencyBalances.get(currencyId);
-        return currencyMap != null ? currencyMap.values().stream().mapToDouble(Double::doubleValue).sum() : 0.0;
+        return balanceStore.total(currencyId);
     }
 
     @Override
     public void save() {
-        // Guardar todas las monedas en el archivo
-        for (Map.Entry<String, Map<UUID, Double>> currencyEntry : currencyBalances.entrySet()) {
-            String currencyId = currencyEntry.getKey();
-            Map<UUID, Double> playerBalances = currencyEntry.getValue();
-
-            for (Map.Entry<UUID, Double> entry : playerBalances.entrySet()) {
-                String uuidString = entry.getKey().toString();
-                economyManager.dataConfig.set("currencies." + currencyId + ".players." + uuidString + ".balance", entry.getValue());
-            }
+        // Compactar el journal en un snapshot nuevo
+        if (storage == null) {
+            return;
         }
-
         try {
-            economyManager.dataConfig.save(economyManager.dataFile);
+            storage.compact();
         } catch (IOException e) {
-            economyManager.plugin.getLogger().severe("Could not save playerdata.yml file!");
-            e.printStackTrace();
+            plugin.getLogger().severe("Error al guardar el snapshot de saldos: " + e.getMessage());
         }
     }
 
     @Override
     public void load() {
-        // Cargar datos desde el archivo de configuración
-        if (economyManager.dataConfig.getConfigurationSection("currencies") != null) {
-            for (String currencyId : economyManager.dataConfig.getConfigurationSection("currencies").getKeys(false)) {
-                if (economyManager.dataConfig.getConfigurationSection("currencies." + currencyId + ".players") != null) {
-                    Map<UUID, Double> currencyMap = currencyBalances.computeIfAbsent(currencyId, k -> new HashMap<>());
-                    for (String uuidString : economyManager.dataConfig.getConfigurationSection("currencies." + currencyId + ".players").getKeys(false)) {
-                        UUID uuid = UUID.fromString(uuidString);
-                        double balance = economyManager.dataConfig.getDouble("currencies." + currencyId + ".players." + uuidString + ".balance", 0.0);
-                        currencyMap.put(uuid, balance);
-                    }
+        if (storage != null) {
+            storage.close();
+            balanceStore.clear();
+            playerNames.clear();
+        }
+
+        FileConfiguration config = plugin.getConfig();
+        FileBalanceStorage newStorage = new FileBalanceStorage(plugin.getDataFolder(), balanceStore, playerNames, plugin.getLogger(),
+                config.getLong("database.file.journal-flush-interval", 200L),
+                config.getLong("database.file.snapshot-interval", 10L) * 60_000L,
+                config.getLong("database.file.max-journal-size-mb", 64L) * 1024L * 1024L,
+                config.getBoolean("database.file.fsync", false));
+
+        try {
+            // Cargar snapshot + journal; si no hay datos binarios, importar el antiguo playerdata.yml
+            boolean empty = newStorage.load();
+            boolean imported = empty && importLegacyData();
+            newStorage.start();
+            this.storage = newStorage;
+
+            if (imported) {
+                File dataFile = economyManager.dataFile;
+                File importedFile = new File(dataFile.getParentFile(), dataFile.getName() + ".imported");
+                if (dataFile.renameTo(importedFile)) {
+                    plugin.getLogger().info("playerdata.yml importado y renombrado a " + importedFile.getName());
                 }
             }
+        } catch (IOException e) {
+            // Sin almacenamiento las transacciones no se guardarían; se aborta el arranque en lugar de
+            // aceptar cambios que se perderían, y no se escribe nada para no sobrescribir los datos
+            throw new IllegalStateException("Error al cargar los saldos del sistema interno: " + e.getMessage(), e);
+        }
+    }
+
+    // Importa el antiguo playerdata.yml si existe; devuelve true si se importó algo
+    private boolean importLegacyData() {
+        if (economyManager.dataFile == null || !economyManager.dataFile.exists() || economyManager.dataConfig == null) {
+            return false;
+        }
+        int imported = LegacyYamlImporter.importInto(economyManager.dataConfig, balanceStore, plugin.getLogger());
+        if (imported > 0) {
+            plugin.getLogger().info("Importados " + imported + " saldos desde playerdata.yml");
         }
+        return imported > 0;
+    }
 
-        // Para compatibilidad hacia atrás, cargar también el formato antiguo
-        if (economyManager.dataConfig.getConfigurationSection("players") != null) {
-            Map<UUID, Double> defaultMap = currencyBalances.computeIfAbsent("default", k -> new HashMap<>());
-            for (String uuidString : economyManager.dataConfig.getConfigurationSection("players").getKeys(false)) {
-                UUID uuid = UUID.fromString(uuidString);
-                double balance = economyManager.dataConfig.getDouble("players." + uuidString + ".balance", 0.0);
-                defaultMap.put(uuid, balance);
-            }
+    /**
+     * Detiene el motor de persistencia dejando un snapshot final
+     */
+    public void shutdown() {
+        if (storage != null) {
+            storage.close();
+            storage = null;
         }
     }
 
@@ -222,26 +276,31 @@ public class InternalEconomyProvider implements EconomyDataProvider {
 
     @Override
     public Object[][] getTopBalancesWithNames(String currencyId, int limit) {
-        Map<UUID, Double> currencyMap = currencyBalances.get(currencyId);
-        if (currencyMap == null || currencyMap.isEmpty()) {
-            return new Object[0][0];
+        Object[][] topBalances = balanceStore.top(currencyId, limit);
+        Object[][] result = new Object[topBalances.length][];
+        for (int i = 0; i < topBalances.length; i++) {
+            String uuidString = (String) topBalances[i][0];
+            result[i] = new Object[]{
+                uuidString, // UUID como String
+                playerNames.getOrDefault(UUID.fromString(uuidString), "Unknown"), // Nombre del jugador
+                topBalances[i][1] // Balance
+            };
         }
-
-        return currencyMap.entrySet().stream()
-                .sorted((e1, e2) -> Double.compare(e2.getValue(), e1.getValue()))
-                .limit(limit)
-                .map(entry -> new Object[]{
-                    entry.getKey().toString(), // UUID como String
-                    playerNames.getOrDefault(entry.getKey(), "Unknown"), // Nombre del jugador
-                    entry.getValue() // Balance
-                })
-                .toArray(Object[][]::new);
+        return result;
     }
 
     @Override
     public void updatePlayerName(UUID playerUUID, String playerName) {
         if (playerName != null && !playerName.trim().isEmpty()) {
-            playerNames.put(playerUUID, playerName);
+            recordName(playerUUID, playerName);
+        }
+    }
+
+    // Guarda el nombre y lo registra en el journal solo si cambió
+    private void recordName(UUID playerUUID, String playerName) {
+        String previous = playerNames.put(playerUUID, playerName);
+        if (storage != null && !playerName.equals(previous)) {
+            storage.recordName(playerUUID, playerName);
         }
     }
 
@@ -264,6 +323,11 @@ public class InternalEconomyProvider implements EconomyDataProvider {
         return names;
     }
 
+    @Override
+    public Map<UUID, String> getAllPlayerNames() {
+        return new HashMap<>(playerNames);
+    }
+
     @Override
     public void syncPlayerNames(Map<UUID, String> activePlayers) {
         for (Map.Entry<UUID, String> entry : activePlayers.entrySet()) {
@@ -271,7 +335,7 @@ public class InternalEconomyProvider implements EconomyDataProvider {
             String playerName = entry.getValue();
             
             if (playerName != null && !playerName.trim().isEmpty()) {
-                playerNames.put(playerUUID, playerName);
+                recordName(playerUUID, playerName);
             }
         }
     }
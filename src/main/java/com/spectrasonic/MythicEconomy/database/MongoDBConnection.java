@@ -6,13 +6,23 @@ import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import com.spectrasonic.MythicEconomy.utils.MessageUtils;
 import lombok.Getter;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 // Clase para manejar la conexión con MongoDB
@@ -25,11 +35,17 @@ public class MongoDBConnection {
     private MongoDatabase database;
     private MongoCollection<Document> collection;
     private boolean connected = false;
+    // null hasta que se consulta el servidor por primera vez
+    private volatile Boolean transactionsSupported;
 
     // Configuración de conexión
     private String connectionString;
     private String databaseName;
     private String collectionName;
+    // PER_CURRENCY: un documento por jugador y moneda; EMBEDDED: un documento por jugador con todos sus saldos
+    private String schema;
+    private String walletCollectionName;
+    private boolean migrateOnStart;
     private int connectionTimeout;
     private int maxPoolSize;
     private int minPoolSize;
@@ -46,6 +62,9 @@ public class MongoDBConnection {
         this.connectionString = config.getString("database.mongodb.connection-string", "mongodb://localhost:27017");
         this.databaseName = config.getString("database.mongodb.database", "MythicEconomy");
         this.collectionName = config.getString("database.mongodb.collection", "player_economy");
+        this.schema = config.getString("database.mongodb.schema", "PER_CURRENCY");
+        this.walletCollectionName = config.getString("database.mongodb.wallet-collection", "player_wallets");
+        this.migrateOnStart = config.getBoolean("database.mongodb.migrate-on-start", true);
         this.connectionTimeout = config.getInt("database.mongodb.connection.timeout", 30);
         this.maxPoolSize = config.getInt("database.mongodb.connection.max-pool-size", 10);
         this.minPoolSize = config.getInt("database.mongodb.connection.min-pool-size", 5);
@@ -54,24 +73,19 @@ public class MongoDBConnection {
     // Establece la conexión con MongoDB
     public boolean connect() {
         try {
-            // Configurar opciones de conexión
-            MongoClientSettings settings = MongoClientSettings.builder()
-                    .applyConnectionString(new ConnectionString(connectionString))
-                    .applyToConnectionPoolSettings(builder -> builder.maxSize(maxPoolSize)
-                            .minSize(minPoolSize))
-                    .applyToSocketSettings(builder -> builder.connectTimeout(connectionTimeout, TimeUnit.SECONDS))
-                    .build();
-
             // Crear cliente MongoDB
-            this.mongoClient = MongoClients.create(settings);
+            this.mongoClient = MongoClients.create(createClientSettings());
 
             // Obtener base de datos y colección
             this.database = mongoClient.getDatabase(databaseName);
             this.collection = database.getCollection(collectionName);
+            this.transactionsSupported = null;
 
             // Probar la conexión
             database.runCommand(new Document("ping", 1));
 
+            ensureIndexes();
+
             this.connected = true;
             MessageUtils.sendConsoleMessage("<green>Conexión a MongoDB establecida correctamente.</green>");
             plugin.getLogger()
@@ -88,6 +102,96 @@ public class MongoDBConnection {
         }
     }
 
+    // ========== ÍNDICES ==========
+
+    // Índices de la colección de economía: búsqueda por jugador y moneda, y top por moneda
+    public static List<IndexModel> economyIndexes() {
+        return List.of(
+                new IndexModel(Indexes.ascending("uuid", "currencyId"),
+                        new IndexOptions().name("uuid_currency").unique(true)),
+                new IndexModel(Indexes.compoundIndex(Indexes.ascending("currencyId"), Indexes.descending("balance")),
+                        new IndexOptions().name("currency_balance")));
+    }
+
+    // Índices de la colección de carteras (esquema EMBEDDED); los de saldo por moneda los crea el proveedor
+    public static List<IndexModel> walletIndexes() {
+        return List.of(
+                new IndexModel(Indexes.ascending("uuid"),
+                        new IndexOptions().name("uuid").unique(true)));
+    }
+
+    // Índices de la colección de nombres de jugadores
+    public static List<IndexModel> playerNameIndexes() {
+        return List.of(
+                new IndexModel(Indexes.ascending("uuid"),
+                        new IndexOptions().name("uuid").unique(true)));
+    }
+
+    // Crea los índices si faltan (createIndexes no hace nada si ya existen) y comprueba que estén presentes
+    private void ensureIndexes() {
+        MongoCollection<Document> namesCollection = database.getCollection("player_names");
+
+        createIndexes(collection, economyIndexes());
+        createIndexes(namesCollection, playerNameIndexes());
+
+        verifyIndexes(collection, economyIndexes());
+        verifyIndexes(namesCollection, playerNameIndexes());
+
+        if (isEmbeddedSchema()) {
+            MongoCollection<Document> wallets = database.getCollection(walletCollectionName);
+            createIndexes(wallets, walletIndexes());
+            verifyIndexes(wallets, walletIndexes());
+        }
+    }
+
+    private void createIndexes(MongoCollection<Document> target, List<IndexModel> indexes) {
+        try {
+            target.createIndexes(indexes);
+        } catch (Exception e) {
+            // Un índice único falla si ya hay documentos duplicados; la conexión sigue siendo válida
+            plugin.getLogger().severe("No se pudieron crear los índices de " + target.getNamespace().getCollectionName()
+                    + ": " + e.getMessage());
+        }
+    }
+
+    private void verifyIndexes(MongoCollection<Document> target, List<IndexModel> expected) {
+        List<String> existingKeys = new ArrayList<>();
+        for (Document index : target.listIndexes()) {
+            existingKeys.add(keySignature(index.get("key", Document.class)));
+        }
+
+        for (IndexModel index : expected) {
+            if (!existingKeys.contains(keySignature(index.getKeys()))) {
+                plugin.getLogger().warning("Falta el índice " + index.getOptions().getName() + " en "
+                        + target.getNamespace().getCollectionName() + "; las consultas recorrerán la colección completa");
+            }
+        }
+    }
+
+    // "uuid:1,currencyId:1": conserva el orden de los campos e ignora si la dirección se guardó como int o double
+    // (los índices de otros tipos, como "text" o "hashed", guardan un texto)
+    private static String keySignature(Bson keys) {
+        StringBuilder signature = new StringBuilder();
+        keys.toBsonDocument().forEach((field, direction) -> {
+            if (signature.length() > 0) {
+                signature.append(',');
+            }
+            signature.append(field).append(':')
+                    .append(direction.isNumber() ? String.valueOf(direction.asNumber().intValue()) : direction.asString().getValue());
+        });
+        return signature.toString();
+    }
+
+    // Opciones de conexión a partir del config.yml (compartidas con el proveedor reactivo)
+    public MongoClientSettings createClientSettings() {
+        return MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(connectionString))
+                .applyToConnectionPoolSettings(builder -> builder.maxSize(maxPoolSize)
+                        .minSize(minPoolSize))
+                .applyToSocketSettings(builder -> builder.connectTimeout(connectionTimeout, TimeUnit.SECONDS))
+                .build();
+    }
+
     // Cierra la conexión con MongoDB
     public void disconnect() {
         if (mongoClient != null) {
@@ -116,6 +220,29 @@ public class MongoDBConnection {
         }
     }
 
+    // Verifica si se usa el esquema de un documento por jugador
+    public boolean isEmbeddedSchema() {
+        return "EMBEDDED".equalsIgnoreCase(schema);
+    }
+
+    // Las transacciones solo existen en replica sets y mongos; se consulta una vez por conexión
+    public boolean supportsTransactions() {
+        Boolean supported = transactionsSupported;
+        if (supported == null) {
+            try {
+                Document hello = database.runCommand(new Document("isMaster", 1));
+                supported = hello.containsKey("setName") || "isdbgrid".equals(hello.getString("msg"));
+            } catch (Exception e) {
+                supported = false;
+            }
+            transactionsSupported = supported;
+            if (!supported) {
+                plugin.getLogger().info("MongoDB sin soporte de transacciones (standalone), las transferencias usarán cargo condicional");
+            }
+        }
+        return supported;
+    }
+
     // Método para obtener una colección específica por nombre
     public MongoCollection<Document> getCollection(String collectionName) {
         return database.getCollection(collectionName);
@@ -131,4 +258,32 @@ public class MongoDBConnection {
             connect();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Traduce el fallo de un bulkWrite de saldos sin orden. Con MongoBulkWriteException se sabe qué escrituras
+     * fallaron y el resto ya se aplicó; con cualquier otro error (o un write concern incumplido) se dan todas por fallidas
+     * @param accounts cuenta de cada escritura, en el mismo orden que el lote
+     */
+    public static BalanceWriteException balanceWriteFailure(String operation, List<UUID> accounts, Exception e) {
+        List<UUID> failed = accounts;
+        if (e instanceof MongoBulkWriteException bulk && bulk.getWriteConcernError() == null) {
+            failed = new ArrayList<>();
+            for (BulkWriteError error : bulk.getWriteErrors()) {
+                failed.add(accounts.get(error.getIndex()));
+            }
+        }
+        return new BalanceWriteException("Error al " + operation + " en MongoDB: " + e.getMessage(), failed, e);
+    }
+
+    /**
+     * Expresión de pipeline que aplica al campo de saldo una variación del volcado de la caché: suma sin bajar
+     * de 0 si el campo existe y, si no, toma el saldo en memoria. Las actualizaciones con pipeline requieren MongoDB 4.2
+     */
+    public static Document applyDeltaExpression(String field, BalanceDelta change) {
+        String current = "$" + field;
+        return new Document("$cond", Arrays.asList(
+                new Document("$eq", Arrays.asList(new Document("$type", current), "missing")),
+                Math.max(0, change.getBalance()),
+                new Document("$max", Arrays.asList(0, new Document("$add", Arrays.asList(current, change.getDelta()))))));
+    }
+}
@@ -1,15 +1,29 @@
 package com.spectrasonic.MythicEconomy.database;
 
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.ClientSession;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
 import com.mongodb.client.model.Updates;
 import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOneModel;
 import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.UpdateResult;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import lombok.RequiredArgsConstructor;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -20,6 +34,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class MongoDBEconomyProvider implements EconomyDataProvider {
 
+    private static final Bson BALANCE_PROJECTION = Projections.include("balance");
+
     private final JavaPlugin plugin;
     private final MongoDBConnection mongoConnection;
 
@@ -57,6 +73,74 @@ public class MongoDBEconomyProvider implements EconomyDataProvider {
         }
     }
 
+    // Obtiene todos los saldos de un jugador: una consulta sobre el índice uuid + currencyId
+    @Override
+    public Map<String, Double> getAllBalances(UUID playerUUID) {
+        Map<String, Double> balances = new HashMap<>();
+        if (!mongoConnection.isConnected()) {
+            plugin.getLogger().warning("No hay conexión activa con MongoDB");
+            return balances;
+        }
+
+        try {
+            for (Document doc : mongoConnection.getCollection()
+                    .find(Filters.eq("uuid", playerUUID.toString()))
+                    .projection(Projections.include("currencyId", "balance"))) {
+                balances.put(doc.getString("currencyId"), balanceOf(doc));
+            }
+
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al obtener saldos desde MongoDB: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return balances;
+    }
+
+    // Crea en un único bulkWrite ($setOnInsert por moneda) las monedas que el jugador no tenga todavía
+    @Override
+    public Map<String, Double> ensureBalances(UUID playerUUID, Map<String, Double> startingBalances) {
+        Map<String, Double> balances = getAllBalances(playerUUID);
+        if (!mongoConnection.isConnected()) {
+            return balances;
+        }
+
+        long now = System.currentTimeMillis();
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : startingBalances.entrySet()) {
+            if (balances.containsKey(entry.getKey())) {
+                continue;
+            }
+            writes.add(new UpdateOneModel<>(
+                    Filters.and(
+                            Filters.eq("uuid", playerUUID.toString()),
+                            Filters.eq("currencyId", entry.getKey())),
+                    Updates.combine(
+                            Updates.setOnInsert("balance", entry.getValue()),
+                            Updates.setOnInsert("lastUpdated", now)),
+                    new UpdateOptions().upsert(true)));
+        }
+
+        if (writes.isEmpty()) {
+            return balances;
+        }
+
+        try {
+            mongoConnection.getCollection().bulkWrite(writes, new BulkWriteOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            // Una clave duplicada solo significa que otra escritura creó la moneda a la vez
+            if (e.getWriteErrors().stream()
+                    .anyMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY)) {
+                plugin.getLogger().severe("Error al asegurar saldos en MongoDB: " + e.getMessage());
+            }
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al asegurar saldos en MongoDB: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return getAllBalances(playerUUID);
+    }
+
     // Establece el saldo de un jugador en MongoDB
     public void setBalance(UUID playerUUID, double amount) {
         // Para compatibilidad, usa la moneda por defecto
@@ -105,34 +189,42 @@ public class MongoDBEconomyProvider implements EconomyDataProvider {
 
     // Agrega dinero al saldo de un jugador en una moneda específica en MongoDB
     public boolean addBalance(UUID playerUUID, double amount, String currencyId) {
+        return addAndGetBalance(playerUUID, amount, currencyId) != null;
+    }
+
+    /**
+     * Suma el importe con un único findOneAndUpdate ($inc con upsert)
+     * @return Saldo resultante, o null si no se aplicó
+     */
+    public Double addAndGetBalance(UUID playerUUID, double amount, String currencyId) {
         if (!mongoConnection.isConnected()) {
             plugin.getLogger().warning("No hay conexión activa con MongoDB");
-            return false;
+            return null;
         }
 
         if (amount <= 0) {
-            return false;
+            return null;
         }
 
         try {
-            MongoCollection<Document> collection = mongoConnection.getCollection();
-
-            // Incrementar el saldo usando operación atómica
-            long modifiedCount = collection.updateOne(
+            Document updated = mongoConnection.getCollection().findOneAndUpdate(
                     Filters.and(
                             Filters.eq("uuid", playerUUID.toString()),
                             Filters.eq("currencyId", currencyId)),
                     Updates.combine(
                             Updates.inc("balance", amount),
                             Updates.set("lastUpdated", System.currentTimeMillis())),
-                    new UpdateOptions().upsert(true)).getModifiedCount();
+                    new FindOneAndUpdateOptions()
+                            .upsert(true)
+                            .projection(BALANCE_PROJECTION)
+                            .returnDocument(ReturnDocument.AFTER));
 
-            return modifiedCount > 0;
+            return updated != null ? balanceOf(updated) : null;
 
         } catch (Exception e) {
             plugin.getLogger().severe("Error al agregar saldo en MongoDB: " + e.getMessage());
             e.printStackTrace();
-            return false;
+            return null;
         }
     }
 
@@ -144,47 +236,43 @@ public class MongoDBEconomyProvider implements EconomyDataProvider {
 
     // Reduce dinero del saldo de un jugador en una moneda específica en MongoDB
     public boolean removeBalance(UUID playerUUID, double amount, String currencyId) {
+        return removeAndGetBalance(playerUUID, amount, currencyId) != null;
+    }
+
+    /**
+     * Resta el importe con un único findOneAndUpdate condicionado a balance >= amount,
+     * de modo que la comprobación y el cargo no pueden intercalarse con otra escritura
+     * @return Saldo resultante, o null si el jugador no existe o no tiene saldo suficiente
+     */
+    public Double removeAndGetBalance(UUID playerUUID, double amount, String currencyId) {
         if (!mongoConnection.isConnected()) {
             plugin.getLogger().warning("No hay conexión activa con MongoDB");
-            return false;
+            return null;
         }
 
         if (amount <= 0) {
-            return false;
+            return null;
         }
 
         try {
-            MongoCollection<Document> collection = mongoConnection.getCollection();
-
-            // Obtener saldo actual para verificar
-            Document playerDoc = collection.find(Filters.and(
-                    Filters.eq("uuid", playerUUID.toString()),
-                    Filters.eq("currencyId", currencyId))).first();
-            if (playerDoc == null) {
-                return false; // Jugador no existe
-            }
-
-            double currentBalance = playerDoc.getDouble("balance");
-            if (currentBalance < amount) {
-                return false; // Saldo insuficiente
-            }
-
-            // Decrementar el saldo usando operación atómica
-            long modifiedCount = collection.updateOne(
+            Document updated = mongoConnection.getCollection().findOneAndUpdate(
                     Filters.and(
                             Filters.eq("uuid", playerUUID.toString()),
-                            Filters.eq("currencyId", currencyId)),
+                            Filters.eq("currencyId", currencyId),
+                            Filters.gte("balance", amount)),
                     Updates.combine(
                             Updates.inc("balance", -amount),
-                            Updates.set("lastUpdated", System.currentTimeMillis())))
-                    .getModifiedCount();
+                            Updates.set("lastUpdated", System.currentTimeMillis())),
+                    new FindOneAndUpdateOptions()
+                            .projection(BALANCE_PROJECTION)
+                            .returnDocument(ReturnDocument.AFTER));
 
-            return modifiedCount > 0;
+            return updated != null ? balanceOf(updated) : null;
 
         } catch (Exception e) {
             plugin.getLogger().severe("Error al reducir saldo en MongoDB: " + e.getMessage());
             e.printStackTrace();
-            return false;
+            return null;
         }
     }
 
@@ -203,17 +291,13 @@ public class MongoDBEconomyProvider implements EconomyDataProvider {
         }
 
         try {
-            MongoCollection<Document> collection = mongoConnection.getCollection();
-            Document playerDoc = collection.find(Filters.and(
+            // La comparación la hace el servidor sobre el índice uuid + currencyId
+            return mongoConnection.getCollection().find(Filters.and(
                     Filters.eq("uuid", playerUUID.toString()),
-                    Filters.eq("currencyId", currencyId))).first();
-
-            if (playerDoc != null) {
-                double currentBalance = playerDoc.getDouble("balance");
-                return currentBalance >= amount;
-            }
-
-            return false;
+                    Filters.eq("currencyId", currencyId),
+                    Filters.gte("balance", amount)))
+                    .projection(Projections.include("_id"))
+                    .first() != null;
 
         } catch (Exception e) {
             plugin.getLogger().severe("Error al verificar saldo en MongoDB: " + e.getMessage());
@@ -237,9 +321,20 @@ public class MongoDBEconomyProvider implements EconomyDataProvider {
 
         try {
             double startingBalance = plugin.getConfig().getDouble("economy.starting-balance", 100.0);
-            setBalance(playerUUID, startingBalance, currencyId);
 
-            plugin.getLogger().info("Jugador creado en MongoDB para moneda " + currencyId + ": " + playerUUID);
+            // $setOnInsert: si el jugador ya existía se conserva su saldo
+            UpdateResult result = mongoConnection.getCollection().updateOne(
+                    Filters.and(
+                            Filters.eq("uuid", playerUUID.toString()),
+                            Filters.eq("currencyId", currencyId)),
+                    Updates.combine(
+                            Updates.setOnInsert("balance", startingBalance),
+                            Updates.setOnInsert("lastUpdated", System.currentTimeMillis())),
+                    new UpdateOptions().upsert(true));
+
+            if (result.getUpsertedId() != null) {
+                plugin.getLogger().info("Jugador creado en MongoDB para moneda " + currencyId + ": " + playerUUID);
+            }
 
         } catch (Exception e) {
             plugin.getLogger().severe("Error al crear jugador en MongoDB: " + e.getMessage());
@@ -247,6 +342,183 @@ public class MongoDBEconomyProvider implements EconomyDataProvider {
         }
     }
 
+    // Transfiere dinero entre dos jugadores en una moneda específica.
+    // En replica sets y clústeres fragmentados usa una transacción multi-documento;
+    // en un servidor standalone hace el cargo condicional y compensa si falla el abono.
+    public boolean transfer(UUID fromUUID, UUID toUUID, double amount, String currencyId) {
+        if (!mongoConnection.isConnected()) {
+            plugin.getLogger().warning("No hay conexión activa con MongoDB");
+            return false;
+        }
+
+        if (amount <= 0 || fromUUID.equals(toUUID)) {
+            return false;
+        }
+
+        try {
+            MongoCollection<Document> collection = mongoConnection.getCollection();
+
+            if (mongoConnection.supportsTransactions()) {
+                try (ClientSession session = mongoConnection.getMongoClient().startSession()) {
+                    return session.withTransaction(() -> {
+                        if (!debit(collection, session, fromUUID, amount, currencyId)) {
+                            return false;
+                        }
+                        credit(collection, session, toUUID, amount, currencyId);
+                        return true;
+                    });
+                }
+            }
+
+            if (!debit(collection, null, fromUUID, amount, currencyId)) {
+                return false;
+            }
+            try {
+                credit(collection, null, toUUID, amount, currencyId);
+                return true;
+            } catch (Exception e) {
+                // Devolver el cargo al origen para no perder el dinero
+                credit(collection, null, fromUUID, amount, currencyId);
+                throw e;
+            }
+
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al transferir saldo en MongoDB: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Agrega dinero a varios jugadores con un único bulkWrite (upsert + $inc por jugador)
+    public void addBalances(Map<UUID, Double> amounts, String currencyId) {
+        if (!mongoConnection.isConnected()) {
+            throw new BalanceWriteException("No hay conexión activa con MongoDB", amounts.keySet());
+        }
+
+        long now = System.currentTimeMillis();
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        List<UUID> accounts = new ArrayList<>();
+        for (Map.Entry<UUID, Double> entry : amounts.entrySet()) {
+            if (entry.getValue() <= 0) {
+                continue;
+            }
+            accounts.add(entry.getKey());
+            writes.add(new UpdateOneModel<>(
+                    Filters.and(
+                            Filters.eq("uuid", entry.getKey().toString()),
+                            Filters.eq("currencyId", currencyId)),
+                    Updates.combine(
+                            Updates.inc("balance", entry.getValue()),
+                            Updates.set("lastUpdated", now)),
+                    new UpdateOptions().upsert(true)));
+        }
+
+        bulkWrite(writes, accounts, "agregar saldos en bloque");
+    }
+
+    // Establece el saldo de varios jugadores con un único bulkWrite
+    public void setBalances(Map<UUID, Double> balances, String currencyId) {
+        if (!mongoConnection.isConnected()) {
+            throw new BalanceWriteException("No hay conexión activa con MongoDB", balances.keySet());
+        }
+
+        long now = System.currentTimeMillis();
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        List<UUID> accounts = new ArrayList<>();
+        for (Map.Entry<UUID, Double> entry : balances.entrySet()) {
+            accounts.add(entry.getKey());
+            writes.add(new UpdateOneModel<>(
+                    Filters.and(
+                            Filters.eq("uuid", entry.getKey().toString()),
+                            Filters.eq("currencyId", currencyId)),
+                    Updates.combine(
+                            Updates.set("balance", Math.max(0, entry.getValue())),
+                            Updates.set("lastUpdated", now)),
+                    new UpdateOptions().upsert(true)));
+        }
+
+        bulkWrite(writes, accounts, "establecer saldos en bloque");
+    }
+
+    // Aplica las variaciones del volcado de la caché con un único bulkWrite de actualizaciones con pipeline
+    public void applyDeltas(Map<UUID, BalanceDelta> deltas, String currencyId) {
+        if (!mongoConnection.isConnected()) {
+            throw new BalanceWriteException("No hay conexión activa con MongoDB", deltas.keySet());
+        }
+
+        long now = System.currentTimeMillis();
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        List<UUID> accounts = new ArrayList<>();
+        for (Map.Entry<UUID, BalanceDelta> entry : deltas.entrySet()) {
+            accounts.add(entry.getKey());
+            writes.add(new UpdateOneModel<>(
+                    Filters.and(
+                            Filters.eq("uuid", entry.getKey().toString()),
+                            Filters.eq("currencyId", currencyId)),
+                    List.of(new Document("$set", new Document()
+                            .append("balance", MongoDBConnection.applyDeltaExpression("balance", entry.getValue()))
+                            .append("lastUpdated", now))),
+                    new UpdateOptions().upsert(true)));
+        }
+
+        bulkWrite(writes, accounts, "volcar variaciones de saldo");
+    }
+
+    // Sin orden: el servidor puede paralelizar y un fallo no detiene el resto de escrituras.
+    // Si alguna falla se lanza BalanceWriteException con las cuentas que no se escribieron
+    private void bulkWrite(List<WriteModel<Document>> writes, List<UUID> accounts, String operation) {
+        if (writes.isEmpty()) {
+            return;
+        }
+
+        try {
+            mongoConnection.getCollection().bulkWrite(writes, new BulkWriteOptions().ordered(false));
+        } catch (Exception e) {
+            throw MongoDBConnection.balanceWriteFailure(operation, accounts, e);
+        }
+    }
+
+    // Resta el importe solo si el saldo alcanza; devuelve false si no se modificó nada
+    private boolean debit(MongoCollection<Document> collection, ClientSession session, UUID playerUUID, double amount,
+            String currencyId) {
+        Bson filter = Filters.and(
+                Filters.eq("uuid", playerUUID.toString()),
+                Filters.eq("currencyId", currencyId),
+                Filters.gte("balance", amount));
+        Bson update = Updates.combine(
+                Updates.inc("balance", -amount),
+                Updates.set("lastUpdated", System.currentTimeMillis()));
+
+        UpdateResult result = session != null
+                ? collection.updateOne(session, filter, update)
+                : collection.updateOne(filter, update);
+        return result.getModifiedCount() > 0;
+    }
+
+    // Suma el importe creando el documento si el jugador no existe
+    private void credit(MongoCollection<Document> collection, ClientSession session, UUID playerUUID, double amount,
+            String currencyId) {
+        Bson filter = Filters.and(
+                Filters.eq("uuid", playerUUID.toString()),
+                Filters.eq("currencyId", currencyId));
+        Bson update = Updates.combine(
+                Updates.inc("balance", amount),
+                Updates.set("lastUpdated", System.currentTimeMillis()));
+        UpdateOptions options = new UpdateOptions().upsert(true);
+
+        if (session != null) {
+            collection.updateOne(session, filter, update, options);
+        } else {
+            collection.updateOne(filter, update, options);
+        }
+    }
+
+    // Los saldos pueden haberse guardado como int/long desde herramientas externas
+    private static double balanceOf(Document doc) {
+        Object balance = doc.get("balance");
+        return balance instanceof Number number ? number.doubleValue() : 0.0;
+    }
+
     // Métodos heredados de la interfaz para compatibilidad hacia atrás
     // Nota: Estos métodos fueron eliminados de la interfaz para evitar conflictos
     // pero se mantienen aquí para compatibilidad con implementaciones anteriores
@@ -398,30 +670,12 @@ public class MongoDBEconomyProvider implements EconomyDataProvider {
         }
 
         try {
-            MongoCollection<Document> collection = mongoConnection.getCollection();
-            MongoCollection<Document> namesCollection = mongoConnection.getDatabase().getCollection("player_names");
-
-            // Obtener top balances
-            List<Document> results = collection.find(Filters.eq("currencyId", currencyId))
-                    .sort(new Document("balance", -1))
-                    .limit(limit)
+            // Una sola agregación: top N + $lookup de nombres (antes era una consulta por fila)
+            List<Document> results = mongoConnection.getCollection()
+                    .aggregate(topBalancesWithNamesPipeline(currencyId, limit))
                     .into(new ArrayList<>());
 
-            Object[][] topBalances = new Object[results.size()][3];
-            for (int i = 0; i < results.size(); i++) {
-                Document doc = results.get(i);
-                String uuid = doc.getString("uuid");
-                
-                // Obtener nombre del jugador
-                Document nameDoc = namesCollection.find(Filters.eq("uuid", uuid)).first();
-                String playerName = nameDoc != null ? nameDoc.getString("name") : "Unknown";
-                
-                topBalances[i][0] = uuid; // UUID como String
-                topBalances[i][1] = playerName; // Nombre del jugador
-                topBalances[i][2] = doc.getDouble("balance");
-            }
-
-            return topBalances;
+            return toTopBalancesWithNames(results);
 
         } catch (Exception e) {
             plugin.getLogger().severe("Error al obtener top balances con nombres desde MongoDB: " + e.getMessage());
@@ -430,6 +684,36 @@ public class MongoDBEconomyProvider implements EconomyDataProvider {
         }
     }
 
+    /**
+     * Pipeline del top con nombres: ordena y limita antes del $lookup para que el cruce
+     * solo toque las filas del top, usando el índice currencyId + balance y el índice único uuid de player_names
+     */
+    public static List<Bson> topBalancesWithNamesPipeline(String currencyId, int limit) {
+        return Arrays.asList(
+                Aggregates.match(Filters.eq("currencyId", currencyId)),
+                Aggregates.sort(Sorts.descending("balance")),
+                Aggregates.limit(limit),
+                Aggregates.lookup("player_names", "uuid", "uuid", "names"),
+                Aggregates.project(Projections.fields(
+                        Projections.excludeId(),
+                        Projections.include("uuid", "balance"),
+                        Projections.computed("name", new Document("$arrayElemAt", Arrays.asList("$names.name", 0))))));
+    }
+
+    // Convierte el resultado del pipeline en filas [UUID, playerName, balance]
+    public static Object[][] toTopBalancesWithNames(List<Document> results) {
+        Object[][] topBalances = new Object[results.size()][3];
+        for (int i = 0; i < results.size(); i++) {
+            Document doc = results.get(i);
+            String playerName = doc.getString("name");
+
+            topBalances[i][0] = doc.getString("uuid"); // UUID como String
+            topBalances[i][1] = playerName != null ? playerName : "Unknown"; // Nombre del jugador
+            topBalances[i][2] = balanceOf(doc);
+        }
+        return topBalances;
+    }
+
     @Override
     public void updatePlayerName(UUID playerUUID, String playerName) {
         if (!mongoConnection.isConnected()) {
@@ -517,6 +801,28 @@ public class MongoDBEconomyProvider implements EconomyDataProvider {
         return names;
     }
 
+    @Override
+    public Map<UUID, String> getAllPlayerNames() {
+        Map<UUID, String> names = new HashMap<>();
+
+        if (!mongoConnection.isConnected()) {
+            return names;
+        }
+
+        try {
+            for (Document doc : mongoConnection.getCollection("player_names").find()
+                    .projection(Projections.include("uuid", "name"))) {
+                names.put(UUID.fromString(doc.getString("uuid")), doc.getString("name"));
+            }
+
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al obtener nombres de jugadores desde MongoDB: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return names;
+    }
+
     @Override
     public void syncPlayerNames(Map<UUID, String> activePlayers) {
         if (!mongoConnection.isConnected()) {
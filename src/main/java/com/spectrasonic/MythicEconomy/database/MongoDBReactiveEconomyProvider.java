@@ -0,0 +1,654 @@
+package com.spectrasonic.MythicEconomy.database;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.UpdateResult;
+import com.mongodb.reactivestreams.client.ClientSession;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import com.spectrasonic.MythicEconomy.manager.CurrencyManager;
+import com.spectrasonic.MythicEconomy.models.Currency;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Proveedor asíncrono de MongoDB sobre el driver Reactive Streams.
+ * Mismo esquema que MongoDBEconomyProvider (un documento por jugador y moneda, nombres en player_names),
+ * pero cada operación devuelve un CompletableFuture que completa el driver al llegar la respuesta,
+ * sin ocupar un hilo por consulta en curso.
+ */
+@Slf4j
+public class MongoDBReactiveEconomyProvider implements AsyncEconomyDataProvider {
+
+    private static final int MAX_TRANSACTION_ATTEMPTS = 3;
+
+    private final JavaPlugin plugin;
+    // Solo se usa por su configuración (cadena de conexión, pool, nombres de base de datos y colección)
+    private final MongoDBConnection connectionConfig;
+    private CurrencyManager currencyManager;
+
+    private volatile MongoClient mongoClient;
+    private volatile MongoDatabase database;
+    private volatile MongoCollection<Document> collection;
+    private volatile MongoCollection<Document> namesCollection;
+
+    // null hasta que se consulta el servidor por primera vez
+    private volatile Boolean transactionsSupported;
+
+    public MongoDBReactiveEconomyProvider(JavaPlugin plugin, MongoDBConnection connectionConfig) {
+        this.plugin = plugin;
+        this.connectionConfig = connectionConfig;
+    }
+
+    // ========== MÉTODOS BÁSICOS ASÍNCRONOS ==========
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerUUID) {
+        return getBalance(playerUUID, "default");
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerUUID, String currencyId) {
+        return ReactivePublishers.first(collection.find(accountFilter(playerUUID, currencyId)).first())
+                .thenApply(doc -> doc != null ? balanceOf(doc) : 0.0)
+                .exceptionally(e -> {
+                    log.error("Error al obtener saldo para {} en moneda {}", playerUUID, currencyId, e);
+                    return 0.0;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setBalance(UUID playerUUID, double amount) {
+        return setBalance(playerUUID, amount, "default");
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setBalance(UUID playerUUID, double amount, String currencyId) {
+        Document playerDoc = new Document()
+                .append("uuid", playerUUID.toString())
+                .append("currencyId", currencyId)
+                .append("balance", Math.max(0, amount))
+                .append("lastUpdated", System.currentTimeMillis());
+
+        return ReactivePublishers.first(collection.replaceOne(accountFilter(playerUUID, currencyId), playerDoc,
+                new ReplaceOptions().upsert(true)))
+                .thenApply(result -> true)
+                .exceptionally(e -> {
+                    log.error("Error al establecer saldo para {} en moneda {}", playerUUID, currencyId, e);
+                    return false;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> addBalance(UUID playerUUID, double amount) {
+        return addBalance(playerUUID, amount, "default");
+    }
+
+    @Override
+    public CompletableFuture<Boolean> addBalance(UUID playerUUID, double amount, String currencyId) {
+        if (amount <= 0) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return credit(null, playerUUID, amount, currencyId)
+                .thenApply(result -> result.getModifiedCount() > 0 || result.getUpsertedId() != null)
+                .exceptionally(e -> {
+                    log.error("Error al agregar saldo para {} en moneda {}", playerUUID, currencyId, e);
+                    return false;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> removeBalance(UUID playerUUID, double amount) {
+        return removeBalance(playerUUID, amount, "default");
+    }
+
+    @Override
+    public CompletableFuture<Boolean> removeBalance(UUID playerUUID, double amount, String currencyId) {
+        if (amount <= 0) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return debit(null, playerUUID, amount, currencyId)
+                .exceptionally(e -> {
+                    log.error("Error al remover saldo para {} en moneda {}", playerUUID, currencyId, e);
+                    return false;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasEnoughBalance(UUID playerUUID, double amount) {
+        return hasEnoughBalance(playerUUID, amount, "default");
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasEnoughBalance(UUID playerUUID, double amount, String currencyId) {
+        return getBalance(playerUUID, currencyId).thenApply(balance -> balance >= amount);
+    }
+
+    @Override
+    public CompletableFuture<Void> createPlayer(UUID playerUUID) {
+        return createPlayer(playerUUID, "default");
+    }
+
+    @Override
+    public CompletableFuture<Void> createPlayer(UUID playerUUID, String currencyId) {
+        // $setOnInsert: si el jugador ya existía se conserva su saldo
+        Bson update = Updates.combine(
+                Updates.setOnInsert("balance", getCurrencyStartingBalance(currencyId)),
+                Updates.setOnInsert("lastUpdated", System.currentTimeMillis()));
+
+        return ReactivePublishers.first(collection.updateOne(accountFilter(playerUUID, currencyId), update,
+                new UpdateOptions().upsert(true)))
+                .thenAccept(result -> {
+                    if (result.getUpsertedId() != null) {
+                        log.debug("Jugador creado en MongoDB para moneda {}: {}", currencyId, playerUUID);
+                    }
+                })
+                .exceptionally(e -> {
+                    log.error("Error al crear jugador {} para moneda {}", playerUUID, currencyId, e);
+                    return null;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Double>> getAllBalances(UUID playerUUID) {
+        return ReactivePublishers.toList(collection.find(Filters.eq("uuid", playerUUID.toString()))
+                .projection(Projections.include("currencyId", "balance")))
+                .thenApply(docs -> {
+                    Map<String, Double> balances = new HashMap<>();
+                    for (Document doc : docs) {
+                        balances.put(doc.getString("currencyId"), balanceOf(doc));
+                    }
+                    return balances;
+                })
+                .exceptionally(e -> {
+                    log.error("Error al obtener todos los saldos para {}", playerUUID, e);
+                    return new HashMap<>();
+                });
+    }
+
+    /**
+     * En replica sets y clústeres fragmentados usa una transacción multi-documento;
+     * en un servidor standalone hace el cargo condicional y compensa si falla el abono
+     */
+    @Override
+    public CompletableFuture<Boolean> transfer(UUID fromUUID, UUID toUUID, double amount, String currencyId) {
+        if (amount <= 0 || fromUUID.equals(toUUID)) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return supportsTransactions()
+                .thenCompose(supported -> supported
+                        ? transferInSession(fromUUID, toUUID, amount, currencyId)
+                        : transferWithCompensation(fromUUID, toUUID, amount, currencyId))
+                .exceptionally(e -> {
+                    log.error("Error al transferir saldo de {} a {} en moneda {}", fromUUID, toUUID, currencyId, e);
+                    return false;
+                });
+    }
+
+    // ========== OPERACIONES MASIVAS ASÍNCRONAS ==========
+
+    @Override
+    public CompletableFuture<Map<UUID, Double>> getBalances(Collection<UUID> playerUUIDs, String currencyId) {
+        if (playerUUIDs.isEmpty()) {
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+
+        List<String> uuidStrings = new ArrayList<>(playerUUIDs.size());
+        for (UUID uuid : playerUUIDs) {
+            uuidStrings.add(uuid.toString());
+        }
+
+        return ReactivePublishers.toList(collection.find(Filters.and(
+                Filters.eq("currencyId", currencyId),
+                Filters.in("uuid", uuidStrings))))
+                .thenApply(docs -> {
+                    Map<UUID, Double> balances = new HashMap<>();
+                    for (Document doc : docs) {
+                        balances.put(UUID.fromString(doc.getString("uuid")), balanceOf(doc));
+                    }
+                    return balances;
+                })
+                .exceptionally(e -> {
+                    log.error("Error al obtener saldos en bloque en moneda {}", currencyId, e);
+                    return new HashMap<>();
+                });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> addBalances(Map<UUID, Double> amounts, String currencyId) {
+        long now = System.currentTimeMillis();
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        for (Map.Entry<UUID, Double> entry : amounts.entrySet()) {
+            if (entry.getValue() > 0) {
+                writes.add(new UpdateOneModel<>(accountFilter(entry.getKey(), currencyId),
+                        Updates.combine(
+                                Updates.inc("balance", entry.getValue()),
+                                Updates.set("lastUpdated", now)),
+                        new UpdateOptions().upsert(true)));
+            }
+        }
+        return bulkWrite(writes, "agregar saldos en bloque", currencyId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setBalances(Map<UUID, Double> balances, String currencyId) {
+        long now = System.currentTimeMillis();
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        for (Map.Entry<UUID, Double> entry : balances.entrySet()) {
+            writes.add(new UpdateOneModel<>(accountFilter(entry.getKey(), currencyId),
+                    Updates.combine(
+                            Updates.set("balance", Math.max(0, entry.getValue())),
+                            Updates.set("lastUpdated", now)),
+                    new UpdateOptions().upsert(true)));
+        }
+        return bulkWrite(writes, "establecer saldos en bloque", currencyId);
+    }
+
+    // ========== MÉTODOS DE ESTADÍSTICAS ASÍNCRONOS ==========
+
+    @Override
+    public CompletableFuture<Long> getTotalPlayers(String currencyId) {
+        return ReactivePublishers.first(collection.countDocuments(Filters.eq("currencyId", currencyId)))
+                .thenApply(count -> count != null ? count : 0L)
+                .exceptionally(e -> {
+                    log.error("Error al obtener total de jugadores para moneda {}", currencyId, e);
+                    return 0L;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Double> getTotalMoney(String currencyId) {
+        return sumBalances(Arrays.asList(
+                new Document("$match", new Document("currencyId", currencyId)),
+                new Document("$group", new Document("_id", null)
+                        .append("totalBalance", new Document("$sum", "$balance")))))
+                .exceptionally(e -> {
+                    log.error("Error al obtener dinero total para moneda {}", currencyId, e);
+                    return 0.0;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Long> getTotalUniquePlayers() {
+        return ReactivePublishers.first(collection.aggregate(Arrays.asList(
+                new Document("$group", new Document("_id", "$uuid")),
+                new Document("$count", "count"))).first())
+                .thenApply(doc -> doc != null ? ((Number) doc.get("count")).longValue() : 0L)
+                .exceptionally(e -> {
+                    log.error("Error al obtener total de jugadores únicos", e);
+                    return 0L;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Double> getTotalMoneyAllCurrencies() {
+        return sumBalances(Arrays.asList(
+                new Document("$group", new Document("_id", null)
+                        .append("totalBalance", new Document("$sum", "$balance")))))
+                .exceptionally(e -> {
+                    log.error("Error al obtener dinero total de todas las monedas", e);
+                    return 0.0;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Object[][]> getTopBalances(String currencyId, int limit) {
+        return findTop(currencyId, limit)
+                .thenApply(docs -> {
+                    Object[][] topBalances = new Object[docs.size()][2];
+                    for (int i = 0; i < docs.size(); i++) {
+                        topBalances[i][0] = docs.get(i).getString("uuid");
+                        topBalances[i][1] = balanceOf(docs.get(i));
+                    }
+                    return topBalances;
+                })
+                .exceptionally(e -> {
+                    log.error("Error al obtener top balances para moneda {}", currencyId, e);
+                    return new Object[0][0];
+                });
+    }
+
+    @Override
+    public CompletableFuture<Object[][]> getTopBalancesWithNames(String currencyId, int limit) {
+        // Mismo pipeline que el proveedor síncrono: top N + $lookup de nombres en una sola consulta
+        return ReactivePublishers.toList(collection.aggregate(
+                MongoDBEconomyProvider.topBalancesWithNamesPipeline(currencyId, limit)))
+                .thenApply(MongoDBEconomyProvider::toTopBalancesWithNames)
+                .exceptionally(e -> {
+                    log.error("Error al obtener top balances con nombres para moneda {}", currencyId, e);
+                    return new Object[0][0];
+                });
+    }
+
+    // ========== MÉTODOS DE GESTIÓN DE NOMBRES DE JUGADORES ASÍNCRONOS ==========
+
+    @Override
+    public CompletableFuture<Void> updatePlayerName(UUID playerUUID, String playerName) {
+        if (playerName == null || playerName.trim().isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return ReactivePublishers.first(namesCollection.replaceOne(
+                Filters.eq("uuid", playerUUID.toString()),
+                nameDocument(playerUUID, playerName),
+                new ReplaceOptions().upsert(true)))
+                .<Void>thenApply(result -> null)
+                .exceptionally(e -> {
+                    log.error("Error al actualizar nombre para {}", playerUUID, e);
+                    return null;
+                });
+    }
+
+    @Override
+    public CompletableFuture<String> getPlayerName(UUID playerUUID) {
+        return ReactivePublishers.first(namesCollection.find(Filters.eq("uuid", playerUUID.toString())).first())
+                .thenApply(doc -> doc != null ? doc.getString("name") : null)
+                .exceptionally(e -> {
+                    log.error("Error al obtener nombre para {}", playerUUID, e);
+                    return null;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, String>> getPlayerNames(Iterable<UUID> playerUUIDs) {
+        List<String> uuidStrings = new ArrayList<>();
+        for (UUID uuid : playerUUIDs) {
+            uuidStrings.add(uuid.toString());
+        }
+
+        if (uuidStrings.isEmpty()) {
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+
+        return ReactivePublishers.toList(namesCollection.find(Filters.in("uuid", uuidStrings)))
+                .thenApply(docs -> {
+                    Map<UUID, String> names = new HashMap<>();
+                    for (Document doc : docs) {
+                        names.put(UUID.fromString(doc.getString("uuid")), doc.getString("name"));
+                    }
+                    return names;
+                })
+                .exceptionally(e -> {
+                    log.error("Error al obtener nombres de jugadores", e);
+                    return new HashMap<>();
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> syncPlayerNames(Map<UUID, String> activePlayers) {
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        for (Map.Entry<UUID, String> entry : activePlayers.entrySet()) {
+            String playerName = entry.getValue();
+            if (playerName != null && !playerName.trim().isEmpty()) {
+                writes.add(new ReplaceOneModel<>(
+                        Filters.eq("uuid", entry.getKey().toString()),
+                        nameDocument(entry.getKey(), playerName),
+                        new ReplaceOptions().upsert(true)));
+            }
+        }
+
+        if (writes.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return ReactivePublishers.first(namesCollection.bulkWrite(writes, new BulkWriteOptions().ordered(false)))
+                .<Void>thenApply(result -> null)
+                .exceptionally(e -> {
+                    log.error("Error al sincronizar nombres de jugadores", e);
+                    return null;
+                });
+    }
+
+    // ========== MÉTODOS DE GESTIÓN ==========
+
+    @Override
+    public CompletableFuture<Boolean> initialize() {
+        try {
+            MongoClient client = MongoClients.create(connectionConfig.createClientSettings());
+            MongoDatabase db = client.getDatabase(connectionConfig.getDatabaseName());
+
+            MongoCollection<Document> economy = db.getCollection(connectionConfig.getCollectionName());
+            MongoCollection<Document> names = db.getCollection("player_names");
+
+            return ReactivePublishers.first(db.runCommand(new Document("ping", 1)))
+                    .thenCompose(pong -> ensureIndexes(economy, names))
+                    .thenApply(ignored -> {
+                        this.mongoClient = client;
+                        this.database = db;
+                        this.collection = economy;
+                        this.namesCollection = names;
+                        if (currencyManager == null) {
+                            currencyManager = CurrencyManager.getInstance();
+                        }
+                        log.info("Conectado a MongoDB (reactivo) - Base de datos: {}, Colección: {}",
+                                connectionConfig.getDatabaseName(), connectionConfig.getCollectionName());
+                        return true;
+                    })
+                    .exceptionally(e -> {
+                        log.error("Error de conexión MongoDB (reactivo)", e);
+                        client.close();
+                        return false;
+                    });
+        } catch (Exception e) {
+            log.error("Error al crear el cliente MongoDB (reactivo)", e);
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> shutdown() {
+        MongoClient client = mongoClient;
+        mongoClient = null;
+        if (client != null) {
+            client.close();
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return mongoClient != null;
+    }
+
+    // ========== OPERACIONES INTERNAS ==========
+
+    // Mismos índices que crea MongoDBConnection; un fallo se registra pero no impide conectar
+    private CompletableFuture<Void> ensureIndexes(MongoCollection<Document> economy, MongoCollection<Document> names) {
+        return CompletableFuture.allOf(
+                ReactivePublishers.toList(economy.createIndexes(MongoDBConnection.economyIndexes())),
+                ReactivePublishers.toList(names.createIndexes(MongoDBConnection.playerNameIndexes())))
+                .exceptionally(e -> {
+                    log.error("No se pudieron crear los índices de MongoDB", e);
+                    return null;
+                });
+    }
+
+    private static Bson accountFilter(UUID playerUUID, String currencyId) {
+        return Filters.and(
+                Filters.eq("uuid", playerUUID.toString()),
+                Filters.eq("currencyId", currencyId));
+    }
+
+    // Los saldos pueden haberse guardado como int/long desde herramientas externas
+    private static double balanceOf(Document doc) {
+        Object balance = doc.get("balance");
+        return balance instanceof Number number ? number.doubleValue() : 0.0;
+    }
+
+    private static Document nameDocument(UUID playerUUID, String playerName) {
+        return new Document()
+                .append("uuid", playerUUID.toString())
+                .append("name", playerName)
+                .append("lastUpdated", System.currentTimeMillis());
+    }
+
+    private CompletableFuture<List<Document>> findTop(String currencyId, int limit) {
+        return ReactivePublishers.toList(collection.find(Filters.eq("currencyId", currencyId))
+                .sort(new Document("balance", -1))
+                .limit(limit));
+    }
+
+    private CompletableFuture<Double> sumBalances(List<Document> pipeline) {
+        return ReactivePublishers.first(collection.aggregate(pipeline).first())
+                .thenApply(doc -> doc != null && doc.get("totalBalance") instanceof Number total ? total.doubleValue() : 0.0);
+    }
+
+    // Sin orden: el servidor puede paralelizar y un fallo no detiene el resto de escrituras
+    private CompletableFuture<Boolean> bulkWrite(List<WriteModel<Document>> writes, String operation, String currencyId) {
+        if (writes.isEmpty()) {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        return ReactivePublishers.first(collection.bulkWrite(writes, new BulkWriteOptions().ordered(false)))
+                .thenApply(result -> true)
+                .exceptionally(e -> {
+                    log.error("Error al {} en moneda {}", operation, currencyId, e);
+                    return false;
+                });
+    }
+
+    // Resta el importe solo si el saldo alcanza; false si no se modificó nada
+    private CompletableFuture<Boolean> debit(ClientSession session, UUID playerUUID, double amount, String currencyId) {
+        Bson filter = Filters.and(
+                Filters.eq("uuid", playerUUID.toString()),
+                Filters.eq("currencyId", currencyId),
+                Filters.gte("balance", amount));
+        Bson update = Updates.combine(
+                Updates.inc("balance", -amount),
+                Updates.set("lastUpdated", System.currentTimeMillis()));
+
+        return ReactivePublishers.first(session != null
+                ? collection.updateOne(session, filter, update)
+                : collection.updateOne(filter, update))
+                .thenApply(result -> result.getModifiedCount() > 0);
+    }
+
+    // Suma el importe creando el documento si el jugador no existe
+    private CompletableFuture<UpdateResult> credit(ClientSession session, UUID playerUUID, double amount, String currencyId) {
+        Bson update = Updates.combine(
+                Updates.inc("balance", amount),
+                Updates.set("lastUpdated", System.currentTimeMillis()));
+        UpdateOptions options = new UpdateOptions().upsert(true);
+
+        return ReactivePublishers.first(session != null
+                ? collection.updateOne(session, accountFilter(playerUUID, currencyId), update, options)
+                : collection.updateOne(accountFilter(playerUUID, currencyId), update, options));
+    }
+
+    private CompletableFuture<Boolean> transferInSession(UUID fromUUID, UUID toUUID, double amount, String currencyId) {
+        return ReactivePublishers.first(mongoClient.startSession())
+                .thenCompose(session -> transferInTransaction(session, fromUUID, toUUID, amount, currencyId, 1)
+                        .whenComplete((result, error) -> session.close()));
+    }
+
+    // Equivalente a withTransaction del driver síncrono: reintenta ante errores transitorios
+    private CompletableFuture<Boolean> transferInTransaction(ClientSession session, UUID fromUUID, UUID toUUID,
+            double amount, String currencyId, int attempt) {
+        session.startTransaction();
+        return debit(session, fromUUID, amount, currencyId)
+                .thenCompose(debited -> {
+                    if (!debited) {
+                        return ReactivePublishers.first(session.abortTransaction()).thenApply(ignored -> false);
+                    }
+                    return credit(session, toUUID, amount, currencyId)
+                            .thenCompose(ignored -> ReactivePublishers.first(session.commitTransaction()))
+                            .thenApply(ignored -> true);
+                })
+                .handle((transferred, error) -> {
+                    if (error == null) {
+                        return CompletableFuture.completedFuture(transferred);
+                    }
+
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    CompletableFuture<Void> abort = session.hasActiveTransaction()
+                            ? ReactivePublishers.first(session.abortTransaction()).exceptionally(ignored -> null)
+                            : CompletableFuture.completedFuture(null);
+
+                    return abort.thenCompose(ignored -> {
+                        if (attempt < MAX_TRANSACTION_ATTEMPTS && cause instanceof MongoException mongoException
+                                && mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                            return transferInTransaction(session, fromUUID, toUUID, amount, currencyId, attempt + 1);
+                        }
+                        return CompletableFuture.<Boolean>failedFuture(cause);
+                    });
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<Boolean> transferWithCompensation(UUID fromUUID, UUID toUUID, double amount, String currencyId) {
+        return debit(null, fromUUID, amount, currencyId)
+                .thenCompose(debited -> {
+                    if (!debited) {
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    return credit(null, toUUID, amount, currencyId)
+                            .thenApply(ignored -> true)
+                            .handle((transferred, error) -> {
+                                if (error == null) {
+                                    return CompletableFuture.completedFuture(true);
+                                }
+                                // Devolver el cargo al origen para no perder el dinero
+                                return credit(null, fromUUID, amount, currencyId)
+                                        .thenCompose(ignored -> CompletableFuture.<Boolean>failedFuture(error));
+                            })
+                            .thenCompose(Function.identity());
+                });
+    }
+
+    // Las transacciones solo existen en replica sets y mongos; se consulta una vez por conexión
+    private CompletableFuture<Boolean> supportsTransactions() {
+        Boolean supported = transactionsSupported;
+        if (supported != null) {
+            return CompletableFuture.completedFuture(supported);
+        }
+
+        return ReactivePublishers.first(database.runCommand(new Document("isMaster", 1)))
+                .thenApply(hello -> hello != null
+                        && (hello.containsKey("setName") || "isdbgrid".equals(hello.getString("msg"))))
+                .exceptionally(e -> false)
+                .thenApply(result -> {
+                    transactionsSupported = result;
+                    if (!result) {
+                        log.info("MongoDB sin soporte de transacciones (standalone), las transferencias usarán cargo condicional");
+                    }
+                    return result;
+                });
+    }
+
+    private double getCurrencyStartingBalance(String currencyId) {
+        if (currencyManager == null) {
+            currencyManager = CurrencyManager.getInstance();
+        }
+        Currency currency = currencyManager != null ? currencyManager.getCurrency(currencyId) : null;
+        return currency != null ? currency.getStartingBalance()
+                : plugin.getConfig().getDouble("economy.starting-balance", 100.0);
+    }
+}
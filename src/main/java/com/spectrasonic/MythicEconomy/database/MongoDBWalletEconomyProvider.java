@@ -0,0 +1,953 @@
+package com.spectrasonic.MythicEconomy.database;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import com.spectrasonic.MythicEconomy.manager.CurrencyManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Proveedor de MongoDB con esquema EMBEDDED: un documento por jugador con sus saldos en un mapa por moneda.
+ *
+ * <pre>{ uuid: "...", name: "Steve", balances: { default: 150.0, gems: 3.0 }, lastUpdated: ... }</pre>
+ *
+ * Todos los saldos de un jugador se leen con una sola consulta y las escrituras usan rutas con punto
+ * ("balances.gems") sobre ese documento. Cada moneda tiene su propio índice parcial sobre su saldo,
+ * creado al usarla por primera vez, para servir el top N sin recorrer la colección.
+ *
+ * Mientras {@link MongoDBWalletMigrator} copia los datos del esquema PER_CURRENCY, cada operación
+ * sobre un jugador adopta antes su saldo antiguo si todavía no está en la cartera.
+ */
+public class MongoDBWalletEconomyProvider implements EconomyDataProvider {
+
+    private static final String BALANCES = "balances";
+
+    private final JavaPlugin plugin;
+    private final MongoDBConnection mongoConnection;
+
+    // Monedas con índice de top ya asegurado en esta conexión
+    private final Set<String> indexedCurrencies = ConcurrentHashMap.newKeySet();
+
+    // Solo durante la migración: uuid:moneda -> copia del saldo antiguo, terminada o en curso.
+    // Quien llega mientras otro hilo copia espera a que termine antes de escribir en la cartera
+    private static final CompletableFuture<Void> ADOPTED = CompletableFuture.completedFuture(null);
+    private final Map<String, CompletableFuture<Void>> legacyAdoptions = new ConcurrentHashMap<>();
+    private volatile boolean migrationPending = false;
+
+    public MongoDBWalletEconomyProvider(JavaPlugin plugin, MongoDBConnection mongoConnection) {
+        this.plugin = plugin;
+        this.mongoConnection = mongoConnection;
+
+        CurrencyManager currencyManager = CurrencyManager.getInstance();
+        if (currencyManager != null && mongoConnection.isConnected()) {
+            for (String currencyId : currencyManager.getCurrencyIds()) {
+                ensureCurrencyIndex(currencyId);
+            }
+        }
+    }
+
+    private MongoCollection<Document> wallets() {
+        return mongoConnection.getCollection(mongoConnection.getWalletCollectionName());
+    }
+
+    // ========== MÉTODOS BÁSICOS (moneda por defecto) ==========
+
+    public double getBalance(UUID playerUUID) {
+        return getBalance(playerUUID, "default");
+    }
+
+    public void setBalance(UUID playerUUID, double amount) {
+        setBalance(playerUUID, amount, "default");
+    }
+
+    public boolean addBalance(UUID playerUUID, double amount) {
+        return addBalance(playerUUID, amount, "default");
+    }
+
+    public boolean removeBalance(UUID playerUUID, double amount) {
+        return removeBalance(playerUUID, amount, "default");
+    }
+
+    public boolean hasEnoughBalance(UUID playerUUID, double amount) {
+        return hasEnoughBalance(playerUUID, amount, "default");
+    }
+
+    public void createPlayer(UUID playerUUID) {
+        createPlayer(playerUUID, "default");
+    }
+
+    // ========== MÉTODOS PARA MÚLTIPLES MONEDAS ==========
+
+    public double getBalance(UUID playerUUID, String currencyId) {
+        if (!mongoConnection.isConnected()) {
+            plugin.getLogger().warning("No hay conexión activa con MongoDB");
+            return 0.0;
+        }
+
+        try {
+            adoptLegacyBalance(playerUUID, currencyId);
+
+            Document wallet = wallets().find(Filters.eq("uuid", playerUUID.toString()))
+                    .projection(Projections.include(balancePath(currencyId)))
+                    .first();
+            Double balance = wallet != null ? balanceOf(wallet, currencyId) : null;
+
+            // Jugador o moneda nuevos: saldo inicial
+            return balance != null ? balance : plugin.getConfig().getDouble("economy.starting-balance", 100.0);
+
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al obtener saldo desde MongoDB: " + e.getMessage());
+            e.printStackTrace();
+            return 0.0;
+        }
+    }
+
+    /**
+     * Obtiene todos los saldos de un jugador con una sola lectura
+     * @return Mapa de moneda -> saldo; vacío si el jugador no tiene cartera
+     */
+    @Override
+    public Map<String, Double> getAllBalances(UUID playerUUID) {
+        Map<String, Double> balances = new HashMap<>();
+        if (!mongoConnection.isConnected()) {
+            return balances;
+        }
+
+        try {
+            Document wallet = wallets().find(Filters.eq("uuid", playerUUID.toString()))
+                    .projection(Projections.include(BALANCES))
+                    .first();
+            Document walletBalances = wallet != null ? wallet.get(BALANCES, Document.class) : null;
+            if (walletBalances != null) {
+                for (Map.Entry<String, Object> entry : walletBalances.entrySet()) {
+                    if (entry.getValue() instanceof Number number) {
+                        balances.put(entry.getKey(), number.doubleValue());
+                    }
+                }
+            }
+
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al obtener saldos desde MongoDB: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return balances;
+    }
+
+    /**
+     * Pone el saldo inicial de las monedas que falten en la cartera con un único bulkWrite ordenado:
+     * el primer upsert crea la cartera si no existe y los siguientes la completan
+     */
+    @Override
+    public Map<String, Double> ensureBalances(UUID playerUUID, Map<String, Double> startingBalances) {
+        if (migrationPending) {
+            for (String currencyId : startingBalances.keySet()) {
+                adoptLegacyBalance(playerUUID, currencyId);
+            }
+        }
+
+        Map<String, Double> balances = getAllBalances(playerUUID);
+        if (!mongoConnection.isConnected()) {
+            return balances;
+        }
+
+        try {
+            long now = System.currentTimeMillis();
+            List<WriteModel<Document>> writes = new ArrayList<>();
+            for (Map.Entry<String, Double> entry : startingBalances.entrySet()) {
+                if (balances.containsKey(entry.getKey())) {
+                    continue;
+                }
+                String path = balancePath(entry.getKey());
+                writes.add(new UpdateOneModel<>(
+                        Filters.and(
+                                Filters.eq("uuid", playerUUID.toString()),
+                                Filters.exists(path, false)),
+                        Updates.combine(
+                                Updates.set(path, entry.getValue()),
+                                Updates.set("lastUpdated", now)),
+                        new UpdateOptions().upsert(true)));
+            }
+
+            if (writes.isEmpty()) {
+                return balances;
+            }
+            wallets().bulkWrite(writes, new BulkWriteOptions().ordered(true));
+
+        } catch (MongoBulkWriteException e) {
+            // Otra escritura creó la cartera o la moneda a la vez: lo que haya quedado se relee abajo
+            if (e.getWriteErrors().stream()
+                    .anyMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY)) {
+                plugin.getLogger().severe("Error al asegurar saldos en MongoDB: " + e.getMessage());
+            }
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al asegurar saldos en MongoDB: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return getAllBalances(playerUUID);
+    }
+
+    public void setBalance(UUID playerUUID, double amount, String currencyId) {
+        if (!mongoConnection.isConnected()) {
+            plugin.getLogger().warning("No hay conexión activa con MongoDB");
+            return;
+        }
+
+        try {
+            // Un set no depende del saldo anterior: no hace falta adoptarlo (y la copia no pisa monedas ya presentes)
+            legacyAdoptions.putIfAbsent(legacyKey(playerUUID, currencyId), ADOPTED);
+
+            wallets().updateOne(
+                    Filters.eq("uuid", playerUUID.toString()),
+                    Updates.combine(
+                            Updates.set(balancePath(currencyId), Math.max(0, amount)),
+                            Updates.set("lastUpdated", System.currentTimeMillis())),
+                    new UpdateOptions().upsert(true));
+
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al establecer saldo en MongoDB: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    public boolean addBalance(UUID playerUUID, double amount, String currencyId) {
+        return addAndGetBalance(playerUUID, amount, currencyId) != null;
+    }
+
+    /**
+     * Suma el importe con un único findOneAndUpdate ($inc sobre la ruta de la moneda)
+     * @return Saldo resultante, o null si no se aplicó
+     */
+    public Double addAndGetBalance(UUID playerUUID, double amount, String currencyId) {
+        if (!mongoConnection.isConnected()) {
+            plugin.getLogger().warning("No hay conexión activa con MongoDB");
+            return null;
+        }
+
+        if (amount <= 0) {
+            return null;
+        }
+
+        try {
+            adoptLegacyBalance(playerUUID, currencyId);
+
+            String path = balancePath(currencyId);
+            Document updated = wallets().findOneAndUpdate(
+                    Filters.eq("uuid", playerUUID.toString()),
+                    Updates.combine(
+                            Updates.inc(path, amount),
+                            Updates.set("lastUpdated", System.currentTimeMillis())),
+                    new FindOneAndUpdateOptions()
+                            .upsert(true)
+                            .projection(Projections.include(path))
+                            .returnDocument(ReturnDocument.AFTER));
+
+            return updated != null ? balanceOf(updated, currencyId) : null;
+
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al agregar saldo en MongoDB: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public boolean removeBalance(UUID playerUUID, double amount, String currencyId) {
+        return removeAndGetBalance(playerUUID, amount, currencyId) != null;
+    }
+
+    /**
+     * Resta el importe con un único findOneAndUpdate condicionado a que el saldo de la moneda alcance
+     * @return Saldo resultante, o null si el jugador no existe o no tiene saldo suficiente
+     */
+    public Double removeAndGetBalance(UUID playerUUID, double amount, String currencyId) {
+        if (!mongoConnection.isConnected()) {
+            plugin.getLogger().warning("No hay conexión activa con MongoDB");
+            return null;
+        }
+
+        if (amount <= 0) {
+            return null;
+        }
+
+        try {
+            adoptLegacyBalance(playerUUID, currencyId);
+
+            String path = balancePath(currencyId);
+            Document updated = wallets().findOneAndUpdate(
+                    Filters.and(
+                            Filters.eq("uuid", playerUUID.toString()),
+                            Filters.gte(path, amount)),
+                    Updates.combine(
+                            Updates.inc(path, -amount),
+                            Updates.set("lastUpdated", System.currentTimeMillis())),
+                    new FindOneAndUpdateOptions()
+                            .projection(Projections.include(path))
+                            .returnDocument(ReturnDocument.AFTER));
+
+            return updated != null ? balanceOf(updated, currencyId) : null;
+
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al reducir saldo en MongoDB: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public boolean hasEnoughBalance(UUID playerUUID, double amount, String currencyId) {
+        if (!mongoConnection.isConnected()) {
+            plugin.getLogger().warning("No hay conexión activa con MongoDB");
+            return false;
+        }
+
+        try {
+            adoptLegacyBalance(playerUUID, currencyId);
+
+            return wallets().find(Filters.and(
+                    Filters.eq("uuid", playerUUID.toString()),
+                    Filters.gte(balancePath(currencyId), amount)))
+                    .projection(Projections.include("_id"))
+                    .first() != null;
+
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al verificar saldo en MongoDB: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    public void createPlayer(UUID playerUUID, String currencyId) {
+        if (!mongoConnection.isConnected()) {
+            plugin.getLogger().warning("No hay conexión activa con MongoDB");
+            return;
+        }
+
+        try {
+            adoptLegacyBalance(playerUUID, currencyId);
+
+            double startingBalance = plugin.getConfig().getDouble("economy.starting-balance", 100.0);
+            if (initializeBalance(playerUUID, currencyId, startingBalance)) {
+                plugin.getLogger().info("Jugador creado en MongoDB para moneda " + currencyId + ": " + playerUUID);
+            }
+
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al crear jugador en MongoDB: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // Transfiere dinero entre dos jugadores en una moneda específica.
+    // En replica sets y clústeres fragmentados usa una transacción multi-documento;
+    // en un servidor standalone hace el cargo condicional y compensa si falla el abono.
+    public boolean transfer(UUID fromUUID, UUID toUUID, double amount, String currencyId) {
+        if (!mongoConnection.isConnected()) {
+            plugin.getLogger().warning("No hay conexión activa con MongoDB");
+            return false;
+        }
+
+        if (amount <= 0 || fromUUID.equals(toUUID)) {
+            return false;
+        }
+
+        try {
+            adoptLegacyBalance(fromUUID, currencyId);
+            adoptLegacyBalance(toUUID, currencyId);
+
+            MongoCollection<Document> wallets = wallets();
+
+            if (mongoConnection.supportsTransactions()) {
+                try (ClientSession session = mongoConnection.getMongoClient().startSession()) {
+                    return session.withTransaction(() -> {
+                        if (!debit(wallets, session, fromUUID, amount, currencyId)) {
+                            return false;
+                        }
+                        credit(wallets, session, toUUID, amount, currencyId);
+                        return true;
+                    });
+                }
+            }
+
+            if (!debit(wallets, null, fromUUID, amount, currencyId)) {
+                return false;
+            }
+            try {
+                credit(wallets, null, toUUID, amount, currencyId);
+                return true;
+            } catch (Exception e) {
+                // Devolver el cargo al origen para no perder el dinero
+                credit(wallets, null, fromUUID, amount, currencyId);
+                throw e;
+            }
+
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al transferir saldo en MongoDB: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // ========== OPERACIONES MASIVAS ==========
+
+    // Agrega dinero a varios jugadores con un único bulkWrite ($inc sobre la ruta de la moneda)
+    public void addBalances(Map<UUID, Double> amounts, String currencyId) {
+        if (!mongoConnection.isConnected()) {
+            throw new BalanceWriteException("No hay conexión activa con MongoDB", amounts.keySet());
+        }
+
+        String path = balancePath(currencyId);
+        long now = System.currentTimeMillis();
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        List<UUID> accounts = new ArrayList<>();
+        try {
+            for (Map.Entry<UUID, Double> entry : amounts.entrySet()) {
+                if (entry.getValue() <= 0) {
+                    continue;
+                }
+                adoptLegacyBalance(entry.getKey(), currencyId);
+                accounts.add(entry.getKey());
+                writes.add(new UpdateOneModel<>(
+                        Filters.eq("uuid", entry.getKey().toString()),
+                        Updates.combine(
+                                Updates.inc(path, entry.getValue()),
+                                Updates.set("lastUpdated", now)),
+                        new UpdateOptions().upsert(true)));
+            }
+        } catch (RuntimeException e) {
+            // Falló la adopción de un saldo antiguo antes de enviar nada
+            throw new BalanceWriteException("Error al agregar saldos en bloque en MongoDB: " + e.getMessage(),
+                    amounts.keySet(), e);
+        }
+
+        bulkWrite(writes, accounts, "agregar saldos en bloque");
+    }
+
+    // Establece el saldo de varios jugadores con un único bulkWrite
+    public void setBalances(Map<UUID, Double> balances, String currencyId) {
+        if (!mongoConnection.isConnected()) {
+            throw new BalanceWriteException("No hay conexión activa con MongoDB", balances.keySet());
+        }
+
+        String path = balancePath(currencyId);
+        long now = System.currentTimeMillis();
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        List<UUID> accounts = new ArrayList<>();
+        for (Map.Entry<UUID, Double> entry : balances.entrySet()) {
+            legacyAdoptions.putIfAbsent(legacyKey(entry.getKey(), currencyId), ADOPTED);
+            accounts.add(entry.getKey());
+            writes.add(new UpdateOneModel<>(
+                    Filters.eq("uuid", entry.getKey().toString()),
+                    Updates.combine(
+                            Updates.set(path, Math.max(0, entry.getValue())),
+                            Updates.set("lastUpdated", now)),
+                    new UpdateOptions().upsert(true)));
+        }
+
+        bulkWrite(writes, accounts, "establecer saldos en bloque");
+    }
+
+    // Aplica las variaciones del volcado de la caché con un único bulkWrite de actualizaciones con pipeline
+    public void applyDeltas(Map<UUID, BalanceDelta> deltas, String currencyId) {
+        if (!mongoConnection.isConnected()) {
+            throw new BalanceWriteException("No hay conexión activa con MongoDB", deltas.keySet());
+        }
+
+        String path = balancePath(currencyId);
+        long now = System.currentTimeMillis();
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        List<UUID> accounts = new ArrayList<>();
+        try {
+            for (Map.Entry<UUID, BalanceDelta> entry : deltas.entrySet()) {
+                // La variación se suma al saldo antiguo, así que tiene que estar ya en la cartera
+                adoptLegacyBalance(entry.getKey(), currencyId);
+                accounts.add(entry.getKey());
+                writes.add(new UpdateOneModel<>(
+                        Filters.eq("uuid", entry.getKey().toString()),
+                        List.of(new Document("$set", new Document()
+                                .append(path, MongoDBConnection.applyDeltaExpression(path, entry.getValue()))
+                                .append("lastUpdated", now))),
+                        new UpdateOptions().upsert(true)));
+            }
+        } catch (RuntimeException e) {
+            // Falló la adopción de un saldo antiguo antes de enviar nada
+            throw new BalanceWriteException("Error al volcar variaciones de saldo en MongoDB: " + e.getMessage(),
+                    deltas.keySet(), e);
+        }
+
+        bulkWrite(writes, accounts, "volcar variaciones de saldo");
+    }
+
+    // ========== ESTADÍSTICAS ==========
+
+    public long getTotalPlayers(String currencyId) {
+        if (!mongoConnection.isConnected()) {
+            return 0;
+        }
+
+        try {
+            return wallets().countDocuments(Filters.exists(balancePath(currencyId)));
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al obtener total de jugadores: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    public double getTotalMoney(String currencyId) {
+        if (!mongoConnection.isConnected()) {
+            return 0.0;
+        }
+
+        try {
+            String path = balancePath(currencyId);
+            Document result = wallets().aggregate(Arrays.asList(
+                    Aggregates.match(Filters.exists(path)),
+                    new Document("$group", new Document("_id", null)
+                            .append("totalBalance", new Document("$sum", "$" + path)))))
+                    .first();
+
+            return result != null ? ((Number) result.get("totalBalance")).doubleValue() : 0.0;
+
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al obtener dinero total: " + e.getMessage());
+            e.printStackTrace();
+            return 0.0;
+        }
+    }
+
+    @Override
+    public long getTotalUniquePlayers() {
+        if (!mongoConnection.isConnected()) {
+            return 0;
+        }
+
+        try {
+            // Un documento por jugador: no hace falta agrupar
+            return wallets().countDocuments(Filters.exists(BALANCES));
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al obtener total de jugadores únicos: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public double getTotalMoneyAllCurrencies() {
+        if (!mongoConnection.isConnected()) {
+            return 0.0;
+        }
+
+        try {
+            Document result = wallets().aggregate(Arrays.asList(
+                    Aggregates.match(Filters.exists(BALANCES)),
+                    new Document("$project", new Document(BALANCES, new Document("$objectToArray", "$" + BALANCES))),
+                    new Document("$unwind", "$" + BALANCES),
+                    new Document("$group", new Document("_id", null)
+                            .append("totalBalance", new Document("$sum", "$" + BALANCES + ".v")))))
+                    .first();
+
+            return result != null ? ((Number) result.get("totalBalance")).doubleValue() : 0.0;
+
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al obtener dinero total de todas las monedas: " + e.getMessage());
+            e.printStackTrace();
+            return 0.0;
+        }
+    }
+
+    @Override
+    public Object[][] getTopBalances(String currencyId, int limit) {
+        Object[][] withNames = getTopBalancesWithNames(currencyId, limit);
+        Object[][] topBalances = new Object[withNames.length][2];
+        for (int i = 0; i < withNames.length; i++) {
+            topBalances[i][0] = withNames[i][0];
+            topBalances[i][1] = withNames[i][2];
+        }
+        return topBalances;
+    }
+
+    @Override
+    public Object[][] getTopBalancesWithNames(String currencyId, int limit) {
+        if (!mongoConnection.isConnected()) {
+            return new Object[0][0];
+        }
+
+        try {
+            String path = balancePath(currencyId);
+            ensureCurrencyIndex(currencyId);
+
+            // El filtro coincide con el filtro parcial del índice, así que el orden sale del índice
+            List<Document> results = wallets().find(Filters.exists(path))
+                    .projection(Projections.include("uuid", "name", path))
+                    .sort(Sorts.descending(path))
+                    .limit(limit)
+                    .into(new ArrayList<>());
+
+            Object[][] topBalances = new Object[results.size()][3];
+            for (int i = 0; i < results.size(); i++) {
+                Document doc = results.get(i);
+                String playerName = doc.getString("name");
+                Double balance = balanceOf(doc, currencyId);
+
+                topBalances[i][0] = doc.getString("uuid"); // UUID como String
+                topBalances[i][1] = playerName != null ? playerName : "Unknown"; // Nombre del jugador
+                topBalances[i][2] = balance != null ? balance : 0.0;
+            }
+
+            return topBalances;
+
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al obtener top balances con nombres desde MongoDB: " + e.getMessage());
+            e.printStackTrace();
+            return new Object[0][0];
+        }
+    }
+
+    // ========== NOMBRES DE JUGADORES (en el mismo documento) ==========
+
+    @Override
+    public void updatePlayerName(UUID playerUUID, String playerName) {
+        if (!mongoConnection.isConnected()) {
+            plugin.getLogger().warning("No hay conexión activa con MongoDB");
+            return;
+        }
+
+        if (playerName == null || playerName.trim().isEmpty()) {
+            return;
+        }
+
+        try {
+            wallets().updateOne(
+                    Filters.eq("uuid", playerUUID.toString()),
+                    Updates.set("name", playerName),
+                    new UpdateOptions().upsert(true));
+
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al actualizar nombre de jugador en MongoDB: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public String getPlayerName(UUID playerUUID) {
+        if (!mongoConnection.isConnected()) {
+            return null;
+        }
+
+        try {
+            Document wallet = wallets().find(Filters.eq("uuid", playerUUID.toString()))
+                    .projection(Projections.include("name"))
+                    .first();
+            return wallet != null ? wallet.getString("name") : null;
+
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al obtener nombre de jugador desde MongoDB: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public Map<UUID, String> getPlayerNames(Iterable<UUID> playerUUIDs) {
+        Map<UUID, String> names = new HashMap<>();
+
+        if (!mongoConnection.isConnected()) {
+            return names;
+        }
+
+        try {
+            List<String> uuidStrings = new ArrayList<>();
+            for (UUID uuid : playerUUIDs) {
+                uuidStrings.add(uuid.toString());
+            }
+
+            if (uuidStrings.isEmpty()) {
+                return names;
+            }
+
+            for (Document doc : wallets().find(Filters.and(Filters.in("uuid", uuidStrings), Filters.exists("name")))
+                    .projection(Projections.include("uuid", "name"))) {
+                names.put(UUID.fromString(doc.getString("uuid")), doc.getString("name"));
+            }
+
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al obtener nombres de jugadores desde MongoDB: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return names;
+    }
+
+    @Override
+    public Map<UUID, String> getAllPlayerNames() {
+        Map<UUID, String> names = new HashMap<>();
+
+        if (!mongoConnection.isConnected()) {
+            return names;
+        }
+
+        try {
+            for (Document doc : wallets().find(Filters.exists("name"))
+                    .projection(Projections.include("uuid", "name"))) {
+                names.put(UUID.fromString(doc.getString("uuid")), doc.getString("name"));
+            }
+
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al obtener nombres de jugadores desde MongoDB: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return names;
+    }
+
+    @Override
+    public void syncPlayerNames(Map<UUID, String> activePlayers) {
+        if (!mongoConnection.isConnected()) {
+            return;
+        }
+
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        for (Map.Entry<UUID, String> entry : activePlayers.entrySet()) {
+            String playerName = entry.getValue();
+            if (playerName != null && !playerName.trim().isEmpty()) {
+                writes.add(new UpdateOneModel<>(
+                        Filters.eq("uuid", entry.getKey().toString()),
+                        Updates.set("name", playerName),
+                        new UpdateOptions().upsert(true)));
+            }
+        }
+
+        try {
+            if (!writes.isEmpty()) {
+                wallets().bulkWrite(writes, new BulkWriteOptions().ordered(false));
+            }
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error al sincronizar nombres de jugadores en MongoDB: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // ========== MIGRACIÓN DESDE PER_CURRENCY ==========
+
+    /**
+     * Copia en segundo plano los saldos y nombres del esquema PER_CURRENCY a la colección de carteras.
+     * El servidor sigue funcionando durante la copia: las operaciones sobre un jugador adoptan antes
+     * su saldo antiguo, y la copia nunca sobrescribe una moneda que ya exista en la cartera.
+     * Si la copia ya se completó en un arranque anterior no se hace nada, ni siquiera la adopción.
+     */
+    public void startMigration() {
+        MongoCollection<Document> legacy = mongoConnection.getCollection();
+        MongoCollection<Document> markers = mongoConnection.getCollection(MongoDBWalletMigrator.MARKER_COLLECTION);
+        if (MongoDBWalletMigrator.isCompleted(markers, legacy, wallets()) || legacy.find().limit(1).first() == null) {
+            return;
+        }
+
+        migrationPending = true;
+        plugin.getLogger().info("Migrando MongoDB de PER_CURRENCY a EMBEDDED en segundo plano...");
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                MongoDBWalletMigrator.Result result = MongoDBWalletMigrator.migrate(legacy,
+                        mongoConnection.getCollection("player_names"), wallets(), plugin.getLogger());
+                MongoDBWalletMigrator.markCompleted(markers, legacy, wallets(), result);
+                plugin.getLogger().info("Migración a EMBEDDED completada: " + result.getBalances() + " saldos y "
+                        + result.getNames() + " nombres copiados, " + result.getSkipped() + " ya presentes");
+                migrationPending = false;
+                legacyAdoptions.clear();
+            } catch (Exception e) {
+                // Se deja la adopción por jugador activa; la copia se reintenta en el siguiente arranque
+                plugin.getLogger().severe("Error durante la migración a EMBEDDED: " + e.getMessage());
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Si la migración no ha llegado a este jugador, copia su saldo antiguo antes de operar.
+     * La clave solo cuenta como adoptada cuando la copia ya está en la cartera: un $inc con upsert
+     * que se adelantara crearía la moneda y la copia, que no pisa monedas presentes, se perdería
+     */
+    private void adoptLegacyBalance(UUID playerUUID, String currencyId) {
+        if (!migrationPending) {
+            return;
+        }
+
+        String key = legacyKey(playerUUID, currencyId);
+        CompletableFuture<Void> adoption = new CompletableFuture<>();
+        CompletableFuture<Void> existing = legacyAdoptions.putIfAbsent(key, adoption);
+        if (existing != null) {
+            // Otro hilo la está copiando (o ya la copió): se espera; si falló, esta operación también falla
+            existing.join();
+            return;
+        }
+
+        try {
+            Document legacyDoc = mongoConnection.getCollection().find(Filters.and(
+                    Filters.eq("uuid", playerUUID.toString()),
+                    Filters.eq("currencyId", currencyId)))
+                    .projection(Projections.include("balance"))
+                    .first();
+            if (legacyDoc != null && legacyDoc.get("balance") instanceof Number balance) {
+                initializeBalance(playerUUID, currencyId, balance.doubleValue());
+            }
+            adoption.complete(null);
+        } catch (RuntimeException e) {
+            // Se libera la clave para que la siguiente operación vuelva a intentar la copia
+            legacyAdoptions.remove(key, adoption);
+            adoption.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static String legacyKey(UUID playerUUID, String currencyId) {
+        return playerUUID + ":" + currencyId;
+    }
+
+    // ========== OPERACIONES INTERNAS ==========
+
+    /**
+     * Ruta del saldo de una moneda dentro del documento. Los ID con "." o que empiezan por "$"
+     * se interpretarían como rutas u operadores, así que no se admiten en este esquema
+     */
+    static String balancePath(String currencyId) {
+        if (currencyId == null || currencyId.isEmpty() || currencyId.indexOf('.') >= 0 || currencyId.startsWith("$")) {
+            throw new IllegalArgumentException("ID de moneda no válido para el esquema EMBEDDED: " + currencyId);
+        }
+        return BALANCES + "." + currencyId;
+    }
+
+    // Saldo de la moneda en el documento, o null si la cartera no la tiene
+    private static Double balanceOf(Document wallet, String currencyId) {
+        Document balances = wallet.get(BALANCES, Document.class);
+        Object balance = balances != null ? balances.get(currencyId) : null;
+        return balance instanceof Number number ? number.doubleValue() : null;
+    }
+
+    /**
+     * Pone el saldo inicial de la moneda solo si la cartera no la tiene ya
+     * @return true si se escribió el saldo
+     */
+    private boolean initializeBalance(UUID playerUUID, String currencyId, double balance) {
+        String path = balancePath(currencyId);
+        try {
+            UpdateResult result = wallets().updateOne(
+                    Filters.and(
+                            Filters.eq("uuid", playerUUID.toString()),
+                            Filters.exists(path, false)),
+                    Updates.combine(
+                            Updates.set(path, balance),
+                            Updates.set("lastUpdated", System.currentTimeMillis())),
+                    new UpdateOptions().upsert(true));
+            return result.getModifiedCount() > 0 || result.getUpsertedId() != null;
+        } catch (MongoWriteException e) {
+            // La cartera existe y ya tiene la moneda: el upsert choca con el índice único de uuid
+            if (e.getError().getCategory() == ErrorCategory.DUPLICATE_KEY) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    // Índice parcial por moneda: solo contiene las carteras que tienen esa moneda
+    private void ensureCurrencyIndex(String currencyId) {
+        if (indexedCurrencies.contains(currencyId)) {
+            return;
+        }
+
+        String path = balancePath(currencyId);
+        wallets().createIndex(Indexes.descending(path), new IndexOptions()
+                .name("balance_" + currencyId)
+                .partialFilterExpression(Filters.exists(path)));
+        indexedCurrencies.add(currencyId);
+    }
+
+    // Sin orden: el servidor puede paralelizar y un fallo no detiene el resto de escrituras.
+    // Si alguna falla se lanza BalanceWriteException con las cuentas que no se escribieron
+    private void bulkWrite(List<WriteModel<Document>> writes, List<UUID> accounts, String operation) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        try {
+            wallets().bulkWrite(writes, new BulkWriteOptions().ordered(false));
+        } catch (Exception e) {
+            throw MongoDBConnection.balanceWriteFailure(operation, accounts, e);
+        }
+    }
+
+    // Resta el importe solo si el saldo alcanza; devuelve false si no se modificó nada
+    private boolean debit(MongoCollection<Document> wallets, ClientSession session, UUID playerUUID, double amount,
+            String currencyId) {
+        String path = balancePath(currencyId);
+        Bson filter = Filters.and(
+                Filters.eq("uuid", playerUUID.toString()),
+                Filters.gte(path, amount));
+        Bson update = Updates.combine(
+                Updates.inc(path, -amount),
+                Updates.set("lastUpdated", System.currentTimeMillis()));
+
+        UpdateResult result = session != null
+                ? wallets.updateOne(session, filter, update)
+                : wallets.updateOne(filter, update);
+        return result.getModifiedCount() > 0;
+    }
+
+    // Suma el importe creando la cartera si el jugador no existe
+    private void credit(MongoCollection<Document> wallets, ClientSession session, UUID playerUUID, double amount,
+            String currencyId) {
+        Bson filter = Filters.eq("uuid", playerUUID.toString());
+        Bson update = Updates.combine(
+                Updates.inc(balancePath(currencyId), amount),
+                Updates.set("lastUpdated", System.currentTimeMillis()));
+        UpdateOptions options = new UpdateOptions().upsert(true);
+
+        if (session != null) {
+            wallets.updateOne(session, filter, update, options);
+        } else {
+            wallets.updateOne(filter, update, options);
+        }
+    }
+
+    // ========== MÉTODOS DE GESTIÓN ==========
+
+    @Override
+    public void save() {
+        // MongoDB guarda automáticamente, no necesitamos hacer nada
+    }
+
+    @Override
+    public void load() {
+        // MongoDB carga automáticamente cuando se necesita, no necesitamos hacer nada
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return mongoConnection != null && mongoConnection.isConnected();
+    }
+}
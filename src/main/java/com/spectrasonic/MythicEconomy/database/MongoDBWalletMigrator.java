@@ -0,0 +1,188 @@
+package com.spectrasonic.MythicEconomy.database;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Copia los datos del esquema PER_CURRENCY (un documento por jugador y moneda, nombres en player_names)
+ * a la colección de carteras del esquema EMBEDDED.
+ *
+ * Cada escritura solo rellena una moneda o un nombre que la cartera todavía no tenga, así que la copia
+ * se puede ejecutar con el servidor en marcha y repetir cuantas veces haga falta: nunca pisa un saldo
+ * que ya se haya modificado en el esquema nuevo. Las colecciones de origen no se modifican.
+ * Al terminar se deja una marca en {@value #MARKER_COLLECTION}; mientras exista, no se vuelve a copiar.
+ */
+public final class MongoDBWalletMigrator {
+
+    private static final int BATCH_SIZE = 1000;
+
+    // Colección con un documento por copia completada, para no repetirla en cada arranque
+    public static final String MARKER_COLLECTION = "schema_migrations";
+
+    private MongoDBWalletMigrator() {
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Result {
+        private final long balances;
+        private final long names;
+        // Monedas o nombres que ya estaban en la cartera
+        private final long skipped;
+    }
+
+    /**
+     * Copia todos los saldos y nombres en lotes de {@value #BATCH_SIZE}
+     */
+    public static Result migrate(MongoCollection<Document> legacy, MongoCollection<Document> legacyNames,
+            MongoCollection<Document> wallets, Logger logger) {
+        long[] balances = copy(legacy.find()
+                .projection(Projections.include("uuid", "currencyId", "balance", "lastUpdated"))
+                .batchSize(BATCH_SIZE), wallets, MongoDBWalletMigrator::balanceWrite, "saldos", logger);
+
+        long[] names = copy(legacyNames.find()
+                .projection(Projections.include("uuid", "name"))
+                .batchSize(BATCH_SIZE), wallets, MongoDBWalletMigrator::nameWrite, "nombres", logger);
+
+        return new Result(balances[0], names[0], balances[1] + names[1]);
+    }
+
+    /**
+     * Indica si la copia de legacy a wallets ya se completó en algún arranque anterior
+     */
+    public static boolean isCompleted(MongoCollection<Document> markers, MongoCollection<Document> legacy,
+            MongoCollection<Document> wallets) {
+        return markers.find(Filters.eq("_id", markerId(legacy, wallets))).first() != null;
+    }
+
+    /**
+     * Registra que la copia terminó, con sus totales
+     */
+    public static void markCompleted(MongoCollection<Document> markers, MongoCollection<Document> legacy,
+            MongoCollection<Document> wallets, Result result) {
+        markers.replaceOne(Filters.eq("_id", markerId(legacy, wallets)),
+                new Document("_id", markerId(legacy, wallets))
+                        .append("completedAt", System.currentTimeMillis())
+                        .append("balances", result.getBalances())
+                        .append("names", result.getNames())
+                        .append("skipped", result.getSkipped()),
+                new ReplaceOptions().upsert(true));
+    }
+
+    // Una marca por par de colecciones, por si se cambia wallet-collection
+    private static String markerId(MongoCollection<Document> legacy, MongoCollection<Document> wallets) {
+        return "per-currency-to-embedded:" + legacy.getNamespace().getCollectionName()
+                + ":" + wallets.getNamespace().getCollectionName();
+    }
+
+    // Devuelve [copiados, omitidos]
+    private static long[] copy(Iterable<Document> source, MongoCollection<Document> wallets,
+            Function<Document, WriteModel<Document>> mapper, String label, Logger logger) {
+        long copied = 0;
+        long skipped = 0;
+        long processed = 0;
+        List<WriteModel<Document>> batch = new ArrayList<>(BATCH_SIZE);
+
+        for (Document doc : source) {
+            WriteModel<Document> write = mapper.apply(doc);
+            if (write == null) {
+                skipped++;
+                continue;
+            }
+
+            batch.add(write);
+            if (batch.size() == BATCH_SIZE) {
+                long written = flush(wallets, batch);
+                copied += written;
+                skipped += batch.size() - written;
+                processed += batch.size();
+                batch.clear();
+                logger.info("Migración a EMBEDDED: " + processed + " " + label + " procesados");
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            long written = flush(wallets, batch);
+            copied += written;
+            skipped += batch.size() - written;
+        }
+
+        return new long[] { copied, skipped };
+    }
+
+    /**
+     * Escribe el lote sin orden. Los conflictos de clave duplicada significan que la cartera
+     * ya tenía ese dato (el filtro no coincide y el upsert choca con el índice único de uuid)
+     * @return número de escrituras aplicadas
+     */
+    private static long flush(MongoCollection<Document> wallets, List<WriteModel<Document>> batch) {
+        try {
+            BulkWriteResult result = wallets.bulkWrite(batch, new BulkWriteOptions().ordered(false));
+            return result.getModifiedCount() + result.getUpserts().size();
+        } catch (MongoBulkWriteException e) {
+            for (BulkWriteError error : e.getWriteErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw e;
+                }
+            }
+            BulkWriteResult result = e.getWriteResult();
+            return result.getModifiedCount() + result.getUpserts().size();
+        }
+    }
+
+    private static WriteModel<Document> balanceWrite(Document legacyDoc) {
+        String uuid = legacyDoc.getString("uuid");
+        String currencyId = legacyDoc.getString("currencyId");
+        if (uuid == null || !(legacyDoc.get("balance") instanceof Number balance)) {
+            return null;
+        }
+
+        String path;
+        try {
+            path = MongoDBWalletEconomyProvider.balancePath(currencyId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        Object lastUpdated = legacyDoc.get("lastUpdated");
+        return new UpdateOneModel<>(
+                Filters.and(Filters.eq("uuid", uuid), Filters.exists(path, false)),
+                Updates.combine(
+                        Updates.set(path, balance.doubleValue()),
+                        Updates.max("lastUpdated", lastUpdated instanceof Number number ? number.longValue() : 0L)),
+                new UpdateOptions().upsert(true));
+    }
+
+    private static WriteModel<Document> nameWrite(Document nameDoc) {
+        String uuid = nameDoc.getString("uuid");
+        String name = nameDoc.getString("name");
+        if (uuid == null || name == null || name.trim().isEmpty()) {
+            return null;
+        }
+
+        return new UpdateOneModel<>(
+                Filters.and(Filters.eq("uuid", uuid), Filters.exists("name", false)),
+                Updates.set("name", name),
+                new UpdateOptions().upsert(true));
+    }
+}
@@ -7,6 +7,7 @@ import org.bukkit.plugin.java.JavaPlugin;
 
 import com.spectrasonic.MythicEconomy.utils.MessageUtils;
 import com.spectrasonic.MythicEconomy.utils.AsyncUtils;
+import com.spectrasonic.MythicEconomy.metrics.EconomyMetrics;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -15,8 +16,14 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Conexión MySQL asíncrona con HikariCP para alto rendimiento y concurrencia.
@@ -30,6 +37,11 @@ public class MySQLAsyncConnection {
     private boolean initialized = false;
     private ScheduledExecutorService hikariExecutor;
 
+    // Ejecutor JDBC propio: las consultas no pasan por el scheduler asíncrono de Bukkit
+    private volatile ExecutorService jdbcExecutor;
+    // Límite de operaciones en curso + en espera (back-pressure)
+    private volatile Semaphore inFlightPermits;
+
     // Configuración de pool
     @Getter
     private String host;
@@ -54,6 +66,14 @@ public class MySQLAsyncConnection {
     @Getter
     private int maxLifetime;
 
+    // Configuración del ejecutor JDBC
+    @Getter
+    private boolean virtualThreads;
+    @Getter
+    private int maxPendingOperations;
+    @Getter
+    private int operationTimeout;
+
     public MySQLAsyncConnection(JavaPlugin plugin) {
         this.plugin = plugin;
         loadConfiguration();
@@ -78,6 +98,19 @@ public class MySQLAsyncConnection {
         connectionTimeout = config.getInt("database.mysql.pool.connection-timeout", 30000);
         idleTimeout = config.getInt("database.mysql.pool.idle-timeout", 600000);
         maxLifetime = config.getInt("database.mysql.pool.max-lifetime", 1800000);
+
+        // Configuración del ejecutor JDBC
+        virtualThreads = config.getBoolean("database.mysql.executor.virtual-threads", false);
+        maxPendingOperations = config.getInt("database.mysql.executor.max-pending", 1000);
+        operationTimeout = config.getInt("database.mysql.executor.operation-timeout", 10000);
+    }
+
+    /**
+     * Operación JDBC sobre una conexión del pool
+     */
+    @FunctionalInterface
+    public interface SqlFunction<T> {
+        T apply(Connection connection) throws SQLException;
     }
 
     /**
@@ -120,6 +153,7 @@ public class MySQLAsyncConnection {
         config.addDataSourceProperty("rewriteBatchedStatements", "true");
 
         dataSource = new HikariDataSource(config);
+        startJdbcExecutor();
 
         // Crear tablas si no existen
         createTablesIfNotExistsSync();
@@ -174,6 +208,7 @@ public class MySQLAsyncConnection {
                 config.addDataSourceProperty("rewriteBatchedStatements", "true");
 
                 dataSource = new HikariDataSource(config);
+                startJdbcExecutor();
 
                 // Crear tablas si no existen
                 createTablesIfNotExists();
@@ -210,40 +245,141 @@ public class MySQLAsyncConnection {
     }
 
     /**
-     * Obtiene una conexión del pool de forma asíncrona
+     * Obtiene una conexión del pool de forma asíncrona.
+     * Quien la recibe debe cerrarla; para consultas es preferible {@link #supplyAsync(SqlFunction)}
      */
     public CompletableFuture<Connection> getConnection() {
-        return AsyncUtils.supplyAsync(plugin, () -> {
-            try {
-                if (!initialized || dataSource == null || dataSource.isClosed()) {
-                    throw new SQLException("DataSource no inicializado o cerrado");
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return openConnection();
+                } catch (SQLException e) {
+                    log.error("Error al obtener conexión del pool", e);
+                    throw new CompletionException(new RuntimeException("No se pudo obtener conexión de MySQL", e));
                 }
-                return dataSource.getConnection();
-            } catch (SQLException e) {
-                log.error("Error al obtener conexión del pool", e);
-                throw new RuntimeException("No se pudo obtener conexión de MySQL", e);
+            }, executor());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // ========== EJECUTOR JDBC ==========
+
+    /**
+     * Ejecuta una operación JDBC en el ejecutor dedicado con una conexión del pool que se cierra al terminar.
+     * Si hay demasiadas operaciones pendientes el futuro falla de inmediato con {@link RejectedExecutionException},
+     * y si la operación tarda más de operation-timeout falla con un TimeoutException.
+     */
+    public <T> CompletableFuture<T> supplyAsync(SqlFunction<T> work) {
+        Semaphore permits = inFlightPermits;
+        ExecutorService executor = jdbcExecutor;
+        if (permits == null || executor == null || !initialized) {
+            return CompletableFuture.failedFuture(new SQLException("DataSource no inicializado o cerrado"));
+        }
+        if (!permits.tryAcquire()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException(
+                    "Demasiadas operaciones MySQL pendientes (" + maxPendingOperations + ")"));
+        }
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                EconomyMetrics.get().recordPoolWait(EconomyMetrics.POOL_MYSQL_EXECUTOR, queuedAt);
+                try {
+                    future.complete(withConnection(work));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            future.completeExceptionally(e);
+        }
+        return future.orTimeout(operationTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ejecuta una operación JDBC de forma síncrona en el hilo actual, sin pasar por el ejecutor.
+     * El timeout de red de la conexión limita lo que puede bloquear.
+     */
+    public <T> T withConnection(SqlFunction<T> work) throws SQLException {
+        try (Connection conn = openConnection()) {
+            return work.apply(conn);
+        }
+    }
+
+    private Connection openConnection() throws SQLException {
+        HikariDataSource source = dataSource;
+        if (source == null || source.isClosed()) {
+            throw new SQLException("DataSource no inicializado o cerrado");
+        }
+        long requestedAt = System.nanoTime();
+        Connection conn = source.getConnection();
+        EconomyMetrics.get().recordPoolWait(EconomyMetrics.POOL_MYSQL_CONNECTION, requestedAt);
+        // Timeout por operación a nivel de socket; HikariCP lo restablece al devolver la conexión
+        conn.setNetworkTimeout(Runnable::run, operationTimeout);
+        return conn;
+    }
+
+    private ExecutorService executor() {
+        ExecutorService executor = jdbcExecutor;
+        if (executor == null) {
+            throw new RejectedExecutionException("Ejecutor JDBC no iniciado");
+        }
+        return executor;
+    }
+
+    // Crea el ejecutor: hilos virtuales o un pool fijo del tamaño del pool de conexiones
+    private void startJdbcExecutor() {
+        if (jdbcExecutor != null && !jdbcExecutor.isShutdown()) {
+            return;
+        }
+        if (virtualThreads) {
+            jdbcExecutor = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("MythicEconomy-JDBC-", 0).factory());
+        } else {
+            AtomicInteger counter = new AtomicInteger();
+            jdbcExecutor = Executors.newFixedThreadPool(maximumPoolSize, r -> {
+                Thread t = new Thread(r, "MythicEconomy-JDBC-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        inFlightPermits = new Semaphore(maximumPoolSize + Math.max(0, maxPendingOperations));
+    }
+
+    private void stopJdbcExecutor() {
+        ExecutorService executor = jdbcExecutor;
+        if (executor == null) {
+            return;
+        }
+        jdbcExecutor = null;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(operationTimeout, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
             }
-        });
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
     }
 
     /**
      * Verifica si la conexión está activa de forma asíncrona
      */
     public CompletableFuture<Boolean> isConnected() {
-        return AsyncUtils.supplyAsync(plugin, () -> {
-            try {
-                if (!initialized || dataSource == null) {
+        if (!initialized || dataSource == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return supplyAsync(conn -> conn.isValid(5)) // 5 segundos timeout
+                .exceptionally(e -> {
+                    log.warn("Conexión MySQL no válida", e);
                     return false;
-                }
-
-                try (Connection conn = dataSource.getConnection()) {
-                    return conn.isValid(5); // 5 segundos timeout
-                }
-            } catch (SQLException e) {
-                log.warn("Conexión MySQL no válida", e);
-                return false;
-            }
-        });
+                });
     }
 
     /**
@@ -266,6 +402,9 @@ public class MySQLAsyncConnection {
     public CompletableFuture<Void> shutdown() {
         return AsyncUtils.runAsync(plugin, () -> {
             try {
+                // Dejar terminar las operaciones en curso antes de cerrar el pool
+                stopJdbcExecutor();
+
                 if (dataSource != null && !dataSource.isClosed()) {
                     dataSource.close();
                     initialized = false;
@@ -391,10 +530,13 @@ public class MySQLAsyncConnection {
             return "Pool no inicializado";
         }
 
-        return String.format("Pool stats - Active: %d, Idle: %d, Total: %d, Pending: %d",
+        Semaphore permits = inFlightPermits;
+        int inFlight = permits != null ? maximumPoolSize + maxPendingOperations - permits.availablePermits() : 0;
+        return String.format("Pool stats - Active: %d, Idle: %d, Total: %d, Pending: %d, In-flight: %d",
                 dataSource.getHikariPoolMXBean().getActiveConnections(),
                 dataSource.getHikariPoolMXBean().getIdleConnections(),
                 dataSource.getHikariPoolMXBean().getTotalConnections(),
-                dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection());
+                dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection(),
+                inFlight);
     }
 }
\ No newline at end of file
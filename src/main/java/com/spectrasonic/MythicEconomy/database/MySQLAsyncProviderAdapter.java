@@ -0,0 +1,171 @@
+package com.spectrasonic.MythicEconomy.database;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Expone MySQLEconomyProviderAsync como AsyncEconomyDataProvider.
+ * El proveedor ya implementa la interfaz síncrona con los mismos nombres de método,
+ * así que la versión asíncrona se ofrece a través de este adaptador.
+ */
+@RequiredArgsConstructor
+public class MySQLAsyncProviderAdapter implements AsyncEconomyDataProvider {
+
+    @Getter
+    private final MySQLEconomyProviderAsync provider;
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerUUID) {
+        return provider.getBalanceAsync(playerUUID);
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(UUID playerUUID, String currencyId) {
+        return provider.getBalanceAsync(playerUUID, currencyId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setBalance(UUID playerUUID, double amount) {
+        return provider.setBalanceAsync(playerUUID, amount);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setBalance(UUID playerUUID, double amount, String currencyId) {
+        return provider.setBalanceAsync(playerUUID, amount, currencyId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> addBalance(UUID playerUUID, double amount) {
+        return provider.addBalanceAsync(playerUUID, amount);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> addBalance(UUID playerUUID, double amount, String currencyId) {
+        return provider.addBalanceAsync(playerUUID, amount, currencyId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> removeBalance(UUID playerUUID, double amount) {
+        return provider.removeBalanceAsync(playerUUID, amount);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> removeBalance(UUID playerUUID, double amount, String currencyId) {
+        return provider.removeBalanceAsync(playerUUID, amount, currencyId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasEnoughBalance(UUID playerUUID, double amount) {
+        return provider.hasEnoughBalanceAsync(playerUUID, amount);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasEnoughBalance(UUID playerUUID, double amount, String currencyId) {
+        return provider.hasEnoughBalanceAsync(playerUUID, amount, currencyId);
+    }
+
+    @Override
+    public CompletableFuture<Void> createPlayer(UUID playerUUID) {
+        return provider.createPlayerAsync(playerUUID);
+    }
+
+    @Override
+    public CompletableFuture<Void> createPlayer(UUID playerUUID, String currencyId) {
+        return provider.createPlayerAsync(playerUUID, currencyId);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Double>> getAllBalances(UUID playerUUID) {
+        return provider.getAllBalancesAsync(playerUUID);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> transfer(UUID fromUUID, UUID toUUID, double amount, String currencyId) {
+        return provider.transferAsync(fromUUID, toUUID, amount, currencyId);
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Double>> getBalances(Collection<UUID> playerUUIDs, String currencyId) {
+        return provider.getBalancesAsync(playerUUIDs, currencyId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> addBalances(Map<UUID, Double> amounts, String currencyId) {
+        return provider.addBalancesAsync(amounts, currencyId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setBalances(Map<UUID, Double> balances, String currencyId) {
+        return provider.setBalancesAsync(balances, currencyId);
+    }
+
+    @Override
+    public CompletableFuture<Long> getTotalPlayers(String currencyId) {
+        return provider.getTotalPlayersAsync(currencyId);
+    }
+
+    @Override
+    public CompletableFuture<Double> getTotalMoney(String currencyId) {
+        return provider.getTotalMoneyAsync(currencyId);
+    }
+
+    @Override
+    public CompletableFuture<Long> getTotalUniquePlayers() {
+        return provider.getTotalUniquePlayersAsync();
+    }
+
+    @Override
+    public CompletableFuture<Double> getTotalMoneyAllCurrencies() {
+        return provider.getTotalMoneyAllCurrenciesAsync();
+    }
+
+    @Override
+    public CompletableFuture<Object[][]> getTopBalances(String currencyId, int limit) {
+        return provider.getTopBalancesAsync(currencyId, limit);
+    }
+
+    @Override
+    public CompletableFuture<Object[][]> getTopBalancesWithNames(String currencyId, int limit) {
+        return provider.getTopBalancesWithNamesAsync(currencyId, limit);
+    }
+
+    @Override
+    public CompletableFuture<Void> updatePlayerName(UUID playerUUID, String playerName) {
+        return provider.updatePlayerNameAsync(playerUUID, playerName);
+    }
+
+    @Override
+    public CompletableFuture<String> getPlayerName(UUID playerUUID) {
+        return provider.getPlayerNameAsync(playerUUID);
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, String>> getPlayerNames(Iterable<UUID> playerUUIDs) {
+        return provider.getPlayerNamesAsync(playerUUIDs);
+    }
+
+    @Override
+    public CompletableFuture<Void> syncPlayerNames(Map<UUID, String> activePlayers) {
+        return provider.syncPlayerNamesAsync(activePlayers);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> initialize() {
+        return provider.initialize();
+    }
+
+    @Override
+    public CompletableFuture<Void> shutdown() {
+        return provider.shutdown();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return provider.isAvailable();
+    }
+}
@@ -68,7 +68,7 @@ public class MySQLConnection {
                 }
             }
 
-            String url = String.format("jdbc:mysql://%s:%d/%s?useSSL=%s&serverTimezone=UTC&autoReconnect=true&failOverReadOnly=false&maxReconnects=10&initialTimeout=10",
+            String url = String.format("jdbc:mysql://%s:%d/%s?useSSL=%s&serverTimezone=UTC&autoReconnect=true&failOverReadOnly=false&maxReconnects=10&initialTimeout=10&rewriteBatchedStatements=true",
                     host, port, database, useSSL);
 
             plugin.getLogger().info("Conectando a MySQL en " + host + ":" + port + "/" + database);
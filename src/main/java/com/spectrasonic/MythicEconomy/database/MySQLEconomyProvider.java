@@ -116,6 +116,91 @@ public class MySQLEconomyProvider implements EconomyDataProvider {
         }
     }
 
+    @Override
+    public Map<String, Double> getAllBalances(UUID playerUUID) {
+        Map<String, Double> balances = new HashMap<>();
+
+        // Intentar reconectar si no hay conexión
+        if (!mysqlConnection.isConnected()) {
+            plugin.getLogger().warning("No hay conexión activa con MySQL, intentando reconectar...");
+            if (!mysqlConnection.connect()) {
+                plugin.getLogger().severe("No se pudo restablecer la conexión con MySQL");
+                return balances;
+            }
+        }
+
+        try (Connection conn = mysqlConnection.getConnection()) {
+            balances = readAllBalances(conn, playerUUID);
+
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error al obtener saldos desde MySQL: " + e.getMessage());
+            // Marcar conexión como nula para forzar reconexión la próxima vez
+            try {
+                if (mysqlConnection.getConnection() != null && !mysqlConnection.getConnection().isClosed()) {
+                    mysqlConnection.getConnection().close();
+                }
+            } catch (SQLException ex) {
+                // Ignorar error al cerrar
+            }
+        }
+
+        return balances;
+    }
+
+    @Override
+    public Map<String, Double> ensureBalances(UUID playerUUID, Map<String, Double> startingBalances) {
+        Map<String, Double> balances = new HashMap<>();
+
+        // Intentar reconectar si no hay conexión
+        if (!mysqlConnection.isConnected()) {
+            plugin.getLogger().warning("No hay conexión activa con MySQL, intentando reconectar...");
+            if (!mysqlConnection.connect()) {
+                plugin.getLogger().severe("No se pudo restablecer la conexión con MySQL");
+                return balances;
+            }
+        }
+
+        try (Connection conn = mysqlConnection.getConnection()) {
+            balances = readAllBalances(conn, playerUUID);
+
+            // Jugador habitual: una sola lectura. Si faltan monedas, un INSERT multi-fila y se releen
+            Map<String, Double> missing = new HashMap<>(startingBalances);
+            missing.keySet().removeAll(balances.keySet());
+            if (!missing.isEmpty()) {
+                SqlBulkWrite.insertMissing(conn, playerUUID, missing);
+                balances = readAllBalances(conn, playerUUID);
+            }
+
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error al asegurar saldos en MySQL: " + e.getMessage());
+            // Marcar conexión como nula para forzar reconexión la próxima vez
+            try {
+                if (mysqlConnection.getConnection() != null && !mysqlConnection.getConnection().isClosed()) {
+                    mysqlConnection.getConnection().close();
+                }
+            } catch (SQLException ex) {
+                // Ignorar error al cerrar
+            }
+        }
+
+        return balances;
+    }
+
+    private Map<String, Double> readAllBalances(Connection conn, UUID playerUUID) throws SQLException {
+        Map<String, Double> balances = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT currency_id, balance FROM player_balances WHERE player_uuid = ?")) {
+            stmt.setString(1, playerUUID.toString());
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    balances.put(rs.getString("currency_id"), rs.getDouble("balance"));
+                }
+            }
+        }
+        return balances;
+    }
+
     @Override
     public void setBalance(UUID playerUUID, double amount, String currencyId) {
         // Intentar reconectar si no hay conexión
@@ -354,6 +439,122 @@ public class MySQLEconomyProvider implements EconomyDataProvider {
         }
     }
 
+    @Override
+    public boolean transfer(UUID fromUUID, UUID toUUID, double amount, String currencyId) {
+        // Intentar reconectar si no hay conexión
+        if (!mysqlConnection.isConnected()) {
+            plugin.getLogger().warning("No hay conexión activa con MySQL, intentando reconectar...");
+            if (!mysqlConnection.connect()) {
+                plugin.getLogger().severe("No se pudo restablecer la conexión con MySQL");
+                return false;
+            }
+        }
+
+        if (amount <= 0 || fromUUID.equals(toUUID)) {
+            return false;
+        }
+
+        try (Connection conn = mysqlConnection.getConnection()) {
+            return SqlTransfer.execute(conn, fromUUID, toUUID, amount, currencyId);
+
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error al transferir saldo en MySQL: " + e.getMessage());
+            // Marcar conexión como nula para forzar reconexión la próxima vez
+            try {
+                if (mysqlConnection.getConnection() != null && !mysqlConnection.getConnection().isClosed()) {
+                    mysqlConnection.getConnection().close();
+                }
+            } catch (SQLException ex) {
+                // Ignorar error al cerrar
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public void addBalances(Map<UUID, Double> amounts, String currencyId) {
+        // Intentar reconectar si no hay conexión
+        if (!mysqlConnection.isConnected()) {
+            plugin.getLogger().warning("No hay conexión activa con MySQL, intentando reconectar...");
+            if (!mysqlConnection.connect()) {
+                throw new BalanceWriteException("No se pudo restablecer la conexión con MySQL", amounts.keySet());
+            }
+        }
+
+        try (Connection conn = mysqlConnection.getConnection()) {
+            SqlBulkWrite.addBalances(conn, amounts, currencyId);
+
+        } catch (SQLException e) {
+            // Marcar conexión como nula para forzar reconexión la próxima vez
+            try {
+                if (mysqlConnection.getConnection() != null && !mysqlConnection.getConnection().isClosed()) {
+                    mysqlConnection.getConnection().close();
+                }
+            } catch (SQLException ex) {
+                // Ignorar error al cerrar
+            }
+            // La transacción se deshizo entera: no se escribió ninguna cuenta
+            throw new BalanceWriteException("Error al agregar saldos en bloque en MySQL: " + e.getMessage(),
+                    amounts.keySet(), e);
+        }
+    }
+
+    @Override
+    public void setBalances(Map<UUID, Double> balances, String currencyId) {
+        // Intentar reconectar si no hay conexión
+        if (!mysqlConnection.isConnected()) {
+            plugin.getLogger().warning("No hay conexión activa con MySQL, intentando reconectar...");
+            if (!mysqlConnection.connect()) {
+                throw new BalanceWriteException("No se pudo restablecer la conexión con MySQL", balances.keySet());
+            }
+        }
+
+        try (Connection conn = mysqlConnection.getConnection()) {
+            SqlBulkWrite.setBalances(conn, balances, currencyId);
+
+        } catch (SQLException e) {
+            // Marcar conexión como nula para forzar reconexión la próxima vez
+            try {
+                if (mysqlConnection.getConnection() != null && !mysqlConnection.getConnection().isClosed()) {
+                    mysqlConnection.getConnection().close();
+                }
+            } catch (SQLException ex) {
+                // Ignorar error al cerrar
+            }
+            // La transacción se deshizo entera: no se escribió ninguna cuenta
+            throw new BalanceWriteException("Error al establecer saldos en bloque en MySQL: " + e.getMessage(),
+                    balances.keySet(), e);
+        }
+    }
+
+    @Override
+    public void applyDeltas(Map<UUID, BalanceDelta> deltas, String currencyId) {
+        // Intentar reconectar si no hay conexión
+        if (!mysqlConnection.isConnected()) {
+            plugin.getLogger().warning("No hay conexión activa con MySQL, intentando reconectar...");
+            if (!mysqlConnection.connect()) {
+                throw new BalanceWriteException("No se pudo restablecer la conexión con MySQL", deltas.keySet());
+            }
+        }
+
+        try (Connection conn = mysqlConnection.getConnection()) {
+            SqlBulkWrite.applyDeltas(conn, deltas, currencyId);
+
+        } catch (SQLException e) {
+            // Marcar conexión como nula para forzar reconexión la próxima vez
+            try {
+                if (mysqlConnection.getConnection() != null && !mysqlConnection.getConnection().isClosed()) {
+                    mysqlConnection.getConnection().close();
+                }
+            } catch (SQLException ex) {
+                // Ignorar error al cerrar
+            }
+            // La transacción se deshizo entera: no se escribió ninguna cuenta
+            throw new BalanceWriteException("Error al volcar variaciones de saldo en MySQL: " + e.getMessage(),
+                    deltas.keySet(), e);
+        }
+    }
+
     @Override
     public long getTotalPlayers(String currencyId) {
         if (!mysqlConnection.isConnected()) {
@@ -607,6 +808,30 @@ public class MySQLEconomyProvider implements EconomyDataProvider {
         return names;
     }
 
+    @Override
+    public Map<UUID, String> getAllPlayerNames() {
+        Map<UUID, String> names = new HashMap<>();
+
+        if (!mysqlConnection.isConnected()) {
+            return names;
+        }
+
+        try (Connection conn = mysqlConnection.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT player_uuid, player_name FROM player_names")) {
+
+            while (rs.next()) {
+                names.put(UUID.fromString(rs.getString("player_uuid")), rs.getString("player_name"));
+            }
+
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Error al obtener nombres de jugadores desde MySQL: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return names;
+    }
+
     @Override
     public void syncPlayerNames(Map<UUID, String> activePlayers) {
         if (!mysqlConnection.isConnected()) {
@@ -697,12 +922,11 @@ public class MySQLEconomyProvider implements EconomyDataProvider {
                 currencyManager = new CurrencyManager(plugin);
             }
 
-            // Crear el jugador para todas las monedas habilitadas
+            Map<String, Double> startingBalances = new HashMap<>();
             for (var currency : currencyManager.getEnabledCurrencies()) {
-                if (!playerExists(playerUUID, currency.getId())) {
-                    createPlayer(playerUUID, currency.getId());
-                }
+                startingBalances.put(currency.getId(), currency.getStartingBalance());
             }
+            ensureBalances(playerUUID, startingBalances);
 
         } catch (Exception e) {
             plugin.getLogger().severe("Error al asegurar existencia del jugador: " + e.getMessage());
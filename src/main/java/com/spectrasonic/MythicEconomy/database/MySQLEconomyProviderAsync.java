@@ -1,9 +1,12 @@
 package com.spectrasonic.MythicEconomy.database;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,7 +17,6 @@ import org.bukkit.plugin.java.JavaPlugin;
 
 import com.spectrasonic.MythicEconomy.manager.CurrencyManager;
 import com.spectrasonic.MythicEconomy.models.Currency;
-import com.spectrasonic.MythicEconomy.utils.AsyncUtils;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,34 +34,11 @@ public class MySQLEconomyProviderAsync implements EconomyDataProvider {
     }
 
     public CompletableFuture<Double> getBalanceAsync(UUID playerUUID, String currencyId) {
-        return asyncConnection.getConnection()
-                .thenCompose(conn -> AsyncUtils.supplyAsync(plugin, () -> {
-                    try (conn) {
-                        String sql = "SELECT balance FROM player_balances WHERE player_uuid = ? AND currency_id = ?";
-
-                        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                            stmt.setString(1, playerUUID.toString());
-                            stmt.setString(2, currencyId);
-
-                            try (ResultSet rs = stmt.executeQuery()) {
-                                if (rs.next()) {
-                                    return rs.getDouble("balance");
-                                } else {
-                                    // Jugador nuevo, obtener saldo inicial y crearlo en la base de datos
-                                    double startingBalance = getCurrencyStartingBalance(currencyId);
-
-                                    // Crear el jugador de forma asíncrona
-                                    createPlayer(playerUUID, currencyId);
-
-                                    return startingBalance;
-                                }
-                            }
-                        }
-                    } catch (SQLException e) {
-                        log.error("Error al obtener saldo para {} en moneda {}", playerUUID, currencyId, e);
-                        return 0.0;
-                    }
-                }));
+        return asyncConnection.supplyAsync(conn -> doGetBalance(conn, playerUUID, currencyId))
+                .exceptionally(e -> {
+                    log.error("Error al obtener saldo para {} en moneda {}", playerUUID, currencyId, e);
+                    return 0.0;
+                });
     }
 
     public CompletableFuture<Boolean> setBalanceAsync(UUID playerUUID, double amount) {
@@ -69,29 +48,11 @@ public class MySQLEconomyProviderAsync implements EconomyDataProvider {
     public CompletableFuture<Boolean> setBalanceAsync(UUID playerUUID, double amount, String currencyId) {
         final double finalAmount = amount < 0 ? 0 : amount;
 
-        return asyncConnection.getConnection()
-                .thenCompose(conn -> AsyncUtils.supplyAsync(plugin, () -> {
-                    try (conn) {
-                        String sql = """
-                                INSERT INTO player_balances (player_uuid, currency_id, balance, last_updated)
-                                VALUES (?, ?, ?, NOW())
-                                ON DUPLICATE KEY UPDATE balance = ?, last_updated = NOW()
-                                """;
-
-                        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                            stmt.setDouble(3, finalAmount); // Valor para INSERT
-                            stmt.setDouble(4, finalAmount); // Valor para UPDATE
-                            stmt.setString(1, playerUUID.toString());
-                            stmt.setString(2, currencyId);
-
-                            int rowsAffected = stmt.executeUpdate();
-                            return rowsAffected > 0;
-                        }
-                    } catch (SQLException e) {
-                        log.error("Error al establecer saldo para {} en moneda {}", playerUUID, currencyId, e);
-                        return false;
-                    }
-                }));
+        return asyncConnection.supplyAsync(conn -> doSetBalance(conn, playerUUID, finalAmount, currencyId))
+                .exceptionally(e -> {
+                    log.error("Error al establecer saldo para {} en moneda {}", playerUUID, currencyId, e);
+                    return false;
+                });
     }
 
     public CompletableFuture<Boolean> addBalanceAsync(UUID playerUUID, double amount) {
@@ -102,29 +63,11 @@ public class MySQLEconomyProviderAsync implements EconomyDataProvider {
         if (amount <= 0)
             return CompletableFuture.completedFuture(false);
 
-        return asyncConnection.getConnection()
-                .thenCompose(conn -> AsyncUtils.supplyAsync(plugin, () -> {
-                    try (conn) {
-                        String sql = """
-                                INSERT INTO player_balances (player_uuid, currency_id, balance, last_updated)
-                                VALUES (?, ?, ?, NOW())
-                                ON DUPLICATE KEY UPDATE balance = balance + ?, last_updated = NOW()
-                                """;
-
-                        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                            stmt.setDouble(3, amount); // Valor para INSERT
-                            stmt.setDouble(4, amount); // Incremento para UPDATE
-                            stmt.setString(1, playerUUID.toString());
-                            stmt.setString(2, currencyId);
-
-                            int rowsAffected = stmt.executeUpdate();
-                            return rowsAffected > 0;
-                        }
-                    } catch (SQLException e) {
-                        log.error("Error al agregar saldo para {} en moneda {}", playerUUID, currencyId, e);
-                        return false;
-                    }
-                }));
+        return asyncConnection.supplyAsync(conn -> doAddBalance(conn, playerUUID, amount, currencyId))
+                .exceptionally(e -> {
+                    log.error("Error al agregar saldo para {} en moneda {}", playerUUID, currencyId, e);
+                    return false;
+                });
     }
 
     public CompletableFuture<Boolean> removeBalanceAsync(UUID playerUUID, double amount) {
@@ -135,30 +78,11 @@ public class MySQLEconomyProviderAsync implements EconomyDataProvider {
         if (amount <= 0)
             return CompletableFuture.completedFuture(false);
 
-        return asyncConnection.getConnection()
-                .thenCompose(conn -> AsyncUtils.supplyAsync(plugin, () -> {
-                    try (conn) {
-                        // Operación atómica: verificar saldo y actualizar en una sola query
-                        String sql = """
-                                UPDATE player_balances
-                                SET balance = balance - ?, last_updated = NOW()
-                                WHERE player_uuid = ? AND currency_id = ? AND balance >= ?
-                                """;
-
-                        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                            stmt.setDouble(1, amount);
-                            stmt.setString(2, playerUUID.toString());
-                            stmt.setString(3, currencyId);
-                            stmt.setDouble(4, amount); // Condición: saldo >= amount
-
-                            int rowsAffected = stmt.executeUpdate();
-                            return rowsAffected > 0;
-                        }
-                    } catch (SQLException e) {
-                        log.error("Error al remover saldo para {} en moneda {}", playerUUID, currencyId, e);
-                        return false;
-                    }
-                }));
+        return asyncConnection.supplyAsync(conn -> doRemoveBalance(conn, playerUUID, amount, currencyId))
+                .exceptionally(e -> {
+                    log.error("Error al remover saldo para {} en moneda {}", playerUUID, currencyId, e);
+                    return false;
+                });
     }
 
     public CompletableFuture<Boolean> hasEnoughBalanceAsync(UUID playerUUID, double amount) {
@@ -166,34 +90,64 @@ public class MySQLEconomyProviderAsync implements EconomyDataProvider {
     }
 
     public CompletableFuture<Boolean> hasEnoughBalanceAsync(UUID playerUUID, double amount, String currencyId) {
-        return asyncConnection.getConnection()
-                .thenCompose(conn -> AsyncUtils.supplyAsync(plugin, () -> {
-                    try (conn) {
-                        String sql = "SELECT balance FROM player_balances WHERE player_uuid = ? AND currency_id = ?";
-
-                        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                            stmt.setString(1, playerUUID.toString());
-                            stmt.setString(2, currencyId);
-
-                            try (ResultSet rs = stmt.executeQuery()) {
-                                if (rs.next()) {
-                                    return rs.getDouble("balance") >= amount;
-                                } else {
-                                    // Jugador no existe, crearlo y verificar saldo inicial
-                                    double startingBalance = getCurrencyStartingBalance(currencyId);
-
-                                    // Crear el jugador de forma asíncrona
-                                    createPlayer(playerUUID, currencyId);
-
-                                    return startingBalance >= amount;
-                                }
-                            }
-                        }
-                    } catch (SQLException e) {
-                        log.error("Error al verificar saldo para {} en moneda {}", playerUUID, currencyId, e);
-                        return false;
-                    }
-                }));
+        return asyncConnection.supplyAsync(conn -> doGetBalance(conn, playerUUID, currencyId) >= amount)
+                .exceptionally(e -> {
+                    log.error("Error al verificar saldo para {} en moneda {}", playerUUID, currencyId, e);
+                    return false;
+                });
+    }
+
+    public CompletableFuture<Boolean> transferAsync(UUID fromUUID, UUID toUUID, double amount, String currencyId) {
+        if (amount <= 0 || fromUUID.equals(toUUID))
+            return CompletableFuture.completedFuture(false);
+
+        return asyncConnection.supplyAsync(conn -> SqlTransfer.execute(conn, fromUUID, toUUID, amount, currencyId))
+                .exceptionally(e -> {
+                    log.error("Error al transferir saldo de {} a {} en moneda {}", fromUUID, toUUID, currencyId, e);
+                    return false;
+                });
+    }
+
+    /**
+     * Todos los saldos de un jugador con una sola consulta (WHERE player_uuid = ?)
+     */
+    public CompletableFuture<Map<String, Double>> getAllBalancesAsync(UUID playerUUID) {
+        return asyncConnection.supplyAsync(conn -> doGetAllBalances(conn, playerUUID))
+                .exceptionally(e -> {
+                    log.error("Error al obtener todos los saldos para {}", playerUUID, e);
+                    return new HashMap<>();
+                });
+    }
+
+    /**
+     * Saldos de varios jugadores en una moneda con una sola consulta; las cuentas sin fila no aparecen en el mapa
+     */
+    public CompletableFuture<Map<UUID, Double>> getBalancesAsync(Collection<UUID> playerUUIDs, String currencyId) {
+        return asyncConnection.supplyAsync(conn -> doGetBalances(conn, playerUUIDs, currencyId))
+                .exceptionally(e -> {
+                    log.error("Error al obtener saldos en bloque en moneda {}", currencyId, e);
+                    return new HashMap<>();
+                });
+    }
+
+    public CompletableFuture<Boolean> addBalancesAsync(Map<UUID, Double> amounts, String currencyId) {
+        return asyncConnection.supplyAsync(conn -> {
+            SqlBulkWrite.addBalances(conn, amounts, currencyId);
+            return true;
+        }).exceptionally(e -> {
+            log.error("Error al agregar saldos en bloque en moneda {}", currencyId, e);
+            return false;
+        });
+    }
+
+    public CompletableFuture<Boolean> setBalancesAsync(Map<UUID, Double> balances, String currencyId) {
+        return asyncConnection.supplyAsync(conn -> {
+            SqlBulkWrite.setBalances(conn, balances, currencyId);
+            return true;
+        }).exceptionally(e -> {
+            log.error("Error al establecer saldos en bloque en moneda {}", currencyId, e);
+            return false;
+        });
     }
 
     public CompletableFuture<Void> createPlayerAsync(UUID playerUUID) {
@@ -201,188 +155,62 @@ public class MySQLEconomyProviderAsync implements EconomyDataProvider {
     }
 
     public CompletableFuture<Void> createPlayerAsync(UUID playerUUID, String currencyId) {
-        return asyncConnection.getConnection()
-                .thenCompose(conn -> AsyncUtils.runAsync(plugin, () -> {
-                    try (conn) {
-                        double startingBalance = getCurrencyStartingBalance(currencyId);
-
-                        // Usar INSERT IGNORE para evitar duplicados y asegurar que el jugador exista
-                        String sql = """
-                                INSERT IGNORE INTO player_balances (player_uuid, currency_id, balance, last_updated)
-                                VALUES (?, ?, ?, NOW())
-                                """;
-
-                        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                            stmt.setString(1, playerUUID.toString());
-                            stmt.setString(2, currencyId);
-                            stmt.setDouble(3, startingBalance);
-
-                            int rowsAffected = stmt.executeUpdate();
-
-                            if (rowsAffected > 0) {
-                                log.debug("Jugador creado en MySQL para moneda {}: {}", currencyId, playerUUID);
-                            } else {
-                                // El jugador ya existía, actualizar su balance por si acaso
-                                setBalance(playerUUID, startingBalance, currencyId);
-                            }
-                        }
-                    } catch (Exception e) {
-                        log.error("Error al crear jugador {} para moneda {}", playerUUID, currencyId, e);
-                        throw new RuntimeException(e);
-                    }
-                }));
+        return asyncConnection.supplyAsync(conn -> {
+            doCreatePlayer(conn, playerUUID, currencyId);
+            return (Void) null;
+        }).whenComplete((ignored, e) -> {
+            if (e != null) {
+                log.error("Error al crear jugador {} para moneda {}", playerUUID, currencyId, e);
+            }
+        });
     }
 
     public CompletableFuture<Long> getTotalPlayersAsync(String currencyId) {
-        return asyncConnection.getConnection()
-                .thenCompose(conn -> AsyncUtils.supplyAsync(plugin, () -> {
-                    try (conn) {
-                        String sql = "SELECT COUNT(*) FROM player_balances WHERE currency_id = ?";
-
-                        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                            stmt.setString(1, currencyId);
-
-                            try (ResultSet rs = stmt.executeQuery()) {
-                                return rs.next() ? rs.getLong(1) : 0L;
-                            }
-                        }
-                    } catch (SQLException e) {
-                        log.error("Error al obtener total de jugadores para moneda {}", currencyId, e);
-                        return 0L;
-                    }
-                }));
+        return asyncConnection.supplyAsync(conn -> doGetTotalPlayers(conn, currencyId))
+                .exceptionally(e -> {
+                    log.error("Error al obtener total de jugadores para moneda {}", currencyId, e);
+                    return 0L;
+                });
     }
 
     public CompletableFuture<Double> getTotalMoneyAsync(String currencyId) {
-        return asyncConnection.getConnection()
-                .thenCompose(conn -> AsyncUtils.supplyAsync(plugin, () -> {
-                    try (conn) {
-                        String sql = "SELECT COALESCE(SUM(balance), 0) FROM player_balances WHERE currency_id = ?";
-
-                        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                            stmt.setString(1, currencyId);
-
-                            try (ResultSet rs = stmt.executeQuery()) {
-                                return rs.next() ? rs.getDouble(1) : 0.0;
-                            }
-                        }
-                    } catch (SQLException e) {
-                        log.error("Error al obtener dinero total para moneda {}", currencyId, e);
-                        return 0.0;
-                    }
-                }));
+        return asyncConnection.supplyAsync(conn -> doGetTotalMoney(conn, currencyId))
+                .exceptionally(e -> {
+                    log.error("Error al obtener dinero total para moneda {}", currencyId, e);
+                    return 0.0;
+                });
     }
 
     public CompletableFuture<Long> getTotalUniquePlayersAsync() {
-        return asyncConnection.getConnection()
-                .thenCompose(conn -> AsyncUtils.supplyAsync(plugin, () -> {
-                    try (conn) {
-                        String sql = "SELECT COUNT(DISTINCT player_uuid) FROM player_balances";
-
-                        try (var stmt = conn.createStatement()) {
-                            try (ResultSet rs = stmt.executeQuery(sql)) {
-                                return rs.next() ? rs.getLong(1) : 0L;
-                            }
-                        }
-                    } catch (SQLException e) {
-                        log.error("Error al obtener total de jugadores únicos", e);
-                        return 0L;
-                    }
-                }));
+        return asyncConnection.supplyAsync(this::doGetTotalUniquePlayers)
+                .exceptionally(e -> {
+                    log.error("Error al obtener total de jugadores únicos", e);
+                    return 0L;
+                });
     }
 
     public CompletableFuture<Double> getTotalMoneyAllCurrenciesAsync() {
-        return asyncConnection.getConnection()
-                .thenCompose(conn -> AsyncUtils.supplyAsync(plugin, () -> {
-                    try (conn) {
-                        String sql = "SELECT COALESCE(SUM(balance), 0) FROM player_balances";
-
-                        try (var stmt = conn.createStatement()) {
-                            try (ResultSet rs = stmt.executeQuery(sql)) {
-                                return rs.next() ? rs.getDouble(1) : 0.0;
-                            }
-                        }
-                    } catch (SQLException e) {
-                        log.error("Error al obtener dinero total de todas las monedas", e);
-                        return 0.0;
-                    }
-                }));
+        return asyncConnection.supplyAsync(this::doGetTotalMoneyAllCurrencies)
+                .exceptionally(e -> {
+                    log.error("Error al obtener dinero total de todas las monedas", e);
+                    return 0.0;
+                });
     }
 
     public CompletableFuture<Object[][]> getTopBalancesAsync(String currencyId, int limit) {
-        final int validatedLimit = Math.max(0, limit);
-        return asyncConnection.getConnection()
-                .thenCompose(conn -> AsyncUtils.supplyAsync(plugin, () -> {
-                    try (conn) {
-                        String sql = """
-                                SELECT player_uuid, balance
-                                FROM player_balances
-                                WHERE currency_id = ?
-                                ORDER BY balance DESC
-                                LIMIT ?
-                                """;
-
-                        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                            stmt.setString(1, currencyId);
-                            stmt.setInt(2, validatedLimit);
-
-                            try (ResultSet rs = stmt.executeQuery()) {
-                                List<Object[]> results = new ArrayList<>();
-
-                                while (rs.next()) {
-                                    Object[] entry = new Object[2];
-                                    entry[0] = rs.getString("player_uuid");
-                                    entry[1] = rs.getDouble("balance");
-                                    results.add(entry);
-                                }
-
-                                return results.toArray(new Object[0][0]);
-                            }
-                        }
-                    } catch (Exception e) {
-                        log.error("Error al obtener top balances para moneda {}", currencyId, e);
-                        return new Object[0][0];
-                    }
-                }));
+        return asyncConnection.supplyAsync(conn -> doGetTopBalances(conn, currencyId, limit))
+                .exceptionally(e -> {
+                    log.error("Error al obtener top balances para moneda {}", currencyId, e);
+                    return new Object[0][0];
+                });
     }
 
     public CompletableFuture<Object[][]> getTopBalancesWithNamesAsync(String currencyId, int limit) {
-        final int validatedLimit = Math.max(0, limit);
-        return asyncConnection.getConnection()
-                .thenCompose(conn -> AsyncUtils.supplyAsync(plugin, () -> {
-                    try (conn) {
-                        String sql = """
-                                SELECT pb.player_uuid, pb.balance, pn.player_name
-                                FROM player_balances pb
-                                LEFT JOIN player_names pn ON pb.player_uuid COLLATE utf8mb4_unicode_ci = pn.player_uuid COLLATE utf8mb4_unicode_ci
-                                WHERE pb.currency_id = ?
-                                ORDER BY pb.balance DESC
-                                LIMIT ?
-                                """;
-
-                        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                            stmt.setString(1, currencyId);
-                            stmt.setInt(2, validatedLimit);
-
-                            try (ResultSet rs = stmt.executeQuery()) {
-                                List<Object[]> results = new ArrayList<>();
-
-                                while (rs.next()) {
-                                    Object[] entry = new Object[3];
-                                    entry[0] = rs.getString("player_uuid");
-                                    entry[1] = rs.getString("player_name");
-                                    entry[2] = rs.getDouble("balance");
-                                    results.add(entry);
-                                }
-
-                                return results.toArray(new Object[0][0]);
-                            }
-                        }
-                    } catch (Exception e) {
-                        log.error("Error al obtener top balances con nombres para moneda {}", currencyId, e);
-                        return new Object[0][0];
-                    }
-                }));
+        return asyncConnection.supplyAsync(conn -> doGetTopBalancesWithNames(conn, currencyId, limit))
+                .exceptionally(e -> {
+                    log.error("Error al obtener top balances con nombres para moneda {}", currencyId, e);
+                    return new Object[0][0];
+                });
     }
 
     public CompletableFuture<Void> updatePlayerNameAsync(UUID playerUUID, String playerName) {
@@ -390,141 +218,41 @@ public class MySQLEconomyProviderAsync implements EconomyDataProvider {
             return CompletableFuture.completedFuture(null);
         }
 
-        return asyncConnection.getConnection()
-                .thenCompose(conn -> AsyncUtils.runAsync(plugin, () -> {
-                    try (conn) {
-                        String sql = """
-                                INSERT INTO player_names (player_uuid, player_name, last_updated)
-                                VALUES (?, ?, NOW())
-                                ON DUPLICATE KEY UPDATE player_name = ?, last_updated = NOW()
-                                """;
-
-                        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                            stmt.setString(1, playerUUID.toString());
-                            stmt.setString(2, playerName);
-                            stmt.setString(3, playerName);
-
-                            stmt.executeUpdate();
-                        }
-                    } catch (SQLException e) {
-                        log.error("Error al actualizar nombre de jugador {}", playerUUID, e);
-                        throw new RuntimeException(e);
-                    }
-                }));
+        return asyncConnection.supplyAsync(conn -> {
+            doUpdatePlayerName(conn, playerUUID, playerName);
+            return (Void) null;
+        }).whenComplete((ignored, e) -> {
+            if (e != null) {
+                log.error("Error al actualizar nombre de jugador {}", playerUUID, e);
+            }
+        });
     }
 
     public CompletableFuture<String> getPlayerNameAsync(UUID playerUUID) {
-        return asyncConnection.getConnection()
-                .thenCompose(conn -> AsyncUtils.supplyAsync(plugin, () -> {
-                    try (conn) {
-                        String sql = "SELECT player_name FROM player_names WHERE player_uuid = ?";
-
-                        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                            stmt.setString(1, playerUUID.toString());
-
-                            try (ResultSet rs = stmt.executeQuery()) {
-                                return rs.next() ? rs.getString("player_name") : null;
-                            }
-                        }
-                    } catch (SQLException e) {
-                        log.error("Error al obtener nombre de jugador {}", playerUUID, e);
-                        return null;
-                    }
-                }));
+        return asyncConnection.supplyAsync(conn -> doGetPlayerName(conn, playerUUID))
+                .exceptionally(e -> {
+                    log.error("Error al obtener nombre de jugador {}", playerUUID, e);
+                    return null;
+                });
     }
 
     public CompletableFuture<Map<UUID, String>> getPlayerNamesAsync(Iterable<UUID> playerUUIDs) {
-        return asyncConnection.getConnection()
-                .thenCompose(conn -> AsyncUtils.supplyAsync(plugin, () -> {
-                    Map<UUID, String> names = new HashMap<>();
-
-                    try (conn) {
-                        List<String> uuidStrings = new ArrayList<>();
-                        for (UUID uuid : playerUUIDs) {
-                            uuidStrings.add("'" + uuid.toString() + "'");
-                        }
-
-                        if (uuidStrings.isEmpty()) {
-                            return names;
-                        }
-
-                        String inClause = String.join(",", uuidStrings);
-                        String sql = """
-                                SELECT player_uuid, player_name
-                                FROM player_names
-                                WHERE player_uuid IN (%s)
-                                """.formatted(inClause);
-
-                        try (var stmt = conn.createStatement()) {
-                            try (ResultSet rs = stmt.executeQuery(sql)) {
-                                while (rs.next()) {
-                                    UUID uuid = UUID.fromString(rs.getString("player_uuid"));
-                                    String name = rs.getString("player_name");
-                                    names.put(uuid, name);
-                                }
-                            }
-                        }
-                    } catch (SQLException e) {
-                        log.error("Error al obtener nombres de jugadores", e);
-                    }
-
-                    return names;
-                }));
+        return asyncConnection.supplyAsync(conn -> doGetPlayerNames(conn, playerUUIDs))
+                .exceptionally(e -> {
+                    log.error("Error al obtener nombres de jugadores", e);
+                    return new HashMap<>();
+                });
     }
 
     public CompletableFuture<Void> syncPlayerNamesAsync(Map<UUID, String> activePlayers) {
-        return asyncConnection.getConnection()
-                .thenCompose(conn -> AsyncUtils.runAsync(plugin, () -> {
-                    try (conn) {
-                        conn.setAutoCommit(false);
-
-                        String sql = """
-                                INSERT INTO player_names (player_uuid, player_name, last_updated)
-                                VALUES (?, ?, NOW())
-                                ON DUPLICATE KEY UPDATE player_name = ?, last_updated = NOW()
-                                """;
-
-                        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                            int batchSize = 0;
-
-                            for (Map.Entry<UUID, String> entry : activePlayers.entrySet()) {
-                                UUID playerUUID = entry.getKey();
-                                String playerName = entry.getValue();
-
-                                if (playerName != null && !playerName.trim().isEmpty()) {
-                                    stmt.setString(1, playerUUID.toString());
-                                    stmt.setString(2, playerName);
-                                    stmt.setString(3, playerName);
-
-                                    stmt.addBatch();
-                                    batchSize++;
-
-                                    // Ejecutar batch cada 1000 registros
-                                    if (batchSize >= 1000) {
-                                        stmt.executeBatch();
-                                        batchSize = 0;
-                                    }
-                                }
-                            }
-
-                            if (batchSize > 0) {
-                                stmt.executeBatch();
-                            }
-
-                            conn.commit();
-                            conn.setAutoCommit(true);
-
-                            log.debug("Sincronizados {} nombres de jugadores", activePlayers.size());
-                        } catch (SQLException e) {
-                            conn.rollback();
-                            log.error("Error al sincronizar nombres de jugadores", e);
-                            throw new RuntimeException(e);
-                        }
-                    } catch (Exception e) {
-                        log.error("Error al sincronizar nombres de jugadores", e);
-                        throw new RuntimeException(e);
-                    }
-                }));
+        return asyncConnection.supplyAsync(conn -> {
+            doSyncPlayerNames(conn, activePlayers);
+            return (Void) null;
+        }).whenComplete((ignored, e) -> {
+            if (e != null) {
+                log.error("Error al sincronizar nombres de jugadores", e);
+            }
+        });
     }
 
     public CompletableFuture<Boolean> initialize() {
@@ -541,8 +269,8 @@ public class MySQLEconomyProviderAsync implements EconomyDataProvider {
     }
 
     // Implementación de EconomyDataProvider (SÍNCRONA)
-    // Estos métodos usan la conexión asíncrona internamente pero bloquean para
-    // compatibilidad
+    // Estos métodos ejecutan la consulta directamente en el hilo que llama, con una
+    // conexión del pool, sin pasar por el ejecutor asíncrono
 
     @Override
     public double getBalance(UUID playerUUID) {
@@ -576,57 +304,199 @@ public class MySQLEconomyProviderAsync implements EconomyDataProvider {
 
     @Override
     public double getBalance(UUID playerUUID, String currencyId) {
-        return getBalanceAsync(playerUUID, currencyId).join();
+        try {
+            return asyncConnection.withConnection(conn -> doGetBalance(conn, playerUUID, currencyId));
+        } catch (SQLException e) {
+            log.error("Error al obtener saldo para {} en moneda {}", playerUUID, currencyId, e);
+            return 0.0;
+        }
+    }
+
+    @Override
+    public Map<String, Double> getAllBalances(UUID playerUUID) {
+        try {
+            return asyncConnection.withConnection(conn -> doGetAllBalances(conn, playerUUID));
+        } catch (SQLException e) {
+            log.error("Error al obtener todos los saldos para {}", playerUUID, e);
+            return new HashMap<>();
+        }
+    }
+
+    @Override
+    public Map<String, Double> ensureBalances(UUID playerUUID, Map<String, Double> startingBalances) {
+        try {
+            return asyncConnection.withConnection(conn -> {
+                Map<String, Double> balances = doGetAllBalances(conn, playerUUID);
+                Map<String, Double> missing = new HashMap<>(startingBalances);
+                missing.keySet().removeAll(balances.keySet());
+                if (missing.isEmpty()) {
+                    return balances;
+                }
+                SqlBulkWrite.insertMissing(conn, playerUUID, missing);
+                return doGetAllBalances(conn, playerUUID);
+            });
+        } catch (SQLException e) {
+            log.error("Error al asegurar saldos para {}", playerUUID, e);
+            return new HashMap<>();
+        }
     }
 
     @Override
     public void setBalance(UUID playerUUID, double amount, String currencyId) {
-        setBalanceAsync(playerUUID, amount, currencyId).join();
+        final double finalAmount = amount < 0 ? 0 : amount;
+        try {
+            asyncConnection.withConnection(conn -> doSetBalance(conn, playerUUID, finalAmount, currencyId));
+        } catch (SQLException e) {
+            log.error("Error al establecer saldo para {} en moneda {}", playerUUID, currencyId, e);
+        }
     }
 
     @Override
     public boolean addBalance(UUID playerUUID, double amount, String currencyId) {
-        return addBalanceAsync(playerUUID, amount, currencyId).join();
+        if (amount <= 0)
+            return false;
+
+        try {
+            return asyncConnection.withConnection(conn -> doAddBalance(conn, playerUUID, amount, currencyId));
+        } catch (SQLException e) {
+            log.error("Error al agregar saldo para {} en moneda {}", playerUUID, currencyId, e);
+            return false;
+        }
     }
 
     @Override
     public boolean removeBalance(UUID playerUUID, double amount, String currencyId) {
-        return removeBalanceAsync(playerUUID, amount, currencyId).join();
+        if (amount <= 0)
+            return false;
+
+        try {
+            return asyncConnection.withConnection(conn -> doRemoveBalance(conn, playerUUID, amount, currencyId));
+        } catch (SQLException e) {
+            log.error("Error al remover saldo para {} en moneda {}", playerUUID, currencyId, e);
+            return false;
+        }
     }
 
     @Override
     public boolean hasEnoughBalance(UUID playerUUID, double amount, String currencyId) {
-        return hasEnoughBalanceAsync(playerUUID, amount, currencyId).join();
+        return getBalance(playerUUID, currencyId) >= amount;
     }
 
     @Override
     public void createPlayer(UUID playerUUID, String currencyId) {
-        createPlayerAsync(playerUUID, currencyId).join();
+        try {
+            asyncConnection.withConnection(conn -> {
+                doCreatePlayer(conn, playerUUID, currencyId);
+                return null;
+            });
+        } catch (SQLException e) {
+            log.error("Error al crear jugador {} para moneda {}", playerUUID, currencyId, e);
+        }
+    }
+
+    @Override
+    public boolean transfer(UUID fromUUID, UUID toUUID, double amount, String currencyId) {
+        if (amount <= 0 || fromUUID.equals(toUUID))
+            return false;
+
+        try {
+            return asyncConnection.withConnection(conn -> SqlTransfer.execute(conn, fromUUID, toUUID, amount, currencyId));
+        } catch (SQLException e) {
+            log.error("Error al transferir saldo de {} a {} en moneda {}", fromUUID, toUUID, currencyId, e);
+            return false;
+        }
+    }
+
+    @Override
+    public void addBalances(Map<UUID, Double> amounts, String currencyId) {
+        try {
+            asyncConnection.withConnection(conn -> {
+                SqlBulkWrite.addBalances(conn, amounts, currencyId);
+                return null;
+            });
+        } catch (SQLException e) {
+            // La transacción se deshizo entera: no se escribió ninguna cuenta
+            throw new BalanceWriteException("Error al agregar saldos en bloque en moneda " + currencyId + ": "
+                    + e.getMessage(), amounts.keySet(), e);
+        }
+    }
+
+    @Override
+    public void setBalances(Map<UUID, Double> balances, String currencyId) {
+        try {
+            asyncConnection.withConnection(conn -> {
+                SqlBulkWrite.setBalances(conn, balances, currencyId);
+                return null;
+            });
+        } catch (SQLException e) {
+            // La transacción se deshizo entera: no se escribió ninguna cuenta
+            throw new BalanceWriteException("Error al establecer saldos en bloque en moneda " + currencyId + ": "
+                    + e.getMessage(), balances.keySet(), e);
+        }
+    }
+
+    @Override
+    public void applyDeltas(Map<UUID, BalanceDelta> deltas, String currencyId) {
+        try {
+            asyncConnection.withConnection(conn -> {
+                SqlBulkWrite.applyDeltas(conn, deltas, currencyId);
+                return null;
+            });
+        } catch (SQLException e) {
+            // La transacción se deshizo entera: no se escribió ninguna cuenta
+            throw new BalanceWriteException("Error al volcar variaciones de saldo en moneda " + currencyId + ": "
+                    + e.getMessage(), deltas.keySet(), e);
+        }
     }
 
     @Override
     public long getTotalPlayers(String currencyId) {
-        return getTotalPlayersAsync(currencyId).join();
+        try {
+            return asyncConnection.withConnection(conn -> doGetTotalPlayers(conn, currencyId));
+        } catch (SQLException e) {
+            log.error("Error al obtener total de jugadores para moneda {}", currencyId, e);
+            return 0L;
+        }
     }
 
     @Override
     public double getTotalMoney(String currencyId) {
-        return getTotalMoneyAsync(currencyId).join();
+        try {
+            return asyncConnection.withConnection(conn -> doGetTotalMoney(conn, currencyId));
+        } catch (SQLException e) {
+            log.error("Error al obtener dinero total para moneda {}", currencyId, e);
+            return 0.0;
+        }
     }
 
     @Override
     public long getTotalUniquePlayers() {
-        return getTotalUniquePlayersAsync().join();
+        try {
+            return asyncConnection.withConnection(this::doGetTotalUniquePlayers);
+        } catch (SQLException e) {
+            log.error("Error al obtener total de jugadores únicos", e);
+            return 0L;
+        }
     }
 
     @Override
     public double getTotalMoneyAllCurrencies() {
-        return getTotalMoneyAllCurrenciesAsync().join();
+        try {
+            return asyncConnection.withConnection(this::doGetTotalMoneyAllCurrencies);
+        } catch (SQLException e) {
+            log.error("Error al obtener dinero total de todas las monedas", e);
+            return 0.0;
+        }
     }
 
     @Override
     public Object[][] getTopBalances(String currencyId, int limit) {
-        return getTopBalancesAsync(currencyId, limit).join();
+        try {
+            return asyncConnection.withConnection(conn -> doGetTopBalances(conn, currencyId, limit));
+        } catch (SQLException e) {
+            log.error("Error al obtener top balances para moneda {}", currencyId, e);
+            return new Object[0][0];
+        }
     }
 
     @Override
@@ -638,68 +508,79 @@ public class MySQLEconomyProviderAsync implements EconomyDataProvider {
      * Versión síncrona para uso durante inicialización
      */
     public Object[][] getTopBalancesWithNamesSync(String currencyId, int limit) {
-        final int validatedLimit = Math.max(0, limit);
         try {
-            return asyncConnection.getConnectionSync()
-                    .map(conn -> {
-                        try (conn) {
-                            String sql = """
-                                    SELECT pb.player_uuid, pb.balance, pn.player_name
-                                    FROM player_balances pb
-                                    LEFT JOIN player_names pn ON pb.player_uuid COLLATE utf8mb4_unicode_ci = pn.player_uuid COLLATE utf8mb4_unicode_ci
-                                    WHERE pb.currency_id = ?
-                                    ORDER BY pb.balance DESC
-                                    LIMIT ?
-                                    """;
-
-                            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                                stmt.setString(1, currencyId);
-                                stmt.setInt(2, validatedLimit);
-
-                                try (ResultSet rs = stmt.executeQuery()) {
-                                    List<Object[]> results = new ArrayList<>();
-
-                                    while (rs.next()) {
-                                        Object[] entry = new Object[3];
-                                        entry[0] = rs.getString("player_uuid");
-                                        entry[1] = rs.getString("player_name");
-                                        entry[2] = rs.getDouble("balance");
-                                        results.add(entry);
-                                    }
-
-                                    return results.toArray(new Object[0][0]);
-                                }
-                            }
-                        } catch (Exception e) {
-                            log.error("Error al obtener top balances con nombres para moneda {}", currencyId, e);
-                            return new Object[0][0];
-                        }
-                    })
-                    .orElse(new Object[0][0]);
-        } catch (Exception e) {
-            log.error("Error al obtener top balances sync", e);
+            return asyncConnection.withConnection(conn -> doGetTopBalancesWithNames(conn, currencyId, limit));
+        } catch (SQLException e) {
+            log.error("Error al obtener top balances con nombres para moneda {}", currencyId, e);
             return new Object[0][0];
         }
     }
 
     @Override
     public void updatePlayerName(UUID playerUUID, String playerName) {
-        updatePlayerNameAsync(playerUUID, playerName).join();
+        if (playerName == null || playerName.trim().isEmpty()) {
+            return;
+        }
+
+        try {
+            asyncConnection.withConnection(conn -> {
+                doUpdatePlayerName(conn, playerUUID, playerName);
+                return null;
+            });
+        } catch (SQLException e) {
+            log.error("Error al actualizar nombre de jugador {}", playerUUID, e);
+        }
     }
 
     @Override
     public String getPlayerName(UUID playerUUID) {
-        return getPlayerNameAsync(playerUUID).join();
+        try {
+            return asyncConnection.withConnection(conn -> doGetPlayerName(conn, playerUUID));
+        } catch (SQLException e) {
+            log.error("Error al obtener nombre de jugador {}", playerUUID, e);
+            return null;
+        }
     }
 
     @Override
     public Map<UUID, String> getPlayerNames(Iterable<UUID> playerUUIDs) {
-        return getPlayerNamesAsync(playerUUIDs).join();
+        try {
+            return asyncConnection.withConnection(conn -> doGetPlayerNames(conn, playerUUIDs));
+        } catch (SQLException e) {
+            log.error("Error al obtener nombres de jugadores", e);
+            return new HashMap<>();
+        }
+    }
+
+    @Override
+    public Map<UUID, String> getAllPlayerNames() {
+        try {
+            return asyncConnection.withConnection(conn -> {
+                Map<UUID, String> names = new HashMap<>();
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT player_uuid, player_name FROM player_names");
+                        ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        names.put(UUID.fromString(rs.getString("player_uuid")), rs.getString("player_name"));
+                    }
+                }
+                return names;
+            });
+        } catch (SQLException e) {
+            log.error("Error al obtener todos los nombres de jugadores", e);
+            return new HashMap<>();
+        }
     }
 
     @Override
     public void syncPlayerNames(Map<UUID, String> activePlayers) {
-        syncPlayerNamesAsync(activePlayers).join();
+        try {
+            asyncConnection.withConnection(conn -> {
+                doSyncPlayerNames(conn, activePlayers);
+                return null;
+            });
+        } catch (SQLException e) {
+            log.error("Error al sincronizar nombres de jugadores", e);
+        }
     }
 
     @Override
@@ -715,6 +596,352 @@ public class MySQLEconomyProviderAsync implements EconomyDataProvider {
         // No need to save, MySQL saves data immediately
     }
 
+    // ========== CONSULTAS (compartidas por las versiones síncrona y asíncrona) ==========
+
+    private double doGetBalance(Connection conn, UUID playerUUID, String currencyId) throws SQLException {
+        String sql = "SELECT balance FROM player_balances WHERE player_uuid = ? AND currency_id = ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, playerUUID.toString());
+            stmt.setString(2, currencyId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getDouble("balance");
+                }
+            }
+        }
+
+        // Jugador nuevo: crearlo con el saldo inicial usando la misma conexión
+        return doCreatePlayer(conn, playerUUID, currencyId);
+    }
+
+    private boolean doSetBalance(Connection conn, UUID playerUUID, double amount, String currencyId) throws SQLException {
+        String sql = """
+                INSERT INTO player_balances (player_uuid, currency_id, balance, last_updated)
+                VALUES (?, ?, ?, NOW())
+                ON DUPLICATE KEY UPDATE balance = ?, last_updated = NOW()
+                """;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, playerUUID.toString());
+            stmt.setString(2, currencyId);
+            stmt.setDouble(3, amount); // Valor para INSERT
+            stmt.setDouble(4, amount); // Valor para UPDATE
+
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    private boolean doAddBalance(Connection conn, UUID playerUUID, double amount, String currencyId) throws SQLException {
+        String sql = """
+                INSERT INTO player_balances (player_uuid, currency_id, balance, last_updated)
+                VALUES (?, ?, ?, NOW())
+                ON DUPLICATE KEY UPDATE balance = balance + ?, last_updated = NOW()
+                """;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, playerUUID.toString());
+            stmt.setString(2, currencyId);
+            stmt.setDouble(3, amount); // Valor para INSERT
+            stmt.setDouble(4, amount); // Incremento para UPDATE
+
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    private boolean doRemoveBalance(Connection conn, UUID playerUUID, double amount, String currencyId) throws SQLException {
+        // Operación atómica: verificar saldo y actualizar en una sola query
+        String sql = """
+                UPDATE player_balances
+                SET balance = balance - ?, last_updated = NOW()
+                WHERE player_uuid = ? AND currency_id = ? AND balance >= ?
+                """;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setDouble(1, amount);
+            stmt.setString(2, playerUUID.toString());
+            stmt.setString(3, currencyId);
+            stmt.setDouble(4, amount); // Condición: saldo >= amount
+
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    // Crea la fila del jugador si no existe; devuelve el saldo inicial de la moneda
+    private double doCreatePlayer(Connection conn, UUID playerUUID, String currencyId) throws SQLException {
+        double startingBalance = getCurrencyStartingBalance(currencyId);
+
+        // INSERT IGNORE: si el jugador ya existía se conserva su saldo
+        String sql = """
+                INSERT IGNORE INTO player_balances (player_uuid, currency_id, balance, last_updated)
+                VALUES (?, ?, ?, NOW())
+                """;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, playerUUID.toString());
+            stmt.setString(2, currencyId);
+            stmt.setDouble(3, startingBalance);
+
+            if (stmt.executeUpdate() > 0) {
+                log.debug("Jugador creado en MySQL para moneda {}: {}", currencyId, playerUUID);
+            }
+        }
+        return startingBalance;
+    }
+
+    private long doGetTotalPlayers(Connection conn, String currencyId) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM player_balances WHERE currency_id = ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, currencyId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        }
+    }
+
+    private double doGetTotalMoney(Connection conn, String currencyId) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(balance), 0) FROM player_balances WHERE currency_id = ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, currencyId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getDouble(1) : 0.0;
+            }
+        }
+    }
+
+    private long doGetTotalUniquePlayers(Connection conn) throws SQLException {
+        String sql = "SELECT COUNT(DISTINCT player_uuid) FROM player_balances";
+
+        try (var stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    private double doGetTotalMoneyAllCurrencies(Connection conn) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(balance), 0) FROM player_balances";
+
+        try (var stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getDouble(1) : 0.0;
+        }
+    }
+
+    private Object[][] doGetTopBalances(Connection conn, String currencyId, int limit) throws SQLException {
+        String sql = """
+                SELECT player_uuid, balance
+                FROM player_balances
+                WHERE currency_id = ?
+                ORDER BY balance DESC
+                LIMIT ?
+                """;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, currencyId);
+            stmt.setInt(2, Math.max(0, limit));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<Object[]> results = new ArrayList<>();
+
+                while (rs.next()) {
+                    Object[] entry = new Object[2];
+                    entry[0] = rs.getString("player_uuid");
+                    entry[1] = rs.getDouble("balance");
+                    results.add(entry);
+                }
+
+                return results.toArray(new Object[0][0]);
+            }
+        }
+    }
+
+    private Object[][] doGetTopBalancesWithNames(Connection conn, String currencyId, int limit) throws SQLException {
+        String sql = """
+                SELECT pb.player_uuid, pb.balance, pn.player_name
+                FROM player_balances pb
+                LEFT JOIN player_names pn ON pb.player_uuid COLLATE utf8mb4_unicode_ci = pn.player_uuid COLLATE utf8mb4_unicode_ci
+                WHERE pb.currency_id = ?
+                ORDER BY pb.balance DESC
+                LIMIT ?
+                """;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, currencyId);
+            stmt.setInt(2, Math.max(0, limit));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<Object[]> results = new ArrayList<>();
+
+                while (rs.next()) {
+                    Object[] entry = new Object[3];
+                    entry[0] = rs.getString("player_uuid");
+                    entry[1] = rs.getString("player_name");
+                    entry[2] = rs.getDouble("balance");
+                    results.add(entry);
+                }
+
+                return results.toArray(new Object[0][0]);
+            }
+        }
+    }
+
+    private void doUpdatePlayerName(Connection conn, UUID playerUUID, String playerName) throws SQLException {
+        String sql = """
+                INSERT INTO player_names (player_uuid, player_name, last_updated)
+                VALUES (?, ?, NOW())
+                ON DUPLICATE KEY UPDATE player_name = ?, last_updated = NOW()
+                """;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, playerUUID.toString());
+            stmt.setString(2, playerName);
+            stmt.setString(3, playerName);
+
+            stmt.executeUpdate();
+        }
+    }
+
+    private String doGetPlayerName(Connection conn, UUID playerUUID) throws SQLException {
+        String sql = "SELECT player_name FROM player_names WHERE player_uuid = ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, playerUUID.toString());
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString("player_name") : null;
+            }
+        }
+    }
+
+    private Map<String, Double> doGetAllBalances(Connection conn, UUID playerUUID) throws SQLException {
+        Map<String, Double> balances = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT currency_id, balance FROM player_balances WHERE player_uuid = ?")) {
+            stmt.setString(1, playerUUID.toString());
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    balances.put(rs.getString("currency_id"), rs.getDouble("balance"));
+                }
+            }
+        }
+        return balances;
+    }
+
+    private Map<UUID, Double> doGetBalances(Connection conn, Collection<UUID> playerUUIDs, String currencyId) throws SQLException {
+        Map<UUID, Double> balances = new HashMap<>();
+        if (playerUUIDs.isEmpty()) {
+            return balances;
+        }
+
+        String placeholders = String.join(",", Collections.nCopies(playerUUIDs.size(), "?"));
+        String sql = """
+                SELECT player_uuid, balance
+                FROM player_balances
+                WHERE currency_id = ? AND player_uuid IN (%s)
+                """.formatted(placeholders);
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, currencyId);
+            int index = 2;
+            for (UUID uuid : playerUUIDs) {
+                stmt.setString(index++, uuid.toString());
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    balances.put(UUID.fromString(rs.getString("player_uuid")), rs.getDouble("balance"));
+                }
+            }
+        }
+        return balances;
+    }
+
+    private Map<UUID, String> doGetPlayerNames(Connection conn, Iterable<UUID> playerUUIDs) throws SQLException {
+        Map<UUID, String> names = new HashMap<>();
+
+        List<String> uuidStrings = new ArrayList<>();
+        for (UUID uuid : playerUUIDs) {
+            uuidStrings.add(uuid.toString());
+        }
+
+        if (uuidStrings.isEmpty()) {
+            return names;
+        }
+
+        String placeholders = String.join(",", Collections.nCopies(uuidStrings.size(), "?"));
+        String sql = """
+                SELECT player_uuid, player_name
+                FROM player_names
+                WHERE player_uuid IN (%s)
+                """.formatted(placeholders);
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < uuidStrings.size(); i++) {
+                stmt.setString(i + 1, uuidStrings.get(i));
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    UUID uuid = UUID.fromString(rs.getString("player_uuid"));
+                    String name = rs.getString("player_name");
+                    names.put(uuid, name);
+                }
+            }
+        }
+
+        return names;
+    }
+
+    private void doSyncPlayerNames(Connection conn, Map<UUID, String> activePlayers) throws SQLException {
+        conn.setAutoCommit(false);
+
+        String sql = """
+                INSERT INTO player_names (player_uuid, player_name, last_updated)
+                VALUES (?, ?, NOW())
+                ON DUPLICATE KEY UPDATE player_name = ?, last_updated = NOW()
+                """;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int batchSize = 0;
+
+            for (Map.Entry<UUID, String> entry : activePlayers.entrySet()) {
+                UUID playerUUID = entry.getKey();
+                String playerName = entry.getValue();
+
+                if (playerName != null && !playerName.trim().isEmpty()) {
+                    stmt.setString(1, playerUUID.toString());
+                    stmt.setString(2, playerName);
+                    stmt.setString(3, playerName);
+
+                    stmt.addBatch();
+                    batchSize++;
+
+                    // Ejecutar batch cada 1000 registros
+                    if (batchSize >= 1000) {
+                        stmt.executeBatch();
+                        batchSize = 0;
+                    }
+                }
+            }
+
+            if (batchSize > 0) {
+                stmt.executeBatch();
+            }
+
+            conn.commit();
+            log.debug("Sincronizados {} nombres de jugadores", activePlayers.size());
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
     private double getCurrencyStartingBalance(String currencyId) {
         if (currencyManager == null) {
             currencyManager = CurrencyManager.getInstance();
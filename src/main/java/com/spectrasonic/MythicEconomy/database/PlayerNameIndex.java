@@ -0,0 +1,81 @@
+package com.spectrasonic.MythicEconomy.database;
+
+import com.spectrasonic.MythicEconomy.metrics.EconomyMetrics;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice local nombre -> UUID de los jugadores conocidos por la economía.
+ *
+ * Se carga una vez desde player_names y se mantiene con cada actualización de nombre, así que
+ * resolver un nombre nunca consulta perfiles a Mojang ni a la base de datos. Los nombres se comparan
+ * sin distinguir mayúsculas; si dos cuentas han usado el mismo nombre gana la última que lo registró.
+ */
+public class PlayerNameIndex {
+
+    private final Map<String, UUID> uuidsByName = new ConcurrentHashMap<>();
+    private final Map<UUID, String> namesByUUID = new ConcurrentHashMap<>();
+
+    /**
+     * Registra el nombre actual de un jugador
+     */
+    public void put(UUID playerUUID, String playerName) {
+        if (playerUUID == null || playerName == null || playerName.trim().isEmpty()) {
+            return;
+        }
+
+        String previous = namesByUUID.put(playerUUID, playerName);
+        if (previous != null && !previous.equalsIgnoreCase(playerName)) {
+            uuidsByName.remove(key(previous), playerUUID);
+        }
+        uuidsByName.put(key(playerName), playerUUID);
+    }
+
+    /**
+     * Añade los nombres cargados del almacenamiento sin pisar los registrados mientras se cargaban
+     */
+    public void putAllIfAbsent(Map<UUID, String> playerNames) {
+        for (Map.Entry<UUID, String> entry : playerNames.entrySet()) {
+            String playerName = entry.getValue();
+            if (entry.getKey() == null || playerName == null || playerName.trim().isEmpty()) {
+                continue;
+            }
+            if (namesByUUID.putIfAbsent(entry.getKey(), playerName) == null) {
+                uuidsByName.putIfAbsent(key(playerName), entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * UUID del jugador con ese nombre, o null si no se conoce
+     */
+    public UUID getUniqueId(String playerName) {
+        UUID playerUUID = playerName != null ? uuidsByName.get(key(playerName)) : null;
+        EconomyMetrics.get().recordCacheAccess(EconomyMetrics.CACHE_PLAYER_NAMES, playerUUID != null);
+        return playerUUID;
+    }
+
+    /**
+     * Último nombre conocido de un jugador, o null si no se conoce
+     */
+    public String getName(UUID playerUUID) {
+        String playerName = namesByUUID.get(playerUUID);
+        EconomyMetrics.get().recordCacheAccess(EconomyMetrics.CACHE_PLAYER_NAMES, playerName != null);
+        return playerName;
+    }
+
+    public boolean contains(UUID playerUUID) {
+        return namesByUUID.containsKey(playerUUID);
+    }
+
+    public int size() {
+        return namesByUUID.size();
+    }
+
+    private static String key(String playerName) {
+        return playerName.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,113 @@
+package com.spectrasonic.MythicEconomy.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Escrituras de varias cuentas de player_balances en una sola transacción, compartidas por los proveedores MySQL.
+ * Todas las filas van en un único executeBatch; con rewriteBatchedStatements el driver las envía como un INSERT multi-fila.
+ */
+final class SqlBulkWrite {
+
+    private static final String ADD_SQL = "INSERT INTO player_balances (player_uuid, currency_id, balance, last_updated) " +
+            "VALUES (?, ?, ?, NOW()) " +
+            "ON DUPLICATE KEY UPDATE balance = balance + VALUES(balance), last_updated = NOW()";
+
+    private static final String SET_SQL = "INSERT INTO player_balances (player_uuid, currency_id, balance, last_updated) " +
+            "VALUES (?, ?, ?, NOW()) " +
+            "ON DUPLICATE KEY UPDATE balance = VALUES(balance), last_updated = NOW()";
+
+    // La fila nueva toma el saldo en memoria; la existente suma la variación sin bajar de 0
+    private static final String APPLY_DELTA_SQL = "INSERT INTO player_balances (player_uuid, currency_id, balance, last_updated) " +
+            "VALUES (?, ?, ?, NOW()) " +
+            "ON DUPLICATE KEY UPDATE balance = GREATEST(0, balance + ?), last_updated = NOW()";
+
+    private static final String INSERT_MISSING_SQL = "INSERT IGNORE INTO player_balances (player_uuid, currency_id, balance, last_updated) " +
+            "VALUES (?, ?, ?, NOW())";
+
+    private SqlBulkWrite() {
+    }
+
+    /**
+     * Suma a cada cuenta su cantidad, creando las filas que no existan. Las cantidades <= 0 se ignoran
+     */
+    static void addBalances(Connection conn, Map<UUID, Double> amounts, String currencyId) throws SQLException {
+        Map<UUID, Double> ordered = new TreeMap<>();
+        amounts.forEach((uuid, amount) -> {
+            if (amount > 0) {
+                ordered.put(uuid, amount);
+            }
+        });
+        execute(conn, ADD_SQL, ordered, currencyId, (stmt, amount) -> stmt.setDouble(3, amount));
+    }
+
+    /**
+     * Sustituye el saldo de cada cuenta, creando las filas que no existan. Los saldos negativos se guardan como 0
+     */
+    static void setBalances(Connection conn, Map<UUID, Double> balances, String currencyId) throws SQLException {
+        Map<UUID, Double> ordered = new TreeMap<>();
+        balances.forEach((uuid, balance) -> ordered.put(uuid, Math.max(0, balance)));
+        execute(conn, SET_SQL, ordered, currencyId, (stmt, balance) -> stmt.setDouble(3, balance));
+    }
+
+    /**
+     * Suma a cada cuenta su variación sin bajar de 0, creando con el saldo en memoria las filas que no existan
+     */
+    static void applyDeltas(Connection conn, Map<UUID, BalanceDelta> deltas, String currencyId) throws SQLException {
+        execute(conn, APPLY_DELTA_SQL, new TreeMap<>(deltas), currencyId, (stmt, change) -> {
+            stmt.setDouble(3, Math.max(0, change.getBalance()));
+            stmt.setDouble(4, change.getDelta());
+        });
+    }
+
+    /**
+     * Crea las filas de un jugador para las monedas dadas con su saldo inicial. Las que ya existan
+     * no se modifican; todas las filas van en un único INSERT IGNORE multi-fila
+     */
+    static void insertMissing(Connection conn, UUID playerUUID, Map<String, Double> startingBalances) throws SQLException {
+        if (startingBalances.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_MISSING_SQL)) {
+            for (Map.Entry<String, Double> entry : new TreeMap<>(startingBalances).entrySet()) {
+                stmt.setString(1, playerUUID.toString());
+                stmt.setString(2, entry.getKey());
+                stmt.setDouble(3, entry.getValue());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    // Las filas llegan en orden de clave para que dos lotes concurrentes bloqueen en el mismo orden
+    private static <T> void execute(Connection conn, String sql, Map<UUID, T> ordered, String currencyId,
+            ValueBinder<T> binder) throws SQLException {
+        if (ordered.isEmpty()) {
+            return;
+        }
+
+        SqlTransactions.inTransactionWithRetry(conn, c -> {
+            try (PreparedStatement stmt = c.prepareStatement(sql)) {
+                for (Map.Entry<UUID, T> entry : ordered.entrySet()) {
+                    stmt.setString(1, entry.getKey().toString());
+                    stmt.setString(2, currencyId);
+                    binder.bind(stmt, entry.getValue());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            return null;
+        });
+    }
+
+    // Parámetros de una fila a partir del tercero (los dos primeros son la cuenta y la moneda)
+    @FunctionalInterface
+    private interface ValueBinder<T> {
+        void bind(PreparedStatement stmt, T value) throws SQLException;
+    }
+}
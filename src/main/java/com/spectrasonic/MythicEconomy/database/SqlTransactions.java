@@ -0,0 +1,43 @@
+package com.spectrasonic.MythicEconomy.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Transacciones de player_balances compartidas por los proveedores MySQL.
+ */
+final class SqlTransactions {
+
+    // SQLState de MySQL para interbloqueo / fallo de serialización
+    private static final String DEADLOCK_SQL_STATE = "40001";
+    private static final int MAX_ATTEMPTS = 3;
+
+    private SqlTransactions() {
+    }
+
+    /**
+     * Ejecuta el trabajo en una transacción y hace commit. Si MySQL la elige como víctima de un interbloqueo
+     * se deshace y se repite entero, hasta {@value #MAX_ATTEMPTS} intentos; cualquier otro error la deshace
+     * y se propaga. El modo auto-commit de la conexión se restaura al terminar
+     */
+    static <T> T inTransactionWithRetry(Connection conn, MySQLAsyncConnection.SqlFunction<T> work) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    T result = work.apply(conn);
+                    conn.commit();
+                    return result;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    if (attempt >= MAX_ATTEMPTS || !DEADLOCK_SQL_STATE.equals(e.getSQLState())) {
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.spectrasonic.MythicEconomy.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Transferencia atómica entre dos cuentas de player_balances, compartida por los proveedores MySQL.
+ * El cargo condicional y el abono van en la misma transacción: o se aplican ambos o ninguno.
+ */
+final class SqlTransfer {
+
+    private static final String DEBIT_SQL = "UPDATE player_balances SET balance = balance - ?, last_updated = NOW() " +
+            "WHERE player_uuid = ? AND currency_id = ? AND balance >= ?";
+
+    private static final String CREDIT_SQL = "INSERT INTO player_balances (player_uuid, currency_id, balance, last_updated) " +
+            "VALUES (?, ?, ?, NOW()) " +
+            "ON DUPLICATE KEY UPDATE balance = balance + ?, last_updated = NOW()";
+
+    private SqlTransfer() {
+    }
+
+    /**
+     * Ejecuta la transferencia en una transacción, reintentando si MySQL la elige como víctima de un interbloqueo
+     * @return true si se transfirió, false si el origen no existe o no tiene saldo suficiente
+     */
+    static boolean execute(Connection conn, UUID fromUUID, UUID toUUID, double amount, String currencyId) throws SQLException {
+        // Si el cargo no afecta a ninguna fila no se ha escrito nada y el commit no tiene efecto
+        return SqlTransactions.inTransactionWithRetry(conn, c -> attempt(c, fromUUID, toUUID, amount, currencyId));
+    }
+
+    private static boolean attempt(Connection conn, UUID fromUUID, UUID toUUID, double amount, String currencyId) throws SQLException {
+        try (PreparedStatement debit = conn.prepareStatement(DEBIT_SQL)) {
+            debit.setDouble(1, amount);
+            debit.setString(2, fromUUID.toString());
+            debit.setString(3, currencyId);
+            debit.setDouble(4, amount);
+            if (debit.executeUpdate() == 0) {
+                return false;
+            }
+        }
+
+        try (PreparedStatement credit = conn.prepareStatement(CREDIT_SQL)) {
+            credit.setString(1, toUUID.toString());
+            credit.setString(2, currencyId);
+            credit.setDouble(3, amount);
+            credit.setDouble(4, amount);
+            credit.executeUpdate();
+        }
+        return true;
+    }
+}
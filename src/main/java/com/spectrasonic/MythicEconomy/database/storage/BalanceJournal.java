@@ -0,0 +1,445 @@
+package com.spectrasonic.MythicEconomy.database.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Journal binario de solo-anexado con los cambios de saldo y de nombres.
+ *
+ * Formato del archivo: cabecera [magic:int][versión:int][generación:long] seguida de registros
+ * [longitud:int][tipo:byte][uuidMost:long][uuidLeast:long][datos...][crc32:int], donde el CRC cubre
+ * tipo y datos. Cada registro de saldo guarda el saldo resultante, por lo que reproducirlo es idempotente.
+ *
+ * Los registros se acumulan en memoria y se escriben al FileChannel desde el hilo de volcado,
+ * intercambiando dos buffers para no bloquear a quien registra cambios mientras se hace I/O.
+ * La rotación se hace en tres pasos para que el límite del snapshot no espere a disco: el archivo nuevo
+ * se crea antes ({@link #prepareRotation}), en el límite solo se cambia de buffer ({@link #switchTo})
+ * y el cierre del archivo anterior se hace después ({@link #completeRotation}).
+ *
+ * Si una escritura falla, los bytes que no llegaron a disco se quedan en el buffer de volcado y se reintentan
+ * en el siguiente volcado antes que cualquier registro posterior; mientras tanto los nuevos registros siguen
+ * acumulándose en memoria. Nunca se descarta un registro ya aceptado.
+ */
+public class BalanceJournal {
+
+    static final int MAGIC = 0x4D45434A; // "MECJ"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    static final byte TYPE_BALANCE = 1;
+    static final byte TYPE_NAME = 2;
+
+    // Tamaño máximo de un registro (cabecera + moneda/nombre + saldo + crc)
+    private static final int MAX_RECORD_SIZE = 4 + 1 + 16 + 2 + Short.MAX_VALUE + 8 + 4;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final Logger logger;
+    private final boolean fsync;
+
+    // Bytes UTF-8 de cada moneda, para no codificar el ID en cada registro
+    private final Map<String, byte[]> encodedCurrencies = new ConcurrentHashMap<>();
+
+    // Protege el buffer activo (anexado) y el canal (escritura), respectivamente
+    private final Object appendLock = new Object();
+    private final Object writeLock = new Object();
+    private final CRC32 crc = new CRC32();
+
+    private ByteBuffer activeBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private ByteBuffer flushBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private FileChannel channel;
+    private Path file;
+    private long generation;
+
+    // Rotación con el límite ya fijado pero sin cerrar el archivo anterior; protegida por appendLock
+    private PendingRotation pendingRotation;
+
+    // Estado de los fallos de escritura; protegidos por writeLock
+    private boolean forcePending;
+    private boolean failing;
+
+    public BalanceJournal(Logger logger, boolean fsync) {
+        this.logger = logger;
+        this.fsync = fsync;
+    }
+
+    // ========== ESCRITURA ==========
+
+    /**
+     * Registra el saldo resultante de un jugador en una moneda
+     */
+    public void appendBalance(long uuidMost, long uuidLeast, String currencyId, double balance) {
+        byte[] currency = encodedCurrencies.computeIfAbsent(currencyId, id -> id.getBytes(StandardCharsets.UTF_8));
+        synchronized (appendLock) {
+            ByteBuffer buffer = ensureCapacity(4 + 1 + 16 + 2 + currency.length + 8 + 4);
+            int start = buffer.position();
+            buffer.putInt(0); // longitud, se completa al final
+            buffer.put(TYPE_BALANCE);
+            buffer.putLong(uuidMost);
+            buffer.putLong(uuidLeast);
+            buffer.putShort((short) currency.length);
+            buffer.put(currency);
+            buffer.putDouble(balance);
+            finishRecord(buffer, start);
+        }
+    }
+
+    /**
+     * Registra el nombre actual de un jugador
+     */
+    public void appendName(UUID playerUUID, String playerName) {
+        byte[] name = playerName.getBytes(StandardCharsets.UTF_8);
+        if (name.length > Short.MAX_VALUE) {
+            return;
+        }
+        synchronized (appendLock) {
+            ByteBuffer buffer = ensureCapacity(4 + 1 + 16 + 2 + name.length + 4);
+            int start = buffer.position();
+            buffer.putInt(0);
+            buffer.put(TYPE_NAME);
+            buffer.putLong(playerUUID.getMostSignificantBits());
+            buffer.putLong(playerUUID.getLeastSignificantBits());
+            buffer.putShort((short) name.length);
+            buffer.put(name);
+            finishRecord(buffer, start);
+        }
+    }
+
+    // Completa la longitud y el CRC de un registro; requiere appendLock
+    private void finishRecord(ByteBuffer buffer, int start) {
+        int payloadStart = start + 4;
+        int payloadLength = buffer.position() - payloadStart;
+        crc.reset();
+        crc.update(buffer.array(), payloadStart, payloadLength);
+        buffer.putInt((int) crc.getValue());
+        buffer.putInt(start, payloadLength);
+    }
+
+    // Garantiza espacio en el buffer activo; si está lleno lo amplía en lugar de hacer I/O
+    // en el hilo que registra el cambio. Requiere appendLock
+    private ByteBuffer ensureCapacity(int bytes) {
+        if (activeBuffer.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(activeBuffer.capacity() * 2, activeBuffer.position() + bytes));
+            activeBuffer.flip();
+            larger.put(activeBuffer);
+            activeBuffer = larger;
+        }
+        return activeBuffer;
+    }
+
+    /**
+     * Escribe en disco los registros acumulados. Lo llama periódicamente el hilo de volcado.
+     */
+    public void flush() {
+        synchronized (writeLock) {
+            // Lo que quedó sin escribir va antes que cualquier registro nuevo
+            if (!finishRotation() || !writeBuffer(flushBuffer)) {
+                return;
+            }
+            ByteBuffer pending;
+            synchronized (appendLock) {
+                if (activeBuffer.position() == 0) {
+                    return;
+                }
+                pending = activeBuffer;
+                activeBuffer = flushBuffer;
+                flushBuffer = pending;
+            }
+            writeBuffer(pending);
+        }
+    }
+
+    // Escribe y vacía un buffer en el canal actual; requiere writeLock. Si falla, el buffer conserva
+    // solo los bytes que no se escribieron y devuelve false para reintentarlos en el siguiente volcado
+    private boolean writeBuffer(ByteBuffer buffer) {
+        if (channel == null) {
+            buffer.clear();
+            return true;
+        }
+        if (buffer.position() == 0 && !forcePending) {
+            return true;
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync || forcePending) {
+                // Si falla, los bytes ya están en el canal y solo queda pendiente la sincronización
+                forcePending = true;
+                channel.force(false);
+                forcePending = false;
+            }
+            buffer.clear();
+            if (failing) {
+                failing = false;
+                logger.info("Journal de saldos " + file + " escrito de nuevo tras los errores anteriores");
+            }
+            return true;
+        } catch (IOException e) {
+            buffer.compact();
+            if (!failing) {
+                failing = true;
+                logger.severe("Error al escribir el journal de saldos " + file + ": " + e.getMessage()
+                        + ". Los registros se conservan en memoria y se reintentará en cada volcado");
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Crea el archivo del journal de la generación indicada con su cabecera ya en disco.
+     * No toca el journal activo, así que se puede llamar sin bloquear las escrituras del almacén
+     */
+    public PreparedJournal prepareRotation(Path newFile, long newGeneration) throws IOException {
+        FileChannel newChannel = FileChannel.open(newFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(newGeneration).flip();
+            while (header.hasRemaining()) {
+                newChannel.write(header);
+            }
+            newChannel.force(true);
+        } catch (IOException e) {
+            newChannel.close();
+            throw e;
+        }
+        return new PreparedJournal(newChannel, newFile, newGeneration);
+    }
+
+    /**
+     * Fija el límite de la rotación: lo registrado hasta ahora irá al archivo actual y lo siguiente al preparado.
+     * Solo intercambia buffers, sin E/S; debe llamarse con las escrituras del almacén bloqueadas para que
+     * la rotación quede en el límite del snapshot
+     */
+    public void switchTo(PreparedJournal prepared) {
+        synchronized (appendLock) {
+            if (pendingRotation != null) {
+                throw new IllegalStateException("Ya hay una rotación del journal pendiente");
+            }
+            pendingRotation = new PendingRotation(activeBuffer, prepared);
+            // El otro buffer puede estar escribiéndose en este momento
+            activeBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * Escribe y cierra el archivo anterior a la rotación y pasa a escribir en el nuevo
+     */
+    public void completeRotation() {
+        synchronized (writeLock) {
+            finishRotation();
+        }
+    }
+
+    // Requiere writeLock. Los volcados pasan por aquí primero: ningún registro posterior al límite
+    // puede acabar en el archivo anterior, que se borra al terminar el snapshot. Si los registros previos al
+    // límite no se pueden escribir, la rotación sigue pendiente y devuelve false
+    private boolean finishRotation() {
+        PendingRotation rotation;
+        synchronized (appendLock) {
+            rotation = pendingRotation;
+        }
+        if (rotation == null) {
+            return true;
+        }
+
+        if (!writeBuffer(flushBuffer) || !writeBuffer(rotation.tail)) {
+            return false;
+        }
+        synchronized (appendLock) {
+            pendingRotation = null;
+        }
+        closeChannel();
+        this.channel = rotation.next.channel;
+        this.file = rotation.next.file;
+        this.generation = rotation.next.generation;
+        return true;
+    }
+
+    /**
+     * Tamaño actual del archivo del journal en bytes
+     */
+    public long size() {
+        synchronized (writeLock) {
+            try {
+                return channel != null ? channel.size() : 0L;
+            } catch (IOException e) {
+                return 0L;
+            }
+        }
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Escribe lo pendiente y cierra el archivo
+     */
+    public void close() {
+        synchronized (writeLock) {
+            ByteBuffer pending;
+            synchronized (appendLock) {
+                pending = activeBuffer;
+                activeBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+            }
+            if (!finishRotation() || !writeBuffer(flushBuffer) || !writeBuffer(pending)) {
+                logger.severe("El journal de saldos " + file + " se cierra con registros sin escribir;"
+                        + " solo se conservan si el último snapshot llegó a escribirse");
+            }
+            closeChannel();
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(true);
+            channel.close();
+        } catch (IOException e) {
+            logger.severe("Error al cerrar el journal de saldos " + file + ": " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    // ========== LECTURA ==========
+
+    /**
+     * Lee la generación de la cabecera de un journal, o -1 si la cabecera no es válida
+     */
+    public static long readGeneration(Path journalFile) {
+        try (FileChannel in = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && in.read(header) > 0) {
+                // leer la cabecera completa
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                return -1L;
+            }
+            return header.getLong();
+        } catch (IOException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * Reproduce los registros de un journal en orden. Se detiene en el primer registro incompleto o
+     * con CRC inválido (escritura cortada por un cierre inesperado) y trunca el archivo en ese punto.
+     * @return número de registros aplicados
+     */
+    public static int replay(Path journalFile, RecordHandler handler, Logger logger) throws IOException {
+        byte[] data = Files.readAllBytes(journalFile);
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (data.length < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            logger.warning("Journal de saldos con cabecera inválida, se ignora: " + journalFile);
+            return 0;
+        }
+        buffer.getLong(); // generación
+
+        CRC32 crc = new CRC32();
+        int applied = 0;
+        int validEnd = buffer.position();
+
+        while (buffer.remaining() >= 4) {
+            int payloadLength = buffer.getInt();
+            if (payloadLength < 17 || payloadLength > MAX_RECORD_SIZE || buffer.remaining() < payloadLength + 4) {
+                break;
+            }
+            int payloadStart = buffer.position();
+            crc.reset();
+            crc.update(data, payloadStart, payloadLength);
+            int expected = buffer.getInt(payloadStart + payloadLength);
+            if ((int) crc.getValue() != expected) {
+                break;
+            }
+
+            byte type = buffer.get();
+            long most = buffer.getLong();
+            long least = buffer.getLong();
+            int length = buffer.getShort() & 0xFFFF;
+            String text = new String(data, buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+
+            if (type == TYPE_BALANCE) {
+                handler.onBalance(new UUID(most, least), text, buffer.getDouble());
+            } else if (type == TYPE_NAME) {
+                handler.onName(new UUID(most, least), text);
+            }
+
+            buffer.position(payloadStart + payloadLength + 4);
+            validEnd = buffer.position();
+            applied++;
+        }
+
+        if (validEnd < data.length) {
+            logger.warning("Journal de saldos " + journalFile.getFileName() + " con " + (data.length - validEnd)
+                    + " bytes finales inválidos (cierre inesperado), se descartan");
+            try (FileChannel out = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+                out.truncate(validEnd);
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Archivo de journal creado por {@link #prepareRotation}, todavía sin usar
+     */
+    public static final class PreparedJournal {
+        private final FileChannel channel;
+        private final Path file;
+        private final long generation;
+
+        private PreparedJournal(FileChannel channel, Path file, long generation) {
+            this.channel = channel;
+            this.file = file;
+            this.generation = generation;
+        }
+
+        /**
+         * Descarta el archivo si la rotación no llega a hacerse
+         */
+        public void discard() {
+            try {
+                channel.close();
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Un journal vacío de una generación futura se sobrescribe en la siguiente rotación
+            }
+        }
+    }
+
+    // Registros anteriores al límite de una rotación y archivo al que se pasa después
+    private static final class PendingRotation {
+        private final ByteBuffer tail;
+        private final PreparedJournal next;
+
+        private PendingRotation(ByteBuffer tail, PreparedJournal next) {
+            this.tail = tail;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Receptor de registros durante la reproducción del journal
+     */
+    public interface RecordHandler {
+        void onBalance(UUID playerUUID, String currencyId, double balance);
+
+        void onName(UUID playerUUID, String playerName);
+    }
+}
@@ -0,0 +1,191 @@
+package com.spectrasonic.MythicEconomy.database.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+import com.spectrasonic.MythicEconomy.database.storage.BalanceStore.ColumnSnapshot;
+
+/**
+ * Snapshot binario compacto de todos los saldos y nombres.
+ *
+ * Formato: [magic:int][versión:int][generación:long][creado:long]
+ * [monedas:int] { [id:utf][cantidad:int] { [uuidMost:long][uuidLeast:long][saldo:double] }* }*
+ * [nombres:int] { [uuidMost:long][uuidLeast:long][nombre:utf] }* [crc32:int]
+ * donde utf es [longitud:short][bytes UTF-8] y el CRC cubre todo lo anterior.
+ *
+ * Se escribe en un archivo temporal y se reemplaza de forma atómica, así que un cierre inesperado
+ * deja siempre el snapshot anterior o el nuevo completos.
+ */
+public final class BalanceSnapshot {
+
+    static final int MAGIC = 0x4D454353; // "MECS"
+    static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private BalanceSnapshot() {
+    }
+
+    /**
+     * Escribe un snapshot de forma atómica
+     */
+    public static void write(Path target, long generation, Map<String, ColumnSnapshot> balances,
+            Map<UUID, String> names) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (FileChannel out = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ChecksummedWriter writer = new ChecksummedWriter(out);
+            writer.putInt(MAGIC);
+            writer.putInt(VERSION);
+            writer.putLong(generation);
+            writer.putLong(System.currentTimeMillis());
+
+            writer.putInt(balances.size());
+            for (Map.Entry<String, ColumnSnapshot> entry : balances.entrySet()) {
+                ColumnSnapshot column = entry.getValue();
+                writer.putString(entry.getKey());
+                writer.putInt(column.size());
+                for (int i = 0; i < column.size(); i++) {
+                    writer.putLong(column.getUuidMost()[i]);
+                    writer.putLong(column.getUuidLeast()[i]);
+                    writer.putDouble(column.getBalances()[i]);
+                }
+            }
+
+            writer.putInt(names.size());
+            for (Map.Entry<UUID, String> entry : names.entrySet()) {
+                writer.putLong(entry.getKey().getMostSignificantBits());
+                writer.putLong(entry.getKey().getLeastSignificantBits());
+                writer.putString(entry.getValue());
+            }
+
+            writer.finish();
+            out.force(true);
+        }
+
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lee un snapshot validando su CRC y lo vuelca en los receptores indicados
+     * @return generación del snapshot
+     * @throws IOException si el archivo está dañado o no se puede leer
+     */
+    public static long read(Path source, BalanceJournal.RecordHandler handler) throws IOException {
+        byte[] data = Files.readAllBytes(source);
+        if (data.length < 32) {
+            throw new IOException("snapshot truncado (" + data.length + " bytes)");
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - 4);
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if ((int) crc.getValue() != buffer.getInt(data.length - 4)) {
+            throw new IOException("CRC del snapshot inválido");
+        }
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("cabecera del snapshot inválida");
+        }
+
+        long generation = buffer.getLong();
+        buffer.getLong(); // fecha de creación
+
+        int currencies = buffer.getInt();
+        for (int c = 0; c < currencies; c++) {
+            String currencyId = readString(buffer, data);
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                UUID playerUUID = new UUID(buffer.getLong(), buffer.getLong());
+                handler.onBalance(playerUUID, currencyId, buffer.getDouble());
+            }
+        }
+
+        int names = buffer.getInt();
+        for (int i = 0; i < names; i++) {
+            UUID playerUUID = new UUID(buffer.getLong(), buffer.getLong());
+            handler.onName(playerUUID, readString(buffer, data));
+        }
+
+        return generation;
+    }
+
+    private static String readString(ByteBuffer buffer, byte[] data) {
+        int length = buffer.getShort() & 0xFFFF;
+        String value = new String(data, buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    /**
+     * Escribe por bloques en un FileChannel calculando el CRC de todo lo escrito
+     */
+    private static final class ChecksummedWriter {
+
+        private final FileChannel out;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final CRC32 crc = new CRC32();
+
+        private ChecksummedWriter(FileChannel out) {
+            this.out = out;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4).putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8).putLong(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(8).putDouble(value);
+        }
+
+        void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            int length = Math.min(bytes.length, Short.MAX_VALUE);
+            ensure(2).putShort((short) length);
+            for (int offset = 0; offset < length; ) {
+                int chunk = Math.min(length - offset, ensure(1).remaining());
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+            }
+        }
+
+        // Escribe el último bloque y el CRC final
+        void finish() throws IOException {
+            drain();
+            ByteBuffer trailer = ByteBuffer.allocate(4).putInt((int) crc.getValue());
+            trailer.flip();
+            while (trailer.hasRemaining()) {
+                out.write(trailer);
+            }
+        }
+
+        private ByteBuffer ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                drain();
+            }
+            return buffer;
+        }
+
+        private void drain() throws IOException {
+            crc.update(buffer.array(), 0, buffer.position());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
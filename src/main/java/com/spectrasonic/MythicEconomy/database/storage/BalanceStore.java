@@ -0,0 +1,690 @@
+package com.spectrasonic.MythicEconomy.database.storage;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Almacén de saldos en memoria basado en arreglos primitivos.
+ * Cada jugador recibe un slot entero la primera vez que se le asigna un saldo; el UUID se guarda
+ * como dos long en una tabla hash de direccionamiento abierto y los saldos viven en un double[]
+ * por moneda, con un bitset long[] que marca qué slots tienen saldo en esa moneda.
+ * Las lecturas y escrituras no crean objetos (sin boxing ni claves UUID en mapas).
+ *
+ * Las lecturas son optimistas (StampedLock) y las escrituras exclusivas.
+ */
+public class BalanceStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final StampedLock lock = new StampedLock();
+
+    // Saldo inicial de una moneda para jugadores sin saldo registrado
+    private final ToDoubleFunction<String> startingBalanceResolver;
+
+    // Columnas de saldos por moneda: currencyId -> columna
+    private final Map<String, Column> columns = new ConcurrentHashMap<>();
+
+    // Receptor de cambios (journal), invocado dentro del bloqueo de escritura
+    private volatile MutationListener mutationListener;
+
+    // Tabla hash UUID -> slot (slot + 1, 0 = vacío), capacidad potencia de 2
+    private long[] hashMost;
+    private long[] hashLeast;
+    private int[] hashSlots;
+
+    // UUID de cada slot, para recorridos y rankings
+    private long[] slotMost;
+    private long[] slotLeast;
+    private int size;
+
+    public BalanceStore(ToDoubleFunction<String> startingBalanceResolver) {
+        this.startingBalanceResolver = startingBalanceResolver;
+        this.hashMost = new long[INITIAL_CAPACITY * 2];
+        this.hashLeast = new long[INITIAL_CAPACITY * 2];
+        this.hashSlots = new int[INITIAL_CAPACITY * 2];
+        this.slotMost = new long[INITIAL_CAPACITY];
+        this.slotLeast = new long[INITIAL_CAPACITY];
+    }
+
+    // ========== LECTURAS ==========
+
+    /**
+     * Obtiene el saldo de un jugador; si no tiene saldo registrado devuelve el saldo inicial de la moneda
+     */
+    public double get(UUID playerUUID, String currencyId) {
+        double balance = getOrNaN(playerUUID, currencyId);
+        return Double.isNaN(balance) ? startingBalanceResolver.applyAsDouble(currencyId) : balance;
+    }
+
+    /**
+     * Verifica si un jugador tiene saldo registrado en una moneda
+     */
+    public boolean contains(UUID playerUUID, String currencyId) {
+        return !Double.isNaN(getOrNaN(playerUUID, currencyId));
+    }
+
+    /**
+     * Todos los saldos registrados de un jugador, localizando su slot una sola vez
+     * @return Mapa de moneda -> saldo; vacío si el jugador no tiene saldos
+     */
+    public Map<String, Double> getAll(UUID playerUUID) {
+        long most = playerUUID.getMostSignificantBits();
+        long least = playerUUID.getLeastSignificantBits();
+
+        long stamp = lock.readLock();
+        try {
+            int slot = findSlot(most, least);
+            if (slot < 0) {
+                return new HashMap<>();
+            }
+
+            Map<String, Double> balances = new HashMap<>();
+            for (Map.Entry<String, Column> entry : columns.entrySet()) {
+                Column column = entry.getValue();
+                if (slot < column.values.length && column.isPresent(slot)) {
+                    balances.put(entry.getKey(), column.values[slot]);
+                }
+            }
+            return balances;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Devuelve el saldo registrado o NaN si no existe
+    private double getOrNaN(UUID playerUUID, String currencyId) {
+        Column column = columns.get(currencyId);
+        if (column == null) {
+            return Double.NaN;
+        }
+
+        long most = playerUUID.getMostSignificantBits();
+        long least = playerUUID.getLeastSignificantBits();
+
+        // Lectura optimista: si coincide con una escritura, los arreglos pueden verse a medio
+        // actualizar, así que cualquier fallo se descarta y se repite con el bloqueo de lectura
+        long stamp = lock.tryOptimisticRead();
+        double balance;
+        try {
+            balance = readBalance(column, most, least);
+        } catch (RuntimeException e) {
+            balance = Double.NaN;
+            stamp = 0L;
+        }
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                balance = readBalance(column, most, least);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return balance;
+    }
+
+    private double readBalance(Column column, long most, long least) {
+        int slot = findSlot(most, least);
+        if (slot < 0 || slot >= column.values.length || !column.isPresent(slot)) {
+            return Double.NaN;
+        }
+        return column.values[slot];
+    }
+
+    // ========== ESCRITURAS ==========
+
+    /**
+     * Establece el saldo de un jugador en una moneda
+     */
+    public void set(UUID playerUUID, String currencyId, double amount) {
+        long stamp = lock.writeLock();
+        try {
+            Column column = columnFor(currencyId);
+            int slot = slotFor(playerUUID.getMostSignificantBits(), playerUUID.getLeastSignificantBits());
+            column.put(slot, amount);
+            notifyMutation(slot, currencyId, amount);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Suma una cantidad al saldo de un jugador (partiendo del saldo inicial si no existe) y devuelve el nuevo saldo
+     */
+    public double add(UUID playerUUID, String currencyId, double amount) {
+        long stamp = lock.writeLock();
+        try {
+            Column column = columnFor(currencyId);
+            int slot = slotFor(playerUUID.getMostSignificantBits(), playerUUID.getLeastSignificantBits());
+            double balance = (column.isPresent(slot) ? column.values[slot] : startingBalanceResolver.applyAsDouble(currencyId)) + amount;
+            column.put(slot, balance);
+            notifyMutation(slot, currencyId, balance);
+            return balance;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Suma una variación (positiva o negativa) sin bajar de 0 y devuelve el nuevo saldo.
+     * Si el jugador no tiene saldo en la moneda se registra el indicado, sin aplicar la variación
+     */
+    public double adjust(UUID playerUUID, String currencyId, double delta, double absentBalance) {
+        long stamp = lock.writeLock();
+        try {
+            Column column = columnFor(currencyId);
+            int slot = slotFor(playerUUID.getMostSignificantBits(), playerUUID.getLeastSignificantBits());
+            double balance = column.isPresent(slot) ? Math.max(0, column.values[slot] + delta) : absentBalance;
+            column.put(slot, balance);
+            notifyMutation(slot, currencyId, balance);
+            return balance;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Resta una cantidad si el saldo alcanza; devuelve false sin modificar nada si no alcanza
+     */
+    public boolean remove(UUID playerUUID, String currencyId, double amount) {
+        long stamp = lock.writeLock();
+        try {
+            Column column = columnFor(currencyId);
+            long most = playerUUID.getMostSignificantBits();
+            long least = playerUUID.getLeastSignificantBits();
+            int slot = findSlot(most, least);
+            double balance = slot >= 0 && column.isPresent(slot) ? column.values[slot] : startingBalanceResolver.applyAsDouble(currencyId);
+            if (balance < amount) {
+                return false;
+            }
+            if (slot < 0) {
+                slot = slotFor(most, least);
+            }
+            column.put(slot, balance - amount);
+            notifyMutation(slot, currencyId, balance - amount);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Mueve una cantidad entre dos jugadores de forma atómica: o se aplican ambos cambios o ninguno
+     * @return false si el origen no tiene saldo suficiente
+     */
+    public boolean transfer(UUID fromUUID, UUID toUUID, String currencyId, double amount) {
+        long stamp = lock.writeLock();
+        try {
+            Column column = columnFor(currencyId);
+            double startingBalance = startingBalanceResolver.applyAsDouble(currencyId);
+
+            int fromSlot = findSlot(fromUUID.getMostSignificantBits(), fromUUID.getLeastSignificantBits());
+            double fromBalance = fromSlot >= 0 && column.isPresent(fromSlot) ? column.values[fromSlot] : startingBalance;
+            if (fromBalance < amount) {
+                return false;
+            }
+            if (fromSlot < 0) {
+                fromSlot = slotFor(fromUUID.getMostSignificantBits(), fromUUID.getLeastSignificantBits());
+            }
+            int toSlot = slotFor(toUUID.getMostSignificantBits(), toUUID.getLeastSignificantBits());
+            double toBalance = column.isPresent(toSlot) ? column.values[toSlot] : startingBalance;
+
+            column.put(fromSlot, fromBalance - amount);
+            column.put(toSlot, toBalance + amount);
+            notifyMutation(fromSlot, currencyId, fromBalance - amount);
+            notifyMutation(toSlot, currencyId, toBalance + amount);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Suma a cada jugador su cantidad en una sola pasada bajo el mismo bloqueo (partiendo del saldo inicial si no existe)
+     */
+    public void addAll(Map<UUID, Double> amounts, String currencyId) {
+        long stamp = lock.writeLock();
+        try {
+            Column column = columnFor(currencyId);
+            double startingBalance = startingBalanceResolver.applyAsDouble(currencyId);
+            for (Map.Entry<UUID, Double> entry : amounts.entrySet()) {
+                UUID playerUUID = entry.getKey();
+                int slot = slotFor(playerUUID.getMostSignificantBits(), playerUUID.getLeastSignificantBits());
+                double balance = (column.isPresent(slot) ? column.values[slot] : startingBalance) + entry.getValue();
+                column.put(slot, balance);
+                notifyMutation(slot, currencyId, balance);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Establece el saldo de cada jugador en una sola pasada bajo el mismo bloqueo
+     */
+    public void setAll(Map<UUID, Double> balances, String currencyId) {
+        long stamp = lock.writeLock();
+        try {
+            Column column = columnFor(currencyId);
+            for (Map.Entry<UUID, Double> entry : balances.entrySet()) {
+                UUID playerUUID = entry.getKey();
+                int slot = slotFor(playerUUID.getMostSignificantBits(), playerUUID.getLeastSignificantBits());
+                column.put(slot, entry.getValue());
+                notifyMutation(slot, currencyId, entry.getValue());
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Registra el saldo inicial de un jugador si aún no tiene saldo en la moneda
+     */
+    public void putIfAbsent(UUID playerUUID, String currencyId, double amount) {
+        long stamp = lock.writeLock();
+        try {
+            Column column = columnFor(currencyId);
+            int slot = slotFor(playerUUID.getMostSignificantBits(), playerUUID.getLeastSignificantBits());
+            if (!column.isPresent(slot)) {
+                column.put(slot, amount);
+                notifyMutation(slot, currencyId, amount);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Elimina todos los saldos del almacén
+     */
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            columns.clear();
+            Arrays.fill(hashSlots, 0);
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Registra el receptor de cambios; null para dejar de notificar
+     */
+    public void setMutationListener(MutationListener listener) {
+        this.mutationListener = listener;
+    }
+
+    private void notifyMutation(int slot, String currencyId, double balance) {
+        MutationListener listener = mutationListener;
+        if (listener != null) {
+            listener.onBalanceChanged(slotMost[slot], slotLeast[slot], currencyId, balance);
+        }
+    }
+
+    /**
+     * Copia un estado consistente de todos los saldos. La acción indicada se ejecuta mientras
+     * las escrituras están bloqueadas, de modo que queda exactamente en el límite de la copia
+     * (se usa para rotar el journal).
+     * @return currencyId -> saldos de esa moneda
+     */
+    public Map<String, ColumnSnapshot> capture(Runnable atBoundary) {
+        long stamp = lock.readLock();
+        try {
+            Map<String, ColumnSnapshot> snapshot = new HashMap<>();
+            for (Map.Entry<String, Column> entry : columns.entrySet()) {
+                Column column = entry.getValue();
+                long[] most = new long[column.count];
+                long[] least = new long[column.count];
+                double[] values = new double[column.count];
+                int index = 0;
+                for (int slot = 0; slot < size && index < column.count; slot++) {
+                    if (column.isPresent(slot)) {
+                        most[index] = slotMost[slot];
+                        least[index] = slotLeast[slot];
+                        values[index] = column.values[slot];
+                        index++;
+                    }
+                }
+                snapshot.put(entry.getKey(), new ColumnSnapshot(most, least, values));
+            }
+            if (atBoundary != null) {
+                atBoundary.run();
+            }
+            return snapshot;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // ========== ESTADÍSTICAS Y RECORRIDOS ==========
+
+    /**
+     * Monedas que tienen al menos un saldo registrado
+     */
+    public Set<String> getCurrencyIds() {
+        return columns.keySet();
+    }
+
+    /**
+     * Número de jugadores con saldo en una moneda
+     */
+    public long count(String currencyId) {
+        Column column = columns.get(currencyId);
+        if (column == null) {
+            return 0;
+        }
+        long stamp = lock.readLock();
+        try {
+            return column.count;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Número de jugadores con saldo en al menos una moneda
+     */
+    public long uniquePlayers() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Suma de todos los saldos de una moneda
+     */
+    public double total(String currencyId) {
+        Column column = columns.get(currencyId);
+        if (column == null) {
+            return 0.0;
+        }
+        long stamp = lock.readLock();
+        try {
+            double total = 0.0;
+            for (int slot = 0; slot < size; slot++) {
+                if (column.isPresent(slot)) {
+                    total += column.values[slot];
+                }
+            }
+            return total;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Recorre todos los saldos de una moneda
+     */
+    public void forEach(String currencyId, BalanceVisitor visitor) {
+        Column column = columns.get(currencyId);
+        if (column == null) {
+            return;
+        }
+        long stamp = lock.readLock();
+        try {
+            for (int slot = 0; slot < size; slot++) {
+                if (column.isPresent(slot)) {
+                    visitor.visit(new UUID(slotMost[slot], slotLeast[slot]), column.values[slot]);
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Obtiene los jugadores con más saldo de una moneda, ordenados de mayor a menor.
+     * Usa un montículo acotado de slots, sin ordenar todas las cuentas.
+     * @return Array de arreglos [UUID, balance]
+     */
+    public Object[][] top(String currencyId, int limit) {
+        Column column = columns.get(currencyId);
+        if (column == null || limit <= 0) {
+            return new Object[0][0];
+        }
+
+        long stamp = lock.readLock();
+        try {
+            int capacity = Math.min(limit, column.count);
+            int[] heap = new int[capacity];
+            int heapSize = 0;
+            double[] values = column.values;
+
+            for (int slot = 0; slot < size; slot++) {
+                if (!column.isPresent(slot)) {
+                    continue;
+                }
+                if (heapSize < capacity) {
+                    heap[heapSize] = slot;
+                    siftUp(heap, heapSize++, values);
+                } else if (capacity > 0 && values[slot] > values[heap[0]]) {
+                    heap[0] = slot;
+                    siftDown(heap, heapSize, values);
+                }
+            }
+
+            // Extraer el mínimo repetidamente deja el arreglo de mayor a menor desde el final
+            Object[][] result = new Object[heapSize][];
+            for (int i = heapSize - 1; i >= 0; i--) {
+                int slot = heap[0];
+                result[i] = new Object[] { new UUID(slotMost[slot], slotLeast[slot]).toString(), values[slot] };
+                heap[0] = heap[--heapSize];
+                siftDown(heap, heapSize, values);
+            }
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static void siftUp(int[] heap, int index, double[] values) {
+        int slot = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (values[heap[parent]] <= values[slot]) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = slot;
+    }
+
+    private static void siftDown(int[] heap, int heapSize, double[] values) {
+        if (heapSize == 0) {
+            return;
+        }
+        int index = 0;
+        int slot = heap[0];
+        while (true) {
+            int child = (index << 1) + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && values[heap[child + 1]] < values[heap[child]]) {
+                child++;
+            }
+            if (values[slot] <= values[heap[child]]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = slot;
+    }
+
+    // ========== TABLA HASH UUID -> SLOT ==========
+
+    private static int hash(long most, long least) {
+        long h = most ^ least;
+        h ^= (h >>> 32);
+        h *= 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 29));
+    }
+
+    // Busca el slot de un UUID; -1 si no existe
+    private int findSlot(long most, long least) {
+        long[] most0 = hashMost;
+        long[] least0 = hashLeast;
+        int[] slots = hashSlots;
+        int mask = slots.length - 1;
+        int index = hash(most, least) & mask;
+        for (int probes = 0; probes < slots.length; probes++) {
+            int stored = slots[index];
+            if (stored == 0) {
+                return -1;
+            }
+            if (most0[index] == most && least0[index] == least) {
+                return stored - 1;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Obtiene o asigna el slot de un UUID; requiere el bloqueo de escritura
+    private int slotFor(long most, long least) {
+        int mask = hashSlots.length - 1;
+        int index = hash(most, least) & mask;
+        while (true) {
+            int stored = hashSlots[index];
+            if (stored == 0) {
+                break;
+            }
+            if (hashMost[index] == most && hashLeast[index] == least) {
+                return stored - 1;
+            }
+            index = (index + 1) & mask;
+        }
+
+        int slot = size++;
+        if (slot == slotMost.length) {
+            int newLength = slotMost.length * 2;
+            slotMost = Arrays.copyOf(slotMost, newLength);
+            slotLeast = Arrays.copyOf(slotLeast, newLength);
+        }
+        slotMost[slot] = most;
+        slotLeast[slot] = least;
+
+        hashMost[index] = most;
+        hashLeast[index] = least;
+        hashSlots[index] = slot + 1;
+
+        // Mantener el factor de carga por debajo de 0.5
+        if (size * 2 > hashSlots.length) {
+            rehash(hashSlots.length * 2);
+        }
+        return slot;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] newMost = new long[newCapacity];
+        long[] newLeast = new long[newCapacity];
+        int[] newSlots = new int[newCapacity];
+        int mask = newCapacity - 1;
+
+        for (int slot = 0; slot < size; slot++) {
+            long most = slotMost[slot];
+            long least = slotLeast[slot];
+            int index = hash(most, least) & mask;
+            while (newSlots[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            newMost[index] = most;
+            newLeast[index] = least;
+            newSlots[index] = slot + 1;
+        }
+
+        hashMost = newMost;
+        hashLeast = newLeast;
+        hashSlots = newSlots;
+    }
+
+    // Obtiene o crea la columna de una moneda; requiere el bloqueo de escritura
+    private Column columnFor(String currencyId) {
+        Column column = columns.get(currencyId);
+        if (column == null) {
+            column = new Column(slotMost.length);
+            columns.put(currencyId, column);
+        }
+        return column;
+    }
+
+    /**
+     * Visitante para recorrer los saldos de una moneda
+     */
+    @FunctionalInterface
+    public interface BalanceVisitor {
+        void visit(UUID playerUUID, double balance);
+    }
+
+    /**
+     * Receptor de cambios de saldo; recibe el UUID como dos long para no crear objetos
+     */
+    @FunctionalInterface
+    public interface MutationListener {
+        void onBalanceChanged(long uuidMost, long uuidLeast, String currencyId, double balance);
+    }
+
+    /**
+     * Copia inmutable de los saldos de una moneda
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class ColumnSnapshot {
+        private final long[] uuidMost;
+        private final long[] uuidLeast;
+        private final double[] balances;
+
+        public int size() {
+            return balances.length;
+        }
+    }
+
+    /**
+     * Saldos de una moneda indexados por slot
+     */
+    private static final class Column {
+
+        private double[] values;
+        private long[] present;
+        private int count;
+
+        private Column(int capacity) {
+            this.values = new double[capacity];
+            this.present = new long[(capacity + 63) >>> 6];
+        }
+
+        private boolean isPresent(int slot) {
+            int word = slot >>> 6;
+            return word < present.length && (present[word] & (1L << slot)) != 0;
+        }
+
+        private void put(int slot, double value) {
+            if (slot >= values.length) {
+                int newLength = Math.max(values.length * 2, slot + 1);
+                values = Arrays.copyOf(values, newLength);
+                present = Arrays.copyOf(present, (newLength + 63) >>> 6);
+            }
+            int word = slot >>> 6;
+            long bit = 1L << slot;
+            if ((present[word] & bit) == 0) {
+                present[word] |= bit;
+                count++;
+            }
+            values[slot] = value;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.spectrasonic.MythicEconomy.database.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Motor de persistencia del sistema interno: snapshot binario compacto + journal de cambios.
+ *
+ * Cada cambio de saldo se anexa al journal de la generación actual. Periódicamente (y al guardar)
+ * se compacta: se rota el journal a una generación nueva en el mismo instante en que se copia el
+ * estado del almacén, se escribe el snapshot con esa generación y se borran los journals anteriores.
+ * Al arrancar se carga el snapshot y se reproducen los journals de su generación en adelante.
+ */
+public class FileBalanceStorage {
+
+    private static final String SNAPSHOT_FILE = "balances.snapshot";
+    private static final String JOURNAL_PREFIX = "journal-";
+    private static final String JOURNAL_SUFFIX = ".log";
+
+    private final Path directory;
+    private final Path snapshotFile;
+    private final BalanceStore balanceStore;
+    private final Map<UUID, String> playerNames;
+    private final Logger logger;
+    private final BalanceJournal journal;
+    private final long journalFlushIntervalMillis;
+    private final long snapshotIntervalMillis;
+    private final long maxJournalBytes;
+
+    // Serializa las compactaciones (periódica, por tamaño y al guardar)
+    private final Object compactLock = new Object();
+
+    private ScheduledExecutorService executor;
+    private long generation;
+
+    public FileBalanceStorage(File dataFolder, BalanceStore balanceStore, Map<UUID, String> playerNames, Logger logger,
+            long journalFlushIntervalMillis, long snapshotIntervalMillis, long maxJournalBytes, boolean fsync) {
+        this.directory = dataFolder.toPath().resolve("data");
+        this.snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        this.balanceStore = balanceStore;
+        this.playerNames = playerNames;
+        this.logger = logger;
+        this.journal = new BalanceJournal(logger, fsync);
+        this.journalFlushIntervalMillis = Math.max(10L, journalFlushIntervalMillis);
+        this.snapshotIntervalMillis = Math.max(60_000L, snapshotIntervalMillis);
+        this.maxJournalBytes = Math.max(1L << 20, maxJournalBytes);
+    }
+
+    /**
+     * Carga el snapshot y reproduce los journals pendientes en el almacén.
+     * @return true si no existían datos binarios previos (almacén vacío, candidato a importación)
+     */
+    public boolean load() throws IOException {
+        Files.createDirectories(directory);
+
+        BalanceJournal.RecordHandler loader = new BalanceJournal.RecordHandler() {
+            @Override
+            public void onBalance(UUID playerUUID, String currencyId, double balance) {
+                balanceStore.set(playerUUID, currencyId, balance);
+            }
+
+            @Override
+            public void onName(UUID playerUUID, String playerName) {
+                playerNames.put(playerUUID, playerName);
+            }
+        };
+
+        boolean hasSnapshot = Files.exists(snapshotFile);
+        long snapshotGeneration = 0L;
+        if (hasSnapshot) {
+            try {
+                snapshotGeneration = BalanceSnapshot.read(snapshotFile, loader);
+                logger.info("Snapshot de saldos cargado (generación " + snapshotGeneration + ", "
+                        + balanceStore.uniquePlayers() + " cuentas)");
+            } catch (IOException e) {
+                // Sin snapshot válido solo se pueden reproducir los journals disponibles
+                logger.severe("Snapshot de saldos dañado (" + e.getMessage() + "), se reconstruye desde los journals");
+                Files.move(snapshotFile, snapshotFile.resolveSibling(SNAPSHOT_FILE + ".corrupt-" + System.currentTimeMillis()));
+                hasSnapshot = false;
+            }
+        }
+
+        List<Path> journals = listJournals();
+        long lastGeneration = snapshotGeneration;
+        int replayed = 0;
+        for (Path journalFile : journals) {
+            long journalGeneration = BalanceJournal.readGeneration(journalFile);
+            if (journalGeneration < 0) {
+                logger.warning("Journal de saldos sin cabecera válida, se ignora: " + journalFile.getFileName());
+                continue;
+            }
+            if (hasSnapshot && journalGeneration < snapshotGeneration) {
+                // Ya incluido en el snapshot (cierre entre la escritura del snapshot y el borrado)
+                Files.deleteIfExists(journalFile);
+                continue;
+            }
+            replayed += BalanceJournal.replay(journalFile, loader, logger);
+            lastGeneration = Math.max(lastGeneration, journalGeneration);
+        }
+
+        if (replayed > 0) {
+            logger.info("Reproducidos " + replayed + " cambios del journal de saldos");
+        }
+
+        this.generation = lastGeneration;
+        return !hasSnapshot && journals.isEmpty();
+    }
+
+    /**
+     * Empieza a registrar cambios: compacta lo cargado en un snapshot nuevo y arranca
+     * el hilo que escribe el journal y programa las compactaciones periódicas.
+     */
+    public void start() throws IOException {
+        compact();
+        balanceStore.setMutationListener(journal::appendBalance);
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MythicEconomy-Journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushJournal, journalFlushIntervalMillis, journalFlushIntervalMillis, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::compactQuietly, snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registra el nombre de un jugador en el journal
+     */
+    public void recordName(UUID playerUUID, String playerName) {
+        journal.appendName(playerUUID, playerName);
+    }
+
+    /**
+     * Escribe un snapshot con el estado actual y descarta los journals que ya incluye
+     */
+    public void compact() throws IOException {
+        synchronized (compactLock) {
+            long newGeneration = generation + 1;
+            Path newJournal = journalFile(newGeneration);
+
+            // El archivo nuevo se crea y sincroniza antes de bloquear el almacén; en el límite del snapshot solo
+            // se cambia de buffer, y el cierre con fsync del journal anterior se hace ya sin el bloqueo
+            BalanceJournal.PreparedJournal prepared = journal.prepareRotation(newJournal, newGeneration);
+            Map<String, BalanceStore.ColumnSnapshot> balances;
+            try {
+                balances = balanceStore.capture(() -> journal.switchTo(prepared));
+            } catch (RuntimeException e) {
+                prepared.discard();
+                throw e;
+            }
+            journal.completeRotation();
+
+            BalanceSnapshot.write(snapshotFile, newGeneration, balances, new HashMap<>(playerNames));
+            generation = newGeneration;
+
+            for (Path journalFile : listJournals()) {
+                long journalGeneration = BalanceJournal.readGeneration(journalFile);
+                if (journalGeneration >= 0 && journalGeneration < newGeneration) {
+                    Files.deleteIfExists(journalFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Detiene el hilo del journal, escribe lo pendiente y deja un snapshot final
+     */
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executor = null;
+        }
+        compactQuietly();
+        balanceStore.setMutationListener(null);
+        journal.close();
+    }
+
+    private void flushJournal() {
+        journal.flush();
+        if (journal.size() > maxJournalBytes) {
+            compactQuietly();
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException e) {
+            logger.severe("Error al escribir el snapshot de saldos: " + e.getMessage());
+        }
+    }
+
+    private Path journalFile(long journalGeneration) {
+        return directory.resolve(JOURNAL_PREFIX + journalGeneration + JOURNAL_SUFFIX);
+    }
+
+    // Journals del directorio ordenados por generación
+    private List<Path> listJournals() throws IOException {
+        List<Path> journals = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, JOURNAL_PREFIX + "*" + JOURNAL_SUFFIX)) {
+            for (Path path : stream) {
+                journals.add(path);
+            }
+        }
+        journals.sort((a, b) -> Long.compare(generationOf(a), generationOf(b)));
+        return journals;
+    }
+
+    private static long generationOf(Path journalFile) {
+        String name = journalFile.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(JOURNAL_PREFIX.length(), name.length() - JOURNAL_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.spectrasonic.MythicEconomy.database.storage;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Importador de un solo uso del antiguo playerdata.yml al almacén binario.
+ * Lee tanto el formato multi-moneda (currencies.<id>.players.<uuid>.balance)
+ * como el formato antiguo de una sola moneda (players.<uuid>.balance).
+ */
+public final class LegacyYamlImporter {
+
+    private LegacyYamlImporter() {
+    }
+
+    /**
+     * Copia todos los saldos del YAML al almacén
+     * @return número de saldos importados
+     */
+    public static int importInto(FileConfiguration dataConfig, BalanceStore balanceStore, Logger logger) {
+        int imported = 0;
+
+        ConfigurationSection currencies = dataConfig.getConfigurationSection("currencies");
+        if (currencies != null) {
+            for (String currencyId : currencies.getKeys(false)) {
+                ConfigurationSection players = currencies.getConfigurationSection(currencyId + ".players");
+                if (players == null) {
+                    continue;
+                }
+                for (String uuidString : players.getKeys(false)) {
+                    imported += importBalance(balanceStore, currencyId, uuidString,
+                            players.getDouble(uuidString + ".balance", 0.0), logger);
+                }
+            }
+        }
+
+        // Formato antiguo de una sola moneda; no sobrescribe lo que ya venga del formato multi-moneda
+        ConfigurationSection legacyPlayers = dataConfig.getConfigurationSection("players");
+        if (legacyPlayers != null) {
+            for (String uuidString : legacyPlayers.getKeys(false)) {
+                UUID uuid = parseUUID(uuidString, logger);
+                if (uuid != null && !balanceStore.contains(uuid, "default")) {
+                    balanceStore.set(uuid, "default", legacyPlayers.getDouble(uuidString + ".balance", 0.0));
+                    imported++;
+                }
+            }
+        }
+
+        return imported;
+    }
+
+    private static int importBalance(BalanceStore balanceStore, String currencyId, String uuidString, double balance, Logger logger) {
+        UUID uuid = parseUUID(uuidString, logger);
+        if (uuid == null) {
+            return 0;
+        }
+        balanceStore.set(uuid, currencyId, balance);
+        return 1;
+    }
+
+    private static UUID parseUUID(String uuidString, Logger logger) {
+        try {
+            return UUID.fromString(uuidString);
+        } catch (IllegalArgumentException e) {
+            logger.warning("UUID inválido en playerdata.yml, se omite: " + uuidString);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.spectrasonic.MythicEconomy.leaderboard;
+
+import com.spectrasonic.MythicEconomy.leaderboard.LeaderboardCache.LeaderboardEntry;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Top-N acotado de una moneda que se mantiene con los cambios de saldo en lugar de re-consultar la base de datos.
+ *
+ * La ventana contiene las N cuentas más ricas. Un cambio dentro de la ventana o que supera a la última posición
+ * se aplica en memoria. Solo cuando una cuenta de la ventana baja por debajo de la última posición se desconoce
+ * quién ocupa su hueco (puede ser una cuenta de fuera); en ese caso la cuenta sale de la ventana y se marca
+ * la moneda para reconciliar con la base de datos.
+ */
+final class IncrementalLeaderboard {
+
+    private static final LeaderboardEntry[] EMPTY = new LeaderboardEntry[0];
+
+    // Mayor saldo primero; a igualdad de saldo, orden estable por UUID
+    private static final Comparator<Slot> RANKING_ORDER = Comparator
+            .comparingDouble((Slot slot) -> slot.balance).reversed()
+            .thenComparing(slot -> slot.uuid);
+
+    private final int capacity;
+    private final Function<UUID, String> nameResolver;
+    private final TreeSet<Slot> ranking = new TreeSet<>(RANKING_ORDER);
+    private final Map<UUID, Slot> slots = new HashMap<>();
+
+    // Cambios recibidos mientras se consulta la base de datos; se reaplican sobre el resultado
+    private final Map<UUID, Double> changesDuringReload = new LinkedHashMap<>();
+
+    // true si la última carga devolvió menos de N cuentas: la ventana contiene todas las cuentas
+    private boolean complete;
+    private boolean needsReconcile;
+    private boolean reloading;
+
+    // Copia inmutable de la ventana para lecturas sin bloqueo desde los placeholders
+    private volatile LeaderboardEntry[] snapshot = EMPTY;
+
+    IncrementalLeaderboard(int capacity, Function<UUID, String> nameResolver) {
+        this.capacity = capacity;
+        this.nameResolver = nameResolver;
+    }
+
+    /**
+     * Marca el inicio de una consulta a la base de datos
+     */
+    synchronized void beginReload() {
+        reloading = true;
+        changesDuringReload.clear();
+    }
+
+    /**
+     * Sustituye la ventana por el resultado de getTopBalancesWithNames y reaplica los cambios recibidos durante la consulta
+     */
+    synchronized void load(Object[][] topBalances) {
+        ranking.clear();
+        slots.clear();
+
+        for (Object[] row : topBalances) {
+            if (row.length < 3 || row[0] == null) {
+                continue;
+            }
+            UUID uuid;
+            try {
+                uuid = UUID.fromString((String) row[0]);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            Slot slot = new Slot(uuid, (String) row[1], ((Number) row[2]).doubleValue());
+            ranking.add(slot);
+            slots.put(uuid, slot);
+        }
+
+        complete = topBalances.length < capacity;
+        needsReconcile = false;
+        reloading = false;
+
+        for (Map.Entry<UUID, Double> change : changesDuringReload.entrySet()) {
+            apply(change.getKey(), change.getValue());
+        }
+        changesDuringReload.clear();
+        publish();
+    }
+
+    /**
+     * Cancela una consulta fallida sin tocar la ventana actual
+     */
+    synchronized void abortReload() {
+        reloading = false;
+        changesDuringReload.clear();
+        needsReconcile = true;
+    }
+
+    /**
+     * Aplica el saldo resultante de un cambio
+     */
+    synchronized void update(UUID uuid, double balance) {
+        if (reloading) {
+            changesDuringReload.put(uuid, balance);
+        }
+        if (apply(uuid, balance)) {
+            publish();
+        }
+    }
+
+    /**
+     * Completa el nombre de una cuenta de la ventana que entró sin él
+     */
+    synchronized void updateName(UUID uuid, String name) {
+        Slot slot = slots.get(uuid);
+        if (slot != null && !name.equals(slot.name)) {
+            slot.name = name;
+            publish();
+        }
+    }
+
+    synchronized boolean needsReconcile() {
+        return needsReconcile;
+    }
+
+    LeaderboardEntry get(int position) {
+        LeaderboardEntry[] entries = snapshot;
+        return position >= 1 && position <= entries.length ? entries[position - 1] : null;
+    }
+
+    int size() {
+        return snapshot.length;
+    }
+
+    // Devuelve true si la ventana cambió
+    private boolean apply(UUID uuid, double balance) {
+        Slot slot = slots.get(uuid);
+
+        if (slot != null) {
+            ranking.remove(slot);
+            slot.balance = balance;
+            if (complete || ranking.isEmpty() || RANKING_ORDER.compare(slot, ranking.last()) < 0) {
+                ranking.add(slot);
+            } else {
+                // Cae por debajo de la ventana: el hueco puede corresponder a una cuenta de fuera
+                slots.remove(uuid);
+                needsReconcile = true;
+            }
+            return true;
+        }
+
+        // Con cuentas fuera de la ventana, solo entra quien supera a la última posición conocida
+        Slot candidate = new Slot(uuid, null, balance);
+        if (!complete && (ranking.isEmpty() || RANKING_ORDER.compare(candidate, ranking.last()) > 0)) {
+            return false;
+        }
+
+        // Se llama con el bloqueo de la cuenta tomado: el resolvedor solo mira memoria y puede devolver null
+        slot = new Slot(uuid, nameResolver.apply(uuid), balance);
+        ranking.add(slot);
+        slots.put(uuid, slot);
+
+        if (ranking.size() > capacity) {
+            // La última posición sale de la ventana; a partir de aquí hay cuentas fuera
+            Slot evicted = ranking.pollLast();
+            slots.remove(evicted.uuid);
+            complete = false;
+        }
+        return true;
+    }
+
+    private void publish() {
+        LeaderboardEntry[] entries = new LeaderboardEntry[ranking.size()];
+        int i = 0;
+        for (Slot slot : ranking) {
+            entries[i++] = new LeaderboardEntry(slot.uuid.toString(),
+                    slot.name != null ? slot.name : LeaderboardCache.UNKNOWN_NAME, slot.balance);
+        }
+        snapshot = entries;
+    }
+
+    private static final class Slot {
+
+        private final UUID uuid;
+        // null mientras el nombre se busca fuera del bloqueo
+        private String name;
+        private double balance;
+
+        private Slot(UUID uuid, String name, double balance) {
+            this.uuid = uuid;
+            this.name = name;
+            this.balance = balance;
+        }
+    }
+}
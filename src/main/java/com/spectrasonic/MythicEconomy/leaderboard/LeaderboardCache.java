@@ -1,43 +1,59 @@
 package com.spectrasonic.MythicEconomy.leaderboard;
 
 import com.spectrasonic.MythicEconomy.Main;
+import com.spectrasonic.MythicEconomy.manager.BalanceChangeListener;
 import com.spectrasonic.MythicEconomy.manager.CurrencyManager;
 import com.spectrasonic.MythicEconomy.manager.EconomyManager;
+import com.spectrasonic.MythicEconomy.manager.EconomyManagerAsync;
+import com.spectrasonic.MythicEconomy.metrics.EconomyMetrics;
 import com.spectrasonic.MythicEconomy.models.Currency;
+import com.spectrasonic.MythicEconomy.utils.MoneyFormatter;
 import lombok.Getter;
 import org.bukkit.Bukkit;
 import org.bukkit.scheduler.BukkitTask;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Sistema de cache para leaderboards de economía que se actualiza automáticamente cada segundo
- * Proporciona acceso rápido a los datos de ranking sin consultar directamente la base de datos
+ * Sistema de cache para leaderboards de economía que se mantiene con los cambios de saldo
+ * notificados por EconomyManager/EconomyManagerAsync. El top solo se vuelve a consultar cuando una cuenta
+ * sale de la ventana o aparece una moneda nueva, y siempre a través del proveedor con caché, que incluye
+ * los saldos en memoria aún sin volcar. Los cambios que no pasan por los managers (ediciones externas
+ * de la base de datos) se recogen con la siguiente reconciliación o con clearCache
  */
-public class LeaderboardCache {
-    
+public class LeaderboardCache implements BalanceChangeListener {
+
+    // Nombre que se muestra mientras el real se busca en segundo plano
+    static final String UNKNOWN_NAME = "Unknown";
+
     private final Main plugin;
     private final EconomyManager economyManager;
     private final CurrencyManager currencyManager;
     
-    // Cache principal: currencyId -> posición -> [playerName, balance]
-    private final Map<String, Map<Integer, LeaderboardEntry>> leaderboardCache;
+    // Cache principal: currencyId -> top-N incremental
+    private final Map<String, IncrementalLeaderboard> leaderboardCache;
     
     // Cache para nombres de jugadores: UUID -> playerName
     private final Map<String, String> playerNameCache;
+
+    // Cuentas cuyo nombre se está buscando fuera del bloqueo
+    private final Set<UUID> pendingNameLookups = ConcurrentHashMap.newKeySet();
     
-    // Tarea programada para actualización automática
+    // Tarea programada para reconciliación
     private BukkitTask updateTask;
     
     // Configuración
     private final int cacheSize; // Cuántos jugadores mantener en cache por moneda
-    private final long updateIntervalTicks; // Intervalo de actualización en ticks
+    private final long updateIntervalTicks; // Intervalo de revisión en ticks
     
     // Para detectar nuevas monedas
     private Set<String> lastKnownCurrencies;
+
+    private final AtomicLong reconciliations = new AtomicLong();
     
     @Getter
     private boolean isRunning = false;
@@ -56,26 +72,33 @@ public class LeaderboardCache {
     }
     
     /**
-     * Inicia el sistema de cache y la actualización automática
+     * Inicia el sistema de cache y la reconciliación periódica
      */
     public void start() {
         if (isRunning) {
             return;
         }
 
+        // Escuchar cambios antes de la carga inicial para no perder los que ocurran durante ella
+        economyManager.addBalanceChangeListener(this);
+        EconomyManagerAsync asyncManager = EconomyManagerAsync.getInstance();
+        if (asyncManager != null) {
+            asyncManager.addBalanceChangeListener(this);
+        }
+
         // Carga inicial de datos de forma síncrona para evitar problemas durante startup
-        refreshAllLeaderboardsSynchronously();
+        refreshAllLeaderboards(true);
 
-        // Programar actualización automática
+        // Programar reconciliación: solo consulta la base de datos para las monedas que lo necesitan
         updateTask = Bukkit.getScheduler().runTaskTimerAsynchronously(
             plugin,
-            this::refreshAllLeaderboards,
+            () -> refreshAllLeaderboards(false),
             updateIntervalTicks,
             updateIntervalTicks
         );
 
         isRunning = true;
-        plugin.getLogger().info("LeaderboardCache iniciado - Actualizando cada " + (updateIntervalTicks / 20) + " segundos");
+        plugin.getLogger().info("LeaderboardCache iniciado - Reconciliando cada " + (updateIntervalTicks / 20) + " segundos");
     }
     
     /**
@@ -90,90 +113,31 @@ public class LeaderboardCache {
             updateTask.cancel();
             updateTask = null;
         }
+
+        economyManager.removeBalanceChangeListener(this);
+        EconomyManagerAsync asyncManager = EconomyManagerAsync.getInstance();
+        if (asyncManager != null) {
+            asyncManager.removeBalanceChangeListener(this);
+        }
         
         isRunning = false;
         plugin.getLogger().info("LeaderboardCache detenido");
     }
-    
-    /**
-     * Refresca todos los leaderboards de forma síncrona (para inicialización)
-     */
-    private void refreshAllLeaderboardsSynchronously() {
-        try {
-            // Obtener monedas actuales habilitadas
-            Set<String> currentCurrencies = ConcurrentHashMap.newKeySet();
-            for (Currency currency : currencyManager.getEnabledCurrencies()) {
-                currentCurrencies.add(currency.getId());
-            }
-
-            // Detectar nuevas monedas
-            for (String currencyId : currentCurrencies) {
-                if (!lastKnownCurrencies.contains(currencyId)) {
-                    plugin.getLogger().info("Nueva moneda detectada en leaderboard: " + currencyId);
-                }
-                refreshLeaderboardSynchronously(currencyId);
-            }
-
-            // Limpiar cache de monedas que ya no existen
-            for (String oldCurrency : lastKnownCurrencies) {
-                if (!currentCurrencies.contains(oldCurrency)) {
-                    leaderboardCache.remove(oldCurrency);
-                    plugin.getLogger().info("Moneda removida del leaderboard: " + oldCurrency);
-                }
-            }
-
-            // Actualizar lista de monedas conocidas
-            lastKnownCurrencies.clear();
-            lastKnownCurrencies.addAll(currentCurrencies);
-
-        } catch (Exception e) {
-            plugin.getLogger().warning("Error al actualizar leaderboards: " + e.getMessage());
-        }
-    }
-
-    /**
-     * Refresca el leaderboard para una moneda específica de forma síncrona
-     */
-    private void refreshLeaderboardSynchronously(String currencyId) {
-        try {
-            // Obtener top jugadores desde la base de datos de forma síncrona
-            Object[][] topBalances = economyManager.getTopBalancesWithNames(currencyId, cacheSize);
-
-            // Crear mapa para esta moneda
-            Map<Integer, LeaderboardEntry> currencyLeaderboard = new HashMap<>();
 
-            // Procesar resultados
-            for (int i = 0; i < topBalances.length; i++) {
-                Object[] entry = topBalances[i];
-                if (entry.length >= 3) {
-                    String playerUuid = (String) entry[0];
-                    String playerName = (String) entry[1];
-                    Double balance = (Double) entry[2];
-
-                    // Guardar en cache
-                    LeaderboardEntry leaderboardEntry = new LeaderboardEntry(playerUuid, playerName, balance);
-                    currencyLeaderboard.put(i + 1, leaderboardEntry); // Posición empieza en 1
-
-                    // Actualizar cache de nombres
-                    if (playerUuid != null && playerName != null) {
-                        playerNameCache.put(playerUuid, playerName);
-                    }
-                }
-            }
-
-            // Actualizar cache principal
-            leaderboardCache.put(currencyId, currencyLeaderboard);
-
-        } catch (Exception e) {
-            plugin.getLogger().warning("Error al refrescar leaderboard para " + currencyId + ": " + e.getMessage());
+    @Override
+    public void onBalanceChange(UUID playerUUID, String currencyId, double newBalance) {
+        IncrementalLeaderboard leaderboard = leaderboardCache.get(currencyId);
+        if (leaderboard != null) {
+            leaderboard.update(playerUUID, newBalance);
         }
     }
 
     /**
-     * Refresca todos los leaderboards para todas las monedas habilitadas
-     * Detecta automáticamente nuevas monedas y las agrega al sistema
+     * Revisa todas las monedas habilitadas. Detecta automáticamente nuevas monedas y las agrega al sistema;
+     * las monedas ya cargadas solo se consultan si su ventana necesita reconciliarse
+     * @param forceAll consulta todas las monedas aunque no lo necesiten
      */
-    private void refreshAllLeaderboards() {
+    private void refreshAllLeaderboards(boolean forceAll) {
         try {
             // Obtener monedas actuales habilitadas
             Set<String> currentCurrencies = ConcurrentHashMap.newKeySet();
@@ -183,10 +147,15 @@ public class LeaderboardCache {
             
             // Detectar nuevas monedas
             for (String currencyId : currentCurrencies) {
-                if (!lastKnownCurrencies.contains(currencyId)) {
-                    plugin.getLogger().info("Nueva moneda detectada en leaderboard: " + currencyId);
+                IncrementalLeaderboard leaderboard = leaderboardCache.get(currencyId);
+                if (leaderboard == null) {
+                    if (!lastKnownCurrencies.contains(currencyId)) {
+                        plugin.getLogger().info("Nueva moneda detectada en leaderboard: " + currencyId);
+                    }
+                    refreshLeaderboard(currencyId);
+                } else if (forceAll || leaderboard.needsReconcile()) {
+                    refreshLeaderboard(currencyId);
                 }
-                refreshLeaderboard(currencyId);
             }
             
             // Limpiar cache de monedas que ya no existen
@@ -207,43 +176,69 @@ public class LeaderboardCache {
     }
     
     /**
-     * Refresca el leaderboard para una moneda específica
+     * Vuelve a cargar el leaderboard de una moneda desde la base de datos
      * @param currencyId ID de la moneda
      */
     public void refreshLeaderboard(String currencyId) {
+        IncrementalLeaderboard leaderboard = leaderboardCache.computeIfAbsent(currencyId,
+                id -> new IncrementalLeaderboard(cacheSize, this::resolvePlayerName));
+        leaderboard.beginReload();
+
         try {
             // Obtener top jugadores desde la base de datos
             Object[][] topBalances = economyManager.getTopBalancesWithNames(currencyId, cacheSize);
             
-            // Crear mapa para esta moneda
-            Map<Integer, LeaderboardEntry> currencyLeaderboard = new HashMap<>();
-            
-            // Procesar resultados
-            for (int i = 0; i < topBalances.length; i++) {
-                Object[] entry = topBalances[i];
-                if (entry.length >= 3) {
-                    String playerUuid = (String) entry[0];
-                    String playerName = (String) entry[1];
-                    Double balance = (Double) entry[2];
-                    
-                    // Guardar en cache
-                    LeaderboardEntry leaderboardEntry = new LeaderboardEntry(playerUuid, playerName, balance);
-                    currencyLeaderboard.put(i + 1, leaderboardEntry); // Posición empieza en 1
-                    
-                    // Actualizar cache de nombres
-                    if (playerUuid != null && playerName != null) {
-                        playerNameCache.put(playerUuid, playerName);
-                    }
+            // Actualizar cache de nombres
+            for (Object[] entry : topBalances) {
+                if (entry.length >= 3 && entry[0] != null && entry[1] != null) {
+                    playerNameCache.put((String) entry[0], (String) entry[1]);
                 }
             }
-            
-            // Actualizar cache principal
-            leaderboardCache.put(currencyId, currencyLeaderboard);
+
+            leaderboard.load(topBalances);
+            reconciliations.incrementAndGet();
             
         } catch (Exception e) {
+            leaderboard.abortReload();
             plugin.getLogger().warning("Error al refrescar leaderboard para " + currencyId + ": " + e.getMessage());
         }
     }
+
+    // Nombre para cuentas que entran al top por un cambio de saldo. Se llama con el bloqueo de la cuenta tomado,
+    // así que solo consulta memoria; si no lo encuentra devuelve null (se muestra UNKNOWN_NAME) y lo busca aparte
+    private String resolvePlayerName(UUID playerUUID) {
+        String name = playerNameCache.get(playerUUID.toString());
+        if (name == null) {
+            name = economyManager.getPlayerNameIndex().getName(playerUUID);
+            if (name != null) {
+                playerNameCache.put(playerUUID.toString(), name);
+            }
+        }
+        EconomyMetrics.get().recordCacheAccess(EconomyMetrics.CACHE_LEADERBOARD_NAMES, name != null);
+
+        if (name == null && plugin.isEnabled() && pendingNameLookups.add(playerUUID)) {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> lookUpPlayerName(playerUUID));
+        }
+        return name;
+    }
+
+    // Busca en la base de datos o en Bukkit un nombre que no estaba en memoria y lo completa en los tops
+    private void lookUpPlayerName(UUID playerUUID) {
+        try {
+            String name = economyManager.resolvePlayerName(playerUUID);
+            if (name == null || name.equals(UNKNOWN_NAME)) {
+                return;
+            }
+            playerNameCache.put(playerUUID.toString(), name);
+            for (IncrementalLeaderboard leaderboard : leaderboardCache.values()) {
+                leaderboard.updateName(playerUUID, name);
+            }
+        } catch (Exception e) {
+            plugin.getLogger().warning("Error al obtener el nombre de " + playerUUID + " para el leaderboard: " + e.getMessage());
+        } finally {
+            pendingNameLookups.remove(playerUUID);
+        }
+    }
     
     /**
      * Obtiene el nombre del jugador en una posición específica del leaderboard
@@ -252,12 +247,7 @@ public class LeaderboardCache {
      * @return Nombre del jugador o "N/A" si no existe
      */
     public String getPlayerName(String currencyId, int position) {
-        Map<Integer, LeaderboardEntry> currencyLeaderboard = leaderboardCache.get(currencyId);
-        if (currencyLeaderboard == null) {
-            return "N/A";
-        }
-        
-        LeaderboardEntry entry = currencyLeaderboard.get(position);
+        LeaderboardEntry entry = getEntry(currencyId, position);
         return entry != null ? entry.getPlayerName() : "N/A";
     }
     
@@ -268,12 +258,7 @@ public class LeaderboardCache {
      * @return Balance formateado o "N/A" si no existe
      */
     public String getPlayerBalance(String currencyId, int position) {
-        Map<Integer, LeaderboardEntry> currencyLeaderboard = leaderboardCache.get(currencyId);
-        if (currencyLeaderboard == null) {
-            return "N/A";
-        }
-        
-        LeaderboardEntry entry = currencyLeaderboard.get(position);
+        LeaderboardEntry entry = getEntry(currencyId, position);
         if (entry == null) {
             return "N/A";
         }
@@ -285,7 +270,7 @@ public class LeaderboardCache {
         }
         
         // Formato por defecto
-        return String.format("%.2f", entry.getBalance());
+        return MoneyFormatter.formatFixed(entry.getBalance(), 2);
     }
     
     /**
@@ -295,12 +280,7 @@ public class LeaderboardCache {
      * @return Balance como número o 0.0 si no existe
      */
     public double getPlayerBalanceRaw(String currencyId, int position) {
-        Map<Integer, LeaderboardEntry> currencyLeaderboard = leaderboardCache.get(currencyId);
-        if (currencyLeaderboard == null) {
-            return 0.0;
-        }
-        
-        LeaderboardEntry entry = currencyLeaderboard.get(position);
+        LeaderboardEntry entry = getEntry(currencyId, position);
         return entry != null ? entry.getBalance() : 0.0;
     }
     
@@ -311,23 +291,26 @@ public class LeaderboardCache {
      * @return UUID del jugador o null si no existe
      */
     public String getPlayerUuid(String currencyId, int position) {
-        Map<Integer, LeaderboardEntry> currencyLeaderboard = leaderboardCache.get(currencyId);
-        if (currencyLeaderboard == null) {
-            return null;
-        }
-        
-        LeaderboardEntry entry = currencyLeaderboard.get(position);
+        LeaderboardEntry entry = getEntry(currencyId, position);
         return entry != null ? entry.getPlayerUuid() : null;
     }
     
+    // Entrada de una posición del ranking, o null si no está en la caché
+    private LeaderboardEntry getEntry(String currencyId, int position) {
+        IncrementalLeaderboard currencyLeaderboard = leaderboardCache.get(currencyId);
+        LeaderboardEntry entry = currencyLeaderboard != null ? currencyLeaderboard.get(position) : null;
+        EconomyMetrics.get().recordCacheAccess(EconomyMetrics.CACHE_LEADERBOARD, entry != null);
+        return entry;
+    }
+
     /**
      * Verifica si una moneda tiene datos en cache
      * @param currencyId ID de la moneda
      * @return true si hay datos disponibles
      */
     public boolean hasCurrencyData(String currencyId) {
-        Map<Integer, LeaderboardEntry> currencyLeaderboard = leaderboardCache.get(currencyId);
-        return currencyLeaderboard != null && !currencyLeaderboard.isEmpty();
+        IncrementalLeaderboard currencyLeaderboard = leaderboardCache.get(currencyId);
+        return currencyLeaderboard != null && currencyLeaderboard.size() > 0;
     }
     
     /**
@@ -340,7 +323,8 @@ public class LeaderboardCache {
         stats.append("- Monedas en cache: ").append(leaderboardCache.size()).append("\n");
         stats.append("- Nombres en cache: ").append(playerNameCache.size()).append("\n");
         stats.append("- Tamaño por moneda: ").append(cacheSize).append("\n");
-        stats.append("- Intervalo actualización: ").append(updateIntervalTicks / 20).append(" segundos\n");
+        stats.append("- Intervalo reconciliación: ").append(updateIntervalTicks / 20).append(" segundos\n");
+        stats.append("- Consultas a la base de datos: ").append(reconciliations.get()).append("\n");
         stats.append("- Estado: ").append(isRunning ? "Activo" : "Inactivo");
         
         return stats.toString();
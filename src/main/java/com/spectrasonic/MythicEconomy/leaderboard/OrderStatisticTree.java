@@ -0,0 +1,371 @@
+package com.spectrasonic.MythicEconomy.leaderboard;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Árbol de estadísticos de orden (treap) con los saldos de una moneda.
+ *
+ * Cada nodo guarda el tamaño de su subárbol, así que tanto la posición de una cuenta como
+ * la cuenta que ocupa una posición se obtienen recorriendo una sola rama: O(log n) esperado.
+ * El orden es el del ranking: mayor saldo primero y, a igualdad, por UUID.
+ *
+ * Los nodos son índices en arreglos primitivos (UUID, saldo, prioridad, tamaño e hijos), como los slots
+ * de BalanceStore, y una tabla hash de direccionamiento abierto localiza el nodo de cada UUID. El saldo
+ * de una cuenta solo se guarda en su nodo y actualizarlo no crea objetos.
+ */
+final class OrderStatisticTree {
+
+    private static final int NIL = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Nodos por índice
+    private long[] uuidMost = new long[INITIAL_CAPACITY];
+    private long[] uuidLeast = new long[INITIAL_CAPACITY];
+    private double[] balances = new double[INITIAL_CAPACITY];
+    private int[] priorities = new int[INITIAL_CAPACITY];
+    private int[] sizes = new int[INITIAL_CAPACITY];
+    private int[] left = new int[INITIAL_CAPACITY];
+    private int[] right = new int[INITIAL_CAPACITY];
+
+    // Índices usados alguna vez; los nodos eliminados se reutilizan encadenados por right
+    private int allocated;
+    private int freeList = NIL;
+    private int count;
+    private int root = NIL;
+
+    // UUID -> nodo + 1 (0 = hueco libre), con factor de carga por debajo de 0.5
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+
+    // Resultado de split: claves antes y desde la clave de corte
+    private int splitLow;
+    private int splitHigh;
+
+    /**
+     * Inserta o actualiza el saldo de una cuenta
+     */
+    synchronized void put(UUID uuid, double balance) {
+        int node = find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        if (node == NIL) {
+            insertNew(uuid, balance);
+            return;
+        }
+        if (balances[node] == balance) {
+            return;
+        }
+        root = delete(root, balances[node], uuidMost[node], uuidLeast[node]);
+        balances[node] = balance;
+        reset(node);
+        root = insert(root, node);
+    }
+
+    /**
+     * Inserta la cuenta solo si aún no está en el árbol
+     * @return true si se insertó
+     */
+    synchronized boolean putIfAbsent(UUID uuid, double balance) {
+        if (find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()) != NIL) {
+            return false;
+        }
+        insertNew(uuid, balance);
+        return true;
+    }
+
+    synchronized void remove(UUID uuid) {
+        long most = uuid.getMostSignificantBits();
+        long least = uuid.getLeastSignificantBits();
+        int node = find(most, least);
+        if (node == NIL) {
+            return;
+        }
+        root = delete(root, balances[node], most, least);
+        unindex(most, least);
+        right[node] = freeList;
+        freeList = node;
+        count--;
+    }
+
+    synchronized boolean contains(UUID uuid) {
+        return find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()) != NIL;
+    }
+
+    /**
+     * Posición (1 = más rico) de una cuenta, o -1 si no está en el árbol
+     */
+    synchronized int rankOf(UUID uuid) {
+        long most = uuid.getMostSignificantBits();
+        long least = uuid.getLeastSignificantBits();
+        int target = find(most, least);
+        if (target == NIL) {
+            return -1;
+        }
+
+        double balance = balances[target];
+        int before = 0;
+        int node = root;
+        while (node != NIL) {
+            int cmp = compare(balance, most, least, node);
+            if (cmp < 0) {
+                node = left[node];
+            } else {
+                before += size(left[node]);
+                if (cmp == 0) {
+                    return before + 1;
+                }
+                before++;
+                node = right[node];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Saldo de la cuenta en una posición (1 = más rico), o NaN si la posición no existe
+     */
+    synchronized double balanceAt(int position) {
+        int node = select(position);
+        return node != NIL ? balances[node] : Double.NaN;
+    }
+
+    /**
+     * UUID de la cuenta en una posición (1 = más rico), o null si la posición no existe
+     */
+    synchronized UUID uuidAt(int position) {
+        int node = select(position);
+        return node != NIL ? new UUID(uuidMost[node], uuidLeast[node]) : null;
+    }
+
+    synchronized int size() {
+        return count;
+    }
+
+    synchronized void clear() {
+        Arrays.fill(table, 0);
+        allocated = 0;
+        freeList = NIL;
+        count = 0;
+        root = NIL;
+    }
+
+    private int select(int position) {
+        if (position < 1 || position > size(root)) {
+            return NIL;
+        }
+
+        int remaining = position;
+        int node = root;
+        while (node != NIL) {
+            int leftSize = size(left[node]);
+            if (remaining <= leftSize) {
+                node = left[node];
+            } else if (remaining == leftSize + 1) {
+                return node;
+            } else {
+                remaining -= leftSize + 1;
+                node = right[node];
+            }
+        }
+        return NIL;
+    }
+
+    // ========== NODOS ==========
+
+    private void insertNew(UUID uuid, double balance) {
+        int node = allocate();
+        uuidMost[node] = uuid.getMostSignificantBits();
+        uuidLeast[node] = uuid.getLeastSignificantBits();
+        balances[node] = balance;
+        priorities[node] = ThreadLocalRandom.current().nextInt();
+        reset(node);
+        index(node);
+        count++;
+        root = insert(root, node);
+    }
+
+    private int allocate() {
+        if (freeList != NIL) {
+            int node = freeList;
+            freeList = right[node];
+            return node;
+        }
+        if (allocated == uuidMost.length) {
+            int newLength = uuidMost.length * 2;
+            uuidMost = Arrays.copyOf(uuidMost, newLength);
+            uuidLeast = Arrays.copyOf(uuidLeast, newLength);
+            balances = Arrays.copyOf(balances, newLength);
+            priorities = Arrays.copyOf(priorities, newLength);
+            sizes = Arrays.copyOf(sizes, newLength);
+            left = Arrays.copyOf(left, newLength);
+            right = Arrays.copyOf(right, newLength);
+        }
+        return allocated++;
+    }
+
+    // Deja un nodo como hoja suelta antes de insertarlo
+    private void reset(int node) {
+        sizes[node] = 1;
+        left[node] = NIL;
+        right[node] = NIL;
+    }
+
+    // ========== OPERACIONES DEL TREAP ==========
+
+    // Negativo si (balance, uuid) va antes que el nodo en el ranking; el desempate es el de UUID.compareTo
+    private int compare(double balance, long most, long least, int node) {
+        int cmp = Double.compare(balances[node], balance);
+        if (cmp != 0) {
+            return cmp;
+        }
+        cmp = Long.compare(most, uuidMost[node]);
+        return cmp != 0 ? cmp : Long.compare(least, uuidLeast[node]);
+    }
+
+    private int insert(int node, int inserted) {
+        if (node == NIL) {
+            return inserted;
+        }
+        if (priorities[inserted] > priorities[node]) {
+            split(node, balances[inserted], uuidMost[inserted], uuidLeast[inserted]);
+            left[inserted] = splitLow;
+            right[inserted] = splitHigh;
+            return update(inserted);
+        }
+        if (compare(balances[inserted], uuidMost[inserted], uuidLeast[inserted], node) < 0) {
+            left[node] = insert(left[node], inserted);
+        } else {
+            right[node] = insert(right[node], inserted);
+        }
+        return update(node);
+    }
+
+    private int delete(int node, double balance, long most, long least) {
+        if (node == NIL) {
+            return NIL;
+        }
+        int cmp = compare(balance, most, least, node);
+        if (cmp == 0) {
+            return merge(left[node], right[node]);
+        }
+        if (cmp < 0) {
+            left[node] = delete(left[node], balance, most, least);
+        } else {
+            right[node] = delete(right[node], balance, most, least);
+        }
+        return update(node);
+    }
+
+    // Divide en splitLow (claves antes de (balance, uuid)) y splitHigh (claves desde (balance, uuid))
+    private void split(int node, double balance, long most, long least) {
+        if (node == NIL) {
+            splitLow = NIL;
+            splitHigh = NIL;
+            return;
+        }
+        if (compare(balance, most, least, node) > 0) {
+            split(right[node], balance, most, least);
+            right[node] = splitLow;
+            splitLow = update(node);
+        } else {
+            split(left[node], balance, most, least);
+            left[node] = splitHigh;
+            splitHigh = update(node);
+        }
+    }
+
+    private int merge(int low, int high) {
+        if (low == NIL) {
+            return high;
+        }
+        if (high == NIL) {
+            return low;
+        }
+        if (priorities[low] > priorities[high]) {
+            right[low] = merge(right[low], high);
+            return update(low);
+        }
+        left[high] = merge(low, left[high]);
+        return update(high);
+    }
+
+    private int update(int node) {
+        sizes[node] = 1 + size(left[node]) + size(right[node]);
+        return node;
+    }
+
+    private int size(int node) {
+        return node != NIL ? sizes[node] : 0;
+    }
+
+    // ========== TABLA HASH UUID -> NODO ==========
+
+    private static int hash(long most, long least) {
+        long h = most ^ least;
+        h ^= (h >>> 32);
+        h *= 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 29));
+    }
+
+    // Nodo de un UUID, o NIL si no está
+    private int find(long most, long least) {
+        int mask = table.length - 1;
+        for (int index = hash(most, least) & mask; ; index = (index + 1) & mask) {
+            int stored = table[index];
+            if (stored == 0) {
+                return NIL;
+            }
+            if (uuidMost[stored - 1] == most && uuidLeast[stored - 1] == least) {
+                return stored - 1;
+            }
+        }
+    }
+
+    private void index(int node) {
+        if ((count + 1) * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        int mask = table.length - 1;
+        int index = hash(uuidMost[node], uuidLeast[node]) & mask;
+        while (table[index] != 0) {
+            index = (index + 1) & mask;
+        }
+        table[index] = node + 1;
+    }
+
+    // Borra un UUID de la tabla desplazando hacia atrás las entradas siguientes de su secuencia de sondeo
+    private void unindex(long most, long least) {
+        int mask = table.length - 1;
+        int hole = hash(most, least) & mask;
+        while (uuidMost[table[hole] - 1] != most || uuidLeast[table[hole] - 1] != least) {
+            hole = (hole + 1) & mask;
+        }
+        table[hole] = 0;
+
+        for (int index = (hole + 1) & mask; table[index] != 0; index = (index + 1) & mask) {
+            int node = table[index] - 1;
+            int home = hash(uuidMost[node], uuidLeast[node]) & mask;
+            // La entrada se mueve al hueco si su posición ideal no está entre el hueco y ella
+            if (((index - home) & mask) >= ((index - hole) & mask)) {
+                table[hole] = table[index];
+                table[index] = 0;
+                hole = index;
+            }
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        int[] newTable = new int[newCapacity];
+        int mask = newCapacity - 1;
+        for (int stored : table) {
+            if (stored == 0) {
+                continue;
+            }
+            int index = hash(uuidMost[stored - 1], uuidLeast[stored - 1]) & mask;
+            while (newTable[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            newTable[index] = stored;
+        }
+        table = newTable;
+    }
+}
@@ -0,0 +1,133 @@
+package com.spectrasonic.MythicEconomy.leaderboard;
+
+import com.spectrasonic.MythicEconomy.Main;
+import com.spectrasonic.MythicEconomy.manager.BalanceChangeListener;
+import com.spectrasonic.MythicEconomy.manager.EconomyManager;
+import com.spectrasonic.MythicEconomy.manager.EconomyManagerAsync;
+import com.spectrasonic.MythicEconomy.models.Currency;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice de posiciones por moneda para los placeholders de ranking.
+ *
+ * Se carga una vez con todos los saldos y después se mantiene con los cambios que notifican
+ * EconomyManager/EconomyManagerAsync, así que "posición de X" y "saldo en la posición N"
+ * no necesitan ordenar todas las cuentas en cada consulta.
+ */
+public class RankIndex implements BalanceChangeListener {
+
+    private final Main plugin;
+    private final EconomyManager economyManager;
+
+    // currencyId -> árbol de estadísticos de orden
+    private final Map<String, OrderStatisticTree> trees = new ConcurrentHashMap<>();
+
+    @Getter
+    private boolean isRunning = false;
+
+    public RankIndex(Main plugin) {
+        this.plugin = plugin;
+        this.economyManager = plugin.getEconomyManager();
+    }
+
+    /**
+     * Empieza a escuchar cambios y carga los saldos existentes en segundo plano
+     */
+    public void start() {
+        if (isRunning) {
+            return;
+        }
+
+        // Escuchar primero: los saldos notificados durante la carga son más recientes que los leídos
+        economyManager.addBalanceChangeListener(this);
+        EconomyManagerAsync asyncManager = EconomyManagerAsync.getInstance();
+        if (asyncManager != null) {
+            asyncManager.addBalanceChangeListener(this);
+        }
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, this::loadAll);
+        isRunning = true;
+    }
+
+    public void stop() {
+        if (!isRunning) {
+            return;
+        }
+
+        economyManager.removeBalanceChangeListener(this);
+        EconomyManagerAsync asyncManager = EconomyManagerAsync.getInstance();
+        if (asyncManager != null) {
+            asyncManager.removeBalanceChangeListener(this);
+        }
+
+        trees.clear();
+        isRunning = false;
+    }
+
+    @Override
+    public void onBalanceChange(UUID playerUUID, String currencyId, double newBalance) {
+        tree(currencyId).put(playerUUID, newBalance);
+    }
+
+    /**
+     * Posición de un jugador en una moneda (1 = más rico).
+     * Las cuentas que aún no están indexadas (p. ej. recién creadas) se añaden con su saldo actual
+     */
+    public int getRank(Player player, String currencyId) {
+        OrderStatisticTree tree = tree(currencyId);
+        UUID uuid = player.getUniqueId();
+        if (!tree.contains(uuid)) {
+            tree.putIfAbsent(uuid, economyManager.getBalance(player, currencyId));
+        }
+        return tree.rankOf(uuid);
+    }
+
+    /**
+     * Saldo en una posición del ranking, o NaN si no hay tantas cuentas
+     */
+    public double getBalanceAt(String currencyId, int position) {
+        return tree(currencyId).balanceAt(position);
+    }
+
+    /**
+     * UUID de la cuenta en una posición del ranking, o null si no hay tantas cuentas
+     */
+    public UUID getPlayerAt(String currencyId, int position) {
+        return tree(currencyId).uuidAt(position);
+    }
+
+    /**
+     * Número de cuentas indexadas en una moneda
+     */
+    public int size(String currencyId) {
+        OrderStatisticTree tree = trees.get(currencyId);
+        return tree != null ? tree.size() : 0;
+    }
+
+    private OrderStatisticTree tree(String currencyId) {
+        return trees.computeIfAbsent(currencyId, id -> new OrderStatisticTree());
+    }
+
+    private void loadAll() {
+        for (Currency currency : economyManager.getCurrencyManager().getEnabledCurrencies()) {
+            try {
+                Object[][] balances = economyManager.getDataProvider().getTopBalances(currency.getId(), Integer.MAX_VALUE);
+                OrderStatisticTree tree = tree(currency.getId());
+                for (Object[] row : balances) {
+                    if (row.length >= 2 && row[0] != null) {
+                        tree.putIfAbsent(UUID.fromString((String) row[0]), ((Number) row[1]).doubleValue());
+                    }
+                }
+                plugin.getLogger().info("Índice de ranking cargado para " + currency.getId() + ": " + tree.size() + " cuentas");
+            } catch (Exception e) {
+                plugin.getLogger().warning("Error al cargar el índice de ranking para " + currency.getId() + ": " + e.getMessage());
+            }
+        }
+    }
+}
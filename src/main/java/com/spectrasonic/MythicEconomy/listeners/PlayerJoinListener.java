@@ -4,50 +4,77 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 
+import com.spectrasonic.MythicEconomy.database.CachingEconomyDataProvider;
 import com.spectrasonic.MythicEconomy.manager.EconomyManager;
-import com.spectrasonic.MythicEconomy.manager.CurrencyManager;
-import com.spectrasonic.MythicEconomy.models.Currency;
 
 import lombok.RequiredArgsConstructor;
 
+import java.util.UUID;
+
 /**
  * Listener para manejar eventos de entrada de jugadores
  * Asegura que los jugadores se creen correctamente en la base de datos
+ * y que sus saldos estén en memoria antes de que entren al servidor
  */
 @RequiredArgsConstructor
 public class PlayerJoinListener implements Listener {
 
     private final EconomyManager economyManager;
 
+    // La pre-conexión ya se ejecuta fuera del hilo principal y el servidor espera a que termine antes de
+    // dejar entrar al jugador: la creación de monedas y la carga de la caché se hacen aquí
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+
+        UUID playerUUID = event.getUniqueId();
+        CachingEconomyDataProvider balanceCache = economyManager.getBalanceCache();
+        boolean expected = balanceCache != null && balanceCache.expectPlayer(playerUUID);
+
+        try {
+            economyManager.loadPlayer(playerUUID, event.getName());
+        } catch (Exception e) {
+            economyManager.getPlugin().getLogger().warning("Error al precargar al jugador " + event.getName() + ": " + e.getMessage());
+            // Se volverá a intentar al entrar
+            if (expected) {
+                balanceCache.cancelExpectedPlayer(playerUUID);
+            }
+        }
+    }
+
+    // Si la entrada se deniega después de la pre-conexión (lista blanca, servidor lleno...), liberar la precarga
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLogin(PlayerLoginEvent event) {
+        CachingEconomyDataProvider balanceCache = economyManager.getBalanceCache();
+        if (balanceCache != null && event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            balanceCache.cancelExpectedPlayer(event.getPlayer().getUniqueId());
+        }
+    }
+
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
-        
-        // Ejecutar de forma asíncrona para no bloquear el hilo principal
+
+        // Mantener sus saldos en memoria mientras esté conectado
+        CachingEconomyDataProvider balanceCache = economyManager.getBalanceCache();
+        if (balanceCache == null || balanceCache.trackPlayer(player.getUniqueId())) {
+            // Datos ya preparados en la pre-conexión
+            return;
+        }
+
+        // La precarga no llegó a completarse: cargar ahora de forma asíncrona para no bloquear el hilo principal
         org.bukkit.Bukkit.getScheduler().runTaskAsynchronously(economyManager.getPlugin(), () -> {
             try {
-                // Actualizar el nombre del jugador en la base de datos primero
-                economyManager.updatePlayerName(player.getUniqueId(), player.getName());
-                
-                // Solo si usa base de datos externa, asegurarse de que el jugador exista
-                if (economyManager.isUsingMySQL()) {
-                    // Usar el método optimizado para MySQL
-                    com.spectrasonic.MythicEconomy.database.MySQLEconomyProvider mysqlProvider =
-                        (com.spectrasonic.MythicEconomy.database.MySQLEconomyProvider) economyManager.getDataProvider();
-                    mysqlProvider.ensurePlayerExists(player.getUniqueId());
-                } else if (economyManager.isUsingMongoDB()) {
-                    // Para MongoDB, crear el jugador para todas las monedas habilitadas
-                    CurrencyManager currencyManager = economyManager.getCurrencyManager();
-                    for (Currency currency : currencyManager.getEnabledCurrencies()) {
-                        economyManager.getDataProvider().createPlayer(player.getUniqueId(), currency.getId());
-                    }
-                }
-                
+                economyManager.loadPlayer(player.getUniqueId(), player.getName());
             } catch (Exception e) {
                 economyManager.getPlugin().getLogger().warning("Error al procesar entrada del jugador " + player.getName() + ": " + e.getMessage());
             }
         });
     }
-}
\ No newline at end of file
+}
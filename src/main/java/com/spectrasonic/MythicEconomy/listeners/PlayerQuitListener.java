@@ -0,0 +1,44 @@
+package com.spectrasonic.MythicEconomy.listeners;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import com.spectrasonic.MythicEconomy.database.CachingEconomyDataProvider;
+import com.spectrasonic.MythicEconomy.manager.EconomyManager;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Listener para manejar eventos de salida de jugadores
+ * Vuelca los saldos en memoria del jugador al proveedor de datos y los libera
+ */
+@RequiredArgsConstructor
+public class PlayerQuitListener implements Listener {
+
+    private final EconomyManager economyManager;
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        CachingEconomyDataProvider balanceCache = economyManager.getBalanceCache();
+        if (balanceCache == null) {
+            return;
+        }
+
+        Player player = event.getPlayer();
+        // La sesión se toma ahora: si el jugador vuelve a entrar antes de que corra la tarea, no se libera la nueva
+        long session = balanceCache.getSession(player.getUniqueId());
+
+        // Ejecutar de forma asíncrona para no bloquear el hilo principal
+        Bukkit.getScheduler().runTaskAsynchronously(economyManager.getPlugin(), () -> {
+            try {
+                balanceCache.releasePlayer(player.getUniqueId(), session);
+            } catch (Exception e) {
+                economyManager.getPlugin().getLogger().warning("Error al procesar salida del jugador " + player.getName() + ": " + e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,173 @@
+package com.spectrasonic.MythicEconomy.manager;
+
+import com.spectrasonic.MythicEconomy.metrics.EconomyMetrics;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bloqueos por cuenta (jugador + moneda) repartidos en un número fijo de franjas.
+ *
+ * Hacen atómicas las secuencias leer saldo, validar y modificar de EconomyManager sin un bloqueo global:
+ * operaciones sobre cuentas distintas solo coinciden si caen en la misma franja, y las de una misma cuenta
+ * se ejecutan de una en una. Cuando una operación necesita varias cuentas las franjas se toman siempre
+ * en orden ascendente, así que dos transferencias cruzadas no pueden bloquearse entre sí.
+ * Son reentrantes: un oyente que vuelve a operar sobre la misma cuenta desde el mismo hilo no se bloquea.
+ */
+public final class AccountLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    /**
+     * @param stripes número de franjas; se redondea a la siguiente potencia de dos
+     */
+    public AccountLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Número de franjas
+     */
+    public int size() {
+        return stripes.length;
+    }
+
+    // ========== UNA CUENTA ==========
+
+    /**
+     * Ejecuta la acción con la cuenta bloqueada
+     */
+    public boolean withLock(UUID playerUUID, String currencyId, BooleanSupplier action) {
+        int stripe = stripeOf(playerUUID, currencyId);
+        lock(stripe);
+        try {
+            return action.getAsBoolean();
+        } finally {
+            stripes[stripe].unlock();
+        }
+    }
+
+    public void withLock(UUID playerUUID, String currencyId, Runnable action) {
+        int stripe = stripeOf(playerUUID, currencyId);
+        lock(stripe);
+        try {
+            action.run();
+        } finally {
+            stripes[stripe].unlock();
+        }
+    }
+
+    // ========== VARIAS CUENTAS ==========
+
+    /**
+     * Ejecuta la acción con las cuentas de ambos jugadores bloqueadas
+     */
+    public boolean withLocks(UUID firstUUID, UUID secondUUID, String currencyId, BooleanSupplier action) {
+        int first = stripeOf(firstUUID, currencyId);
+        int second = stripeOf(secondUUID, currencyId);
+        if (first == second) {
+            lock(first);
+            try {
+                return action.getAsBoolean();
+            } finally {
+                stripes[first].unlock();
+            }
+        }
+
+        int low = Math.min(first, second);
+        int high = Math.max(first, second);
+        lock(low);
+        try {
+            lock(high);
+            try {
+                return action.getAsBoolean();
+            } finally {
+                stripes[high].unlock();
+            }
+        } finally {
+            stripes[low].unlock();
+        }
+    }
+
+    /**
+     * Ejecuta la acción con las cuentas de todos los jugadores bloqueadas (operaciones masivas)
+     */
+    public <T> T withLocks(Collection<UUID> playerUUIDs, String currencyId, Supplier<T> action) {
+        int[] order = stripesOf(playerUUIDs, currencyId);
+        int locked = 0;
+        try {
+            for (int stripe : order) {
+                lock(stripe);
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[order[i]].unlock();
+            }
+        }
+    }
+
+    public void withLocks(Collection<UUID> playerUUIDs, String currencyId, Runnable action) {
+        withLocks(playerUUIDs, currencyId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // ========== FRANJAS ==========
+
+    private int stripeOf(UUID playerUUID, String currencyId) {
+        long bits = playerUUID.getMostSignificantBits() ^ playerUUID.getLeastSignificantBits();
+        int h = (int) (bits ^ (bits >>> 32)) * 31 + currencyId.hashCode();
+        // Mezcla los bits altos: los UUID v4 y los hashCode de String concentran la variación en sitios distintos
+        h *= 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    // Franjas distintas de todas las cuentas, en orden ascendente
+    private int[] stripesOf(Collection<UUID> playerUUIDs, String currencyId) {
+        if (playerUUIDs.size() >= stripes.length) {
+            // Con tantas cuentas es más barato tomar todas las franjas que ordenarlas
+            int[] all = new int[stripes.length];
+            Arrays.setAll(all, i -> i);
+            return all;
+        }
+
+        int[] order = new int[playerUUIDs.size()];
+        int count = 0;
+        for (UUID playerUUID : playerUUIDs) {
+            order[count++] = stripeOf(playerUUID, currencyId);
+        }
+        Arrays.sort(order);
+
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || order[distinct - 1] != order[i]) {
+                order[distinct++] = order[i];
+            }
+        }
+        return Arrays.copyOf(order, distinct);
+    }
+
+    // Solo se mide la espera cuando la franja está ocupada; sin contención no se lee el reloj
+    private void lock(int stripe) {
+        ReentrantLock lock = stripes[stripe];
+        if (lock.tryLock()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        lock.lock();
+        EconomyMetrics.get().recordPoolWait(EconomyMetrics.POOL_ACCOUNT_LOCK, startNanos);
+    }
+}
@@ -0,0 +1,171 @@
+package com.spectrasonic.MythicEconomy.manager;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import com.spectrasonic.MythicEconomy.api.events.BalanceChangeBatchEvent;
+import com.spectrasonic.MythicEconomy.api.events.BalanceChangeBatchEvent.BalanceChange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Acumula los cambios de saldo de EconomyManager y EconomyManagerAsync y los entrega como
+ * BalanceChangeBatchEvent en lotes periódicos desde un hilo asíncrono.
+ *
+ * Solo se suscribe a los gestores mientras el evento tiene oyentes: sin ninguno, las modificaciones
+ * no pagan ni la lectura del saldo final ni el encolado. La suscripción se revisa en cada ciclo,
+ * así que un oyente registrado más tarde empieza a recibir cambios en el siguiente intervalo.
+ */
+public class BalanceChangeBatcher implements BalanceChangeListener {
+
+    // Tiempo máximo que se espera a que se entregue el último lote al detener el plugin
+    private static final long FINAL_FLUSH_TIMEOUT_MS = 5_000L;
+
+    private final JavaPlugin plugin;
+    private final EconomyManager economyManager;
+    private final long intervalTicks;
+    private final int maxBatchSize;
+    private final int maxPending;
+
+    private final Queue<BalanceChange> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+
+    private BukkitTask flushTask;
+    // Solo lo modifica la tarea de volcado (o stop, con la tarea ya cancelada)
+    private volatile boolean subscribed;
+
+    public BalanceChangeBatcher(JavaPlugin plugin, EconomyManager economyManager) {
+        FileConfiguration config = plugin.getConfig();
+        this.plugin = plugin;
+        this.economyManager = economyManager;
+        this.intervalTicks = Math.max(1L, config.getLong("events.batch.interval", 20L));
+        this.maxBatchSize = Math.max(1, config.getInt("events.batch.max-size", 1000));
+        this.maxPending = Math.max(maxBatchSize, config.getInt("events.batch.max-pending", 100_000));
+    }
+
+    public void start() {
+        if (flushTask != null) {
+            return;
+        }
+        flushTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::flush, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * Detiene la tarea periódica y entrega los cambios que quedaban pendientes
+     */
+    public void stop() {
+        if (flushTask == null) {
+            return;
+        }
+        flushTask.cancel();
+        flushTask = null;
+        unsubscribe();
+
+        if (pendingCount.get() == 0) {
+            return;
+        }
+
+        // Un evento asíncrono no se puede disparar desde el hilo principal
+        if (!Bukkit.isPrimaryThread()) {
+            deliverPending();
+            return;
+        }
+        Thread finalFlush = new Thread(this::deliverPending, "MythicEconomy-BalanceChangeBatch");
+        finalFlush.start();
+        try {
+            finalFlush.join(FINAL_FLUSH_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void onBalanceChange(UUID playerUUID, String currencyId, double newBalance) {
+        if (pendingCount.incrementAndGet() > maxPending) {
+            pendingCount.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        pending.add(new BalanceChange(playerUUID, currencyId, newBalance, System.currentTimeMillis()));
+    }
+
+    // ========== ENTREGA ==========
+
+    private void flush() {
+        try {
+            if (BalanceChangeBatchEvent.getHandlerList().getRegisteredListeners().length == 0) {
+                // Lo que quedara encolado ya no tiene a quién entregarse
+                unsubscribe();
+                discardPending();
+                return;
+            }
+
+            subscribe();
+            deliverPending();
+        } catch (Exception e) {
+            plugin.getLogger().warning("Error al entregar cambios de saldo por lotes: " + e.getMessage());
+        }
+    }
+
+    private void deliverPending() {
+        // Se entrega como mucho lo que había al empezar, para no perseguir indefinidamente a los productores
+        int remaining = pendingCount.get();
+        while (remaining > 0) {
+            List<BalanceChange> batch = new ArrayList<>(Math.min(remaining, maxBatchSize));
+            BalanceChange change;
+            while (batch.size() < maxBatchSize && (change = pending.poll()) != null) {
+                batch.add(change);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            pendingCount.addAndGet(-batch.size());
+            remaining -= batch.size();
+
+            Bukkit.getPluginManager().callEvent(new BalanceChangeBatchEvent(batch, dropped.sumThenReset()));
+        }
+    }
+
+    private void discardPending() {
+        BalanceChange change;
+        while ((change = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+        }
+        dropped.reset();
+    }
+
+    // ========== SUSCRIPCIÓN ==========
+
+    private void subscribe() {
+        if (subscribed) {
+            return;
+        }
+        economyManager.addBalanceChangeListener(this);
+        EconomyManagerAsync asyncManager = EconomyManagerAsync.getInstance();
+        if (asyncManager != null) {
+            asyncManager.addBalanceChangeListener(this);
+        }
+        subscribed = true;
+    }
+
+    private void unsubscribe() {
+        if (!subscribed) {
+            return;
+        }
+        economyManager.removeBalanceChangeListener(this);
+        EconomyManagerAsync asyncManager = EconomyManagerAsync.getInstance();
+        if (asyncManager != null) {
+            asyncManager.removeBalanceChangeListener(this);
+        }
+        subscribed = false;
+    }
+}
@@ -0,0 +1,13 @@
+package com.spectrasonic.MythicEconomy.manager;
+
+import java.util.UUID;
+
+/**
+ * Recibe el saldo resultante cada vez que EconomyManager o EconomyManagerAsync modifican una cuenta.
+ * Se invoca en el hilo que realizó el cambio, así que las implementaciones deben ser rápidas y seguras entre hilos.
+ */
+@FunctionalInterface
+public interface BalanceChangeListener {
+
+    void onBalanceChange(UUID playerUUID, String currencyId, double newBalance);
+}
@@ -0,0 +1,428 @@
+package com.spectrasonic.MythicEconomy.manager;
+
+import com.spectrasonic.MythicEconomy.models.Bank;
+import com.spectrasonic.MythicEconomy.models.Currency;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Bancos y cuentas de sistema: cuentas con nombre que reciben el dinero de impuestos, tiendas o subastas.
+ *
+ * Todas las operaciones sobre un banco pasan por aquí, así que sus saldos viven en memoria y se guardan en
+ * banks.yml junto con el registro de bancos, no en el proveedor de datos: así no cuentan como jugadores en
+ * los rankings, las posiciones ni las estadísticas. Por eso son locales a cada servidor y, con una base de datos
+ * externa, EconomyManager solo los activa si banks.allow-with-external-database lo permite. El archivo solo se reescribe en el guardado periódico
+ * si algún saldo cambió, o al crear, eliminar o modificar un banco. Los depósitos no toman ningún
+ * bloqueo: se acumulan en un LongAdder, que reparte las sumas concurrentes en celdas distintas, y se
+ * consolidan con el saldo al guardar o cuando una retirada necesita conocer el saldo exacto. Así miles
+ * de depósitos por segundo en la misma cuenta no compiten entre sí.
+ *
+ * Los saldos se llevan en diezmilésimas para que los depósitos acumulados sumen sin error de redondeo.
+ * Los bancos no tienen saldo máximo: comprobarlo obligaría a serializar los depósitos.
+ */
+public class BankManager {
+
+    // Diezmilésimas por unidad de moneda
+    private static final long UNITS_PER_COIN = 10_000L;
+    private static final Pattern NAME_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+
+    private final JavaPlugin plugin;
+    private final EconomyManager economyManager;
+    private final File banksFile;
+    private final long saveIntervalTicks;
+
+    // Clave del banco -> banco y saldos
+    private final Map<String, BankAccount> accounts = new ConcurrentHashMap<>();
+    // Serializa las escrituras de banks.yml: guardados periódicos, el final y los cambios del registro
+    private final Object saveLock = new Object();
+
+    private BukkitTask saveTask;
+
+    public BankManager(JavaPlugin plugin, EconomyManager economyManager) {
+        FileConfiguration config = plugin.getConfig();
+        this.plugin = plugin;
+        this.economyManager = economyManager;
+        this.banksFile = new File(plugin.getDataFolder(), "banks.yml");
+        this.saveIntervalTicks = Math.max(1L, config.getLong("banks.save-interval", 100L));
+
+        loadBanks();
+        for (String name : config.getStringList("banks.system-accounts")) {
+            if (!isValidName(name)) {
+                plugin.getLogger().warning("Nombre de cuenta de sistema no válido: " + name);
+            } else if (!accounts.containsKey(Bank.keyOf(name))) {
+                register(new Bank(name, null, true, List.of()));
+                saveBanks();
+            }
+        }
+    }
+
+    public void start() {
+        if (saveTask != null) {
+            return;
+        }
+        saveTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::saveBalances,
+                saveIntervalTicks, saveIntervalTicks);
+    }
+
+    /**
+     * Detiene el guardado periódico y escribe los saldos pendientes
+     */
+    public void shutdown() {
+        if (saveTask != null) {
+            saveTask.cancel();
+            saveTask = null;
+        }
+        saveBalances();
+    }
+
+    // ========== REGISTRO ==========
+
+    public static boolean isValidName(String name) {
+        return name != null && NAME_PATTERN.matcher(name).matches();
+    }
+
+    /**
+     * Crea un banco sin saldo
+     * @param owner propietario, o null para una cuenta de sistema
+     * @return el banco creado, o null si el nombre no es válido o ya existe
+     */
+    public Bank createBank(String name, UUID owner) {
+        if (!isValidName(name)) {
+            return null;
+        }
+
+        Bank bank = new Bank(name, owner, owner == null, List.of());
+        BankAccount account = new BankAccount(bank);
+        if (accounts.putIfAbsent(bank.getKey(), account) != null) {
+            return null;
+        }
+        saveBanks();
+        return bank;
+    }
+
+    /**
+     * Elimina un banco junto con sus saldos; el archivo se reescribe antes de volver, así que un banco
+     * creado después con el mismo nombre empieza sin saldo
+     * @return false si no existe o es una cuenta de sistema
+     */
+    public boolean deleteBank(String name) {
+        BankAccount account = accounts.get(Bank.keyOf(name));
+        if (account == null || account.bank.isSystem() || !accounts.remove(account.bank.getKey(), account)) {
+            return false;
+        }
+        saveBanks();
+        return true;
+    }
+
+    public Bank getBank(String name) {
+        BankAccount account = name != null ? accounts.get(Bank.keyOf(name)) : null;
+        return account != null ? account.bank : null;
+    }
+
+    public boolean hasBank(String name) {
+        return getBank(name) != null;
+    }
+
+    public List<Bank> getBanks() {
+        List<Bank> banks = new ArrayList<>(accounts.size());
+        accounts.values().forEach(account -> banks.add(account.bank));
+        return banks;
+    }
+
+    public List<String> getBankNames() {
+        List<String> names = new ArrayList<>(accounts.size());
+        accounts.values().forEach(account -> names.add(account.bank.getName()));
+        return names;
+    }
+
+    public boolean addMember(String name, UUID playerUUID) {
+        Bank bank = getBank(name);
+        if (bank == null || !bank.addMember(playerUUID)) {
+            return false;
+        }
+        saveBanks();
+        return true;
+    }
+
+    public boolean removeMember(String name, UUID playerUUID) {
+        Bank bank = getBank(name);
+        if (bank == null || !bank.removeMember(playerUUID)) {
+            return false;
+        }
+        saveBanks();
+        return true;
+    }
+
+    // ========== SALDOS ==========
+
+    /**
+     * Saldo del banco, incluidos los depósitos todavía sin consolidar
+     * @return saldo, o 0 si el banco o la moneda no existen
+     */
+    public double getBalance(String name, String currencyId) {
+        BankBalance balance = balanceOf(name, currencyId);
+        return balance != null ? toCoins(balance.get()) : 0.0;
+    }
+
+    public boolean has(String name, double amount, String currencyId) {
+        BankBalance balance = balanceOf(name, currencyId);
+        return balance != null && balance.get() >= toUnits(amount);
+    }
+
+    /**
+     * Deposita sin bloqueos ni E/S; el dinero se ve en el saldo al instante y se guarda en el siguiente ciclo
+     * @return false si el banco o la moneda no existen o la cantidad no es válida
+     */
+    public boolean deposit(String name, double amount, String currencyId) {
+        if (!isValidOperationAmount(amount, currencyId)) {
+            return false;
+        }
+        BankBalance balance = balanceOf(name, currencyId);
+        if (balance == null) {
+            return false;
+        }
+        balance.credit(toUnits(amount));
+        return true;
+    }
+
+    /**
+     * Retira si el saldo alcanza, contando los depósitos sin consolidar
+     * @return false si el banco o la moneda no existen, la cantidad no es válida o no hay saldo suficiente
+     */
+    public boolean withdraw(String name, double amount, String currencyId) {
+        if (!isValidOperationAmount(amount, currencyId)) {
+            return false;
+        }
+        BankBalance balance = balanceOf(name, currencyId);
+        return balance != null && balance.debit(toUnits(amount));
+    }
+
+    /**
+     * Fija el saldo del banco; los depósitos que no se habían consolidado se descartan
+     */
+    public boolean setBalance(String name, double amount, String currencyId) {
+        if (amount < 0 || !Double.isFinite(amount) || !isEnabledCurrency(currencyId)) {
+            return false;
+        }
+        BankBalance balance = balanceOf(name, currencyId);
+        if (balance == null) {
+            return false;
+        }
+        balance.set(toUnits(amount));
+        return true;
+    }
+
+    private boolean isValidOperationAmount(double amount, String currencyId) {
+        if (amount <= 0 || !Double.isFinite(amount)) {
+            return false;
+        }
+        Currency currency = economyManager.getCurrencyManager().getCurrency(currencyId);
+        // Límite por operación para que la suma en diezmilésimas no pueda desbordarse
+        return currency != null && currency.isEnabled() && amount <= currency.getMaxBalance();
+    }
+
+    private boolean isEnabledCurrency(String currencyId) {
+        Currency currency = economyManager.getCurrencyManager().getCurrency(currencyId);
+        return currency != null && currency.isEnabled();
+    }
+
+    private BankBalance balanceOf(String name, String currencyId) {
+        BankAccount account = name != null ? accounts.get(Bank.keyOf(name)) : null;
+        if (account == null || !isEnabledCurrency(currencyId)) {
+            return null;
+        }
+        return account.balanceOf(currencyId);
+    }
+
+    private static long toUnits(double amount) {
+        return Math.round(amount * UNITS_PER_COIN);
+    }
+
+    private static double toCoins(long units) {
+        return (double) units / UNITS_PER_COIN;
+    }
+
+    // ========== PERSISTENCIA ==========
+
+    /**
+     * Consolida los depósitos y reescribe banks.yml si algún saldo cambió desde el último guardado
+     */
+    public void saveBalances() {
+        save(false);
+    }
+
+    // Tras un cambio en el registro (crear, eliminar, miembros) el archivo se escribe siempre
+    private void saveBanks() {
+        save(true);
+    }
+
+    private void save(boolean force) {
+        synchronized (saveLock) {
+            YamlConfiguration config = new YamlConfiguration();
+            Map<BankBalance, Long> folded = new HashMap<>();
+            for (BankAccount account : accounts.values()) {
+                Bank bank = account.bank;
+                String path = "banks." + bank.getKey();
+                config.set(path + ".name", bank.getName());
+                if (bank.getOwner() != null) {
+                    config.set(path + ".owner", bank.getOwner().toString());
+                }
+                config.set(path + ".system", bank.isSystem());
+                config.set(path + ".members", bank.getMembers().stream().map(UUID::toString).toList());
+
+                account.balances.forEach((currencyId, balance) -> {
+                    long settled = balance.fold();
+                    folded.put(balance, settled);
+                    config.set(path + ".balances." + currencyId, toCoins(settled));
+                });
+            }
+
+            if (!force && folded.entrySet().stream().allMatch(entry -> entry.getKey().saved == entry.getValue())) {
+                return;
+            }
+
+            try {
+                writeAtomically(config.saveToString());
+                folded.forEach((balance, settled) -> balance.saved = settled);
+            } catch (IOException e) {
+                plugin.getLogger().severe("Error al guardar banks.yml: " + e.getMessage());
+            }
+        }
+    }
+
+    // Un fallo a mitad de escritura deja el banks.yml anterior intacto
+    private void writeAtomically(String content) throws IOException {
+        Path file = banksFile.toPath();
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temp, content, StandardCharsets.UTF_8);
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void loadBanks() {
+        if (!banksFile.exists()) {
+            return;
+        }
+
+        ConfigurationSection section = YamlConfiguration.loadConfiguration(banksFile).getConfigurationSection("banks");
+        if (section == null) {
+            return;
+        }
+
+        for (String key : section.getKeys(false)) {
+            ConfigurationSection bankSection = section.getConfigurationSection(key);
+            if (bankSection == null) {
+                continue;
+            }
+            try {
+                String ownerValue = bankSection.getString("owner");
+                List<UUID> members = new ArrayList<>();
+                for (String member : bankSection.getStringList("members")) {
+                    members.add(UUID.fromString(member));
+                }
+                Bank bank = new Bank(bankSection.getString("name", key),
+                        ownerValue != null ? UUID.fromString(ownerValue) : null,
+                        bankSection.getBoolean("system", ownerValue == null), members);
+
+                BankAccount account = register(bank);
+                ConfigurationSection balances = bankSection.getConfigurationSection("balances");
+                if (balances != null) {
+                    for (String currencyId : balances.getKeys(false)) {
+                        account.balances.put(currencyId, new BankBalance(toUnits(balances.getDouble(currencyId))));
+                    }
+                }
+            } catch (Exception e) {
+                plugin.getLogger().warning("Error al cargar el banco " + key + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Registra un banco todavía sin saldos
+    private BankAccount register(Bank bank) {
+        BankAccount account = new BankAccount(bank);
+        accounts.put(bank.getKey(), account);
+        return account;
+    }
+
+    // ========== CUENTAS ==========
+
+    private static final class BankAccount {
+        private final Bank bank;
+        private final Map<String, BankBalance> balances = new ConcurrentHashMap<>();
+
+        private BankAccount(Bank bank) {
+            this.bank = bank;
+        }
+
+        private BankBalance balanceOf(String currencyId) {
+            return balances.computeIfAbsent(currencyId, id -> new BankBalance(0L));
+        }
+    }
+
+    /**
+     * Saldo de un banco en una moneda: saldo consolidado más depósitos pendientes en un LongAdder.
+     * Los depósitos solo tocan el LongAdder; leer, retirar y consolidar toman el monitor del objeto
+     */
+    private static final class BankBalance {
+        private final LongAdder credits = new LongAdder();
+        private long settled;
+        // Último saldo escrito en banks.yml; solo lo actualiza el guardado, con saveLock
+        private long saved;
+
+        private BankBalance(long settled) {
+            this.settled = settled;
+            this.saved = settled;
+        }
+
+        private void credit(long units) {
+            credits.add(units);
+        }
+
+        private synchronized long get() {
+            return settled + credits.sum();
+        }
+
+        // sumThenReset toma cada celda con getAndSet: un depósito concurrente entra en esta suma o en la siguiente
+        private synchronized long fold() {
+            settled += credits.sumThenReset();
+            return settled;
+        }
+
+        private synchronized boolean debit(long units) {
+            if (fold() < units) {
+                return false;
+            }
+            settled -= units;
+            return true;
+        }
+
+        private synchronized void set(long units) {
+            credits.sumThenReset();
+            settled = units;
+        }
+    }
+}
@@ -5,36 +5,66 @@ import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.Bukkit;
+import org.bukkit.event.HandlerList;
 
 import com.spectrasonic.MythicEconomy.utils.MessageUtils;
+import com.spectrasonic.MythicEconomy.utils.MoneyFormatter;
+import com.spectrasonic.MythicEconomy.api.events.BulkMoneyAddEvent;
 import com.spectrasonic.MythicEconomy.api.events.MoneyAddEvent;
 import com.spectrasonic.MythicEconomy.api.events.MoneyRemoveEvent;
+import com.spectrasonic.MythicEconomy.api.events.MoneyTransferEvent;
+import com.spectrasonic.MythicEconomy.database.BalanceWriteException;
+import com.spectrasonic.MythicEconomy.database.CachingEconomyDataProvider;
 import com.spectrasonic.MythicEconomy.database.EconomyDataProvider;
+import com.spectrasonic.MythicEconomy.database.InstrumentedEconomyDataProvider;
 import com.spectrasonic.MythicEconomy.database.InternalEconomyProvider;
 import com.spectrasonic.MythicEconomy.database.MongoDBConnection;
 import com.spectrasonic.MythicEconomy.database.MongoDBEconomyProvider;
+import com.spectrasonic.MythicEconomy.database.MongoDBWalletEconomyProvider;
 import com.spectrasonic.MythicEconomy.database.MySQLAsyncConnection;
 import com.spectrasonic.MythicEconomy.database.MySQLConnection;
 import com.spectrasonic.MythicEconomy.database.MySQLEconomyProvider;
 import com.spectrasonic.MythicEconomy.database.MySQLEconomyProviderAsync;
+import com.spectrasonic.MythicEconomy.database.PlayerNameIndex;
+import com.spectrasonic.MythicEconomy.metrics.EconomyMetrics;
+import com.spectrasonic.MythicEconomy.metrics.Operation;
+import com.spectrasonic.MythicEconomy.metrics.OperationLayer;
+import com.spectrasonic.MythicEconomy.metrics.OperationTimers;
 import com.spectrasonic.MythicEconomy.models.Currency;
 
 import java.io.File;
-import java.io.IOException;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @SuppressWarnings("unused")
 public class EconomyManager {
 
+    private static final int ACCOUNT_LOCK_STRIPES = 1024;
+
     private static EconomyManager instance;
     public final JavaPlugin plugin;
     private EconomyDataProvider dataProvider;
+    // Proveedor real, sin la medición ni la caché que lo envuelven
+    private EconomyDataProvider backingProvider;
+    private CachingEconomyDataProvider balanceCache;
+    private BankManager bankManager;
+    private EconomyManagerAsync asyncManager;
+    private OperationTimers managerTimers;
     private MongoDBConnection mongoConnection;
     private MySQLConnection mysqlConnection;
     private MySQLAsyncConnection mysqlAsyncConnection;
     private CurrencyManager currencyManager;
+    private final List<BalanceChangeListener> balanceChangeListeners = new CopyOnWriteArrayList<>();
+    private final PlayerNameIndex playerNameIndex = new PlayerNameIndex();
+    // Serializa leer-validar-modificar por cuenta (jugador + moneda)
+    private final AccountLocks accountLocks = new AccountLocks(ACCOUNT_LOCK_STRIPES);
 
     // Configuración de respaldo para sistema interno
     public final Map<UUID, Double> playerBalances;
@@ -47,7 +77,8 @@ public class EconomyManager {
 
     public EconomyManager(JavaPlugin plugin) {
         this.plugin = plugin;
-        this.playerBalances = new HashMap<>();
+        // Se escribe desde la carga y desde createPlayer en hilos asíncronos
+        this.playerBalances = new ConcurrentHashMap<>();
 
         // Inicializar configuración
         this.loadConfiguration();
@@ -66,6 +97,21 @@ public class EconomyManager {
             dataProvider.load();
         }
 
+        // Medir las llamadas al almacenamiento (por debajo de la caché) si las métricas están habilitadas
+        this.initializeMetrics();
+
+        // Envolver el proveedor con la caché write-behind si está habilitada
+        this.initializeBalanceCache();
+
+        // Bancos y cuentas de sistema (sus saldos se guardan en banks.yml, no en el proveedor)
+        this.initializeBanks();
+
+        // API no bloqueante sobre el mismo proveedor si el modo asíncrono está activo
+        this.initializeAsyncManager();
+
+        // Índice nombre -> UUID para resolver nombres sin consultar perfiles
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, this::loadPlayerNameIndex);
+
         instance = this;
         MessageUtils.sendConsoleMessage("<green>Sistema de economía MythicEconomy inicializado correctamente.");
         
@@ -104,7 +150,14 @@ public class EconomyManager {
             // Usar MongoDB
             this.mongoConnection = new MongoDBConnection(plugin);
 
-            if (mongoConnection.connect()) {
+            if (mongoConnection.connect() && mongoConnection.isEmbeddedSchema()) {
+                MongoDBWalletEconomyProvider walletProvider = new MongoDBWalletEconomyProvider(plugin, mongoConnection);
+                if (mongoConnection.isMigrateOnStart()) {
+                    walletProvider.startMigration();
+                }
+                this.dataProvider = walletProvider;
+                plugin.getLogger().info("Usando MongoDB (esquema EMBEDDED) como proveedor de datos de economía");
+            } else if (mongoConnection.isConnected()) {
                 this.dataProvider = new MongoDBEconomyProvider(plugin, mongoConnection);
                 plugin.getLogger().info("Usando MongoDB como proveedor de datos de economía");
             } else {
@@ -154,27 +207,83 @@ public class EconomyManager {
         }
     }
 
+    // Envuelve el proveedor de datos con la medición de latencias de almacenamiento
+    private void initializeMetrics() {
+        EconomyMetrics metrics = EconomyMetrics.get();
+        this.backingProvider = dataProvider;
+        this.managerTimers = metrics.timers(OperationLayer.MANAGER, EconomyMetrics.providerName(backingProvider));
+        if (metrics.isEnabled()) {
+            this.dataProvider = new InstrumentedEconomyDataProvider(dataProvider);
+        }
+    }
+
+    // Envuelve el proveedor de datos con la caché de saldos en memoria
+    private void initializeBalanceCache() {
+        FileConfiguration config = plugin.getConfig();
+        if (!config.getBoolean("database.cache.enabled", true)) {
+            return;
+        }
+
+        long flushIntervalSeconds = Math.max(1L, config.getLong("database.cache.flush-interval", 5L));
+        this.balanceCache = new CachingEconomyDataProvider(plugin, dataProvider, flushIntervalSeconds * 20L);
+        this.dataProvider = balanceCache;
+        balanceCache.start();
+        plugin.getLogger().info("Caché de saldos habilitada (volcado cada " + flushIntervalSeconds + "s)");
+    }
+
+    // Carga los bancos e inicia su guardado periódico si están habilitados
+    private void initializeBanks() {
+        if (!plugin.getConfig().getBoolean("banks.enabled", true)) {
+            return;
+        }
+
+        // Los saldos de los bancos viven en el banks.yml de cada servidor: con una base de datos compartida
+        // por varios servidores cada uno tendría sus propios bancos, así que solo se activan si se pide
+        if ((isUsingMySQL() || isUsingMongoDB())
+                && !plugin.getConfig().getBoolean("banks.allow-with-external-database", false)) {
+            plugin.getLogger().warning("Bancos desactivados: sus saldos se guardan en banks.yml de este servidor y no en la"
+                    + " base de datos externa. Activa banks.allow-with-external-database si solo un servidor usa los bancos");
+            return;
+        }
+
+        this.bankManager = new BankManager(plugin, this);
+        bankManager.start();
+        plugin.getLogger().info("Bancos cargados: " + bankManager.getBanks().size());
+    }
+
+    // Se crea después de la caché: EconomyManagerAsync deja en ella las cuentas que ya están en memoria
+    private void initializeAsyncManager() {
+        if (plugin.getConfig().getBoolean("database.async-mode", false)) {
+            this.asyncManager = new EconomyManagerAsync(plugin, this);
+        }
+    }
+
+    private void loadPlayerNameIndex() {
+        try {
+            playerNameIndex.putAllIfAbsent(dataProvider.getAllPlayerNames());
+            plugin.getLogger().info("Índice de nombres cargado: " + playerNameIndex.size() + " jugadores");
+        } catch (Exception e) {
+            plugin.getLogger().warning("Error al cargar el índice de nombres: " + e.getMessage());
+        }
+    }
+
     public static EconomyManager getInstance() {
         return instance;
     }
 
     private void setupDataFile() {
+        // playerdata.yml ya no se crea: los saldos viven en data/ (snapshot + journal).
+        // Si existe un archivo antiguo se carga para importarlo una única vez
+        plugin.getDataFolder().mkdirs();
         dataFile = new File(plugin.getDataFolder(), "playerdata.yml");
-        if (!dataFile.exists()) {
-            plugin.getDataFolder().mkdirs();
-            try {
-                dataFile.createNewFile();
-            } catch (IOException e) {
-                plugin.getLogger().severe("Could not create playerdata.yml file!");
-                e.printStackTrace();
-            }
+        if (dataFile.exists()) {
+            dataConfig = YamlConfiguration.loadConfiguration(dataFile);
         }
-        dataConfig = YamlConfiguration.loadConfiguration(dataFile);
     }
 
     private void loadPlayerData() {
         // Para compatibilidad hacia atrás, cargar el formato antiguo
-        if (dataConfig.getConfigurationSection("players") != null) {
+        if (dataConfig != null && dataConfig.getConfigurationSection("players") != null) {
             for (String uuidString : dataConfig.getConfigurationSection("players").getKeys(false)) {
                 UUID uuid = UUID.fromString(uuidString);
                 double balance = dataConfig.getDouble("players." + uuidString + ".balance", 0.0);
@@ -187,12 +296,32 @@ public class EconomyManager {
     public void savePlayerData() {
         // Usar el proveedor de datos para guardar
         dataProvider.save();
+    }
 
-        // Si es el sistema interno, también guardar el respaldo (solo para compatibilidad)
-        if (dataProvider instanceof InternalEconomyProvider) {
-            // El InternalEconomyProvider ya maneja el guardado de múltiples monedas
-            // Solo mantener compatibilidad con el formato antiguo si es necesario
-            // (El código de guardado está ahora en InternalEconomyProvider.save())
+    /**
+     * Detiene la economía al desactivar el plugin: vuelca la caché y cierra la persistencia
+     */
+    public void shutdown() {
+        // Guarda en banks.yml los depósitos de los bancos pendientes
+        if (bankManager != null) {
+            bankManager.shutdown();
+        }
+
+        // Cierra el cliente reactivo de MongoDB si el manager asíncrono abrió uno
+        if (asyncManager != null) {
+            asyncManager.shutdown().join();
+        }
+
+        if (balanceCache != null) {
+            balanceCache.shutdown();
+        }
+
+        EconomyDataProvider backingProvider = getBackingProvider();
+        if (backingProvider instanceof InternalEconomyProvider internalProvider) {
+            // Escribe el journal pendiente y deja un snapshot final
+            internalProvider.shutdown();
+        } else {
+            backingProvider.save();
         }
     }
 
@@ -219,6 +348,10 @@ public class EconomyManager {
         return hasEnoughMoney(player, amount, "default");
     }
 
+    public boolean transfer(Player from, Player to, double amount) {
+        return transfer(from, to, amount, "default");
+    }
+
     public String formatMoney(double amount) {
         return formatMoney(amount, "default");
     }
@@ -292,11 +425,12 @@ public class EconomyManager {
         loadConfiguration();
 
         // Recargar configuración del proveedor de datos si es necesario
-        if (dataProvider instanceof MongoDBEconomyProvider) {
+        EconomyDataProvider backingProvider = getBackingProvider();
+        if (backingProvider instanceof MongoDBEconomyProvider || backingProvider instanceof MongoDBWalletEconomyProvider) {
             mongoConnection.reloadConfiguration();
-        } else if (dataProvider instanceof MySQLEconomyProvider) {
+        } else if (backingProvider instanceof MySQLEconomyProvider) {
             mysqlConnection.reloadConfiguration();
-        } else if (dataProvider instanceof MySQLEconomyProviderAsync) {
+        } else if (backingProvider instanceof MySQLEconomyProviderAsync) {
             mysqlAsyncConnection.reloadConfiguration().join(); // Esperar a que se complete la recarga asíncrona
         }
 
@@ -309,33 +443,67 @@ public class EconomyManager {
      * Obtiene el balance de un jugador en una moneda específica
      */
     public double getBalance(Player player, String currencyId) {
+        return managerTimers.time(Operation.GET_BALANCE, currencyId, () -> doGetBalance(player, currencyId));
+    }
+
+    private double doGetBalance(Player player, String currencyId) {
         Currency currency = currencyManager.getCurrency(currencyId);
         if (currency == null || !currency.isEnabled()) {
             return 0.0;
         }
 
-        // Usar el proveedor de datos configurado con soporte para múltiples monedas
-        double balance;
-        if (dataProvider instanceof InternalEconomyProvider) {
-            balance = ((InternalEconomyProvider) dataProvider).getBalance(player.getUniqueId(), currencyId);
-        } else if (dataProvider instanceof MongoDBEconomyProvider) {
-            balance = ((MongoDBEconomyProvider) dataProvider).getBalance(player.getUniqueId(), currencyId);
-        } else if (dataProvider instanceof MySQLEconomyProvider) {
-            balance = ((MySQLEconomyProvider) dataProvider).getBalance(player.getUniqueId(), currencyId);
-        } else if (dataProvider instanceof MySQLEconomyProviderAsync) {
-            balance = ((MySQLEconomyProviderAsync) dataProvider).getBalance(player.getUniqueId(), currencyId);
-        } else {
-            // Fallback para otros proveedores
-            balance = dataProvider.getBalance(player.getUniqueId());
+        // Despacho directo por la interfaz: todos los proveedores soportan múltiples monedas
+        return dataProvider.getBalance(player.getUniqueId(), currencyId);
+    }
+
+    /**
+     * Obtiene los saldos de un jugador en todas las monedas habilitadas con una sola consulta al proveedor.
+     * Las monedas en las que no tiene saldo guardado aparecen con su saldo inicial
+     */
+    public Map<String, Double> getAllBalances(Player player) {
+        return getAllBalances(player.getUniqueId());
+    }
+
+    public Map<String, Double> getAllBalances(UUID playerUUID) {
+        return toEnabledBalances(currencyManager, dataProvider.getAllBalances(playerUUID));
+    }
+
+    /**
+     * Prepara los datos de un jugador que se está conectando: guarda su nombre y crea con una sola escritura
+     * por lotes las monedas habilitadas que le falten. Si la caché mantiene al jugador, sus saldos y su nombre
+     * quedan en memoria. Debe llamarse fuera del hilo principal
+     */
+    public void loadPlayer(UUID playerUUID, String playerName) {
+        updatePlayerName(playerUUID, playerName);
+        dataProvider.ensureBalances(playerUUID, getStartingBalances());
+    }
+
+    // Saldo inicial de cada moneda habilitada
+    private Map<String, Double> getStartingBalances() {
+        Map<String, Double> startingBalances = new HashMap<>();
+        for (Currency currency : currencyManager.getEnabledCurrencies()) {
+            startingBalances.put(currency.getId(), currency.getStartingBalance());
         }
+        return startingBalances;
+    }
 
-        return balance;
+    // Ordena los saldos según las monedas habilitadas y completa las que falten con su saldo inicial
+    public static Map<String, Double> toEnabledBalances(CurrencyManager currencyManager, Map<String, Double> stored) {
+        Map<String, Double> balances = new java.util.LinkedHashMap<>();
+        for (Currency currency : currencyManager.getEnabledCurrencies()) {
+            balances.put(currency.getId(), stored.getOrDefault(currency.getId(), currency.getStartingBalance()));
+        }
+        return balances;
     }
 
     /**
      * Establece el balance de un jugador en una moneda específica
      */
     public void setBalance(Player player, double amount, String currencyId) {
+        managerTimers.time(Operation.SET_BALANCE, currencyId, () -> doSetBalance(player, amount, currencyId));
+    }
+
+    private void doSetBalance(Player player, double amount, String currencyId) {
         Currency currency = currencyManager.getCurrency(currencyId);
         if (currency == null || !currency.isEnabled()) {
             return;
@@ -349,27 +517,22 @@ public class EconomyManager {
             amount = currency.getMaxBalance();
         }
 
-        // Usar el proveedor de datos configurado con soporte para múltiples monedas
-        if (dataProvider instanceof InternalEconomyProvider) {
-            ((InternalEconomyProvider) dataProvider).setBalance(player.getUniqueId(), amount, currencyId);
-        } else if (dataProvider instanceof MongoDBEconomyProvider) {
-            ((MongoDBEconomyProvider) dataProvider).setBalance(player.getUniqueId(), amount, currencyId);
-        } else if (dataProvider instanceof MySQLEconomyProvider) {
-            ((MySQLEconomyProvider) dataProvider).setBalance(player.getUniqueId(), amount, currencyId);
-        } else if (dataProvider instanceof MySQLEconomyProviderAsync) {
-            ((MySQLEconomyProviderAsync) dataProvider).setBalance(player.getUniqueId(), amount, currencyId);
-        } else {
-            // Fallback para otros proveedores - solo funciona con default
-            if (currencyId.equals("default")) {
-                dataProvider.setBalance(player.getUniqueId(), amount);
-            }
-        }
+        double balance = amount;
+        UUID playerUUID = player.getUniqueId();
+        accountLocks.withLock(playerUUID, currencyId, () -> {
+            dataProvider.setBalance(playerUUID, balance, currencyId);
+            fireBalanceChange(playerUUID, currencyId, balance);
+        });
     }
 
     /**
      * Agrega dinero al balance de un jugador en una moneda específica
      */
     public boolean addMoney(Player player, double amount, String currencyId) {
+        return managerTimers.time(Operation.ADD_BALANCE, currencyId, () -> doAddMoney(player, amount, currencyId));
+    }
+
+    private boolean doAddMoney(Player player, double amount, String currencyId) {
         Currency currency = currencyManager.getCurrency(currencyId);
         if (currency == null || !currency.isEnabled()) {
             return false;
@@ -379,43 +542,44 @@ public class EconomyManager {
             return false;
         }
 
-        double currentBalance = getBalance(player, currencyId);
-        double newBalance = currentBalance + amount;
+        UUID playerUUID = player.getUniqueId();
 
-        if (!currency.isValidAmount(newBalance)) {
-            return false;
-        }
+        // Disparar evento (fuera del bloqueo: los oyentes pueden tardar u operar sobre otras cuentas)
+        if (hasListeners(MoneyAddEvent.getHandlerList())) {
+            double currentBalance = dataProvider.getBalance(playerUUID, currencyId);
+            double newBalance = currentBalance + amount;
+            if (!currency.isValidAmount(newBalance)) {
+                return false;
+            }
 
-        // Disparar evento
-        MoneyAddEvent event = new MoneyAddEvent(player, amount, currentBalance, newBalance);
-        Bukkit.getPluginManager().callEvent(event);
+            MoneyAddEvent event = new MoneyAddEvent(player, amount, currentBalance, newBalance);
+            Bukkit.getPluginManager().callEvent(event);
 
-        if (event.isCancelled()) {
-            return false;
+            if (event.isCancelled()) {
+                return false;
+            }
         }
 
-        // Usar el proveedor de datos configurado con soporte para múltiples monedas
-        if (dataProvider instanceof InternalEconomyProvider) {
-            return ((InternalEconomyProvider) dataProvider).addBalance(player.getUniqueId(), amount, currencyId);
-        } else if (dataProvider instanceof MongoDBEconomyProvider) {
-            return ((MongoDBEconomyProvider) dataProvider).addBalance(player.getUniqueId(), amount, currencyId);
-        } else if (dataProvider instanceof MySQLEconomyProvider) {
-            return ((MySQLEconomyProvider) dataProvider).addBalance(player.getUniqueId(), amount, currencyId);
-        } else if (dataProvider instanceof MySQLEconomyProviderAsync) {
-            return ((MySQLEconomyProviderAsync) dataProvider).addBalance(player.getUniqueId(), amount, currencyId);
-        } else {
-            // Fallback para otros proveedores - solo funciona con default
-            if (currencyId.equals("default")) {
-                return dataProvider.addBalance(player.getUniqueId(), amount);
+        // El saldo máximo se comprueba con el saldo vigente al aplicar la suma
+        return accountLocks.withLock(playerUUID, currencyId, () -> {
+            double newBalance = dataProvider.getBalance(playerUUID, currencyId) + amount;
+            if (!currency.isValidAmount(newBalance) || !dataProvider.addBalance(playerUUID, amount, currencyId)) {
+                return false;
             }
-            return false;
-        }
+            fireBalanceChange(playerUUID, currencyId, newBalance);
+            return true;
+        });
     }
 
     /**
      * Quita dinero del balance de un jugador en una moneda específica
      */
     public boolean removeMoney(Player player, double amount, String currencyId) {
+        return managerTimers.time(Operation.REMOVE_BALANCE, currencyId,
+                () -> doRemoveMoney(player, amount, currencyId));
+    }
+
+    private boolean doRemoveMoney(Player player, double amount, String currencyId) {
         Currency currency = currencyManager.getCurrency(currencyId);
         if (currency == null || !currency.isEnabled()) {
             return false;
@@ -425,60 +589,413 @@ public class EconomyManager {
             return false;
         }
 
-        double currentBalance = getBalance(player, currencyId);
-        if (currentBalance < amount) {
-            return false;
+        UUID playerUUID = player.getUniqueId();
+
+        // Disparar evento (fuera del bloqueo: los oyentes pueden tardar u operar sobre otras cuentas)
+        if (hasListeners(MoneyRemoveEvent.getHandlerList())) {
+            double currentBalance = dataProvider.getBalance(playerUUID, currencyId);
+            if (currentBalance < amount) {
+                return false;
+            }
+
+            MoneyRemoveEvent event = new MoneyRemoveEvent(player, amount, currentBalance, currentBalance - amount);
+            Bukkit.getPluginManager().callEvent(event);
+
+            if (event.isCancelled()) {
+                return false;
+            }
         }
 
-        double newBalance = currentBalance - amount;
+        return accountLocks.withLock(playerUUID, currencyId, () -> {
+            double currentBalance = dataProvider.getBalance(playerUUID, currencyId);
+            if (currentBalance < amount || !dataProvider.removeBalance(playerUUID, amount, currencyId)) {
+                return false;
+            }
+            fireBalanceChange(playerUUID, currencyId, currentBalance - amount);
+            return true;
+        });
+    }
 
-        // Disparar evento
-        MoneyRemoveEvent event = new MoneyRemoveEvent(player, amount, currentBalance, newBalance);
-        Bukkit.getPluginManager().callEvent(event);
+    /**
+     * Transfiere dinero entre dos jugadores en una moneda específica.
+     * El cargo y el abono se aplican en una única operación atómica del proveedor.
+     * @return false si la transferencia no es válida, fue cancelada o el remitente no tiene saldo suficiente
+     */
+    public boolean transfer(Player from, Player to, double amount, String currencyId) {
+        return managerTimers.time(Operation.TRANSFER, currencyId, () -> doTransfer(from, to, amount, currencyId));
+    }
 
-        if (event.isCancelled()) {
+    private boolean doTransfer(Player from, Player to, double amount, String currencyId) {
+        Currency currency = currencyManager.getCurrency(currencyId);
+        if (currency == null || !currency.isEnabled()) {
             return false;
         }
 
-        // Usar el proveedor de datos configurado con soporte para múltiples monedas
-        if (dataProvider instanceof InternalEconomyProvider) {
-            return ((InternalEconomyProvider) dataProvider).removeBalance(player.getUniqueId(), amount, currencyId);
-        } else if (dataProvider instanceof MongoDBEconomyProvider) {
-            return ((MongoDBEconomyProvider) dataProvider).removeBalance(player.getUniqueId(), amount, currencyId);
-        } else if (dataProvider instanceof MySQLEconomyProvider) {
-            return ((MySQLEconomyProvider) dataProvider).removeBalance(player.getUniqueId(), amount, currencyId);
-        } else {
-            // Fallback para otros proveedores - solo funciona con default
-            if (currencyId.equals("default")) {
-                return dataProvider.removeBalance(player.getUniqueId(), amount);
-            }
+        if (from.getUniqueId().equals(to.getUniqueId())) {
             return false;
         }
+
+        if (amount <= 0 || !currency.isValidTransferAmount(amount)) {
+            return false;
+        }
+
+        UUID fromUUID = from.getUniqueId();
+        UUID toUUID = to.getUniqueId();
+
+        // Disparar evento
+        if (hasListeners(MoneyTransferEvent.getHandlerList())) {
+            if (!currency.isValidAmount(dataProvider.getBalance(toUUID, currencyId) + amount)) {
+                return false;
+            }
+
+            MoneyTransferEvent event = new MoneyTransferEvent(from, to, amount);
+            Bukkit.getPluginManager().callEvent(event);
+
+            if (event.isCancelled()) {
+                return false;
+            }
+        }
+
+        // Ambas cuentas bloqueadas: el saldo del destino no puede cambiar entre la comprobación y el abono
+        return accountLocks.withLocks(fromUUID, toUUID, currencyId, () -> {
+            double toBalance = dataProvider.getBalance(toUUID, currencyId) + amount;
+            if (!currency.isValidAmount(toBalance) || !dataProvider.transfer(fromUUID, toUUID, amount, currencyId)) {
+                return false;
+            }
+            notifyBalanceChange(fromUUID, currencyId);
+            fireBalanceChange(toUUID, currencyId, toBalance);
+            return true;
+        });
     }
 
     /**
      * Verifica si un jugador tiene suficiente dinero en una moneda específica
      */
     public boolean hasEnoughMoney(Player player, double amount, String currencyId) {
+        return managerTimers.time(Operation.HAS_BALANCE, currencyId,
+                () -> doHasEnoughMoney(player, amount, currencyId));
+    }
+
+    private boolean doHasEnoughMoney(Player player, double amount, String currencyId) {
         Currency currency = currencyManager.getCurrency(currencyId);
         if (currency == null || !currency.isEnabled()) {
             return false;
         }
 
-        // Usar el proveedor de datos configurado con soporte para múltiples monedas
-        if (dataProvider instanceof InternalEconomyProvider) {
-            return ((InternalEconomyProvider) dataProvider).hasEnoughBalance(player.getUniqueId(), amount, currencyId);
-        } else if (dataProvider instanceof MongoDBEconomyProvider) {
-            return ((MongoDBEconomyProvider) dataProvider).hasEnoughBalance(player.getUniqueId(), amount, currencyId);
-        } else if (dataProvider instanceof MySQLEconomyProvider) {
-            return ((MySQLEconomyProvider) dataProvider).hasEnoughBalance(player.getUniqueId(), amount, currencyId);
-        } else {
-            // Fallback para otros proveedores - solo funciona con default
-            if (currencyId.equals("default")) {
-                return dataProvider.hasEnoughBalance(player.getUniqueId(), amount);
+        return dataProvider.hasEnoughBalance(player.getUniqueId(), amount, currencyId);
+    }
+
+    // ========== OPERACIONES MASIVAS ==========
+
+    /**
+     * Agrega dinero a varios jugadores en una moneda con una sola operación del proveedor y un único BulkMoneyAddEvent.
+     * Se omiten las cantidades fuera de los límites de transferencia y las que superarían el saldo máximo
+     * @param amounts Mapa de UUID -> cantidad a agregar
+     * @return número de cuentas a las que se agregó dinero
+     */
+    public int addMoney(Map<UUID, Double> amounts, String currencyId) {
+        return (int) managerTimers.time(Operation.ADD_BALANCES, currencyId, () -> doAddMoney(amounts, currencyId));
+    }
+
+    private int doAddMoney(Map<UUID, Double> amounts, String currencyId) {
+        Currency currency = currencyManager.getCurrency(currencyId);
+        if (currency == null || !currency.isEnabled()) {
+            return 0;
+        }
+
+        Map<UUID, Double> accepted = new HashMap<>();
+        for (Map.Entry<UUID, Double> entry : amounts.entrySet()) {
+            Double amount = entry.getValue();
+            if (amount != null && amount > 0 && currency.isValidTransferAmount(amount)) {
+                accepted.put(entry.getKey(), amount);
+            }
+        }
+
+        if (accepted.isEmpty()) {
+            return 0;
+        }
+
+        // Disparar evento (fuera del bloqueo) solo con las cuentas que ahora mismo caben en el saldo máximo
+        if (hasListeners(BulkMoneyAddEvent.getHandlerList())) {
+            accepted.entrySet().removeIf(entry ->
+                    !currency.isValidAmount(dataProvider.getBalance(entry.getKey(), currencyId) + entry.getValue()));
+            if (accepted.isEmpty()) {
+                return 0;
+            }
+
+            Set<UUID> offered = new HashSet<>(accepted.keySet());
+            BulkMoneyAddEvent event = new BulkMoneyAddEvent(accepted, currencyId);
+            Bukkit.getPluginManager().callEvent(event);
+
+            if (event.isCancelled()) {
+                return 0;
+            }
+
+            // Los oyentes pueden haber quitado o cambiado entradas
+            accepted.entrySet().removeIf(entry -> entry.getValue() == null || entry.getValue() <= 0
+                    || !offered.contains(entry.getKey()));
+            if (accepted.isEmpty()) {
+                return 0;
+            }
+        }
+
+        // Con la caché activa, los saldos de jugadores conectados se leen de memoria
+        Map<UUID, Double> newBalances = accountLocks.withLocks(accepted.keySet(), currencyId, () -> {
+            Map<UUID, Double> applied = new HashMap<>();
+            Map<UUID, Double> balances = new HashMap<>();
+            for (Map.Entry<UUID, Double> entry : accepted.entrySet()) {
+                double newBalance = dataProvider.getBalance(entry.getKey(), currencyId) + entry.getValue();
+                if (currency.isValidAmount(newBalance)) {
+                    applied.put(entry.getKey(), entry.getValue());
+                    balances.put(entry.getKey(), newBalance);
+                }
+            }
+            if (!applied.isEmpty()) {
+                try {
+                    dataProvider.addBalances(applied, currencyId);
+                } catch (BalanceWriteException e) {
+                    plugin.getLogger().severe("Error al agregar dinero en bloque (" + currencyId + "): " + e.getMessage());
+                    balances.keySet().removeAll(e.getFailedAccounts());
+                }
+            }
+            for (Map.Entry<UUID, Double> entry : balances.entrySet()) {
+                fireBalanceChange(entry.getKey(), currencyId, entry.getValue());
+            }
+            return balances;
+        });
+
+        return newBalances.size();
+    }
+
+    /**
+     * Agrega la misma cantidad a varios jugadores en una moneda
+     * @return número de cuentas a las que se agregó dinero
+     */
+    public int addMoneyToAll(Collection<UUID> playerUUIDs, double amount, String currencyId) {
+        Map<UUID, Double> amounts = new HashMap<>();
+        for (UUID playerUUID : playerUUIDs) {
+            amounts.put(playerUUID, amount);
+        }
+        return addMoney(amounts, currencyId);
+    }
+
+    /**
+     * Establece el saldo de varios jugadores en una moneda con una sola operación del proveedor.
+     * Los saldos se ajustan al rango [0, saldo máximo] de la moneda
+     */
+    public void setBalances(Map<UUID, Double> balances, String currencyId) {
+        managerTimers.time(Operation.SET_BALANCES, currencyId, () -> doSetBalances(balances, currencyId));
+    }
+
+    private void doSetBalances(Map<UUID, Double> balances, String currencyId) {
+        Currency currency = currencyManager.getCurrency(currencyId);
+        if (currency == null || !currency.isEnabled()) {
+            return;
+        }
+
+        Map<UUID, Double> clamped = new HashMap<>();
+        for (Map.Entry<UUID, Double> entry : balances.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            clamped.put(entry.getKey(), Math.min(Math.max(0, entry.getValue()), currency.getMaxBalance()));
+        }
+
+        if (clamped.isEmpty()) {
+            return;
+        }
+
+        accountLocks.withLocks(clamped.keySet(), currencyId, () -> {
+            try {
+                dataProvider.setBalances(clamped, currencyId);
+            } catch (BalanceWriteException e) {
+                plugin.getLogger().severe("Error al establecer saldos en bloque (" + currencyId + "): " + e.getMessage());
+                clamped.keySet().removeAll(e.getFailedAccounts());
             }
+            for (Map.Entry<UUID, Double> entry : clamped.entrySet()) {
+                fireBalanceChange(entry.getKey(), currencyId, entry.getValue());
+            }
+        });
+    }
+
+    // ========== OPERACIONES SIN E/S EN EL HILO PRINCIPAL ==========
+    // Para cuentas que pueden estar desconectadas (puente de Vault). Con la caché activa nunca consultan
+    // al proveedor desde el hilo principal; sin caché van directas al proveedor.
+
+    /**
+     * Obtiene el saldo de cualquier jugador. Si la cuenta no está en memoria se carga: en segundo plano
+     * cuando la llamada viene del hilo principal, o en el hilo que llama en cualquier otro caso
+     * @return saldo, o null si la cuenta se está cargando en segundo plano o el proveedor no respondió
+     */
+    public Double getBalanceNonBlocking(UUID playerUUID, String currencyId) {
+        return managerTimers.time(Operation.GET_BALANCE, currencyId,
+                () -> doGetBalanceNonBlocking(playerUUID, currencyId));
+    }
+
+    private Double doGetBalanceNonBlocking(UUID playerUUID, String currencyId) {
+        Currency currency = currencyManager.getCurrency(currencyId);
+        if (currency == null || !currency.isEnabled()) {
+            return 0.0;
+        }
+
+        if (balanceCache == null) {
+            return dataProvider.getBalance(playerUUID, currencyId);
+        }
+
+        Double balance = balanceCache.peekBalance(playerUUID, currencyId);
+        if (balance != null) {
+            return balance;
+        }
+
+        if (Bukkit.isPrimaryThread()) {
+            balanceCache.loadOfflineAsync(playerUUID, currencyId);
+            return null;
+        }
+        try {
+            balanceCache.loadOffline(playerUUID, currencyId);
+        } catch (RuntimeException e) {
+            // El proveedor no responde: se trata como una cuenta que todavía no se ha podido cargar
+            plugin.getLogger().warning("No se pudo leer el saldo de " + playerUUID + " (" + currencyId + "): " + e.getMessage());
+            return null;
+        }
+        return balanceCache.peekBalance(playerUUID, currencyId);
+    }
+
+    /**
+     * Deposita en cualquier jugador. Si la cuenta no está en memoria, el depósito se aplica en el siguiente
+     * volcado de la caché y el límite de saldo máximo no se puede comprobar
+     * @return false si la moneda o la cantidad no son válidas
+     */
+    public boolean depositNonBlocking(UUID playerUUID, double amount, String currencyId) {
+        return managerTimers.time(Operation.ADD_BALANCE, currencyId,
+                () -> doDepositNonBlocking(playerUUID, amount, currencyId));
+    }
+
+    private boolean doDepositNonBlocking(UUID playerUUID, double amount, String currencyId) {
+        Currency currency = currencyManager.getCurrency(currencyId);
+        if (currency == null || !currency.isEnabled()) {
+            return false;
+        }
+
+        if (amount <= 0 || !currency.isValidTransferAmount(amount)) {
             return false;
         }
+
+        if (balanceCache == null) {
+            return accountLocks.withLock(playerUUID, currencyId, () -> {
+                if (!dataProvider.addBalance(playerUUID, amount, currencyId)) {
+                    return false;
+                }
+                notifyBalanceChange(playerUUID, currencyId);
+                return true;
+            });
+        }
+
+        return accountLocks.withLock(playerUUID, currencyId, () -> {
+            Double currentBalance = balanceCache.peekBalance(playerUUID, currencyId);
+            if (currentBalance != null && !currency.isValidAmount(currentBalance + amount)) {
+                return false;
+            }
+
+            balanceCache.depositWriteBehind(playerUUID, amount, currencyId);
+            if (currentBalance != null) {
+                fireBalanceChange(playerUUID, currencyId, currentBalance + amount);
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Retira de cualquier jugador si tiene saldo suficiente
+     * @return false si no tiene saldo suficiente, la cantidad no es válida o la cuenta se está cargando
+     */
+    public boolean withdrawNonBlocking(UUID playerUUID, double amount, String currencyId) {
+        return managerTimers.time(Operation.REMOVE_BALANCE, currencyId,
+                () -> doWithdrawNonBlocking(playerUUID, amount, currencyId));
+    }
+
+    private boolean doWithdrawNonBlocking(UUID playerUUID, double amount, String currencyId) {
+        Currency currency = currencyManager.getCurrency(currencyId);
+        if (currency == null || !currency.isEnabled()) {
+            return false;
+        }
+
+        if (amount <= 0 || !currency.isValidTransferAmount(amount)) {
+            return false;
+        }
+
+        Double currentBalance = doGetBalanceNonBlocking(playerUUID, currencyId);
+        if (currentBalance == null || currentBalance < amount) {
+            return false;
+        }
+
+        // La cuenta ya está en memoria: el cargo condicional se resuelve en la caché
+        return accountLocks.withLock(playerUUID, currencyId, () -> {
+            if (!dataProvider.removeBalance(playerUUID, amount, currencyId)) {
+                return false;
+            }
+            notifyBalanceChange(playerUUID, currencyId);
+            return true;
+        });
+    }
+
+    /**
+     * Crea en segundo plano las monedas habilitadas que le falten a un jugador
+     */
+    public void ensureAccountAsync(UUID playerUUID) {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                dataProvider.ensureBalances(playerUUID, getStartingBalances());
+            } catch (Exception e) {
+                plugin.getLogger().warning("Error al crear la cuenta de " + playerUUID + ": " + e.getMessage());
+            }
+        });
+    }
+
+    // ========== NOTIFICACIONES DE CAMBIOS DE SALDO ==========
+
+    /**
+     * Indica si algún plugin escucha el evento. Sin oyentes nadie puede cancelarlo ni modificarlo,
+     * así que se omite su creación y el recorrido de callEvent
+     */
+    static boolean hasListeners(HandlerList handlers) {
+        return handlers.getRegisteredListeners().length > 0;
+    }
+
+    /**
+     * Registra un oyente que recibe el saldo resultante de cada modificación
+     */
+    public void addBalanceChangeListener(BalanceChangeListener listener) {
+        balanceChangeListeners.add(listener);
+    }
+
+    public void removeBalanceChangeListener(BalanceChangeListener listener) {
+        balanceChangeListeners.remove(listener);
+    }
+
+    // Lee el saldo final del proveedor (en memoria con la caché activa) solo si hay alguien escuchando.
+    // Se llama con la cuenta bloqueada, igual que fireBalanceChange
+    private void notifyBalanceChange(UUID playerUUID, String currencyId) {
+        if (balanceChangeListeners.isEmpty()) {
+            return;
+        }
+
+        fireBalanceChange(playerUUID, currencyId, dataProvider.getBalance(playerUUID, currencyId));
+    }
+
+    /**
+     * Entrega el saldo resultante a los oyentes. Se llama dentro del bloqueo de la cuenta, así los oyentes
+     * (RankIndex, IncrementalLeaderboard) reciben los saldos de cada cuenta en el orden en que se aplicaron
+     * y el último que ven es siempre el vigente; por eso los oyentes no deben hacer E/S
+     */
+    private void fireBalanceChange(UUID playerUUID, String currencyId, double newBalance) {
+        for (BalanceChangeListener listener : balanceChangeListeners) {
+            try {
+                listener.onBalanceChange(playerUUID, currencyId, newBalance);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Error en oyente de cambios de saldo: " + e.getMessage());
+            }
+        }
     }
 
     /**
@@ -488,7 +1005,7 @@ public class EconomyManager {
         Currency currency = currencyManager.getCurrency(currencyId);
         if (currency == null) {
             // Fallback para moneda desconocida
-            return "$" + String.format("%.2f", amount);
+            return "$" + MoneyFormatter.formatFixed(amount, 2);
         }
 
         return currency.formatMoney(amount);
@@ -515,6 +1032,26 @@ public class EconomyManager {
         return dataProvider;
     }
 
+    // Obtiene el proveedor real, sin la caché de saldos ni la medición que puedan envolverlo
+    public EconomyDataProvider getBackingProvider() {
+        return backingProvider;
+    }
+
+    // Obtiene la caché de saldos (null si está deshabilitada)
+    public CachingEconomyDataProvider getBalanceCache() {
+        return balanceCache;
+    }
+
+    // Obtiene los bancos y cuentas de sistema (null si están deshabilitados)
+    public BankManager getBankManager() {
+        return bankManager;
+    }
+
+    // Índice local nombre -> UUID de los jugadores conocidos
+    public PlayerNameIndex getPlayerNameIndex() {
+        return playerNameIndex;
+    }
+
     // Obtiene la conexión MongoDB (si está disponible)
     public MongoDBConnection getMongoConnection() {
         return mongoConnection;
@@ -522,7 +1059,8 @@ public class EconomyManager {
 
     // Verifica si está usando MongoDB
     public boolean isUsingMongoDB() {
-        return dataProvider instanceof MongoDBEconomyProvider;
+        EconomyDataProvider backingProvider = getBackingProvider();
+        return backingProvider instanceof MongoDBEconomyProvider || backingProvider instanceof MongoDBWalletEconomyProvider;
     }
 
     // Verifica si el proveedor de datos está disponible
@@ -535,9 +1073,20 @@ public class EconomyManager {
         return mysqlConnection;
     }
 
+    // Obtiene el pool MySQL asíncrono (si está disponible)
+    public MySQLAsyncConnection getMySQLAsyncConnection() {
+        return mysqlAsyncConnection;
+    }
+
+    // Obtiene el manager asíncrono (null si database.async-mode está desactivado)
+    public EconomyManagerAsync getAsyncManager() {
+        return asyncManager;
+    }
+
     // Verifica si está usando MySQL
     public boolean isUsingMySQL() {
-        return dataProvider instanceof MySQLEconomyProvider || dataProvider instanceof MySQLEconomyProviderAsync;
+        EconomyDataProvider backingProvider = getBackingProvider();
+        return backingProvider instanceof MySQLEconomyProvider || backingProvider instanceof MySQLEconomyProviderAsync;
     }
     // ========== MÉTODOS NUEVOS PARA SOPORTE DE NOMBRES DE JUGADORES ==========
 
@@ -545,6 +1094,7 @@ public class EconomyManager {
      * Actualiza el nombre de un jugador en el proveedor de datos
      */
     public void updatePlayerName(UUID playerUUID, String playerName) {
+        playerNameIndex.put(playerUUID, playerName);
         if (dataProvider != null) {
             dataProvider.updatePlayerName(playerUUID, playerName);
         }
@@ -574,6 +1124,7 @@ public class EconomyManager {
      * Sincroniza nombres de jugadores activos con el proveedor de datos
      */
     public void syncPlayerNames(Map<UUID, String> activePlayers) {
+        activePlayers.forEach(playerNameIndex::put);
         if (dataProvider != null) {
             dataProvider.syncPlayerNames(activePlayers);
         }
@@ -6,40 +6,62 @@ import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.Bukkit;
 
 import com.spectrasonic.MythicEconomy.utils.MessageUtils;
+import com.spectrasonic.MythicEconomy.api.events.BulkMoneyAddEvent;
 import com.spectrasonic.MythicEconomy.api.events.MoneyAddEvent;
 import com.spectrasonic.MythicEconomy.api.events.MoneyRemoveEvent;
+import com.spectrasonic.MythicEconomy.api.events.MoneyTransferEvent;
+import com.spectrasonic.MythicEconomy.database.AsyncEconomyDataProvider;
+import com.spectrasonic.MythicEconomy.database.CachingEconomyDataProvider;
+import com.spectrasonic.MythicEconomy.database.MongoDBConnection;
+import com.spectrasonic.MythicEconomy.database.MongoDBEconomyProvider;
+import com.spectrasonic.MythicEconomy.database.MongoDBReactiveEconomyProvider;
 import com.spectrasonic.MythicEconomy.database.MySQLAsyncConnection;
+import com.spectrasonic.MythicEconomy.database.MySQLAsyncProviderAdapter;
 import com.spectrasonic.MythicEconomy.database.MySQLEconomyProviderAsync;
+import com.spectrasonic.MythicEconomy.metrics.EconomyMetrics;
+import com.spectrasonic.MythicEconomy.metrics.Operation;
+import com.spectrasonic.MythicEconomy.metrics.OperationLayer;
+import com.spectrasonic.MythicEconomy.metrics.OperationTimers;
 import com.spectrasonic.MythicEconomy.models.Currency;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Versión asíncrona del EconomyManager para operaciones no bloqueantes.
  * Basado en PaperMC recomendaciones para async database operations.
+ *
+ * Lo crea EconomyManager cuando database.async-mode está activo y comparte con él las monedas y la conexión.
+ * Las cuentas que están en la caché de saldos se siguen resolviendo en memoria a través de EconomyManager,
+ * con sus bloqueos por cuenta: escribirlas directamente en la base de datos dejaría la caché desfasada.
+ * Si no hay proveedor asíncrono todas las operaciones pasan por EconomyManager en un hilo de Bukkit.
  */
 @Slf4j
 public class EconomyManagerAsync {
 
     private static EconomyManagerAsync instance;
     private final JavaPlugin plugin;
-    private MySQLEconomyProviderAsync asyncDataProvider;
-    private MySQLAsyncConnection asyncConnection;
-    private CurrencyManager currencyManager;
-    private final Map<UUID, Double> fallbackBalances;
-    private double startingBalance;
-    private boolean useAsyncMode;
-
-    public EconomyManagerAsync(JavaPlugin plugin) {
+    private final EconomyManager economyManager;
+    private volatile AsyncEconomyDataProvider asyncDataProvider;
+    // Solo se cierra al apagar el proveedor que abre su propio cliente; el pool MySQL es de EconomyManager
+    private boolean ownsAsyncDataProvider;
+    private final CurrencyManager currencyManager;
+    private final List<BalanceChangeListener> balanceChangeListeners = new CopyOnWriteArrayList<>();
+    private volatile boolean useAsyncMode;
+
+    public EconomyManagerAsync(JavaPlugin plugin, EconomyManager economyManager) {
         this.plugin = plugin;
-        this.fallbackBalances = new HashMap<>();
+        this.economyManager = economyManager;
         this.loadConfiguration();
-        this.currencyManager = new CurrencyManager(plugin);
+        this.currencyManager = economyManager.getCurrencyManager();
         this.initializeAsyncDataProvider();
         instance = this;
 
@@ -48,54 +70,102 @@ public class EconomyManagerAsync {
 
     private void loadConfiguration() {
         FileConfiguration config = plugin.getConfig();
-        this.startingBalance = config.getDouble("economy.starting-balance", 100.0);
         this.useAsyncMode = config.getBoolean("database.async-mode", true);
 
-        log.info("Configuración asíncrona cargada - Async Mode: {}, Starting Balance: {}",
-                useAsyncMode, startingBalance);
+        log.info("Configuración asíncrona cargada - Async Mode: {}", useAsyncMode);
     }
 
     private void initializeAsyncDataProvider() {
-        FileConfiguration config = plugin.getConfig();
-        boolean useExternalDB = config.getBoolean("database.use-external-database", false);
-        String databaseType = config.getString("database.type", "FILE");
-
-        if (useAsyncMode && useExternalDB && "MYSQL".equalsIgnoreCase(databaseType)) {
-            // Inicializar conexión MySQL asíncrona con HikariCP
-            this.asyncConnection = new MySQLAsyncConnection(plugin);
-
-            asyncConnection.initialize()
+        MySQLAsyncConnection asyncConnection = economyManager.getMySQLAsyncConnection();
+        MongoDBConnection mongoConnection = economyManager.getMongoConnection();
+
+        if (useAsyncMode && economyManager.getBackingProvider() instanceof MySQLEconomyProviderAsync
+                && asyncConnection != null && asyncConnection.isInitialized()) {
+            // Mismo pool HikariCP que EconomyManager, ya inicializado durante el arranque
+            this.asyncDataProvider = new MySQLAsyncProviderAdapter(new MySQLEconomyProviderAsync(plugin, asyncConnection));
+            log.info("MySQL Async Provider inicializado exitosamente");
+            MessageUtils.sendConsoleMessage("<green>MySQL Async Provider listo</green>");
+        } else if (useAsyncMode && economyManager.getBackingProvider() instanceof MongoDBEconomyProvider
+                && mongoConnection != null) {
+            // Driver reactivo: las operaciones no ocupan hilos mientras esperan al servidor
+            MongoDBReactiveEconomyProvider mongoProvider = new MongoDBReactiveEconomyProvider(plugin, mongoConnection);
+
+            mongoProvider.initialize()
                     .thenAccept(success -> {
                         if (success) {
-                            this.asyncDataProvider = new MySQLEconomyProviderAsync(plugin, asyncConnection);
-                            log.info("MySQL Async Provider inicializado exitosamente");
-                            MessageUtils.sendConsoleMessage("<green>MySQL Async Provider listo</green>");
+                            this.asyncDataProvider = mongoProvider;
+                            this.ownsAsyncDataProvider = true;
+                            log.info("MongoDB Reactive Provider inicializado exitosamente");
+                            MessageUtils.sendConsoleMessage("<green>MongoDB Reactive Provider listo</green>");
                         } else {
-                            log.error("Falla al inicializar MySQL Async Provider");
+                            log.error("Falla al inicializar MongoDB Reactive Provider");
                             fallbackToSyncMode();
                         }
                     })
                     .exceptionally(throwable -> {
-                        log.error("Excepción al inicializar MySQL Async Provider", throwable);
+                        log.error("Excepción al inicializar MongoDB Reactive Provider", throwable);
                         fallbackToSyncMode();
                         return null;
                     });
         } else {
+            // Incluye MongoDB con esquema EMBEDDED: el proveedor reactivo solo conoce el de un documento por saldo
             log.warn("Modo asíncrono desactivado o base de datos no compatible");
             fallbackToSyncMode();
         }
     }
 
     private void fallbackToSyncMode() {
-        log.warn("Cayendo a modo síncrono");
+        log.warn("Cayendo a modo síncrono: las operaciones pasan por EconomyManager");
         this.useAsyncMode = false;
-        // Aquí podrías inicializar un proveedor síncrono como fallback
+    }
+
+    // Las cuentas en la caché de saldos (o todas, sin proveedor asíncrono) se resuelven con EconomyManager
+    private boolean handledBySyncManager(UUID... playerUUIDs) {
+        if (!isAsyncMode()) {
+            return true;
+        }
+        CachingEconomyDataProvider balanceCache = economyManager.getBalanceCache();
+        if (balanceCache == null) {
+            return false;
+        }
+        for (UUID playerUUID : playerUUIDs) {
+            if (balanceCache.isCached(playerUUID)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Ejecuta una operación de EconomyManager: en el hilo que llama si todas las cuentas están en memoria,
+    // en un hilo de Bukkit si puede tocar el almacenamiento
+    private <T> CompletableFuture<T> onSyncManager(Supplier<T> operation, UUID... playerUUIDs) {
+        CachingEconomyDataProvider balanceCache = economyManager.getBalanceCache();
+        boolean inMemory = balanceCache != null && playerUUIDs.length > 0;
+        for (UUID playerUUID : playerUUIDs) {
+            inMemory &= balanceCache.isCached(playerUUID);
+        }
+
+        if (inMemory) {
+            try {
+                return CompletableFuture.completedFuture(operation.get());
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.supplyAsync(operation,
+                runnable -> plugin.getServer().getScheduler().runTaskAsynchronously(plugin, runnable));
     }
 
     public static EconomyManagerAsync getInstance() {
         return instance;
     }
 
+    // El proveedor asíncrono se inicializa en segundo plano, así que la serie se resuelve en cada llamada
+    private OperationTimers timers() {
+        return EconomyMetrics.get().timers(OperationLayer.MANAGER_ASYNC,
+                EconomyMetrics.providerName(useAsyncMode ? asyncDataProvider : null));
+    }
+
     /**
      * Obtiene el balance de un jugador de forma asíncrona
      */
@@ -107,18 +177,37 @@ public class EconomyManagerAsync {
      * Obtiene el balance de un jugador en una moneda específica de forma asíncrona
      */
     public CompletableFuture<Double> getBalanceAsync(Player player, String currencyId) {
-        if (!useAsyncMode || asyncDataProvider == null) {
-            // Fallback síncrono
-            return CompletableFuture.completedFuture(getBalanceSync(player, currencyId));
+        return timers().timeAsync(Operation.GET_BALANCE, currencyId, () -> doGetBalanceAsync(player, currencyId));
+    }
+
+    private CompletableFuture<Double> doGetBalanceAsync(Player player, String currencyId) {
+        if (handledBySyncManager(player.getUniqueId())) {
+            return onSyncManager(() -> economyManager.getBalance(player, currencyId), player.getUniqueId());
         }
 
-        return asyncDataProvider.getBalanceAsync(player.getUniqueId(), currencyId)
+        return asyncDataProvider.getBalance(player.getUniqueId(), currencyId)
                 .exceptionally(throwable -> {
                     log.error("Error al obtener balance para {} en moneda {}", player.getName(), currencyId, throwable);
                     return 0.0;
                 });
     }
 
+    /**
+     * Obtiene los saldos de un jugador en todas las monedas habilitadas con una sola consulta asíncrona
+     */
+    public CompletableFuture<Map<String, Double>> getAllBalancesAsync(Player player) {
+        if (handledBySyncManager(player.getUniqueId())) {
+            return onSyncManager(() -> economyManager.getAllBalances(player), player.getUniqueId());
+        }
+
+        return asyncDataProvider.getAllBalances(player.getUniqueId())
+                .thenApply(stored -> EconomyManager.toEnabledBalances(currencyManager, stored))
+                .exceptionally(throwable -> {
+                    log.error("Error al obtener todos los balances para {}", player.getName(), throwable);
+                    return new HashMap<>();
+                });
+    }
+
     /**
      * Establece el balance de un jugador de forma asíncrona
      */
@@ -131,9 +220,17 @@ public class EconomyManagerAsync {
      * asíncrona
      */
     public CompletableFuture<Boolean> setBalanceAsync(Player player, double amount, String currencyId) {
-        if (!useAsyncMode || asyncDataProvider == null) {
-            setBalanceSync(player, amount, currencyId);
-            return CompletableFuture.completedFuture(true);
+        return timers().timeAsync(Operation.SET_BALANCE, currencyId,
+                () -> doSetBalanceAsync(player, amount, currencyId));
+    }
+
+    private CompletableFuture<Boolean> doSetBalanceAsync(Player player, double amount, String currencyId) {
+        if (handledBySyncManager(player.getUniqueId())) {
+            double requested = amount;
+            return onSyncManager(() -> {
+                economyManager.setBalance(player, requested, currencyId);
+                return true;
+            }, player.getUniqueId());
         }
 
         if (amount < 0)
@@ -144,7 +241,8 @@ public class EconomyManagerAsync {
             amount = currency.getMaxBalance();
         }
 
-        return asyncDataProvider.setBalanceAsync(player.getUniqueId(), amount, currencyId)
+        return asyncDataProvider.setBalance(player.getUniqueId(), amount, currencyId)
+                .thenApply(success -> notifyIfChanged(success, player.getUniqueId(), currencyId))
                 .exceptionally(throwable -> {
                     log.error("Error al establecer balance para {} en moneda {}", player.getName(), currencyId,
                             throwable);
@@ -164,9 +262,12 @@ public class EconomyManagerAsync {
      * asíncrona
      */
     public CompletableFuture<Boolean> addMoneyAsync(Player player, double amount, String currencyId) {
-        if (!useAsyncMode || asyncDataProvider == null) {
-            boolean result = addMoneySync(player, amount, currencyId);
-            return CompletableFuture.completedFuture(result);
+        return timers().timeAsync(Operation.ADD_BALANCE, currencyId, () -> doAddMoneyAsync(player, amount, currencyId));
+    }
+
+    private CompletableFuture<Boolean> doAddMoneyAsync(Player player, double amount, String currencyId) {
+        if (handledBySyncManager(player.getUniqueId())) {
+            return onSyncManager(() -> economyManager.addMoney(player, amount, currencyId), player.getUniqueId());
         }
 
         Currency currency = currencyManager.getCurrency(currencyId);
@@ -178,7 +279,7 @@ public class EconomyManagerAsync {
             return CompletableFuture.completedFuture(false);
         }
 
-        return getBalanceAsync(player, currencyId)
+        return doGetBalanceAsync(player, currencyId)
                 .thenCompose(currentBalance -> {
                     double newBalance = currentBalance + amount;
 
@@ -186,16 +287,19 @@ public class EconomyManagerAsync {
                         return CompletableFuture.completedFuture(false);
                     }
 
-                    // Disparar evento de forma síncrona (necesario)
-                    MoneyAddEvent event = new MoneyAddEvent(player, amount, currentBalance, newBalance);
-                    Bukkit.getPluginManager().callEvent(event);
+                    // Evento asíncrono si se dispara desde el hilo del proveedor
+                    if (EconomyManager.hasListeners(MoneyAddEvent.getHandlerList())) {
+                        MoneyAddEvent event = new MoneyAddEvent(player, amount, currentBalance, newBalance);
+                        Bukkit.getPluginManager().callEvent(event);
 
-                    if (event.isCancelled()) {
-                        return CompletableFuture.completedFuture(false);
+                        if (event.isCancelled()) {
+                            return CompletableFuture.completedFuture(false);
+                        }
                     }
 
                     // Actualizar balance de forma asíncrona
-                    return asyncDataProvider.addBalanceAsync(player.getUniqueId(), amount, currencyId)
+                    return asyncDataProvider.addBalance(player.getUniqueId(), amount, currencyId)
+                            .thenApply(success -> notifyIfChanged(success, player.getUniqueId(), currencyId))
                             .exceptionally(throwable -> {
                                 log.error("Error al agregar dinero para {} en moneda {}", player.getName(), currencyId,
                                         throwable);
@@ -216,9 +320,13 @@ public class EconomyManagerAsync {
      * asíncrona
      */
     public CompletableFuture<Boolean> removeMoneyAsync(Player player, double amount, String currencyId) {
-        if (!useAsyncMode || asyncDataProvider == null) {
-            boolean result = removeMoneySync(player, amount, currencyId);
-            return CompletableFuture.completedFuture(result);
+        return timers().timeAsync(Operation.REMOVE_BALANCE, currencyId,
+                () -> doRemoveMoneyAsync(player, amount, currencyId));
+    }
+
+    private CompletableFuture<Boolean> doRemoveMoneyAsync(Player player, double amount, String currencyId) {
+        if (handledBySyncManager(player.getUniqueId())) {
+            return onSyncManager(() -> economyManager.removeMoney(player, amount, currencyId), player.getUniqueId());
         }
 
         Currency currency = currencyManager.getCurrency(currencyId);
@@ -226,7 +334,7 @@ public class EconomyManagerAsync {
             return CompletableFuture.completedFuture(false);
         }
 
-        return getBalanceAsync(player, currencyId)
+        return doGetBalanceAsync(player, currencyId)
                 .thenCompose(currentBalance -> {
                     if (currentBalance < amount) {
                         return CompletableFuture.completedFuture(false);
@@ -234,16 +342,19 @@ public class EconomyManagerAsync {
 
                     double newBalance = currentBalance - amount;
 
-                    // Disparar evento de forma síncrona
-                    MoneyRemoveEvent event = new MoneyRemoveEvent(player, amount, currentBalance, newBalance);
-                    Bukkit.getPluginManager().callEvent(event);
+                    // Evento asíncrono si se dispara desde el hilo del proveedor
+                    if (EconomyManager.hasListeners(MoneyRemoveEvent.getHandlerList())) {
+                        MoneyRemoveEvent event = new MoneyRemoveEvent(player, amount, currentBalance, newBalance);
+                        Bukkit.getPluginManager().callEvent(event);
 
-                    if (event.isCancelled()) {
-                        return CompletableFuture.completedFuture(false);
+                        if (event.isCancelled()) {
+                            return CompletableFuture.completedFuture(false);
+                        }
                     }
 
                     // Actualizar balance de forma asíncrona
-                    return asyncDataProvider.removeBalanceAsync(player.getUniqueId(), amount, currencyId)
+                    return asyncDataProvider.removeBalance(player.getUniqueId(), amount, currencyId)
+                            .thenApply(success -> notifyIfChanged(success, player.getUniqueId(), currencyId))
                             .exceptionally(throwable -> {
                                 log.error("Error al remover dinero para {} en moneda {}", player.getName(), currencyId,
                                         throwable);
@@ -264,9 +375,13 @@ public class EconomyManagerAsync {
      * forma asíncrona
      */
     public CompletableFuture<Boolean> hasEnoughMoneyAsync(Player player, double amount, String currencyId) {
-        if (!useAsyncMode || asyncDataProvider == null) {
-            boolean result = hasEnoughMoneySync(player, amount, currencyId);
-            return CompletableFuture.completedFuture(result);
+        return timers().timeAsync(Operation.HAS_BALANCE, currencyId,
+                () -> doHasEnoughMoneyAsync(player, amount, currencyId));
+    }
+
+    private CompletableFuture<Boolean> doHasEnoughMoneyAsync(Player player, double amount, String currencyId) {
+        if (handledBySyncManager(player.getUniqueId())) {
+            return onSyncManager(() -> economyManager.hasEnoughMoney(player, amount, currencyId), player.getUniqueId());
         }
 
         Currency currency = currencyManager.getCurrency(currencyId);
@@ -274,13 +389,197 @@ public class EconomyManagerAsync {
             return CompletableFuture.completedFuture(false);
         }
 
-        return asyncDataProvider.hasEnoughBalanceAsync(player.getUniqueId(), amount, currencyId)
+        return asyncDataProvider.hasEnoughBalance(player.getUniqueId(), amount, currencyId)
                 .exceptionally(throwable -> {
                     log.error("Error al verificar saldo para {} en moneda {}", player.getName(), currencyId, throwable);
                     return false;
                 });
     }
 
+    /**
+     * Transfiere dinero entre dos jugadores de forma asíncrona
+     */
+    public CompletableFuture<Boolean> transferAsync(Player from, Player to, double amount) {
+        return transferAsync(from, to, amount, "default");
+    }
+
+    /**
+     * Transfiere dinero entre dos jugadores en una moneda específica de forma
+     * asíncrona. El cargo y el abono se aplican en una única transacción, así que
+     * false significa que no se movió nada (fondos insuficientes, cancelado o error)
+     */
+    public CompletableFuture<Boolean> transferAsync(Player from, Player to, double amount, String currencyId) {
+        return timers().timeAsync(Operation.TRANSFER, currencyId, () -> doTransferAsync(from, to, amount, currencyId));
+    }
+
+    private CompletableFuture<Boolean> doTransferAsync(Player from, Player to, double amount, String currencyId) {
+        if (from.getUniqueId().equals(to.getUniqueId()) || amount <= 0) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        // EconomyManager valida la moneda y dispara su propio MoneyTransferEvent
+        if (handledBySyncManager(from.getUniqueId(), to.getUniqueId())) {
+            return onSyncManager(() -> economyManager.transfer(from, to, amount, currencyId),
+                    from.getUniqueId(), to.getUniqueId());
+        }
+
+        Currency currency = currencyManager.getCurrency(currencyId);
+        if (currency == null || !currency.isEnabled() || !currency.isValidTransferAmount(amount)) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        // Disparar evento antes de salir del hilo que invoca
+        if (EconomyManager.hasListeners(MoneyTransferEvent.getHandlerList())) {
+            MoneyTransferEvent event = new MoneyTransferEvent(from, to, amount);
+            Bukkit.getPluginManager().callEvent(event);
+
+            if (event.isCancelled()) {
+                return CompletableFuture.completedFuture(false);
+            }
+        }
+
+        return doGetBalanceAsync(to, currencyId)
+                .thenCompose(targetBalance -> {
+                    if (!currency.isValidAmount(targetBalance + amount)) {
+                        return CompletableFuture.completedFuture(false);
+                    }
+
+                    return asyncDataProvider.transfer(from.getUniqueId(), to.getUniqueId(), amount, currencyId)
+                            .thenApply(success -> {
+                                notifyIfChanged(success, from.getUniqueId(), currencyId);
+                                return notifyIfChanged(success, to.getUniqueId(), currencyId);
+                            })
+                            .exceptionally(throwable -> {
+                                log.error("Error al transferir dinero de {} a {} en moneda {}", from.getName(),
+                                        to.getName(), currencyId, throwable);
+                                return false;
+                            });
+                });
+    }
+
+    /**
+     * Agrega dinero a varios jugadores en una moneda de forma asíncrona: una consulta para los saldos actuales,
+     * un único BulkMoneyAddEvent y una escritura por lotes. Se omiten las cantidades fuera de los límites de
+     * transferencia y las que superarían el saldo máximo
+     * @return número de cuentas a las que se agregó dinero
+     */
+    public CompletableFuture<Integer> addMoneyAsync(Map<UUID, Double> amounts, String currencyId) {
+        return timers().timeAsync(Operation.ADD_BALANCES, currencyId, () -> doAddMoneyAsync(amounts, currencyId));
+    }
+
+    private CompletableFuture<Integer> doAddMoneyAsync(Map<UUID, Double> amounts, String currencyId) {
+        if (handledBySyncManager(amounts.keySet().toArray(new UUID[0]))) {
+            return onSyncManager(() -> economyManager.addMoney(amounts, currencyId));
+        }
+
+        Currency currency = currencyManager.getCurrency(currencyId);
+        if (currency == null || !currency.isEnabled()) {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        Map<UUID, Double> requested = new HashMap<>();
+        for (Map.Entry<UUID, Double> entry : amounts.entrySet()) {
+            Double amount = entry.getValue();
+            if (amount != null && amount > 0 && currency.isValidTransferAmount(amount)) {
+                requested.put(entry.getKey(), amount);
+            }
+        }
+
+        if (requested.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        return asyncDataProvider.getBalances(requested.keySet(), currencyId)
+                .thenCompose(currentBalances -> {
+                    // Las cuentas sin fila se crean con la cantidad agregada como saldo
+                    requested.entrySet().removeIf(entry ->
+                            !currency.isValidAmount(currentBalances.getOrDefault(entry.getKey(), 0.0) + entry.getValue()));
+                    if (requested.isEmpty()) {
+                        return CompletableFuture.completedFuture(0);
+                    }
+
+                    // Evento asíncrono si se dispara fuera del hilo principal
+                    if (EconomyManager.hasListeners(BulkMoneyAddEvent.getHandlerList())) {
+                        BulkMoneyAddEvent event = new BulkMoneyAddEvent(requested, currencyId);
+                        Bukkit.getPluginManager().callEvent(event);
+
+                        if (event.isCancelled()) {
+                            return CompletableFuture.completedFuture(0);
+                        }
+
+                        requested.values().removeIf(amount -> amount == null || amount <= 0);
+                        if (requested.isEmpty()) {
+                            return CompletableFuture.completedFuture(0);
+                        }
+                    }
+
+                    return asyncDataProvider.addBalances(requested, currencyId)
+                            .thenApply(success -> {
+                                if (!success) {
+                                    return 0;
+                                }
+                                for (Map.Entry<UUID, Double> entry : requested.entrySet()) {
+                                    fireBalanceChange(entry.getKey(), currencyId,
+                                            currentBalances.getOrDefault(entry.getKey(), 0.0) + entry.getValue());
+                                }
+                                return requested.size();
+                            });
+                })
+                .exceptionally(throwable -> {
+                    log.error("Error al agregar dinero en bloque en moneda {}", currencyId, throwable);
+                    return 0;
+                });
+    }
+
+    /**
+     * Agrega la misma cantidad a varios jugadores en una moneda de forma asíncrona
+     * @return número de cuentas a las que se agregó dinero
+     */
+    public CompletableFuture<Integer> addMoneyToAllAsync(Collection<UUID> playerUUIDs, double amount, String currencyId) {
+        Map<UUID, Double> amounts = new HashMap<>();
+        for (UUID playerUUID : playerUUIDs) {
+            amounts.put(playerUUID, amount);
+        }
+        return addMoneyAsync(amounts, currencyId);
+    }
+
+    /**
+     * Establece el saldo de varios jugadores en una moneda con una sola escritura por lotes.
+     * Los saldos se ajustan al rango [0, saldo máximo] de la moneda
+     */
+    public CompletableFuture<Boolean> setBalancesAsync(Map<UUID, Double> balances, String currencyId) {
+        return timers().timeAsync(Operation.SET_BALANCES, currencyId, () -> doSetBalancesAsync(balances, currencyId));
+    }
+
+    private CompletableFuture<Boolean> doSetBalancesAsync(Map<UUID, Double> balances, String currencyId) {
+        if (handledBySyncManager(balances.keySet().toArray(new UUID[0]))) {
+            return onSyncManager(() -> {
+                economyManager.setBalances(balances, currencyId);
+                return true;
+            });
+        }
+
+        Currency currency = currencyManager.getCurrency(currencyId);
+        if (currency == null || !currency.isEnabled()) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        Map<UUID, Double> clamped = new HashMap<>();
+        for (Map.Entry<UUID, Double> entry : balances.entrySet()) {
+            if (entry.getValue() != null) {
+                clamped.put(entry.getKey(), Math.min(Math.max(0, entry.getValue()), currency.getMaxBalance()));
+            }
+        }
+
+        return asyncDataProvider.setBalances(clamped, currencyId)
+                .thenApply(success -> {
+                    if (success) {
+                        clamped.forEach((uuid, balance) -> fireBalanceChange(uuid, currencyId, balance));
+                    }
+                    return success;
+                });
+    }
+
     /**
      * Crea un jugador nuevo de forma asíncrona
      */
@@ -292,12 +591,14 @@ public class EconomyManagerAsync {
      * Crea un jugador nuevo en una moneda específica de forma asíncrona
      */
     public CompletableFuture<Void> createPlayerAsync(Player player, String currencyId) {
-        if (!useAsyncMode || asyncDataProvider == null) {
-            createPlayerSync(player, currencyId);
-            return CompletableFuture.completedFuture(null);
+        if (handledBySyncManager(player.getUniqueId())) {
+            return onSyncManager(() -> {
+                economyManager.getDataProvider().createPlayer(player.getUniqueId(), currencyId);
+                return null;
+            }, player.getUniqueId());
         }
 
-        return asyncDataProvider.createPlayerAsync(player.getUniqueId(), currencyId)
+        return asyncDataProvider.createPlayer(player.getUniqueId(), currencyId)
                 .exceptionally(throwable -> {
                     log.error("Error al crear jugador {} para moneda {}", player.getName(), currencyId, throwable);
                     return null;
@@ -308,11 +609,11 @@ public class EconomyManagerAsync {
      * Obtiene estadísticas de forma asíncrona
      */
     public CompletableFuture<Long> getTotalPlayersAsync(String currencyId) {
-        if (!useAsyncMode || asyncDataProvider == null) {
-            return CompletableFuture.completedFuture((long) getTotalPlayersSync(currencyId));
+        if (!isAsyncMode()) {
+            return onSyncManager(() -> economyManager.getDataProvider().getTotalPlayers(currencyId));
         }
 
-        return asyncDataProvider.getTotalPlayersAsync(currencyId)
+        return asyncDataProvider.getTotalPlayers(currencyId)
                 .exceptionally(throwable -> {
                     log.error("Error al obtener total de jugadores para moneda {}", currencyId, throwable);
                     return 0L;
@@ -320,11 +621,11 @@ public class EconomyManagerAsync {
     }
 
     public CompletableFuture<Double> getTotalMoneyAsync(String currencyId) {
-        if (!useAsyncMode || asyncDataProvider == null) {
-            return CompletableFuture.completedFuture(getTotalMoneySync(currencyId));
+        if (!isAsyncMode()) {
+            return onSyncManager(() -> economyManager.getDataProvider().getTotalMoney(currencyId));
         }
 
-        return asyncDataProvider.getTotalMoneyAsync(currencyId)
+        return asyncDataProvider.getTotalMoney(currencyId)
                 .exceptionally(throwable -> {
                     log.error("Error al obtener dinero total para moneda {}", currencyId, throwable);
                     return 0.0;
@@ -332,11 +633,11 @@ public class EconomyManagerAsync {
     }
 
     public CompletableFuture<Object[][]> getTopBalancesAsync(String currencyId, int limit) {
-        if (!useAsyncMode || asyncDataProvider == null) {
-            return CompletableFuture.completedFuture(getTopBalancesSync(currencyId, limit));
+        if (!isAsyncMode()) {
+            return onSyncManager(() -> economyManager.getDataProvider().getTopBalances(currencyId, limit));
         }
 
-        return asyncDataProvider.getTopBalancesAsync(currencyId, limit)
+        return asyncDataProvider.getTopBalances(currencyId, limit)
                 .exceptionally(throwable -> {
                     log.error("Error al obtener top balances para moneda {}", currencyId, throwable);
                     return new Object[0][0];
@@ -347,18 +648,14 @@ public class EconomyManagerAsync {
      * Actualiza el nombre de un jugador de forma asíncrona
      */
     public CompletableFuture<Void> updatePlayerNameAsync(UUID playerUUID, String playerName) {
-        if (!useAsyncMode || asyncDataProvider == null) {
-            // Fallback síncrono
-            return CompletableFuture.runAsync(() -> {
-                try {
-                    // Implementación de fallback síncrona si es necesario
-                } catch (Exception e) {
-                    log.error("Error en fallback updatePlayerName", e);
-                }
-            }, runnable -> plugin.getServer().getScheduler().runTaskAsynchronously(plugin, runnable));
-        }
-
-        return asyncDataProvider.updatePlayerNameAsync(playerUUID, playerName)
+        if (handledBySyncManager(playerUUID)) {
+            return onSyncManager(() -> {
+                economyManager.updatePlayerName(playerUUID, playerName);
+                return null;
+            }, playerUUID);
+        }
+
+        return asyncDataProvider.updatePlayerName(playerUUID, playerName)
                 .exceptionally(throwable -> {
                     log.error("Error al actualizar nombre de jugador {}", playerUUID, throwable);
                     return null;
@@ -366,63 +663,41 @@ public class EconomyManagerAsync {
     }
 
     /**
-     * Fallback métodos síncronos para compatibilidad
+     * Registra un oyente que recibe el saldo resultante de cada modificación
      */
-    private double getBalanceSync(Player player, String currencyId) {
-        Currency currency = currencyManager.getCurrency(currencyId);
-        if (currency == null || !currency.isEnabled()) {
-            return 0.0;
-        }
-        return fallbackBalances.getOrDefault(player.getUniqueId(), currency.getStartingBalance());
+    public void addBalanceChangeListener(BalanceChangeListener listener) {
+        balanceChangeListeners.add(listener);
     }
 
-    private void setBalanceSync(Player player, double amount, String currencyId) {
-        if (amount < 0)
-            amount = 0;
-        fallbackBalances.put(player.getUniqueId(), amount);
+    public void removeBalanceChangeListener(BalanceChangeListener listener) {
+        balanceChangeListeners.remove(listener);
     }
 
-    private boolean addMoneySync(Player player, double amount, String currencyId) {
-        if (amount <= 0)
-            return false;
-        UUID uuid = player.getUniqueId();
-        double current = fallbackBalances.getOrDefault(uuid, startingBalance);
-        fallbackBalances.put(uuid, current + amount);
-        return true;
-    }
-
-    private boolean removeMoneySync(Player player, double amount, String currencyId) {
-        if (amount <= 0)
-            return false;
-        UUID uuid = player.getUniqueId();
-        double current = fallbackBalances.getOrDefault(uuid, startingBalance);
-        if (current < amount)
-            return false;
-        fallbackBalances.put(uuid, current - amount);
-        return true;
-    }
-
-    private boolean hasEnoughMoneySync(Player player, double amount, String currencyId) {
-        return getBalanceSync(player, currencyId) >= amount;
-    }
-
-    private void createPlayerSync(Player player, String currencyId) {
-        Currency currency = currencyManager.getCurrency(currencyId);
-        double starting = currency != null ? currency.getStartingBalance() : startingBalance;
-        fallbackBalances.put(player.getUniqueId(), starting);
+    private boolean notifyIfChanged(boolean changed, UUID playerUUID, String currencyId) {
+        if (changed) {
+            notifyBalanceChange(playerUUID, currencyId);
+        }
+        return changed;
     }
 
-    private int getTotalPlayersSync(String currencyId) {
-        return fallbackBalances.size();
-    }
+    // Consulta el saldo final solo si hay alguien escuchando; no bloquea al que hizo el cambio
+    private void notifyBalanceChange(UUID playerUUID, String currencyId) {
+        if (balanceChangeListeners.isEmpty()) {
+            return;
+        }
 
-    private double getTotalMoneySync(String currencyId) {
-        return fallbackBalances.values().stream().mapToDouble(Double::doubleValue).sum();
+        asyncDataProvider.getBalance(playerUUID, currencyId)
+                .thenAccept(newBalance -> fireBalanceChange(playerUUID, currencyId, newBalance));
     }
 
-    private Object[][] getTopBalancesSync(String currencyId, int limit) {
-        // Implementación básica para fallback
-        return new Object[0][0];
+    private void fireBalanceChange(UUID playerUUID, String currencyId, double newBalance) {
+        for (BalanceChangeListener listener : balanceChangeListeners) {
+            try {
+                listener.onBalanceChange(playerUUID, currencyId, newBalance);
+            } catch (Exception e) {
+                log.warn("Error en oyente de cambios de saldo", e);
+            }
+        }
     }
 
     /**
@@ -435,7 +710,7 @@ public class EconomyManagerAsync {
     /**
      * Obtiene el proveedor de datos asíncrono
      */
-    public MySQLEconomyProviderAsync getAsyncDataProvider() {
+    public AsyncEconomyDataProvider getAsyncDataProvider() {
         return asyncDataProvider;
     }
 
@@ -457,7 +732,7 @@ public class EconomyManagerAsync {
      * Cierra el sistema asíncrono
      */
     public CompletableFuture<Void> shutdown() {
-        if (asyncDataProvider != null) {
+        if (asyncDataProvider != null && ownsAsyncDataProvider) {
             return asyncDataProvider.shutdown()
                     .exceptionally(throwable -> {
                         log.error("Error al cerrar AsyncDataProvider", throwable);
@@ -1,5 +1,6 @@
 package com.spectrasonic.MythicEconomy.managers;
 
+import com.spectrasonic.MythicEconomy.commands.BenchmarkCommand;
 import com.spectrasonic.MythicEconomy.commands.EconomyCommand;
 import com.spectrasonic.MythicEconomy.commands.MoneyCommand;
 import com.spectrasonic.MythicEconomy.commands.PayCommand;
@@ -22,5 +23,6 @@ public class CommandManager {
         new PayCommand().register();
         new CurrencyCommand().register();
         new BalanceCurrencyCommand().register();
+        new BenchmarkCommand(plugin).register();
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.spectrasonic.MythicEconomy.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aciertos y fallos de una caché
+ */
+public final class CacheStats {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Registra un acceso
+     * @param hit true si el valor estaba en la caché
+     */
+    public void record(boolean hit) {
+        if (hit) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Proporción de aciertos entre 0 y 1, o NaN si no ha habido accesos
+     */
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? Double.NaN : (double) hitCount / total;
+    }
+
+    public void reset() {
+        hits.reset();
+        misses.reset();
+    }
+}
@@ -0,0 +1,157 @@
+package com.spectrasonic.MythicEconomy.metrics;
+
+import com.spectrasonic.MythicEconomy.database.InternalEconomyProvider;
+import com.spectrasonic.MythicEconomy.database.MongoDBEconomyProvider;
+import com.spectrasonic.MythicEconomy.database.MongoDBReactiveEconomyProvider;
+import com.spectrasonic.MythicEconomy.database.MongoDBWalletEconomyProvider;
+import com.spectrasonic.MythicEconomy.database.MySQLAsyncProviderAdapter;
+import com.spectrasonic.MythicEconomy.database.MySQLEconomyProvider;
+import com.spectrasonic.MythicEconomy.database.MySQLEconomyProviderAsync;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro central de métricas de la economía: latencias por operación, proveedor y moneda,
+ * espera por conexiones e hilos del pool MySQL y aciertos de las cachés de ranking y nombres.
+ *
+ * Es un único objeto estático para que los puntos de medición no dependan del orden de arranque;
+ * mientras está deshabilitado las mediciones no hacen nada más que comprobar la bandera.
+ */
+public final class EconomyMetrics {
+
+    // Esperas del pool MySQL asíncrono
+    public static final String POOL_MYSQL_CONNECTION = "mysql-connection";
+    public static final String POOL_MYSQL_EXECUTOR = "mysql-executor";
+    // Esperas por una franja de AccountLocks ocupada
+    public static final String POOL_ACCOUNT_LOCK = "account-lock";
+
+    // Cachés
+    public static final String CACHE_LEADERBOARD = "leaderboard";
+    public static final String CACHE_LEADERBOARD_NAMES = "leaderboard_names";
+    public static final String CACHE_PLAYER_NAMES = "player_names";
+
+    private static final EconomyMetrics INSTANCE = new EconomyMetrics();
+
+    private volatile boolean enabled;
+
+    // Capa -> proveedor -> histogramas
+    private final Map<OperationLayer, Map<String, OperationTimers>> timers = new EnumMap<>(OperationLayer.class);
+    private final Map<String, LatencyStats> poolWaits = new ConcurrentHashMap<>();
+    private final Map<String, CacheStats> caches = new ConcurrentHashMap<>();
+
+    private EconomyMetrics() {
+        for (OperationLayer layer : OperationLayer.values()) {
+            timers.put(layer, new ConcurrentHashMap<>());
+        }
+    }
+
+    public static EconomyMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Lee la sección metrics de la configuración
+     */
+    public void configure(FileConfiguration config) {
+        this.enabled = config.getBoolean("metrics.enabled", true);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // ========== REGISTRO ==========
+
+    /**
+     * Histogramas de un proveedor en una capa
+     */
+    public OperationTimers timers(OperationLayer layer, String provider) {
+        return timers.get(layer).computeIfAbsent(provider, name -> new OperationTimers(this, layer, name));
+    }
+
+    /**
+     * Registra la espera desde startNanos hasta ahora en un pool
+     */
+    public void recordPoolWait(String pool, long startNanos) {
+        if (!enabled) {
+            return;
+        }
+        poolWaits.computeIfAbsent(pool, name -> new LatencyStats()).record(System.nanoTime() - startNanos, false);
+    }
+
+    /**
+     * Registra un acierto o un fallo de una caché
+     */
+    public void recordCacheAccess(String cache, boolean hit) {
+        if (!enabled) {
+            return;
+        }
+        caches.computeIfAbsent(cache, name -> new CacheStats()).record(hit);
+    }
+
+    // ========== LECTURA ==========
+
+    /**
+     * Todos los histogramas de operaciones registrados
+     */
+    public List<OperationTimers> getAllTimers() {
+        List<OperationTimers> all = new ArrayList<>();
+        for (Map<String, OperationTimers> byProvider : timers.values()) {
+            all.addAll(byProvider.values());
+        }
+        return all;
+    }
+
+    public Map<String, LatencyStats> getPoolWaits() {
+        return Collections.unmodifiableMap(poolWaits);
+    }
+
+    public Map<String, CacheStats> getCaches() {
+        return Collections.unmodifiableMap(caches);
+    }
+
+    /**
+     * Reinicia todas las métricas (/eco metrics reset)
+     */
+    public void reset() {
+        for (Map<String, OperationTimers> byProvider : timers.values()) {
+            byProvider.values().forEach(OperationTimers::reset);
+        }
+        poolWaits.values().forEach(LatencyStats::reset);
+        caches.values().forEach(CacheStats::reset);
+    }
+
+    // ========== NOMBRES DE PROVEEDOR ==========
+
+    /**
+     * Etiqueta del proveedor para las series de métricas
+     */
+    public static String providerName(Object provider) {
+        if (provider == null) {
+            return "none";
+        } else if (provider instanceof InternalEconomyProvider) {
+            return "internal";
+        } else if (provider instanceof MySQLEconomyProvider) {
+            return "mysql";
+        } else if (provider instanceof MySQLEconomyProviderAsync || provider instanceof MySQLAsyncProviderAdapter) {
+            return "mysql-async";
+        } else if (provider instanceof MongoDBWalletEconomyProvider) {
+            return "mongodb-embedded";
+        } else if (provider instanceof MongoDBEconomyProvider) {
+            return "mongodb";
+        } else if (provider instanceof MongoDBReactiveEconomyProvider) {
+            return "mongodb-reactive";
+        }
+        return provider.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,82 @@
+package com.spectrasonic.MythicEconomy.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.PackedHistogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias (HdrHistogram) con contadores de llamadas y errores.
+ *
+ * Los hilos que registran solo escriben en el Recorder, sin bloqueos; al leer se vuelca lo registrado
+ * desde la última lectura al histograma acumulado. Los histogramas son compactos y se redimensionan
+ * solos, así que no hace falta fijar un rango y una serie poco usada ocupa poca memoria.
+ */
+public final class LatencyStats {
+
+    // Dos cifras significativas: error relativo máximo del 1% en los percentiles
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS, true);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    // Protegidos por this
+    private final Histogram accumulated = new PackedHistogram(SIGNIFICANT_DIGITS);
+    private Histogram interval;
+
+    /**
+     * Registra una operación terminada
+     * @param elapsedNanos duración en nanosegundos
+     * @param failed true si terminó con una excepción
+     */
+    public void record(long elapsedNanos, boolean failed) {
+        long value = Math.max(0L, elapsedNanos);
+        recorder.recordValue(value);
+        totalNanos.add(value);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Estado acumulado desde el arranque o el último reinicio
+     */
+    public synchronized Snapshot snapshot() {
+        interval = recorder.getIntervalHistogram(interval);
+        accumulated.add(interval);
+
+        return new Snapshot(accumulated.getTotalCount(), errors.sum(), totalNanos.sum(),
+                accumulated.getValueAtPercentile(50.0),
+                accumulated.getValueAtPercentile(90.0),
+                accumulated.getValueAtPercentile(99.0),
+                accumulated.getValueAtPercentile(99.9),
+                accumulated.getMaxValue());
+    }
+
+    public synchronized void reset() {
+        recorder.reset();
+        accumulated.reset();
+        errors.reset();
+        totalNanos.reset();
+    }
+
+    /**
+     * Copia inmutable de las estadísticas; las latencias están en nanosegundos
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Snapshot {
+        private final long count;
+        private final long errors;
+        private final long totalNanos;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long p999;
+        private final long max;
+    }
+}
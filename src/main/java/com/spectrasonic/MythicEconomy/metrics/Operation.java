@@ -0,0 +1,32 @@
+package com.spectrasonic.MythicEconomy.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Operaciones de economía que se miden; el label es el que aparece en /eco metrics y en Prometheus
+ */
+@Getter
+@RequiredArgsConstructor
+public enum Operation {
+    GET_BALANCE("get_balance"),
+    SET_BALANCE("set_balance"),
+    ADD_BALANCE("add_balance"),
+    REMOVE_BALANCE("remove_balance"),
+    HAS_BALANCE("has_balance"),
+    TRANSFER("transfer"),
+    CREATE_PLAYER("create_player"),
+    GET_ALL_BALANCES("get_all_balances"),
+    ENSURE_BALANCES("ensure_balances"),
+    ADD_BALANCES("add_balances"),
+    SET_BALANCES("set_balances"),
+    APPLY_DELTAS("apply_deltas"),
+    TOTALS("totals"),
+    TOP_BALANCES("top_balances"),
+    READ_PLAYER_NAMES("read_player_names"),
+    WRITE_PLAYER_NAMES("write_player_names"),
+    SAVE("save"),
+    LOAD("load");
+
+    private final String label;
+}
@@ -0,0 +1,20 @@
+package com.spectrasonic.MythicEconomy.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Punto en el que se mide una operación.
+ *
+ * MANAGER incluye validaciones, eventos, caché de saldos y listeners; STORAGE es solo el proveedor
+ * de almacenamiento, por debajo de la caché. La diferencia entre ambos es lo que añade el plugin.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum OperationLayer {
+    MANAGER("manager"),
+    MANAGER_ASYNC("manager_async"),
+    STORAGE("storage");
+
+    private final String label;
+}
@@ -0,0 +1,188 @@
+package com.spectrasonic.MythicEconomy.metrics;
+
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Histogramas de latencia de un proveedor en una capa, por operación y por moneda
+ */
+public final class OperationTimers {
+
+    // Etiqueta de moneda para las operaciones que no dependen de una
+    public static final String ALL_CURRENCIES = "all";
+    // Etiqueta de moneda para los métodos sin moneda (moneda por defecto)
+    public static final String DEFAULT_CURRENCY = "default";
+    // Los IDs de moneda llegan de comandos y de la API; por encima de este número se agrupan
+    private static final int MAX_CURRENCIES = 64;
+    private static final String OTHER_CURRENCIES = "other";
+
+    @Getter
+    private final OperationLayer layer;
+    @Getter
+    private final String provider;
+    private final EconomyMetrics metrics;
+
+    // Por operación (índice = ordinal): moneda -> estadísticas
+    private final Map<String, LatencyStats>[] stats;
+
+    @SuppressWarnings("unchecked")
+    OperationTimers(EconomyMetrics metrics, OperationLayer layer, String provider) {
+        this.metrics = metrics;
+        this.layer = layer;
+        this.provider = provider;
+        this.stats = new Map[Operation.values().length];
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Estadísticas de una operación y moneda, creándolas si no existen
+     */
+    public LatencyStats stats(Operation operation, String currencyId) {
+        Map<String, LatencyStats> byCurrency = stats[operation.ordinal()];
+        String key = currencyId != null ? currencyId : DEFAULT_CURRENCY;
+
+        LatencyStats existing = byCurrency.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (byCurrency.size() >= MAX_CURRENCIES) {
+            key = OTHER_CURRENCIES;
+        }
+        return byCurrency.computeIfAbsent(key, k -> new LatencyStats());
+    }
+
+    /**
+     * Registra una duración medida por el llamador
+     */
+    public void record(Operation operation, String currencyId, long startNanos, boolean failed) {
+        stats(operation, currencyId).record(System.nanoTime() - startNanos, failed);
+    }
+
+    // ========== MEDICIÓN ==========
+
+    public boolean time(Operation operation, String currencyId, BooleanSupplier action) {
+        if (!metrics.isEnabled()) {
+            return action.getAsBoolean();
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean result = action.getAsBoolean();
+            failed = false;
+            return result;
+        } finally {
+            record(operation, currencyId, start, failed);
+        }
+    }
+
+    public double time(Operation operation, String currencyId, DoubleSupplier action) {
+        if (!metrics.isEnabled()) {
+            return action.getAsDouble();
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            double result = action.getAsDouble();
+            failed = false;
+            return result;
+        } finally {
+            record(operation, currencyId, start, failed);
+        }
+    }
+
+    public long time(Operation operation, String currencyId, LongSupplier action) {
+        if (!metrics.isEnabled()) {
+            return action.getAsLong();
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            long result = action.getAsLong();
+            failed = false;
+            return result;
+        } finally {
+            record(operation, currencyId, start, failed);
+        }
+    }
+
+    public <T> T time(Operation operation, String currencyId, Supplier<T> action) {
+        if (!metrics.isEnabled()) {
+            return action.get();
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = action.get();
+            failed = false;
+            return result;
+        } finally {
+            record(operation, currencyId, start, failed);
+        }
+    }
+
+    public void time(Operation operation, String currencyId, Runnable action) {
+        if (!metrics.isEnabled()) {
+            action.run();
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            action.run();
+            failed = false;
+        } finally {
+            record(operation, currencyId, start, failed);
+        }
+    }
+
+    /**
+     * Mide desde ahora hasta que se completa el futuro devuelto por la acción
+     */
+    public <T> CompletableFuture<T> timeAsync(Operation operation, String currencyId,
+            Supplier<CompletableFuture<T>> action) {
+        if (!metrics.isEnabled()) {
+            return action.get();
+        }
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = action.get();
+        } catch (RuntimeException e) {
+            record(operation, currencyId, start, true);
+            throw e;
+        }
+        future.whenComplete((result, throwable) -> record(operation, currencyId, start, throwable != null));
+        return future;
+    }
+
+    // ========== LECTURA ==========
+
+    /**
+     * Recorre las series existentes: operación, moneda y estadísticas
+     */
+    public void forEach(SeriesConsumer consumer) {
+        for (Operation operation : Operation.values()) {
+            stats[operation.ordinal()].forEach((currency, latency) -> consumer.accept(operation, currency, latency));
+        }
+    }
+
+    public void reset() {
+        for (Map<String, LatencyStats> byCurrency : stats) {
+            byCurrency.clear();
+        }
+    }
+
+    @FunctionalInterface
+    public interface SeriesConsumer {
+        void accept(Operation operation, String currencyId, LatencyStats stats);
+    }
+}
@@ -0,0 +1,149 @@
+package com.spectrasonic.MythicEconomy.metrics;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+/**
+ * Escribe periódicamente las métricas en formato de texto de Prometheus en la carpeta del plugin,
+ * para recogerlas con el textfile collector de node_exporter o cualquier agente que lea ese formato.
+ * El archivo se reemplaza de forma atómica, así que nunca se lee a medio escribir.
+ */
+public final class PrometheusExporter {
+
+    private static final String PREFIX = "mythiceconomy_";
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final JavaPlugin plugin;
+    private final EconomyMetrics metrics;
+    private final Path file;
+    private final long intervalTicks;
+
+    private BukkitTask task;
+
+    public PrometheusExporter(JavaPlugin plugin, EconomyMetrics metrics) {
+        FileConfiguration config = plugin.getConfig();
+        this.plugin = plugin;
+        this.metrics = metrics;
+        this.file = plugin.getDataFolder().toPath()
+                .resolve(config.getString("metrics.prometheus.file", "metrics.prom"));
+        this.intervalTicks = Math.max(1L, config.getLong("metrics.prometheus.interval", 60L)) * 20L;
+    }
+
+    public void start() {
+        if (task != null) {
+            return;
+        }
+        task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::write, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * Detiene la tarea periódica y deja escrito el último estado
+     */
+    public void stop() {
+        if (task == null) {
+            return;
+        }
+        task.cancel();
+        task = null;
+        write();
+    }
+
+    /**
+     * Escribe el archivo de métricas
+     */
+    public void write() {
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(temp, render(), StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Error al escribir las métricas de Prometheus: " + e.getMessage());
+        }
+    }
+
+    // ========== FORMATO DE TEXTO ==========
+
+    /**
+     * Métricas actuales en el formato de exposición de texto de Prometheus
+     */
+    public String render() {
+        StringBuilder out = new StringBuilder(4096);
+        StringBuilder errors = new StringBuilder();
+
+        header(out, "operation_duration_seconds", "summary", "Latencia de las operaciones de economía");
+        header(errors, "operation_errors_total", "counter",
+                "Operaciones de economía que terminaron con una excepción");
+        for (OperationTimers timers : metrics.getAllTimers()) {
+            timers.forEach((operation, currency, stats) -> {
+                String labels = "layer=\"" + escape(timers.getLayer().getLabel())
+                        + "\",provider=\"" + escape(timers.getProvider())
+                        + "\",operation=\"" + operation.getLabel()
+                        + "\",currency=\"" + escape(currency) + "\"";
+                LatencyStats.Snapshot snapshot = stats.snapshot();
+                summary(out, "operation_duration_seconds", labels, snapshot);
+                sample(errors, "operation_errors_total", labels, snapshot.getErrors());
+            });
+        }
+        out.append(errors);
+
+        header(out, "pool_wait_seconds", "summary", "Espera por una conexión o un hilo del pool MySQL");
+        for (Map.Entry<String, LatencyStats> entry : metrics.getPoolWaits().entrySet()) {
+            summary(out, "pool_wait_seconds", "pool=\"" + escape(entry.getKey()) + "\"", entry.getValue().snapshot());
+        }
+
+        header(out, "cache_requests_total", "counter", "Consultas a las cachés de ranking y nombres");
+        for (Map.Entry<String, CacheStats> entry : metrics.getCaches().entrySet()) {
+            String cache = "cache=\"" + escape(entry.getKey()) + "\"";
+            sample(out, "cache_requests_total", cache + ",result=\"hit\"", entry.getValue().getHits());
+            sample(out, "cache_requests_total", cache + ",result=\"miss\"", entry.getValue().getMisses());
+        }
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void summary(StringBuilder out, String name, String labels, LatencyStats.Snapshot snapshot) {
+        quantile(out, name, labels, "0.5", snapshot.getP50());
+        quantile(out, name, labels, "0.9", snapshot.getP90());
+        quantile(out, name, labels, "0.99", snapshot.getP99());
+        quantile(out, name, labels, "0.999", snapshot.getP999());
+        out.append(PREFIX).append(name).append("_sum{").append(labels).append("} ")
+                .append(snapshot.getTotalNanos() / NANOS_PER_SECOND).append('\n');
+        sample(out, name + "_count", labels, snapshot.getCount());
+    }
+
+    private static void quantile(StringBuilder out, String name, String labels, String quantile, long nanos) {
+        out.append(PREFIX).append(name).append('{').append(labels).append(",quantile=\"").append(quantile)
+                .append("\"} ").append(nanos / NANOS_PER_SECOND).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, long value) {
+        out.append(PREFIX).append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    // Escapa una etiqueta según el formato de texto: barra invertida, comillas y saltos de línea
+    private static String escape(String value) {
+        if (value.indexOf('\\') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
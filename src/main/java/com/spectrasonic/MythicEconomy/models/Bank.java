@@ -0,0 +1,67 @@
+package com.spectrasonic.MythicEconomy.models;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Banco o cuenta de sistema: una cuenta con nombre que no pertenece a ningún jugador conectado.
+ *
+ * Sus saldos los lleva BankManager en banks.yml, aparte de los de los jugadores; los bancos de sistema
+ * (impuestos, tiendas, subastas) no tienen propietario y no se pueden eliminar desde Vault.
+ */
+@Getter
+public class Bank {
+
+    private final String name;
+    private final UUID owner;
+    private final boolean system;
+    private final Set<UUID> members;
+
+    public Bank(String name, UUID owner, boolean system, Collection<UUID> members) {
+        this.name = name;
+        this.owner = owner;
+        this.system = system;
+        this.members = ConcurrentHashMap.newKeySet();
+        this.members.addAll(members);
+    }
+
+    /**
+     * Clave del banco en el registro; no distingue mayúsculas
+     */
+    public static String keyOf(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    public String getKey() {
+        return keyOf(name);
+    }
+
+    public Set<UUID> getMembers() {
+        return Collections.unmodifiableSet(members);
+    }
+
+    public boolean isOwner(UUID playerUUID) {
+        return owner != null && owner.equals(playerUUID);
+    }
+
+    /**
+     * El propietario también cuenta como miembro
+     */
+    public boolean isMember(UUID playerUUID) {
+        return isOwner(playerUUID) || members.contains(playerUUID);
+    }
+
+    public boolean addMember(UUID playerUUID) {
+        return members.add(playerUUID);
+    }
+
+    public boolean removeMember(UUID playerUUID) {
+        return members.remove(playerUUID);
+    }
+}
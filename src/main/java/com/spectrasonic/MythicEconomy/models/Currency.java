@@ -1,6 +1,7 @@
 package com.spectrasonic.MythicEconomy.models;
 
-import lombok.AllArgsConstructor;
+import com.spectrasonic.MythicEconomy.utils.MoneyFormatter;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -8,9 +9,7 @@ import lombok.NoArgsConstructor;
 
 @Getter
 @Setter
-@Builder
 @NoArgsConstructor
-@AllArgsConstructor
 public class Currency {
 
     private String id;
@@ -24,6 +23,26 @@ public class Currency {
     private double maxTransfer;
     private boolean enabled;
 
+    // Formateador precalculado a partir del símbolo y los decimales; se regenera si cambian
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient volatile MoneyFormatter formatter;
+
+    @Builder
+    public Currency(String id, String name, String nameSingular, String symbol, boolean decimal,
+            double startingBalance, double maxBalance, double minTransfer, double maxTransfer, boolean enabled) {
+        this.id = id;
+        this.name = name;
+        this.nameSingular = nameSingular;
+        this.symbol = symbol;
+        this.decimal = decimal;
+        this.startingBalance = startingBalance;
+        this.maxBalance = maxBalance;
+        this.minTransfer = minTransfer;
+        this.maxTransfer = maxTransfer;
+        this.enabled = enabled;
+    }
+
     // Constructor simplificado para monedas básicas
     public Currency(String id, String name, String nameSingular, String symbol, boolean decimal) {
         this.id = id;
@@ -40,26 +59,22 @@ public class Currency {
 
     // Formatea una cantidad de dinero según la configuración de la moneda
     public String formatMoney(double amount) {
-        if (decimal) {
-            return symbol + String.format("%.2f", amount);
-        } else {
-            return symbol + String.format("%.0f", amount);
-        }
+        return getFormatter().format(amount);
     }
 
     // Formatea una cantidad corta (K, M, B, T)
     public String formatMoneyShort(double amount) {
-        if (amount >= 1_000_000_000_000L) {
-            return symbol + String.format("%.1fT", amount / 1_000_000_000_000.0);
-        } else if (amount >= 1_000_000_000) {
-            return symbol + String.format("%.1fB", amount / 1_000_000_000.0);
-        } else if (amount >= 1_000_000) {
-            return symbol + String.format("%.1fM", amount / 1_000_000.0);
-        } else if (amount >= 1_000) {
-            return symbol + String.format("%.1fK", amount / 1_000.0);
-        } else {
-            return formatMoney(amount);
+        return getFormatter().formatShort(amount);
+    }
+
+    private MoneyFormatter getFormatter() {
+        int fractionDigits = decimal ? 2 : 0;
+        MoneyFormatter current = formatter;
+        if (current == null || !current.matches(symbol, fractionDigits)) {
+            current = MoneyFormatter.of(symbol, fractionDigits);
+            formatter = current;
         }
+        return current;
     }
 
     // Valida si una cantidad es válida para esta moneda
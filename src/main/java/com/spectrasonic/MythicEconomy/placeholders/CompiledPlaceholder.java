@@ -0,0 +1,29 @@
+package com.spectrasonic.MythicEconomy.placeholders;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Clave de placeholder compilada junto con el alcance con el que se puede reutilizar su resultado
+ */
+@Getter
+@RequiredArgsConstructor
+final class CompiledPlaceholder {
+
+    /**
+     * Placeholder no reconocido: se compila igualmente para no volver a analizar la clave
+     */
+    static final CompiledPlaceholder UNKNOWN = new CompiledPlaceholder(Scope.UNCACHED, (player, onlinePlayer) -> null);
+
+    enum Scope {
+        // Depende del saldo del jugador: se cachea por jugador y se invalida cuando cambia su saldo
+        PLAYER,
+        // Igual para todos los jugadores (tops, totales): se cachea una vez durante el TTL
+        GLOBAL,
+        // Lectura directa de configuración sin formateo: no merece la pena cachearla
+        UNCACHED
+    }
+
+    private final Scope scope;
+    private final PlaceholderResolver resolver;
+}
@@ -5,18 +5,34 @@ import com.spectrasonic.MythicEconomy.manager.EconomyManager;
 import com.spectrasonic.MythicEconomy.manager.CurrencyManager;
 import com.spectrasonic.MythicEconomy.models.Currency;
 import com.spectrasonic.MythicEconomy.leaderboard.LeaderboardCache;
+import com.spectrasonic.MythicEconomy.leaderboard.RankIndex;
+import com.spectrasonic.MythicEconomy.utils.MoneyFormatter;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 
+import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class MythicEconomyPlaceholders extends PlaceholderExpansion {
 
+    // Límite de claves compiladas; por encima se siguen atendiendo pero se compilan en cada petición
+    private static final int MAX_COMPILED_PLACEHOLDERS = 4096;
+
     private final Main plugin;
     private final EconomyManager economyManager;
     private final CurrencyManager currencyManager;
     private final LeaderboardCache leaderboardCache;
+    private final RankIndex rankIndex;
+
+    // Clave del placeholder -> resolvedor ya analizado
+    private final Map<String, CompiledPlaceholder> compiledPlaceholders = new ConcurrentHashMap<>();
+    private final PlaceholderResultCache resultCache;
 
     public MythicEconomyPlaceholders(Main plugin) {
         this.plugin = plugin;
@@ -26,6 +42,14 @@ public class MythicEconomyPlaceholders extends PlaceholderExpansion {
         
         // Iniciar el sistema de cache
         this.leaderboardCache.start();
+
+        // Índice de posiciones para %eco_rank% y los top por posición
+        this.rankIndex = new RankIndex(plugin);
+        this.rankIndex.start();
+
+        // Resultados reutilizables durante unos milisegundos para scoreboards y tab
+        this.resultCache = new PlaceholderResultCache(plugin, plugin.getConfig().getLong("placeholders.cache-ttl", 1000L));
+        this.resultCache.start();
     }
     
     /**
@@ -69,6 +93,11 @@ public class MythicEconomyPlaceholders extends PlaceholderExpansion {
         if (leaderboardCache != null) {
             leaderboardCache.stop();
         }
+        if (rankIndex != null) {
+            rankIndex.stop();
+        }
+        resultCache.stop();
+        compiledPlaceholders.clear();
     }
 
     @Override
@@ -77,457 +106,398 @@ public class MythicEconomyPlaceholders extends PlaceholderExpansion {
             return "";
         }
 
-        // Convertir a Player si está online
-        Player onlinePlayer = player.getPlayer();
+        CompiledPlaceholder compiled = compiledPlaceholders.get(params);
+        if (compiled == null) {
+            compiled = compileAndStore(params);
+        }
+
+        switch (compiled.getScope()) {
+            case PLAYER: {
+                UUID playerUUID = player.getUniqueId();
+                String cached = resultCache.getPlayerResult(playerUUID, params);
+                if (cached != null) {
+                    return cached;
+                }
+
+                String value = compiled.getResolver().resolve(player, player.getPlayer());
+                if (value != null && resultCache.isEnabled()) {
+                    resultCache.putPlayerResult(playerUUID, params, value);
+                }
+                return value;
+            }
 
-        switch (params.toLowerCase()) {
+            case GLOBAL: {
+                String cached = resultCache.getGlobalResult(params);
+                if (cached != null) {
+                    return cached;
+                }
+
+                String value = compiled.getResolver().resolve(player, player.getPlayer());
+                if (value != null && resultCache.isEnabled()) {
+                    resultCache.putGlobalResult(params, value);
+                }
+                return value;
+            }
+
+            default:
+                return compiled.getResolver().resolve(player, player.getPlayer());
+        }
+    }
+
+    // ========== COMPILACIÓN DE PLACEHOLDERS ==========
+
+    private CompiledPlaceholder compileAndStore(String params) {
+        CompiledPlaceholder compiled = compile(params);
+        // Las claves con parámetros libres (can_pay_<cantidad>) no deben hacer crecer el mapa sin límite
+        if (compiledPlaceholders.size() < MAX_COMPILED_PLACEHOLDERS) {
+            compiledPlaceholders.put(params, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Analiza la clave una sola vez y devuelve el resolvedor que la atiende
+     */
+    private CompiledPlaceholder compile(String params) {
+        switch (params.toLowerCase(Locale.ROOT)) {
             // Placeholder principal del dinero
             case "money":
-                if (onlinePlayer != null) {
-                    return economyManager.formatMoney(economyManager.getBalance(onlinePlayer));
-                }
-                return "N/A";
+                return perPlayer((player, onlinePlayer) -> onlinePlayer != null
+                        ? economyManager.formatMoney(economyManager.getBalance(onlinePlayer))
+                        : "N/A");
 
             // Dinero sin formato (solo número)
             case "money_raw":
-                if (onlinePlayer != null) {
-                    return String.format("%.2f", economyManager.getBalance(onlinePlayer));
-                }
-                return "0.00";
+                return perPlayer((player, onlinePlayer) -> onlinePlayer != null
+                        ? MoneyFormatter.formatFixed(economyManager.getBalance(onlinePlayer), 2)
+                        : "0.00");
 
             // Dinero formateado con separadores de miles
             case "money_formatted":
-                if (onlinePlayer != null) {
-                    double balance = economyManager.getBalance(onlinePlayer);
-                    return economyManager.getCurrencySymbol() + String.format("%,.2f", balance);
-                }
-                return "N/A";
+                return perPlayer((player, onlinePlayer) -> onlinePlayer != null
+                        ? economyManager.getCurrencySymbol() + MoneyFormatter.formatGrouped(economyManager.getBalance(onlinePlayer), 2)
+                        : "N/A");
 
             // Dinero en formato corto (K, M, B)
             case "money_short":
-                if (onlinePlayer != null) {
-                    double balanceShort = economyManager.getBalance(onlinePlayer);
-                    return economyManager.getCurrencySymbol() + formatShort(balanceShort);
-                }
-                return "N/A";
+                return perPlayer((player, onlinePlayer) -> onlinePlayer != null
+                        ? economyManager.getCurrencySymbol() + formatShort(economyManager.getBalance(onlinePlayer))
+                        : "N/A");
 
             // Símbolo de la moneda
             case "currency_symbol":
-                return economyManager.getCurrencySymbol();
+                return uncached((player, onlinePlayer) -> economyManager.getCurrencySymbol());
 
             // Nombre de la moneda (plural)
             case "currency_name":
-                return economyManager.getCurrencyName();
+                return uncached((player, onlinePlayer) -> economyManager.getCurrencyName());
 
             // Nombre de la moneda (singular)
             case "currency_name_singular":
-                return economyManager.getCurrencyNameSingular();
+                return uncached((player, onlinePlayer) -> economyManager.getCurrencyNameSingular());
 
             // Saldo inicial para nuevos jugadores
             case "starting_balance":
-                return economyManager.formatMoney(economyManager.getStartingBalance());
+                return global((player, onlinePlayer) -> economyManager.formatMoney(economyManager.getStartingBalance()));
 
             // Total de dinero en circulación
             case "total_money":
-                return economyManager.formatMoney(economyManager.getTotalMoney());
+                return global((player, onlinePlayer) -> economyManager.formatMoney(economyManager.getTotalMoney()));
 
             // Total de dinero en circulación (formato corto)
             case "total_money_short":
-                return economyManager.getCurrencySymbol() + formatShort(economyManager.getTotalMoney());
+                return global((player, onlinePlayer) -> economyManager.getCurrencySymbol() + formatShort(economyManager.getTotalMoney()));
 
             // Número total de cuentas
             case "total_accounts":
-                return String.valueOf(economyManager.getTotalAccounts());
+                return global((player, onlinePlayer) -> String.valueOf(economyManager.getTotalAccounts()));
 
             // Posición en el ranking de dinero
             case "rank":
-                if (onlinePlayer != null) {
-                    return String.valueOf(getPlayerRank(onlinePlayer));
-                }
-                return "N/A";
+                return perPlayer((player, onlinePlayer) -> onlinePlayer != null
+                        ? String.valueOf(getPlayerRank(onlinePlayer))
+                        : "N/A");
 
-            // Top 1 jugador más rico
+            // Top 1-3 jugador más rico y su dinero
             case "top_1_player":
-                return getTopPlayer(1);
-
-            // Top 1 dinero
+                return topPlayer(1);
             case "top_1_money":
-                return getTopMoney(1);
-
-            // Top 2 jugador más rico
+                return topMoney(1);
             case "top_2_player":
-                return getTopPlayer(2);
-
-            // Top 2 dinero
+                return topPlayer(2);
             case "top_2_money":
-                return getTopMoney(2);
-
-            // Top 3 jugador más rico
+                return topMoney(2);
             case "top_3_player":
-                return getTopPlayer(3);
-
-            // Top 3 dinero
+                return topPlayer(3);
             case "top_3_money":
-                return getTopMoney(3);
+                return topMoney(3);
 
             // Estado de Vault
             case "vault_enabled":
-                return plugin.isVaultEnabled() ? "Habilitado" : "Deshabilitado";
-
-            // ========== PLACEHOLDERS DINÁMICOS (DENTRO DEL DEFAULT) ==========
+                return uncached((player, onlinePlayer) -> plugin.isVaultEnabled() ? "Habilitado" : "Deshabilitado");
 
             default:
-                // ========== PLACEHOLDERS PARA MÚLTIPLES MONEDAS ==========
-
-                // Placeholders dinámicos para monedas específicas: %eco_<currency>_money%
-                if (params.endsWith("_money") && params.length() > 6) {
-                    try {
-                        String currencyId = params.substring(0, params.length() - 6);
-                        Currency currency = currencyManager.getCurrency(currencyId);
-
-                        if (currency != null && currency.isEnabled() && onlinePlayer != null) {
-                            double balance = economyManager.getBalance(onlinePlayer, currencyId);
-                            return currency.formatMoney(balance);
-                        }
-                        return "N/A";
-                    } catch (Exception e) {
-                        return "N/A";
-                    }
-                }
+                return compileDynamic(params);
+        }
+    }
 
-                // Placeholders dinámicos para monedas específicas (raw): %eco_<currency>_money_raw%
-                if (params.endsWith("_money_raw") && params.length() > 10) {
-                    try {
-                        String currencyId = params.substring(0, params.length() - 10);
-                        Currency currency = currencyManager.getCurrency(currencyId);
-
-                        if (currency != null && currency.isEnabled() && onlinePlayer != null) {
-                            double balance = economyManager.getBalance(onlinePlayer, currencyId);
-                            return String.format(currency.isDecimal() ? "%.2f" : "%.0f", balance);
-                        }
-                        return "0.00";
-                    } catch (Exception e) {
-                        return "0.00";
-                    }
-                }
+    private CompiledPlaceholder compileDynamic(String params) {
+        // ========== PLACEHOLDERS LEGACY (COMPATIBILIDAD) ==========
 
-                // Placeholders dinámicos para símbolos de monedas: %eco_<currency>_symbol%
-                if (params.endsWith("_symbol") && params.length() > 7) {
-                    try {
-                        String currencyId = params.substring(0, params.length() - 7);
-                        Currency currency = currencyManager.getCurrency(currencyId);
-
-                        if (currency != null) {
-                            return currency.getSymbol();
-                        }
-                        return "$";
-                    } catch (Exception e) {
-                        return "$";
-                    }
-                }
+        // Placeholder dinámico para verificar si puede pagar: %eco_can_pay_<amount>%
+        if (params.startsWith("can_pay_")) {
+            return compileCanPay(params.substring(8));
+        }
 
-                // Placeholders dinámicos para nombres de monedas: %eco_<currency>_name%
-                if (params.endsWith("_name") && params.length() > 5) {
-                    try {
-                        String currencyId = params.substring(0, params.length() - 5);
-                        Currency currency = currencyManager.getCurrency(currencyId);
-
-                        if (currency != null) {
-                            return currency.getName();
-                        }
-                        return "monedas";
-                    } catch (Exception e) {
-                        return "monedas";
-                    }
+        // Placeholders dinámicos para el top: %eco_top_<number>_player% y %eco_top_<number>_money%
+        if (params.startsWith("top_")) {
+            if (params.endsWith("_player")) {
+                int position = parsePosition(params.substring(4, Math.max(4, params.length() - 7)));
+                if (position > 0) {
+                    return topPlayer(position);
                 }
-
-                // ========== PLACEHOLDERS NUEVOS PARA MONEDAS ESPECÍFICAS ==========
-                
-                // Placeholder para obtener nombre del top 1 jugador de una moneda específica: %eco_<currency>_top_1_player%
-                if (params.endsWith("_top_1_player") && params.length() > 14) {
-                    try {
-                        String currencyId = params.substring(0, params.length() - 14);
-                        return getTopPlayerWithUUID(1, currencyId);
-                    } catch (Exception e) {
-                        return "N/A";
-                    }
+            } else if (params.endsWith("_money")) {
+                int position = parsePosition(params.substring(4, Math.max(4, params.length() - 6)));
+                if (position > 0) {
+                    return topMoney(position);
                 }
+            }
+        }
 
-                // Placeholder para obtener UUID del top 1 jugador de una moneda específica: %eco_<currency>_top_1_uuid%
-                if (params.endsWith("_top_1_uuid") && params.length() > 13) {
-                    try {
-                        String currencyId = params.substring(0, params.length() - 13);
-                        return getTopPlayerUUID(1, currencyId);
-                    } catch (Exception e) {
-                        return "N/A";
-                    }
-                }
+        // ========== PLACEHOLDERS PARA MÚLTIPLES MONEDAS ==========
 
-                // Placeholder para obtener dinero del top 1 jugador de una moneda específica: %eco_<currency>_top_1_money%
-                if (params.endsWith("_top_1_money") && params.length() > 13) {
-                    try {
-                        String currencyId = params.substring(0, params.length() - 13);
-                        return getTopMoneyWithUUID(1, currencyId);
-                    } catch (Exception e) {
-                        return "N/A";
-                    }
+        // %eco_<currency>_money_raw%
+        if (params.endsWith("_money_raw") && params.length() > 10) {
+            String currencyId = params.substring(0, params.length() - 10);
+            return perPlayer((player, onlinePlayer) -> {
+                Currency currency = getEnabledCurrency(currencyId);
+                if (currency != null && onlinePlayer != null) {
+                    double balance = economyManager.getBalance(onlinePlayer, currencyId);
+                    return MoneyFormatter.formatFixed(balance, currency.isDecimal() ? 2 : 0);
                 }
+                return "0.00";
+            });
+        }
 
-                // Placeholder para obtener nombre del top N jugador de una moneda específica: %eco_<currency>_top_<N>_player%
-                if (params.startsWith("top_") && params.contains("_") && params.endsWith("_player")) {
-                    try {
-                        String[] parts = params.split("_");
-                        if (parts.length >= 4) {
-                            String currencyId = params.substring(0, params.lastIndexOf("_top_"));
-                            int position = Integer.parseInt(parts[1]);
-                            return getTopPlayerWithUUID(position, currencyId);
-                        }
-                    } catch (Exception e) {
-                        return "N/A";
+        // %eco_<currency>_<N>_value_raw%
+        if (params.endsWith("_value_raw")) {
+            PositionKey key = PositionKey.parse(params.substring(0, params.length() - 10));
+            if (key != null) {
+                return global((player, onlinePlayer) -> {
+                    Currency currency = getEnabledCurrency(key.getCurrencyId());
+                    if (currency != null) {
+                        double balance = leaderboardCache.getPlayerBalanceRaw(key.getCurrencyId(), key.getPosition());
+                        return MoneyFormatter.formatFixed(balance, currency.isDecimal() ? 2 : 0);
                     }
-                }
+                    return "0.00";
+                });
+            }
+        }
 
-                // Placeholder para obtener UUID del top N jugador de una moneda específica: %eco_<currency>_top_<N>_uuid%
-                if (params.startsWith("top_") && params.contains("_") && params.endsWith("_uuid")) {
-                    try {
-                        String[] parts = params.split("_");
-                        if (parts.length >= 4) {
-                            String currencyId = params.substring(0, params.lastIndexOf("_top_"));
-                            int position = Integer.parseInt(parts[1]);
-                            return getTopPlayerUUID(position, currencyId);
-                        }
-                    } catch (Exception e) {
-                        return "N/A";
-                    }
+        // %eco_<currency>_top_<N>_player% y %eco_<currency>_<N>_player%
+        if (params.endsWith("_player")) {
+            PositionKey key = PositionKey.parse(params.substring(0, params.length() - 7));
+            if (key != null) {
+                String topCurrencyId = key.getTopCurrencyId();
+                if (topCurrencyId != null) {
+                    return global((player, onlinePlayer) -> getTopPlayerWithUUID(key.getPosition(), topCurrencyId));
                 }
+                return global((player, onlinePlayer) -> getEnabledCurrency(key.getCurrencyId()) != null
+                        ? leaderboardCache.getPlayerName(key.getCurrencyId(), key.getPosition())
+                        : "N/A");
+            }
+        }
 
-                // Placeholder para obtener dinero del top N jugador de una moneda específica: %eco_<currency>_top_<N>_money%
-                if (params.startsWith("top_") && params.contains("_") && params.endsWith("_money")) {
-                    try {
-                        String[] parts = params.split("_");
-                        if (parts.length >= 4) {
-                            String currencyId = params.substring(0, params.lastIndexOf("_top_"));
-                            int position = Integer.parseInt(parts[1]);
-                            return getTopMoneyWithUUID(position, currencyId);
-                        }
-                    } catch (Exception e) {
-                        return "N/A";
-                    }
+        // %eco_<currency>_top_<N>_uuid% y %eco_<currency>_<N>_uuid%
+        if (params.endsWith("_uuid")) {
+            PositionKey key = PositionKey.parse(params.substring(0, params.length() - 5));
+            if (key != null) {
+                String topCurrencyId = key.getTopCurrencyId();
+                if (topCurrencyId != null) {
+                    return global((player, onlinePlayer) -> getTopPlayerUUID(key.getPosition(), topCurrencyId));
                 }
+                return global((player, onlinePlayer) -> getEnabledCurrency(key.getCurrencyId()) != null
+                        ? leaderboardCache.getPlayerUuid(key.getCurrencyId(), key.getPosition())
+                        : "N/A");
+            }
+        }
 
-                // ========== PLACEHOLDERS LEGACY (COMPATIBILIDAD) ==========
-
-                // Placeholder dinámico para verificar si puede pagar:
-                // %eco_can_pay_<amount>%
-                if (params.startsWith("can_pay_")) {
-                    if (onlinePlayer != null) {
-                        try {
-                            double amount = Double.parseDouble(params.substring(8));
-                            return economyManager.hasEnoughMoney(onlinePlayer, amount) ? "Sí" : "No";
-                        } catch (NumberFormatException e) {
-                            return "Error";
-                        }
-                    }
-                    return "N/A";
-                }
+        // %eco_<currency>_top_<N>_money% y %eco_<currency>_money%
+        if (params.endsWith("_money") && params.length() > 6) {
+            String prefix = params.substring(0, params.length() - 6);
+            PositionKey key = PositionKey.parse(prefix);
+            String topCurrencyId = key != null ? key.getTopCurrencyId() : null;
+            if (topCurrencyId != null) {
+                return global((player, onlinePlayer) -> getTopMoneyWithUUID(key.getPosition(), topCurrencyId));
+            }
 
-                // Placeholder dinámico para top players: %eco_top_<number>_player%
-                if (params.startsWith("top_") && params.endsWith("_player")) {
-                    try {
-                        String numberStr = params.substring(4, params.length() - 7);
-                        int position = Integer.parseInt(numberStr);
-                        return getTopPlayer(position);
-                    } catch (NumberFormatException e) {
-                        return "N/A";
-                    }
+            return perPlayer((player, onlinePlayer) -> {
+                Currency currency = getEnabledCurrency(prefix);
+                if (currency != null && onlinePlayer != null) {
+                    return currency.formatMoney(economyManager.getBalance(onlinePlayer, prefix));
                 }
+                return "N/A";
+            });
+        }
 
-                // Placeholder dinámico para top money: %eco_top_<number>_money%
-                if (params.startsWith("top_") && params.endsWith("_money")) {
-                    try {
-                        String numberStr = params.substring(4, params.length() - 6);
-                        int position = Integer.parseInt(numberStr);
-                        return getTopMoney(position);
-                    } catch (NumberFormatException e) {
-                        return "N/A";
-                    }
-                }
+        // %eco_<currency>_<N>_value%
+        if (params.endsWith("_value")) {
+            PositionKey key = PositionKey.parse(params.substring(0, params.length() - 6));
+            if (key != null) {
+                return global((player, onlinePlayer) -> getEnabledCurrency(key.getCurrencyId()) != null
+                        ? leaderboardCache.getPlayerBalance(key.getCurrencyId(), key.getPosition())
+                        : "N/A");
+            }
+        }
 
-                // ========== NUEVOS PLACEHOLDERS DE LEADERBOARD CON CACHE ==========
-                
-                // Placeholder para obtener nombre del jugador en posición N: %eco_<currency>_<N>_player%
-                if (params.matches("^[a-zA-Z0-9_]+_\\d+_player$")) {
-                    try {
-                        String[] parts = params.split("_");
-                        if (parts.length >= 3) {
-                            // Reconstruir el ID de la moneda (puede contener guiones bajos)
-                            StringBuilder currencyIdBuilder = new StringBuilder();
-                            for (int i = 0; i < parts.length - 2; i++) {
-                                if (i > 0) currencyIdBuilder.append("_");
-                                currencyIdBuilder.append(parts[i]);
-                            }
-                            String currencyId = currencyIdBuilder.toString();
-                            int position = Integer.parseInt(parts[parts.length - 2]);
-                            
-                            // Verificar que la moneda exista y esté habilitada
-                            Currency currency = currencyManager.getCurrency(currencyId);
-                            if (currency != null && currency.isEnabled()) {
-                                return leaderboardCache.getPlayerName(currencyId, position);
-                            }
-                        }
-                        return "N/A";
-                    } catch (Exception e) {
-                        return "N/A";
-                    }
-                }
+        // %eco_<currency>_symbol%
+        if (params.endsWith("_symbol") && params.length() > 7) {
+            String currencyId = params.substring(0, params.length() - 7);
+            return uncached((player, onlinePlayer) -> {
+                Currency currency = currencyManager.getCurrency(currencyId);
+                return currency != null ? currency.getSymbol() : "$";
+            });
+        }
 
-                // Placeholder para obtener valor del jugador en posición N: %eco_<currency>_<N>_value%
-                if (params.matches("^[a-zA-Z0-9_]+_\\d+_value$")) {
-                    try {
-                        String[] parts = params.split("_");
-                        if (parts.length >= 3) {
-                            // Reconstruir el ID de la moneda (puede contener guiones bajos)
-                            StringBuilder currencyIdBuilder = new StringBuilder();
-                            for (int i = 0; i < parts.length - 2; i++) {
-                                if (i > 0) currencyIdBuilder.append("_");
-                                currencyIdBuilder.append(parts[i]);
-                            }
-                            String currencyId = currencyIdBuilder.toString();
-                            int position = Integer.parseInt(parts[parts.length - 2]);
-                            
-                            // Verificar que la moneda exista y esté habilitada
-                            Currency currency = currencyManager.getCurrency(currencyId);
-                            if (currency != null && currency.isEnabled()) {
-                                return leaderboardCache.getPlayerBalance(currencyId, position);
-                            }
-                        }
-                        return "N/A";
-                    } catch (Exception e) {
-                        return "N/A";
-                    }
-                }
+        // %eco_<currency>_rank%
+        if (params.endsWith("_rank") && params.length() > 5) {
+            String currencyId = params.substring(0, params.length() - 5);
+            return perPlayer((player, onlinePlayer) -> getEnabledCurrency(currencyId) != null && onlinePlayer != null
+                    ? String.valueOf(rankIndex.getRank(onlinePlayer, currencyId))
+                    : "N/A");
+        }
 
-                // Placeholder para obtener UUID del jugador en posición N: %eco_<currency>_<N>_uuid%
-                if (params.matches("^[a-zA-Z0-9_]+_\\d+_uuid$")) {
-                    try {
-                        String[] parts = params.split("_");
-                        if (parts.length >= 3) {
-                            // Reconstruir el ID de la moneda (puede contener guiones bajos)
-                            StringBuilder currencyIdBuilder = new StringBuilder();
-                            for (int i = 0; i < parts.length - 2; i++) {
-                                if (i > 0) currencyIdBuilder.append("_");
-                                currencyIdBuilder.append(parts[i]);
-                            }
-                            String currencyId = currencyIdBuilder.toString();
-                            int position = Integer.parseInt(parts[parts.length - 2]);
-                            
-                            // Verificar que la moneda exista y esté habilitada
-                            Currency currency = currencyManager.getCurrency(currencyId);
-                            if (currency != null && currency.isEnabled()) {
-                                return leaderboardCache.getPlayerUuid(currencyId, position);
-                            }
-                        }
-                        return "N/A";
-                    } catch (Exception e) {
-                        return "N/A";
-                    }
-                }
+        // %eco_<currency>_name%
+        if (params.endsWith("_name") && params.length() > 5) {
+            String currencyId = params.substring(0, params.length() - 5);
+            return uncached((player, onlinePlayer) -> {
+                Currency currency = currencyManager.getCurrency(currencyId);
+                return currency != null ? currency.getName() : "monedas";
+            });
+        }
 
-                // Placeholder para obtener valor sin formato del jugador en posición N: %eco_<currency>_<N>_value_raw%
-                if (params.matches("^[a-zA-Z0-9_]+_\\d+_value_raw$")) {
-                    try {
-                        String[] parts = params.split("_");
-                        if (parts.length >= 4) {
-                            // Reconstruir el ID de la moneda (puede contener guiones bajos)
-                            StringBuilder currencyIdBuilder = new StringBuilder();
-                            for (int i = 0; i < parts.length - 3; i++) {
-                                if (i > 0) currencyIdBuilder.append("_");
-                                currencyIdBuilder.append(parts[i]);
-                            }
-                            String currencyId = currencyIdBuilder.toString();
-                            int position = Integer.parseInt(parts[parts.length - 3]);
-                            
-                            // Verificar que la moneda exista y esté habilitada
-                            Currency currency = currencyManager.getCurrency(currencyId);
-                            if (currency != null && currency.isEnabled()) {
-                                double balance = leaderboardCache.getPlayerBalanceRaw(currencyId, position);
-                                return String.format(currency.isDecimal() ? "%.2f" : "%.0f", balance);
-                            }
-                        }
-                        return "0.00";
-                    } catch (Exception e) {
-                        return "0.00";
-                    }
-                }
+        return CompiledPlaceholder.UNKNOWN; // Placeholder no reconocido
+    }
 
-                return null; // Placeholder no reconocido
+    private CompiledPlaceholder compileCanPay(String amountText) {
+        double amount;
+        try {
+            amount = Double.parseDouble(amountText);
+        } catch (NumberFormatException e) {
+            return uncached((player, onlinePlayer) -> onlinePlayer != null ? "Error" : "N/A");
         }
+
+        return perPlayer((player, onlinePlayer) -> {
+            if (onlinePlayer == null) {
+                return "N/A";
+            }
+            return economyManager.hasEnoughMoney(onlinePlayer, amount) ? "Sí" : "No";
+        });
     }
 
-    // Formatea un número en formato corto (K, M, B, T)
-    private String formatShort(double amount) {
-        if (amount >= 1_000_000_000_000L) {
-            return String.format("%.1fT", amount / 1_000_000_000_000.0);
-        } else if (amount >= 1_000_000_000) {
-            return String.format("%.1fB", amount / 1_000_000_000.0);
-        } else if (amount >= 1_000_000) {
-            return String.format("%.1fM", amount / 1_000_000.0);
-        } else if (amount >= 1_000) {
-            return String.format("%.1fK", amount / 1_000.0);
-        } else {
-            return String.format("%.2f", amount);
-        }
+    private CompiledPlaceholder topPlayer(int position) {
+        return global((player, onlinePlayer) -> getTopPlayer(position));
     }
 
-    // Obtiene la posición del jugador en el ranking de dinero
-    private int getPlayerRank(Player player) {
-        Map<String, Double> topBalances = economyManager.getTopBalances(Integer.MAX_VALUE);
-        int rank = 1;
+    private CompiledPlaceholder topMoney(int position) {
+        return global((player, onlinePlayer) -> getTopMoney(position));
+    }
+
+    private static CompiledPlaceholder perPlayer(PlaceholderResolver resolver) {
+        return new CompiledPlaceholder(CompiledPlaceholder.Scope.PLAYER, resolver);
+    }
+
+    private static CompiledPlaceholder global(PlaceholderResolver resolver) {
+        return new CompiledPlaceholder(CompiledPlaceholder.Scope.GLOBAL, resolver);
+    }
 
-        for (Map.Entry<String, Double> entry : topBalances.entrySet()) {
-            if (entry.getKey().equals(player.getName())) {
-                return rank;
+    private static CompiledPlaceholder uncached(PlaceholderResolver resolver) {
+        return new CompiledPlaceholder(CompiledPlaceholder.Scope.UNCACHED, resolver);
+    }
+
+    // La moneda se busca al resolver y no al compilar para respetar las recargas de configuración
+    private Currency getEnabledCurrency(String currencyId) {
+        Currency currency = currencyManager.getCurrency(currencyId);
+        return currency != null && currency.isEnabled() ? currency : null;
+    }
+
+    // Posición del top escrita solo con dígitos, o -1 si no es válida
+    private static int parsePosition(String text) {
+        if (text.isEmpty() || text.length() > 9) {
+            return -1;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+        }
+        return Integer.parseInt(text);
+    }
+
+    /**
+     * Clave "<currency>_<N>" ya separada en moneda y posición
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static final class PositionKey {
+        private final String currencyId;
+        private final int position;
+
+        static PositionKey parse(String text) {
+            int separator = text.lastIndexOf('_');
+            if (separator <= 0) {
+                return null;
             }
-            rank++;
+
+            int position = parsePosition(text.substring(separator + 1));
+            return position > 0 ? new PositionKey(text.substring(0, separator), position) : null;
         }
 
-        return rank;
+        // Moneda de las claves "<currency>_top_<N>", o null si la clave no tiene esa forma
+        String getTopCurrencyId() {
+            return currencyId.endsWith("_top") && currencyId.length() > 4
+                    ? currencyId.substring(0, currencyId.length() - 4)
+                    : null;
+        }
+    }
+
+    // Formatea un número en formato corto (K, M, B, T)
+    private String formatShort(double amount) {
+        return MoneyFormatter.formatShortNumber(amount);
+    }
+
+    // Obtiene la posición del jugador en el ranking de dinero
+    private int getPlayerRank(Player player) {
+        return rankIndex.getRank(player, "default");
     }
 
     // Obtiene el nombre del jugador en la posición especificada del top
     private String getTopPlayer(int position) {
-        Map<String, Double> topBalances = economyManager.getTopBalances(position);
-
-        if (topBalances.size() >= position) {
-            return topBalances.keySet().toArray(new String[0])[position - 1];
+        UUID uuid = rankIndex.getPlayerAt("default", position);
+        if (uuid == null) {
+            return "N/A";
         }
 
-        return "N/A";
+        String name = Bukkit.getOfflinePlayer(uuid).getName();
+        return name != null ? name : "Unknown";
     }
 
     // Obtiene el dinero del jugador en la posición especificada del top
     private String getTopMoney(int position) {
-        Map<String, Double> topBalances = economyManager.getTopBalances(position);
-
-        if (topBalances.size() >= position) {
-            Double amount = topBalances.values().toArray(new Double[0])[position - 1];
-            return economyManager.formatMoney(amount);
+        double amount = rankIndex.getBalanceAt("default", position);
+        if (Double.isNaN(amount)) {
+            return "N/A";
         }
 
-        return "N/A";
+        return economyManager.formatMoney(amount);
     }
 
     // ========== PLACEHOLDERS ACTUALIZADOS PARA SOPORTE DE NOMBRES ==========
     
     // Obtiene el nombre del jugador en la posición especificada del top usando el nuevo sistema de nombres
     private String getTopPlayerWithUUID(int position, String currencyId) {
-        Object[][] topBalances;
-        
-        if ("default".equals(currencyId)) {
-            topBalances = economyManager.getTopBalancesWithNames(position);
-        } else {
-            topBalances = economyManager.getTopBalancesWithNames(currencyId, position);
-        }
+        Object[][] topBalances = getTopBalancesWithNames(position, currencyId);
 
         if (topBalances.length >= position) {
             // El nuevo formato es [UUID, playerName, balance]
@@ -540,13 +510,7 @@ public class MythicEconomyPlaceholders extends PlaceholderExpansion {
 
     // Obtiene el UUID del jugador en la posición especificada del top
     private String getTopPlayerUUID(int position, String currencyId) {
-        Object[][] topBalances;
-        
-        if ("default".equals(currencyId)) {
-            topBalances = economyManager.getTopBalancesWithNames(position);
-        } else {
-            topBalances = economyManager.getTopBalancesWithNames(currencyId, position);
-        }
+        Object[][] topBalances = getTopBalancesWithNames(position, currencyId);
 
         if (topBalances.length >= position) {
             // El nuevo formato es [UUID, playerName, balance]
@@ -558,13 +522,7 @@ public class MythicEconomyPlaceholders extends PlaceholderExpansion {
 
     // Obtiene el dinero del jugador en la posición especificada del top usando el nuevo sistema
     private String getTopMoneyWithUUID(int position, String currencyId) {
-        Object[][] topBalances;
-        
-        if ("default".equals(currencyId)) {
-            topBalances = economyManager.getTopBalancesWithNames(position);
-        } else {
-            topBalances = economyManager.getTopBalancesWithNames(currencyId, position);
-        }
+        Object[][] topBalances = getTopBalancesWithNames(position, currencyId);
 
         if (topBalances.length >= position) {
             // El nuevo formato es [UUID, playerName, balance]
@@ -574,4 +532,16 @@ public class MythicEconomyPlaceholders extends PlaceholderExpansion {
 
         return "N/A";
     }
-}
\ No newline at end of file
+
+    // Consulta el top con nombres; un fallo de la base de datos se muestra como "N/A"
+    private Object[][] getTopBalancesWithNames(int position, String currencyId) {
+        try {
+            if ("default".equals(currencyId)) {
+                return economyManager.getTopBalancesWithNames(position);
+            }
+            return economyManager.getTopBalancesWithNames(currencyId, position);
+        } catch (Exception e) {
+            return new Object[0][];
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.spectrasonic.MythicEconomy.placeholders;
+
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+
+/**
+ * Placeholder ya analizado: el ID de moneda y la posición se extraen una sola vez al compilar la clave,
+ * así que resolverlo solo consulta los datos
+ */
+@FunctionalInterface
+interface PlaceholderResolver {
+
+    /**
+     * @param player jugador de la petición
+     * @param onlinePlayer el mismo jugador si está conectado, o null
+     */
+    String resolve(OfflinePlayer player, Player onlinePlayer);
+}
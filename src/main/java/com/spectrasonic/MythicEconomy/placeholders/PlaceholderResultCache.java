@@ -0,0 +1,139 @@
+package com.spectrasonic.MythicEconomy.placeholders;
+
+import com.spectrasonic.MythicEconomy.Main;
+import com.spectrasonic.MythicEconomy.manager.BalanceChangeListener;
+import com.spectrasonic.MythicEconomy.manager.EconomyManager;
+import com.spectrasonic.MythicEconomy.manager.EconomyManagerAsync;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché de resultados de placeholders con un TTL corto.
+ *
+ * Los plugins de scoreboard y tab piden los mismos placeholders para cada jugador varias veces por segundo;
+ * dentro del TTL la respuesta es una búsqueda en un mapa sin formatear ni asignar memoria. Los resultados
+ * de un jugador se descartan en cuanto cambia su saldo, así que solo los cambios que no pasan por los
+ * managers (otros servidores, ediciones externas) o los que afectan a otros jugadores (posición en el ranking)
+ * tardan hasta el TTL en verse.
+ */
+final class PlaceholderResultCache implements BalanceChangeListener {
+
+    // Cada cuánto se eliminan los resultados caducados de jugadores que ya no se consultan
+    private static final long SWEEP_INTERVAL_TICKS = 20L * 30;
+
+    private final Main plugin;
+    private final EconomyManager economyManager;
+    private final long ttlNanos;
+
+    // UUID del jugador -> clave del placeholder -> resultado
+    private final Map<UUID, Map<String, CachedResult>> playerResults = new ConcurrentHashMap<>();
+    private final Map<String, CachedResult> globalResults = new ConcurrentHashMap<>();
+
+    private BukkitTask sweepTask;
+
+    PlaceholderResultCache(Main plugin, long ttlMillis) {
+        this.plugin = plugin;
+        this.economyManager = plugin.getEconomyManager();
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMillis));
+    }
+
+    boolean isEnabled() {
+        return ttlNanos > 0;
+    }
+
+    void start() {
+        if (!isEnabled() || sweepTask != null) {
+            return;
+        }
+
+        economyManager.addBalanceChangeListener(this);
+        EconomyManagerAsync asyncManager = EconomyManagerAsync.getInstance();
+        if (asyncManager != null) {
+            asyncManager.addBalanceChangeListener(this);
+        }
+
+        sweepTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::sweep,
+                SWEEP_INTERVAL_TICKS, SWEEP_INTERVAL_TICKS);
+    }
+
+    void stop() {
+        if (sweepTask == null) {
+            return;
+        }
+
+        sweepTask.cancel();
+        sweepTask = null;
+
+        economyManager.removeBalanceChangeListener(this);
+        EconomyManagerAsync asyncManager = EconomyManagerAsync.getInstance();
+        if (asyncManager != null) {
+            asyncManager.removeBalanceChangeListener(this);
+        }
+
+        playerResults.clear();
+        globalResults.clear();
+    }
+
+    @Override
+    public void onBalanceChange(UUID playerUUID, String currencyId, double newBalance) {
+        playerResults.remove(playerUUID);
+    }
+
+    // ========== RESULTADOS POR JUGADOR ==========
+
+    /**
+     * Resultado vigente del placeholder para el jugador, o null si no hay
+     */
+    String getPlayerResult(UUID playerUUID, String params) {
+        Map<String, CachedResult> results = playerResults.get(playerUUID);
+        return results != null ? fresh(results.get(params)) : null;
+    }
+
+    void putPlayerResult(UUID playerUUID, String params, String value) {
+        playerResults.computeIfAbsent(playerUUID, uuid -> new ConcurrentHashMap<>())
+                .put(params, new CachedResult(value, System.nanoTime() + ttlNanos));
+    }
+
+    // ========== RESULTADOS GLOBALES ==========
+
+    /**
+     * Resultado vigente de un placeholder que no depende del jugador, o null si no hay
+     */
+    String getGlobalResult(String params) {
+        return fresh(globalResults.get(params));
+    }
+
+    void putGlobalResult(String params, String value) {
+        globalResults.put(params, new CachedResult(value, System.nanoTime() + ttlNanos));
+    }
+
+    // ========== LIMPIEZA ==========
+
+    private String fresh(CachedResult result) {
+        return result != null && result.expiresAt - System.nanoTime() > 0 ? result.value : null;
+    }
+
+    private void sweep() {
+        long now = System.nanoTime();
+        globalResults.values().removeIf(result -> result.expiresAt - now <= 0);
+        playerResults.values().removeIf(results -> {
+            results.values().removeIf(result -> result.expiresAt - now <= 0);
+            return results.isEmpty();
+        });
+    }
+
+    private static final class CachedResult {
+        private final String value;
+        private final long expiresAt;
+
+        private CachedResult(String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
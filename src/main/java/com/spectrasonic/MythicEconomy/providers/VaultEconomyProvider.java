@@ -6,14 +6,21 @@ import net.milkbowl.vault.economy.EconomyResponse.ResponseType;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
+import com.spectrasonic.MythicEconomy.database.CachingEconomyDataProvider;
+import com.spectrasonic.MythicEconomy.manager.BankManager;
 import com.spectrasonic.MythicEconomy.manager.EconomyManager;
+import com.spectrasonic.MythicEconomy.models.Bank;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.UUID;
 
 // Proveedor de Vault Economy que permite que otros plugins usen MythicEconomy a través de la API estándar de Vault
+// Funciona también con jugadores desconectados y nunca hace E/S bloqueante en el hilo principal
 public class VaultEconomyProvider implements Economy {
 
+    private static final String DEFAULT_CURRENCY = "default";
+
     private final EconomyManager economyManager;
     private final String currencyName = "Monedas";
     private final String currencyNameSingular = "Moneda";
@@ -34,7 +41,7 @@ public class VaultEconomyProvider implements Economy {
 
     @Override
     public boolean hasBankSupport() {
-        return false; // No implementamos sistema de bancos por ahora
+        return economyManager.getBankManager() != null;
     }
 
     @Override
@@ -59,13 +66,12 @@ public class VaultEconomyProvider implements Economy {
 
     @Override
     public boolean hasAccount(String playerName) {
-        OfflinePlayer player = Bukkit.getOfflinePlayer(playerName);
-        return player != null && player.hasPlayedBefore();
+        return hasAccount(resolveUUID(playerName));
     }
 
     @Override
     public boolean hasAccount(OfflinePlayer player) {
-        return player != null && player.hasPlayedBefore();
+        return player != null && (player.isOnline() || hasAccount(player.getUniqueId()) || player.hasPlayedBefore());
     }
 
     @Override
@@ -80,19 +86,12 @@ public class VaultEconomyProvider implements Economy {
 
     @Override
     public double getBalance(String playerName) {
-        OfflinePlayer player = Bukkit.getOfflinePlayer(playerName);
-        if (player != null && player.isOnline()) {
-            return economyManager.getBalance(player.getPlayer());
-        }
-        return 0.0;
+        return getBalance(resolveUUID(playerName));
     }
 
     @Override
     public double getBalance(OfflinePlayer player) {
-        if (player != null && player.isOnline()) {
-            return economyManager.getBalance(player.getPlayer());
-        }
-        return 0.0;
+        return player != null ? getBalance(player.getUniqueId()) : 0.0;
     }
 
     @Override
@@ -127,34 +126,12 @@ public class VaultEconomyProvider implements Economy {
 
     @Override
     public EconomyResponse withdrawPlayer(String playerName, double amount) {
-        OfflinePlayer player = Bukkit.getOfflinePlayer(playerName);
-        return withdrawPlayer(player, amount);
+        return withdrawPlayer(resolveUUID(playerName), amount);
     }
 
     @Override
     public EconomyResponse withdrawPlayer(OfflinePlayer player, double amount) {
-        if (player == null || !player.isOnline()) {
-            return new EconomyResponse(0, 0, ResponseType.FAILURE, "Jugador no encontrado o no está online.");
-        }
-
-        if (amount < 0) {
-            return new EconomyResponse(0, 0, ResponseType.FAILURE, "No se puede retirar una cantidad negativa.");
-        }
-
-        Player onlinePlayer = player.getPlayer();
-        double currentBalance = economyManager.getBalance(onlinePlayer);
-
-        if (currentBalance < amount) {
-            return new EconomyResponse(amount, currentBalance, ResponseType.FAILURE, "Fondos insuficientes.");
-        }
-
-        if (economyManager.removeMoney(onlinePlayer, amount)) {
-            double newBalance = economyManager.getBalance(onlinePlayer);
-            return new EconomyResponse(amount, newBalance, ResponseType.SUCCESS, "");
-        } else {
-            return new EconomyResponse(amount, currentBalance, ResponseType.FAILURE,
-                    "Error al procesar la transacción.");
-        }
+        return withdrawPlayer(player != null ? player.getUniqueId() : null, amount);
     }
 
     @Override
@@ -169,30 +146,12 @@ public class VaultEconomyProvider implements Economy {
 
     @Override
     public EconomyResponse depositPlayer(String playerName, double amount) {
-        OfflinePlayer player = Bukkit.getOfflinePlayer(playerName);
-        return depositPlayer(player, amount);
+        return depositPlayer(resolveUUID(playerName), amount);
     }
 
     @Override
     public EconomyResponse depositPlayer(OfflinePlayer player, double amount) {
-        if (player == null || !player.isOnline()) {
-            return new EconomyResponse(0, 0, ResponseType.FAILURE, "Jugador no encontrado o no está online.");
-        }
-
-        if (amount < 0) {
-            return new EconomyResponse(0, 0, ResponseType.FAILURE, "No se puede depositar una cantidad negativa.");
-        }
-
-        Player onlinePlayer = player.getPlayer();
-        double currentBalance = economyManager.getBalance(onlinePlayer);
-
-        if (economyManager.addMoney(onlinePlayer, amount)) {
-            double newBalance = economyManager.getBalance(onlinePlayer);
-            return new EconomyResponse(amount, newBalance, ResponseType.SUCCESS, "");
-        } else {
-            return new EconomyResponse(amount, currentBalance, ResponseType.FAILURE,
-                    "Error al procesar la transacción.");
-        }
+        return depositPlayer(player != null ? player.getUniqueId() : null, amount);
     }
 
     @Override
@@ -207,21 +166,12 @@ public class VaultEconomyProvider implements Economy {
 
     @Override
     public boolean createPlayerAccount(String playerName) {
-        OfflinePlayer player = Bukkit.getOfflinePlayer(playerName);
-        return createPlayerAccount(player);
+        return createPlayerAccount(resolveUUID(playerName));
     }
 
     @Override
     public boolean createPlayerAccount(OfflinePlayer player) {
-        if (player != null && player.isOnline()) {
-            Player onlinePlayer = player.getPlayer();
-            // Si el jugador no tiene saldo registrado, establecer saldo inicial
-            if (economyManager.getBalance(onlinePlayer) == 0.0) {
-                economyManager.setBalance(onlinePlayer, 100.0); // Saldo inicial por defecto
-                return true;
-            }
-        }
-        return false;
+        return player != null && createPlayerAccount(player.getUniqueId());
     }
 
     @Override
@@ -234,64 +184,334 @@ public class VaultEconomyProvider implements Economy {
         return createPlayerAccount(player); // No manejamos economías por mundo
     }
 
-    // Métodos de banco - No implementados
+    // ========== OPERACIONES POR UUID ==========
+    // Los jugadores conectados pasan por EconomyManager con sus eventos; los desconectados usan la caché
+    // de saldos, que no hace E/S en el hilo principal
+
+    // Resuelve un nombre sin consultar perfiles: jugadores conectados, índice local de nombres y caché de usuarios del servidor
+    private UUID resolveUUID(String playerName) {
+        if (playerName == null) {
+            return null;
+        }
+
+        Player onlinePlayer = Bukkit.getPlayerExact(playerName);
+        if (onlinePlayer != null) {
+            return onlinePlayer.getUniqueId();
+        }
+
+        UUID playerUUID = economyManager.getPlayerNameIndex().getUniqueId(playerName);
+        if (playerUUID != null) {
+            return playerUUID;
+        }
+
+        OfflinePlayer cachedPlayer = Bukkit.getOfflinePlayerIfCached(playerName);
+        return cachedPlayer != null ? cachedPlayer.getUniqueId() : null;
+    }
+
+    private boolean hasAccount(UUID playerUUID) {
+        if (playerUUID == null) {
+            return false;
+        }
+        CachingEconomyDataProvider balanceCache = economyManager.getBalanceCache();
+        return Bukkit.getPlayer(playerUUID) != null
+                || economyManager.getPlayerNameIndex().contains(playerUUID)
+                || (balanceCache != null && balanceCache.isCached(playerUUID));
+    }
+
+    private double getBalance(UUID playerUUID) {
+        if (playerUUID == null) {
+            return 0.0;
+        }
+
+        Player onlinePlayer = Bukkit.getPlayer(playerUUID);
+        if (onlinePlayer != null) {
+            return economyManager.getBalance(onlinePlayer);
+        }
+
+        // Cuenta desconectada. Fuera del hilo principal se lee del proveedor en el hilo que llama (una lectura
+        // acotada que deja la cuenta en memoria). En el hilo principal nunca se hace E/S: se devuelve el saldo en
+        // memoria si lo hay y, si no, 0.0 mientras la cuenta se carga en segundo plano; en ese intervalo has()
+        // responde false y withdrawPlayer falla indicando que la cuenta se está cargando
+        Double balance = economyManager.getBalanceNonBlocking(playerUUID, DEFAULT_CURRENCY);
+        return balance != null ? balance : 0.0;
+    }
+
+    private EconomyResponse withdrawPlayer(UUID playerUUID, double amount) {
+        if (playerUUID == null) {
+            return new EconomyResponse(0, 0, ResponseType.FAILURE, "Jugador no encontrado.");
+        }
+
+        if (amount < 0) {
+            return new EconomyResponse(0, 0, ResponseType.FAILURE, "No se puede retirar una cantidad negativa.");
+        }
+
+        Player onlinePlayer = Bukkit.getPlayer(playerUUID);
+        if (onlinePlayer != null) {
+            double currentBalance = economyManager.getBalance(onlinePlayer);
+
+            if (currentBalance < amount) {
+                return new EconomyResponse(amount, currentBalance, ResponseType.FAILURE, "Fondos insuficientes.");
+            }
+
+            if (economyManager.removeMoney(onlinePlayer, amount)) {
+                double newBalance = economyManager.getBalance(onlinePlayer);
+                return new EconomyResponse(amount, newBalance, ResponseType.SUCCESS, "");
+            } else {
+                return new EconomyResponse(amount, currentBalance, ResponseType.FAILURE,
+                        "Error al procesar la transacción.");
+            }
+        }
+
+        Double currentBalance = economyManager.getBalanceNonBlocking(playerUUID, DEFAULT_CURRENCY);
+        if (currentBalance == null) {
+            return new EconomyResponse(amount, 0, ResponseType.FAILURE,
+                    "La cuenta del jugador se está cargando, inténtalo de nuevo.");
+        }
+
+        if (currentBalance < amount) {
+            return new EconomyResponse(amount, currentBalance, ResponseType.FAILURE, "Fondos insuficientes.");
+        }
+
+        if (economyManager.withdrawNonBlocking(playerUUID, amount, DEFAULT_CURRENCY)) {
+            return new EconomyResponse(amount, currentBalance - amount, ResponseType.SUCCESS, "");
+        } else {
+            return new EconomyResponse(amount, currentBalance, ResponseType.FAILURE,
+                    "Error al procesar la transacción.");
+        }
+    }
+
+    private EconomyResponse depositPlayer(UUID playerUUID, double amount) {
+        if (playerUUID == null) {
+            return new EconomyResponse(0, 0, ResponseType.FAILURE, "Jugador no encontrado.");
+        }
+
+        if (amount < 0) {
+            return new EconomyResponse(0, 0, ResponseType.FAILURE, "No se puede depositar una cantidad negativa.");
+        }
+
+        Player onlinePlayer = Bukkit.getPlayer(playerUUID);
+        if (onlinePlayer != null) {
+            double currentBalance = economyManager.getBalance(onlinePlayer);
+
+            if (economyManager.addMoney(onlinePlayer, amount)) {
+                double newBalance = economyManager.getBalance(onlinePlayer);
+                return new EconomyResponse(amount, newBalance, ResponseType.SUCCESS, "");
+            } else {
+                return new EconomyResponse(amount, currentBalance, ResponseType.FAILURE,
+                        "Error al procesar la transacción.");
+            }
+        }
+
+        if (economyManager.depositNonBlocking(playerUUID, amount, DEFAULT_CURRENCY)) {
+            // Si la cuenta no estaba en memoria el depósito queda pendiente y el saldo se conoce al cargarla
+            Double newBalance = economyManager.getBalanceNonBlocking(playerUUID, DEFAULT_CURRENCY);
+            return new EconomyResponse(amount, newBalance != null ? newBalance : 0, ResponseType.SUCCESS, "");
+        } else {
+            return new EconomyResponse(amount, 0, ResponseType.FAILURE, "Error al procesar la transacción.");
+        }
+    }
+
+    private boolean createPlayerAccount(UUID playerUUID) {
+        if (playerUUID == null || hasAccount(playerUUID)) {
+            return false;
+        }
+        economyManager.ensureAccountAsync(playerUUID);
+        return true;
+    }
+
+    // ========== BANCOS ==========
+    // Cuentas con nombre gestionadas por BankManager; los depósitos no bloquean ni hacen E/S
+
+    private EconomyResponse bankUnavailable() {
+        return new EconomyResponse(0, 0, ResponseType.NOT_IMPLEMENTED, "Los bancos están deshabilitados.");
+    }
+
+    private EconomyResponse bankNotFound(String name) {
+        return new EconomyResponse(0, 0, ResponseType.FAILURE, "No existe el banco " + name + ".");
+    }
+
+    private EconomyResponse createBank(String name, UUID ownerUUID) {
+        BankManager bankManager = economyManager.getBankManager();
+        if (bankManager == null) {
+            return bankUnavailable();
+        }
+
+        if (ownerUUID == null) {
+            return new EconomyResponse(0, 0, ResponseType.FAILURE, "Jugador no encontrado.");
+        }
+
+        if (!BankManager.isValidName(name)) {
+            return new EconomyResponse(0, 0, ResponseType.FAILURE,
+                    "Nombre de banco no válido (letras, números, _ y -, hasta 32 caracteres).");
+        }
+
+        if (bankManager.createBank(name, ownerUUID) == null) {
+            return new EconomyResponse(0, 0, ResponseType.FAILURE, "Ya existe un banco con ese nombre.");
+        }
+        return new EconomyResponse(0, 0, ResponseType.SUCCESS, "");
+    }
+
+    private EconomyResponse isBankOwner(String name, UUID playerUUID) {
+        BankManager bankManager = economyManager.getBankManager();
+        if (bankManager == null) {
+            return bankUnavailable();
+        }
+
+        Bank bank = bankManager.getBank(name);
+        if (bank == null) {
+            return bankNotFound(name);
+        }
+        return bank.isOwner(playerUUID)
+                ? new EconomyResponse(0, 0, ResponseType.SUCCESS, "")
+                : new EconomyResponse(0, 0, ResponseType.FAILURE, "El jugador no es el propietario del banco.");
+    }
+
+    private EconomyResponse isBankMember(String name, UUID playerUUID) {
+        BankManager bankManager = economyManager.getBankManager();
+        if (bankManager == null) {
+            return bankUnavailable();
+        }
+
+        Bank bank = bankManager.getBank(name);
+        if (bank == null) {
+            return bankNotFound(name);
+        }
+        return bank.isMember(playerUUID)
+                ? new EconomyResponse(0, 0, ResponseType.SUCCESS, "")
+                : new EconomyResponse(0, 0, ResponseType.FAILURE, "El jugador no es miembro del banco.");
+    }
+
     @Override
     public EconomyResponse createBank(String name, String player) {
-        return new EconomyResponse(0, 0, ResponseType.NOT_IMPLEMENTED, "MythicEconomy no soporta bancos.");
+        return createBank(name, resolveUUID(player));
     }
 
     @Override
     public EconomyResponse createBank(String name, OfflinePlayer player) {
-        return new EconomyResponse(0, 0, ResponseType.NOT_IMPLEMENTED, "MythicEconomy no soporta bancos.");
+        return createBank(name, player != null ? player.getUniqueId() : null);
     }
 
     @Override
     public EconomyResponse deleteBank(String name) {
-        return new EconomyResponse(0, 0, ResponseType.NOT_IMPLEMENTED, "MythicEconomy no soporta bancos.");
+        BankManager bankManager = economyManager.getBankManager();
+        if (bankManager == null) {
+            return bankUnavailable();
+        }
+
+        Bank bank = bankManager.getBank(name);
+        if (bank == null) {
+            return bankNotFound(name);
+        }
+
+        if (bank.isSystem()) {
+            return new EconomyResponse(0, 0, ResponseType.FAILURE, "Las cuentas de sistema no se pueden eliminar.");
+        }
+
+        double balance = bankManager.getBalance(name, DEFAULT_CURRENCY);
+        if (!bankManager.deleteBank(name)) {
+            return bankNotFound(name);
+        }
+        return new EconomyResponse(balance, 0, ResponseType.SUCCESS, "");
     }
 
     @Override
     public EconomyResponse bankBalance(String name) {
-        return new EconomyResponse(0, 0, ResponseType.NOT_IMPLEMENTED, "MythicEconomy no soporta bancos.");
+        BankManager bankManager = economyManager.getBankManager();
+        if (bankManager == null) {
+            return bankUnavailable();
+        }
+
+        if (!bankManager.hasBank(name)) {
+            return bankNotFound(name);
+        }
+        return new EconomyResponse(0, bankManager.getBalance(name, DEFAULT_CURRENCY), ResponseType.SUCCESS, "");
     }
 
     @Override
     public EconomyResponse bankHas(String name, double amount) {
-        return new EconomyResponse(0, 0, ResponseType.NOT_IMPLEMENTED, "MythicEconomy no soporta bancos.");
+        BankManager bankManager = economyManager.getBankManager();
+        if (bankManager == null) {
+            return bankUnavailable();
+        }
+
+        if (!bankManager.hasBank(name)) {
+            return bankNotFound(name);
+        }
+
+        double balance = bankManager.getBalance(name, DEFAULT_CURRENCY);
+        return bankManager.has(name, amount, DEFAULT_CURRENCY)
+                ? new EconomyResponse(amount, balance, ResponseType.SUCCESS, "")
+                : new EconomyResponse(amount, balance, ResponseType.FAILURE, "Fondos insuficientes.");
     }
 
     @Override
     public EconomyResponse bankWithdraw(String name, double amount) {
-        return new EconomyResponse(0, 0, ResponseType.NOT_IMPLEMENTED, "MythicEconomy no soporta bancos.");
+        BankManager bankManager = economyManager.getBankManager();
+        if (bankManager == null) {
+            return bankUnavailable();
+        }
+
+        if (!bankManager.hasBank(name)) {
+            return bankNotFound(name);
+        }
+
+        if (amount < 0) {
+            return new EconomyResponse(0, 0, ResponseType.FAILURE, "No se puede retirar una cantidad negativa.");
+        }
+
+        if (bankManager.withdraw(name, amount, DEFAULT_CURRENCY)) {
+            return new EconomyResponse(amount, bankManager.getBalance(name, DEFAULT_CURRENCY), ResponseType.SUCCESS, "");
+        }
+        double balance = bankManager.getBalance(name, DEFAULT_CURRENCY);
+        return new EconomyResponse(amount, balance, ResponseType.FAILURE,
+                balance < amount ? "Fondos insuficientes." : "Error al procesar la transacción.");
     }
 
     @Override
     public EconomyResponse bankDeposit(String name, double amount) {
-        return new EconomyResponse(0, 0, ResponseType.NOT_IMPLEMENTED, "MythicEconomy no soporta bancos.");
+        BankManager bankManager = economyManager.getBankManager();
+        if (bankManager == null) {
+            return bankUnavailable();
+        }
+
+        if (!bankManager.hasBank(name)) {
+            return bankNotFound(name);
+        }
+
+        if (amount < 0) {
+            return new EconomyResponse(0, 0, ResponseType.FAILURE, "No se puede depositar una cantidad negativa.");
+        }
+
+        if (bankManager.deposit(name, amount, DEFAULT_CURRENCY)) {
+            return new EconomyResponse(amount, bankManager.getBalance(name, DEFAULT_CURRENCY), ResponseType.SUCCESS, "");
+        }
+        return new EconomyResponse(amount, bankManager.getBalance(name, DEFAULT_CURRENCY), ResponseType.FAILURE,
+                "Error al procesar la transacción.");
     }
 
     @Override
     public EconomyResponse isBankOwner(String name, String playerName) {
-        return new EconomyResponse(0, 0, ResponseType.NOT_IMPLEMENTED, "MythicEconomy no soporta bancos.");
+        return isBankOwner(name, resolveUUID(playerName));
     }
 
     @Override
     public EconomyResponse isBankOwner(String name, OfflinePlayer player) {
-        return new EconomyResponse(0, 0, ResponseType.NOT_IMPLEMENTED, "MythicEconomy no soporta bancos.");
+        return isBankOwner(name, player != null ? player.getUniqueId() : null);
     }
 
     @Override
     public EconomyResponse isBankMember(String name, String playerName) {
-        return new EconomyResponse(0, 0, ResponseType.NOT_IMPLEMENTED, "MythicEconomy no soporta bancos.");
+        return isBankMember(name, resolveUUID(playerName));
     }
 
     @Override
     public EconomyResponse isBankMember(String name, OfflinePlayer player) {
-        return new EconomyResponse(0, 0, ResponseType.NOT_IMPLEMENTED, "MythicEconomy no soporta bancos.");
+        return isBankMember(name, player != null ? player.getUniqueId() : null);
     }
 
     @Override
     public List<String> getBanks() {
-        return new ArrayList<>(); // No hay bancos
+        BankManager bankManager = economyManager.getBankManager();
+        return bankManager != null ? bankManager.getBankNames() : new ArrayList<>();
     }
 }
\ No newline at end of file
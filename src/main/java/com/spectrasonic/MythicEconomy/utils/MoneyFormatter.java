@@ -0,0 +1,300 @@
+package com.spectrasonic.MythicEconomy.utils;
+
+import lombok.Getter;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * Formateo de cantidades de dinero sin pasar por String.format.
+ *
+ * String.format analiza el patrón y crea un Formatter en cada llamada; aquí los dígitos se escriben
+ * directamente en un búfer reutilizable por hilo y la única asignación es el String resultante.
+ * La salida es idéntica byte a byte a la de los patrones "%.Nf" y "%,.Nf" con el Locale por defecto:
+ * se usan los mismos separadores, dígito cero y tamaño de grupo que Formatter, y los casos en los que
+ * el redondeo HALF_UP de Formatter podría diferir (valores casi en el punto medio o demasiado grandes)
+ * se delegan en String.format.
+ */
+public final class MoneyFormatter {
+
+    // Por encima de este valor escalado el error de la aritmética en double ya no permite garantizar el redondeo
+    private static final double FAST_PATH_LIMIT = 1e11;
+    // Distancia mínima al punto medio (en unidades del último decimal) para redondear sin consultar a Formatter
+    private static final double TIE_EPSILON = 1e-3;
+    private static final int MAX_FRACTION_DIGITS = 2;
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L
+    };
+    private static final String[] PLAIN_PATTERNS = {"%.0f", "%.1f", "%.2f"};
+    private static final String[] GROUPED_PATTERNS = {"%,.0f", "%,.1f", "%,.2f"};
+
+    private static final ThreadLocal<Buffer> BUFFERS = ThreadLocal.withInitial(Buffer::new);
+    private static volatile LocaleSymbols localeSymbols = LocaleSymbols.of(Locale.getDefault(Locale.Category.FORMAT));
+
+    @Getter
+    private final String symbol;
+    @Getter
+    private final int fractionDigits;
+
+    private MoneyFormatter(String symbol, int fractionDigits) {
+        this.symbol = String.valueOf(symbol);
+        this.fractionDigits = fractionDigits;
+    }
+
+    /**
+     * Crea un formateador para una moneda
+     * @param symbol Símbolo que precede a la cantidad
+     * @param fractionDigits Decimales (0 a 2)
+     */
+    public static MoneyFormatter of(String symbol, int fractionDigits) {
+        checkFractionDigits(fractionDigits);
+        return new MoneyFormatter(symbol, fractionDigits);
+    }
+
+    /**
+     * Indica si el formateador sigue correspondiendo a la configuración de la moneda
+     */
+    public boolean matches(String symbol, int fractionDigits) {
+        return this.fractionDigits == fractionDigits && this.symbol.equals(String.valueOf(symbol));
+    }
+
+    /**
+     * Equivale a {@code symbol + String.format("%.Nf", amount)}
+     */
+    public String format(double amount) {
+        return render(symbol, amount, fractionDigits, false, '\0');
+    }
+
+    /**
+     * Formato corto (K, M, B, T) con un decimal; por debajo de mil usa {@link #format(double)}
+     */
+    public String formatShort(double amount) {
+        if (amount >= 1_000_000_000_000L) {
+            return render(symbol, amount / 1_000_000_000_000.0, 1, false, 'T');
+        } else if (amount >= 1_000_000_000) {
+            return render(symbol, amount / 1_000_000_000.0, 1, false, 'B');
+        } else if (amount >= 1_000_000) {
+            return render(symbol, amount / 1_000_000.0, 1, false, 'M');
+        } else if (amount >= 1_000) {
+            return render(symbol, amount / 1_000.0, 1, false, 'K');
+        } else {
+            return format(amount);
+        }
+    }
+
+    // ========== FORMATOS SIN MONEDA ==========
+
+    /**
+     * Equivale a {@code String.format("%.Nf", amount)}
+     */
+    public static String formatFixed(double amount, int fractionDigits) {
+        checkFractionDigits(fractionDigits);
+        return render(null, amount, fractionDigits, false, '\0');
+    }
+
+    /**
+     * Equivale a {@code String.format("%,.Nf", amount)}
+     */
+    public static String formatGrouped(double amount, int fractionDigits) {
+        checkFractionDigits(fractionDigits);
+        return render(null, amount, fractionDigits, true, '\0');
+    }
+
+    /**
+     * Formato corto (K, M, B, T) con un decimal; por debajo de mil usa dos decimales
+     */
+    public static String formatShortNumber(double amount) {
+        if (amount >= 1_000_000_000_000L) {
+            return render(null, amount / 1_000_000_000_000.0, 1, false, 'T');
+        } else if (amount >= 1_000_000_000) {
+            return render(null, amount / 1_000_000_000.0, 1, false, 'B');
+        } else if (amount >= 1_000_000) {
+            return render(null, amount / 1_000_000.0, 1, false, 'M');
+        } else if (amount >= 1_000) {
+            return render(null, amount / 1_000.0, 1, false, 'K');
+        } else {
+            return render(null, amount, 2, false, '\0');
+        }
+    }
+
+    // ========== RENDERIZADO ==========
+
+    private static void checkFractionDigits(int fractionDigits) {
+        if (fractionDigits < 0 || fractionDigits > MAX_FRACTION_DIGITS) {
+            throw new IllegalArgumentException("Decimales no soportados: " + fractionDigits);
+        }
+    }
+
+    private static String render(String prefix, double value, int fractionDigits, boolean grouping, char suffix) {
+        LocaleSymbols symbols = currentLocaleSymbols();
+        Buffer buffer = BUFFERS.get();
+        buffer.length = 0;
+        if (prefix != null) {
+            buffer.append(prefix);
+        }
+
+        if (!symbols.supported || !buffer.appendFixed(value, fractionDigits, grouping, symbols)) {
+            String pattern = grouping ? GROUPED_PATTERNS[fractionDigits] : PLAIN_PATTERNS[fractionDigits];
+            String formatted = String.format(pattern, value);
+            if (prefix != null) {
+                formatted = prefix + formatted;
+            }
+            return suffix != '\0' ? formatted + suffix : formatted;
+        }
+
+        if (suffix != '\0') {
+            buffer.append(suffix);
+        }
+        return buffer.toString();
+    }
+
+    // String.format usa el Locale de formato vigente en cada llamada, así que se comprueba si ha cambiado
+    private static LocaleSymbols currentLocaleSymbols() {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        LocaleSymbols symbols = localeSymbols;
+        if (symbols.locale != locale) {
+            symbols = LocaleSymbols.of(locale);
+            localeSymbols = symbols;
+        }
+        return symbols;
+    }
+
+    /**
+     * Separadores y dígitos que Formatter usaría para el Locale
+     */
+    private static final class LocaleSymbols {
+        private final Locale locale;
+        private final char zeroDigit;
+        private final char decimalSeparator;
+        // '\0' si el Locale no agrupa
+        private final char groupingSeparator;
+        private final int groupingSize;
+        // false si no se pueden reproducir las reglas de Formatter para este Locale
+        private final boolean supported;
+
+        private LocaleSymbols(Locale locale, char zeroDigit, char decimalSeparator, char groupingSeparator,
+                int groupingSize, boolean supported) {
+            this.locale = locale;
+            this.zeroDigit = zeroDigit;
+            this.decimalSeparator = decimalSeparator;
+            this.groupingSeparator = groupingSeparator;
+            this.groupingSize = groupingSize;
+            this.supported = supported;
+        }
+
+        static LocaleSymbols of(Locale locale) {
+            DecimalFormatSymbols dfs = DecimalFormatSymbols.getInstance(locale);
+            char groupingSeparator = dfs.getGroupingSeparator();
+            int groupingSize = 3;
+            boolean supported = true;
+
+            if (!locale.equals(Locale.US)) {
+                NumberFormat numberFormat = NumberFormat.getNumberInstance(locale);
+                if (numberFormat instanceof DecimalFormat decimalFormat) {
+                    groupingSize = decimalFormat.getGroupingSize();
+                    if (!decimalFormat.isGroupingUsed() || groupingSize == 0) {
+                        groupingSeparator = '\0';
+                    }
+                } else {
+                    supported = false;
+                }
+            }
+
+            return new LocaleSymbols(locale, dfs.getZeroDigit(), dfs.getDecimalSeparator(),
+                    groupingSeparator, groupingSize, supported);
+        }
+    }
+
+    /**
+     * Búfer de caracteres reutilizado por cada hilo
+     */
+    private static final class Buffer {
+        private char[] chars = new char[64];
+        private int length;
+
+        void append(char c) {
+            ensureCapacity(1);
+            chars[length++] = c;
+        }
+
+        void append(String text) {
+            ensureCapacity(text.length());
+            text.getChars(0, text.length(), chars, length);
+            length += text.length();
+        }
+
+        /**
+         * Escribe el valor con los decimales indicados; devuelve false si hay que delegar en Formatter
+         */
+        boolean appendFixed(double value, int fractionDigits, boolean grouping, LocaleSymbols symbols) {
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                return false;
+            }
+
+            // Formatter pone el signo también a -0.0 y a los negativos que redondean a cero
+            boolean negative = Double.compare(value, 0.0) < 0;
+            double scaled = Math.abs(value) * POWERS_OF_TEN[fractionDigits];
+            if (!(scaled < FAST_PATH_LIMIT)) {
+                return false;
+            }
+
+            long units = (long) scaled;
+            double remainder = scaled - units;
+            if (Math.abs(remainder - 0.5) < TIE_EPSILON) {
+                return false;
+            }
+            if (remainder > 0.5) {
+                units++;
+            }
+
+            if (negative) {
+                append('-');
+            }
+
+            long divisor = POWERS_OF_TEN[fractionDigits];
+            appendInteger(units / divisor, grouping ? symbols.groupingSeparator : '\0', symbols.groupingSize,
+                    symbols.zeroDigit);
+
+            if (fractionDigits > 0) {
+                append(symbols.decimalSeparator);
+                long fraction = units % divisor;
+                for (int i = fractionDigits - 1; i >= 0; i--) {
+                    append((char) (symbols.zeroDigit + (fraction / POWERS_OF_TEN[i]) % 10));
+                }
+            }
+            return true;
+        }
+
+        // Misma regla de inserción de separadores que Formatter.localizedMagnitude
+        private void appendInteger(long value, char groupingSeparator, int groupingSize, char zeroDigit) {
+            int digits = 1;
+            while (digits < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[digits]) {
+                digits++;
+            }
+
+            ensureCapacity(digits * 2);
+            for (int j = 0; j < digits; j++) {
+                chars[length++] = (char) (zeroDigit + (value / POWERS_OF_TEN[digits - 1 - j]) % 10);
+                if (groupingSeparator != '\0' && j != digits - 1 && (digits - j) % groupingSize == 1) {
+                    chars[length++] = groupingSeparator;
+                }
+            }
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > chars.length) {
+                char[] grown = new char[Math.max(chars.length * 2, length + extra)];
+                System.arraycopy(chars, 0, grown, 0, length);
+                chars = grown;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, 0, length);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.spectrasonic.MythicEconomy.database;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Volcado de la caché de saldos contra un proveedor que puede fallar, como una base de datos caída.
+ */
+class CachingEconomyDataProviderTest {
+
+    private static final String CURRENCY = "default";
+    private static final Logger LOGGER = Logger.getLogger("MythicEconomy-test-cache");
+
+    static {
+        LOGGER.setLevel(Level.OFF);
+    }
+
+    // Saldos del proveedor simulado
+    private final Map<UUID, Double> stored = new ConcurrentHashMap<>();
+    private volatile boolean outage;
+
+    private CachingEconomyDataProvider cache;
+
+    @BeforeEach
+    void setUp() {
+        EconomyDataProvider delegate = mock(EconomyDataProvider.class);
+        when(delegate.getBalance(any(UUID.class), eq(CURRENCY)))
+                .thenAnswer(invocation -> stored.getOrDefault(invocation.<UUID>getArgument(0), 0.0));
+        doAnswer(invocation -> {
+            Map<UUID, Double> balances = invocation.getArgument(0);
+            failDuringOutage(balances);
+            stored.putAll(balances);
+            return null;
+        }).when(delegate).setBalances(anyMap(), eq(CURRENCY));
+        doAnswer(invocation -> {
+            Map<UUID, Double> amounts = invocation.getArgument(0);
+            failDuringOutage(amounts);
+            amounts.forEach((playerUUID, amount) -> stored.merge(playerUUID, amount, Double::sum));
+            return null;
+        }).when(delegate).addBalances(anyMap(), eq(CURRENCY));
+        doAnswer(invocation -> {
+            Map<UUID, BalanceDelta> deltas = invocation.getArgument(0);
+            failDuringOutage(deltas);
+            deltas.forEach((playerUUID, change) -> stored.merge(playerUUID, Math.max(0, change.getBalance()),
+                    (current, ignored) -> Math.max(0, current + change.getDelta())));
+            return null;
+        }).when(delegate).applyDeltas(anyMap(), eq(CURRENCY));
+        when(delegate.getTopBalances(eq(CURRENCY), anyInt())).thenAnswer(invocation -> stored.entrySet().stream()
+                .sorted(Map.Entry.<UUID, Double>comparingByValue().reversed())
+                .limit(invocation.<Integer>getArgument(1))
+                .map(entry -> new Object[]{entry.getKey().toString(), entry.getValue()})
+                .toArray(Object[][]::new));
+
+        JavaPlugin plugin = mock(JavaPlugin.class);
+        when(plugin.getLogger()).thenReturn(LOGGER);
+        cache = new CachingEconomyDataProvider(plugin, delegate, 20L);
+    }
+
+    private void failDuringOutage(Map<UUID, ?> batch) {
+        if (outage) {
+            throw new BalanceWriteException("Base de datos caída", batch.keySet());
+        }
+    }
+
+    @Test
+    void failedFlushIsRetried() {
+        UUID player = new UUID(0x464CL, 1L);
+        stored.put(player, 100.0);
+        cache.trackPlayer(player);
+        cache.addBalance(player, 50.0, CURRENCY);
+
+        outage = true;
+        cache.flush();
+        assertEquals(100.0, stored.get(player));
+
+        outage = false;
+        cache.flush();
+        assertEquals(150.0, stored.get(player));
+    }
+
+    @Test
+    void releaseDuringOutageKeepsUnwrittenBalance() {
+        UUID player = new UUID(0x464CL, 2L);
+        stored.put(player, 100.0);
+        cache.trackPlayer(player);
+        cache.removeBalance(player, 30.0, CURRENCY);
+
+        outage = true;
+        cache.releasePlayer(player);
+        assertTrue(cache.isCached(player), "El saldo sin escribir se descartó al salir");
+
+        outage = false;
+        cache.flush();
+        assertEquals(70.0, stored.get(player));
+        assertFalse(cache.isCached(player));
+    }
+
+    @Test
+    void failedDepositsStayPending() {
+        UUID player = new UUID(0x464CL, 3L);
+        stored.put(player, 10.0);
+        cache.depositWriteBehind(player, 5.0, CURRENCY);
+
+        outage = true;
+        cache.flush();
+        assertEquals(10.0, stored.get(player));
+
+        outage = false;
+        cache.flush();
+        assertEquals(15.0, stored.get(player));
+    }
+
+    @Test
+    void flushKeepsExternalChanges() {
+        UUID player = new UUID(0x464CL, 4L);
+        stored.put(player, 100.0);
+        cache.trackPlayer(player);
+        cache.addBalance(player, 25.0, CURRENCY);
+
+        // Otro servidor paga 40 sobre la misma base de datos después de la carga
+        stored.merge(player, 40.0, Double::sum);
+        cache.flush();
+        assertEquals(165.0, stored.get(player));
+    }
+
+    @Test
+    void offlineLoadKeepsPendingDeposits() {
+        UUID player = new UUID(0x464CL, 5L);
+        stored.put(player, 10.0);
+        cache.depositWriteBehind(player, 5.0, CURRENCY);
+
+        cache.loadOffline(player, CURRENCY);
+        assertEquals(15.0, cache.peekBalance(player, CURRENCY));
+
+        cache.flush();
+        assertEquals(15.0, stored.get(player));
+    }
+
+    @Test
+    void lateReleaseKeepsRejoinedSession() {
+        UUID player = new UUID(0x464CL, 6L);
+        stored.put(player, 100.0);
+        cache.trackPlayer(player);
+        long quitSession = cache.getSession(player);
+
+        // El jugador vuelve a entrar antes de que se procese su salida
+        cache.trackPlayer(player);
+        cache.releasePlayer(player, quitSession);
+        cache.addBalance(player, 10.0, CURRENCY);
+        cache.flush();
+
+        assertTrue(cache.isCached(player));
+        assertEquals(110.0, cache.getBalance(player, CURRENCY));
+    }
+
+    @Test
+    void topIncludesUnflushedBalances() {
+        UUID rich = new UUID(0x464CL, 7L);
+        UUID spender = new UUID(0x464CL, 8L);
+        UUID saver = new UUID(0x464CL, 9L);
+        stored.put(rich, 500.0);
+        stored.put(spender, 400.0);
+        stored.put(saver, 100.0);
+        cache.trackPlayer(spender);
+        cache.trackPlayer(saver);
+        cache.removeBalance(spender, 350.0, CURRENCY);
+        cache.addBalance(saver, 900.0, CURRENCY);
+
+        Object[][] top = cache.getTopBalances(CURRENCY, 2);
+        assertEquals(2, top.length);
+        assertEquals(saver.toString(), top[0][0]);
+        assertEquals(1000.0, top[0][1]);
+        assertEquals(rich.toString(), top[1][0]);
+    }
+}
@@ -0,0 +1,58 @@
+package com.spectrasonic.MythicEconomy.leaderboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Posiciones del árbol frente a ordenar todas las cuentas, con altas, cambios de saldo y bajas aleatorias.
+ */
+class OrderStatisticTreeTest {
+
+    private static final Comparator<Map.Entry<UUID, Double>> RANKING_ORDER = Comparator
+            .comparingDouble((Map.Entry<UUID, Double> entry) -> entry.getValue()).reversed()
+            .thenComparing(Map.Entry::getKey);
+
+    @Test
+    void matchesSortedAccounts() {
+        Random random = new Random(42);
+        OrderStatisticTree tree = new OrderStatisticTree();
+        Map<UUID, Double> expected = new HashMap<>();
+        UUID[] accounts = new UUID[3_000];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+
+        for (int step = 0; step < 50_000; step++) {
+            UUID uuid = accounts[random.nextInt(accounts.length)];
+            // Pocos saldos distintos para que haya empates que se desempatan por UUID
+            double balance = random.nextInt(200);
+            if (random.nextInt(10) == 0) {
+                tree.remove(uuid);
+                expected.remove(uuid);
+            } else {
+                tree.put(uuid, balance);
+                expected.put(uuid, balance);
+            }
+        }
+
+        List<Map.Entry<UUID, Double>> sorted = new ArrayList<>(expected.entrySet());
+        sorted.sort(RANKING_ORDER);
+        assertEquals(sorted.size(), tree.size());
+        for (int position = 1; position <= sorted.size(); position++) {
+            Map.Entry<UUID, Double> entry = sorted.get(position - 1);
+            assertEquals(entry.getKey(), tree.uuidAt(position));
+            assertEquals(entry.getValue(), tree.balanceAt(position));
+            assertEquals(position, tree.rankOf(entry.getKey()));
+        }
+        assertEquals(-1, tree.rankOf(new UUID(0L, 0L)));
+    }
+}
@@ -0,0 +1,188 @@
+package com.spectrasonic.MythicEconomy.manager;
+
+import com.spectrasonic.MythicEconomy.database.EconomyDataProvider;
+import com.spectrasonic.MythicEconomy.testing.TestEnvironment;
+
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.spectrasonic.MythicEconomy.testing.TestEnvironment.CURRENCY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Operaciones concurrentes de EconomyManager sobre pocas cuentas, con y sin la caché de saldos.
+ *
+ * Con 4 cuentas y 8 hilos casi todas las operaciones compiten por las mismas franjas de AccountLocks,
+ * así que una secuencia leer-validar-modificar sin bloqueo perdería o duplicaría dinero.
+ */
+class AccountLockingTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 5_000;
+    private static final int ACCOUNTS = 4;
+    private static final double STARTING_BALANCE = 1_000_000.0;
+    private static final double HEADROOM = 2.0;
+
+    private EconomyManager economyManager;
+
+    @AfterEach
+    void shutdown() {
+        if (economyManager != null) {
+            economyManager.shutdown();
+        }
+    }
+
+    @ParameterizedTest(name = "caché = {0}")
+    @ValueSource(booleans = {false, true})
+    @Timeout(60)
+    void transfersConserveTotalMoney(boolean cache) throws Exception {
+        economyManager = TestEnvironment.economyManager(TestEnvironment.internalConfig(cache));
+        Player[] players = seedPlayers(0x5452L, STARTING_BALANCE);
+        double expectedTotal = totalOf(players);
+
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int from = random.nextInt(players.length);
+            int to = random.nextInt(players.length - 1);
+            if (to >= from) {
+                to++;
+            }
+            // Cantidades enteras: las sumas en double son exactas y el total se compara sin tolerancia
+            economyManager.transfer(players[from], players[to], random.nextInt(1, 11), CURRENCY);
+        });
+
+        assertEquals(expectedTotal, totalOf(players), "El dinero total cambió");
+    }
+
+    @ParameterizedTest(name = "caché = {0}")
+    @ValueSource(booleans = {false, true})
+    @Timeout(60)
+    void depositsNeverExceedMaxBalance(boolean cache) throws Exception {
+        economyManager = TestEnvironment.economyManager(TestEnvironment.internalConfig(cache));
+        double maxBalance = economyManager.getCurrencyManager().getCurrency(CURRENCY).getMaxBalance();
+        // Saldo entero para que sumar y restar 1 sea exacto en double
+        double nearMax = Math.floor(maxBalance) - HEADROOM;
+        Player[] players = seedPlayers(0x4D41L, nearMax);
+        LongAdder overflows = new LongAdder();
+
+        runConcurrently(() -> {
+            Player player = players[ThreadLocalRandom.current().nextInt(players.length)];
+            if (economyManager.addMoney(player, 1.0, CURRENCY)) {
+                if (economyManager.getBalance(player, CURRENCY) > maxBalance) {
+                    overflows.increment();
+                }
+                economyManager.removeMoney(player, 1.0, CURRENCY);
+            }
+        });
+
+        assertEquals(0, overflows.sum(), "Se superó el saldo máximo");
+        for (Player player : players) {
+            assertEquals(nearMax, economyManager.getBalance(player, CURRENCY));
+        }
+    }
+
+    @ParameterizedTest(name = "caché = {0}")
+    @ValueSource(booleans = {false, true})
+    @Timeout(60)
+    void listenersEndWithCurrentBalance(boolean cache) throws Exception {
+        economyManager = TestEnvironment.economyManager(TestEnvironment.internalConfig(cache));
+        Player[] players = seedPlayers(0x4C53L, STARTING_BALANCE);
+        Map<UUID, Double> lastSeen = new ConcurrentHashMap<>();
+        economyManager.addBalanceChangeListener((playerUUID, currencyId, newBalance) -> {
+            // Una pausa de duración variable entre recibir el saldo y guardarlo: sin el bloqueo, un cambio
+            // posterior de la misma cuenta podría guardarse antes y quedar pisado por uno anterior
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(50_000));
+            lastSeen.put(playerUUID, newBalance);
+        });
+
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Player player = players[random.nextInt(players.length)];
+            switch (random.nextInt(3)) {
+                case 0 -> economyManager.addMoney(player, random.nextInt(1, 11), CURRENCY);
+                case 1 -> economyManager.removeMoney(player, random.nextInt(1, 11), CURRENCY);
+                default -> economyManager.transfer(player, players[(random.nextInt(1, players.length)
+                        + indexOf(players, player)) % players.length], random.nextInt(1, 11), CURRENCY);
+            }
+        });
+
+        // El último saldo entregado a los oyentes debe ser el vigente, como esperan RankIndex y los rankings
+        for (Player player : players) {
+            assertEquals(economyManager.getBalance(player, CURRENCY), lastSeen.get(player.getUniqueId()),
+                    "Saldo final entregado a los oyentes de " + player.getName());
+        }
+    }
+
+    private Player[] seedPlayers(long prefix, double balance) {
+        EconomyDataProvider provider = economyManager.getDataProvider();
+        Player[] players = new Player[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            UUID uuid = new UUID(prefix, i);
+            provider.setBalance(uuid, balance, CURRENCY);
+            if (economyManager.getBalanceCache() != null) {
+                economyManager.getBalanceCache().trackPlayer(uuid);
+            }
+            players[i] = TestEnvironment.player(uuid, "Player" + i);
+        }
+        return players;
+    }
+
+    private double totalOf(Player[] players) {
+        double total = 0.0;
+        for (Player player : players) {
+            total += economyManager.getBalance(player, CURRENCY);
+        }
+        return total;
+    }
+
+    private static int indexOf(Player[] players, Player player) {
+        for (int i = 0; i < players.length; i++) {
+            if (players[i] == player) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Lanza la operación en todos los hilos a la vez y propaga el primer error
+    private static void runConcurrently(Runnable operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+                        operation.run();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
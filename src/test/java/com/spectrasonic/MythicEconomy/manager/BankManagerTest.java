@@ -0,0 +1,133 @@
+package com.spectrasonic.MythicEconomy.manager;
+
+import com.spectrasonic.MythicEconomy.Main;
+import com.spectrasonic.MythicEconomy.testing.TestEnvironment;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.spectrasonic.MythicEconomy.testing.TestEnvironment.CURRENCY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Saldos de los bancos: depósitos concurrentes sin bloqueo, guardado en banks.yml y eliminación.
+ */
+class BankManagerTest {
+
+    private static final int THREADS = 8;
+    private static final int DEPOSITS_PER_THREAD = 20_000;
+
+    @TempDir
+    File dataFolder;
+
+    private Main plugin;
+    private EconomyManager economyManager;
+    private BankManager bankManager;
+
+    @BeforeEach
+    void setUp() {
+        plugin = TestEnvironment.mockPlugin(TestEnvironment.internalConfig(true), dataFolder);
+        economyManager = TestEnvironment.economyManager(plugin);
+        bankManager = economyManager.getBankManager();
+    }
+
+    @AfterEach
+    void shutdown() {
+        economyManager.shutdown();
+    }
+
+    @Test
+    @Timeout(60)
+    void concurrentDepositsAreSaved() throws Exception {
+        assertNotNull(bankManager.createBank("tax", null));
+        LongAdder deposited = new LongAdder();
+        LongAdder withdrawn = new LongAdder();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                boolean withdrawing = i == 0;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < DEPOSITS_PER_THREAD; j++) {
+                        // Un hilo retira mientras los demás depositan: la retirada consolida los depósitos en curso
+                        if (withdrawing) {
+                            if (bankManager.withdraw("tax", 3.0, CURRENCY)) {
+                                withdrawn.add(3);
+                            }
+                        } else if (bankManager.deposit("tax", 1.0, CURRENCY)) {
+                            deposited.increment();
+                        }
+                        // Guardados concurrentes con los depósitos, como el guardado periódico
+                        if (j % 5_000 == 0) {
+                            bankManager.saveBalances();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        double expected = deposited.sum() - withdrawn.sum();
+        assertEquals(expected, bankManager.getBalance("tax", CURRENCY));
+
+        bankManager.saveBalances();
+        assertEquals(expected, reload().getBalance("tax", CURRENCY), "Saldo guardado en banks.yml");
+    }
+
+    @Test
+    void bankBalancesStayOutOfPlayerBalances() {
+        assertNotNull(bankManager.createBank("server", null));
+        assertTrue(bankManager.deposit("server", 1_000_000.0, CURRENCY));
+        bankManager.saveBalances();
+        economyManager.getBalanceCache().flush();
+
+        assertEquals(0L, economyManager.getDataProvider().getTotalUniquePlayers());
+        assertEquals(0, economyManager.getDataProvider().getTopBalances(CURRENCY, 10).length);
+    }
+
+    @Test
+    void recreatedBankStartsEmpty() {
+        UUID owner = new UUID(0x4F57L, 1L);
+        assertNotNull(bankManager.createBank("shop", owner));
+        assertTrue(bankManager.deposit("shop", 50.0, CURRENCY));
+        bankManager.saveBalances();
+
+        assertTrue(bankManager.deleteBank("shop"));
+        assertNotNull(bankManager.createBank("shop", owner));
+        assertEquals(0.0, bankManager.getBalance("shop", CURRENCY));
+
+        bankManager.saveBalances();
+        assertEquals(0.0, reload().getBalance("shop", CURRENCY));
+    }
+
+    // Otro BankManager sobre la misma carpeta de datos, como tras un reinicio
+    private BankManager reload() {
+        return new BankManager(plugin, economyManager);
+    }
+}
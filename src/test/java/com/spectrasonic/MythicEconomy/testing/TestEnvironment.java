@@ -0,0 +1,238 @@
+package com.spectrasonic.MythicEconomy.testing;
+
+import com.spectrasonic.MythicEconomy.Main;
+import com.spectrasonic.MythicEconomy.manager.EconomyManager;
+import com.spectrasonic.MythicEconomy.utils.MessageUtils;
+
+import io.papermc.paper.plugin.configuration.PluginMeta;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.Server;
+import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.mockito.MockedStatic;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+/**
+ * Servidor de Bukkit y plugin simulados, compartidos por los tests y por los benchmarks
+ * (que los reciben en el test-jar del plugin).
+ *
+ * Las tareas asíncronas sueltas se ejecutan en el acto y las periódicas no se programan, así que
+ * los volcados de la caché, los guardados de los bancos y las reconciliaciones solo ocurren cuando
+ * el test o el benchmark los llama.
+ */
+public final class TestEnvironment {
+
+    public static final String CURRENCY = "default";
+
+    private static final Logger LOGGER = Logger.getLogger("MythicEconomy-test");
+
+    static {
+        // Los avisos se siguen viendo; los mensajes informativos solo ensucian la salida de JUnit y JMH
+        LOGGER.setLevel(Level.WARNING);
+    }
+
+    private TestEnvironment() {
+    }
+
+    /**
+     * Registra el servidor falso en Bukkit una sola vez por JVM
+     */
+    public static synchronized void installServer() {
+        if (Bukkit.getServer() != null) {
+            return;
+        }
+
+        BukkitScheduler scheduler = mock(BukkitScheduler.class);
+        when(scheduler.runTaskAsynchronously(any(Plugin.class), any(Runnable.class))).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return mock(BukkitTask.class);
+        });
+        when(scheduler.runTask(any(Plugin.class), any(Runnable.class))).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return mock(BukkitTask.class);
+        });
+        when(scheduler.runTaskTimer(any(Plugin.class), any(Runnable.class), anyLong(), anyLong()))
+                .thenReturn(mock(BukkitTask.class));
+        when(scheduler.runTaskTimerAsynchronously(any(Plugin.class), any(Runnable.class), anyLong(), anyLong()))
+                .thenReturn(mock(BukkitTask.class));
+
+        // Sin listeners: callEvent no hace nada, como en un servidor sin otros plugins
+        PluginManager pluginManager = noOp(PluginManager.class);
+        ConsoleCommandSender console = noOp(ConsoleCommandSender.class);
+
+        // Proxy y no mock: Bukkit.getPluginManager() pasa por aquí en cada evento
+        InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+            case "getLogger" -> LOGGER;
+            case "getScheduler" -> scheduler;
+            case "getPluginManager" -> pluginManager;
+            case "getConsoleSender" -> console;
+            case "getOnlinePlayers" -> List.of();
+            // Jugadores sin conexión con el nombre "Player" + bits bajos del UUID
+            case "getOfflinePlayer" -> args[0] instanceof UUID uuid
+                    ? offlinePlayer(uuid, "Player" + uuid.getLeastSignificantBits())
+                    : null;
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "Server{test}";
+            default -> defaultValue(method.getReturnType());
+        };
+        Server server = (Server) Proxy.newProxyInstance(Server.class.getClassLoader(), new Class<?>[]{Server.class}, handler);
+
+        // Bukkit.setServer escribe la versión del servidor con ServerBuildInfo, que fuera de Paper no existe
+        try {
+            Field serverField = Bukkit.class.getDeclaredField("server");
+            serverField.setAccessible(true);
+            serverField.set(null, server);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se pudo registrar el servidor de test", e);
+        }
+        initializeMessageUtils();
+    }
+
+    /**
+     * MessageUtils obtiene el plugin con JavaPlugin.getProvidingPlugin al cargarse, lo que solo funciona
+     * con clases cargadas por el servidor; se inicializa una vez con ese método sustituido
+     */
+    private static void initializeMessageUtils() {
+        PluginMeta pluginMeta = mock(PluginMeta.class);
+        when(pluginMeta.getName()).thenReturn("MythicEconomy");
+        JavaPlugin providingPlugin = mock(JavaPlugin.class);
+        when(providingPlugin.getPluginMeta()).thenReturn(pluginMeta);
+
+        try (MockedStatic<JavaPlugin> javaPlugin = mockStatic(JavaPlugin.class, CALLS_REAL_METHODS)) {
+            javaPlugin.when(() -> JavaPlugin.getProvidingPlugin(MessageUtils.class)).thenReturn(providingPlugin);
+            Class.forName(MessageUtils.class.getName(), true, MessageUtils.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Configuración mínima: sistema interno de archivos, con o sin la caché de saldos
+     */
+    public static YamlConfiguration internalConfig(boolean cacheEnabled) {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("database.use-external-database", false);
+        config.set("database.type", "FILE");
+        config.set("database.cache.enabled", cacheEnabled);
+        return config;
+    }
+
+    /**
+     * Plugin falso con la configuración dada y una carpeta de datos temporal nueva
+     */
+    public static Main mockPlugin(YamlConfiguration config) {
+        File dataFolder;
+        try {
+            dataFolder = Files.createTempDirectory("mythiceconomy-test").toFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        dataFolder.deleteOnExit();
+        return mockPlugin(config, dataFolder);
+    }
+
+    /**
+     * Plugin falso con la configuración dada y la carpeta de datos indicada
+     */
+    public static Main mockPlugin(YamlConfiguration config, File dataFolder) {
+        installServer();
+
+        Main plugin = mock(Main.class);
+        when(plugin.getConfig()).thenReturn(config);
+        when(plugin.getLogger()).thenReturn(LOGGER);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        when(plugin.getName()).thenReturn("MythicEconomy");
+        return plugin;
+    }
+
+    /**
+     * EconomyManager real sobre el sistema interno en una carpeta temporal nueva
+     */
+    public static EconomyManager economyManager(YamlConfiguration config) {
+        return economyManager(mockPlugin(config));
+    }
+
+    /**
+     * EconomyManager real para el plugin dado; el plugin lo devuelve en getEconomyManager()
+     */
+    public static EconomyManager economyManager(Main plugin) {
+        EconomyManager economyManager = new EconomyManager(plugin);
+        when(plugin.getEconomyManager()).thenReturn(economyManager);
+        return economyManager;
+    }
+
+    /**
+     * Jugador conectado falso; solo responde a getUniqueId, getName, getPlayer e isOnline.
+     * Es un proxy y no un mock de Mockito: cada llamada a un mock cuesta microsegundos y taparía lo medido
+     */
+    public static Player player(UUID uuid, String name) {
+        return playerProxy(Player.class, uuid, name, true);
+    }
+
+    /**
+     * Jugador sin conexión falso con el nombre dado
+     */
+    public static OfflinePlayer offlinePlayer(UUID uuid, String name) {
+        return playerProxy(OfflinePlayer.class, uuid, name, false);
+    }
+
+    private static <T extends OfflinePlayer> T playerProxy(Class<T> type, UUID uuid, String name, boolean online) {
+        Object[] self = new Object[1];
+        InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+            case "getUniqueId" -> uuid;
+            case "getName" -> name;
+            case "getPlayer" -> online ? self[0] : null;
+            case "isOnline" -> online;
+            case "hashCode" -> uuid.hashCode();
+            case "equals" -> proxy == args[0];
+            case "toString" -> type.getSimpleName() + "{" + name + "}";
+            default -> defaultValue(method.getReturnType());
+        };
+        self[0] = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+        return type.cast(self[0]);
+    }
+
+    private static <T> T noOp(Class<T> type) {
+        InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> type.getSimpleName() + "{no-op}";
+            default -> defaultValue(method.getReturnType());
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        return type == boolean.class ? false : type == char.class ? '\0' : Array.get(Array.newInstance(type, 1), 0);
+    }
+}